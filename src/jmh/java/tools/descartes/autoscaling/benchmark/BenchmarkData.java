@@ -0,0 +1,111 @@
+package tools.descartes.autoscaling.benchmark;
+
+import smile.data.DataFrame;
+import smile.data.vector.BaseVector;
+import smile.data.vector.DoubleVector;
+import smile.data.vector.IntVector;
+import smile.data.vector.LongVector;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.SimpleMetric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible synthetic inputs of the requested sizes for the benchmarks
+ */
+final class BenchmarkData {
+
+    static final String INSTANCES = "instances";
+    static final String KPI = "response_time";
+    static final long START = 1_600_000_000_000L;
+    static final long MINUTE = 60_000;
+
+    private BenchmarkData() {
+    }
+
+    static String app(int index) {
+        return "app" + index;
+    }
+
+    static String metric(int index) {
+        return "metric" + index;
+    }
+
+    /**
+     * @return a Prometheus range query response with one series per app and samples values each
+     */
+    static String matrixJson(int apps, int samples, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder("{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":[");
+        for (int app = 0; app < apps; app++) {
+            if (app > 0) json.append(',');
+            json.append("{\"metric\":{\"__name__\":\"cpu\",\"app\":\"").append(app(app))
+                    .append("\",\"instance\":\"0\"},\"values\":[");
+            for (int sample = 0; sample < samples; sample++) {
+                if (sample > 0) json.append(',');
+                json.append('[').append((START + sample * 15_000L) / 1000.0).append(",\"")
+                        .append(random.nextDouble()).append("\"]");
+            }
+            json.append("]}");
+        }
+        return json.append("]}}").toString();
+    }
+
+    /**
+     * @return training data of one app with the time, action, instances and KPI columns and features metrics
+     */
+    static DataFrame trainingData(int samples, int features, long seed) {
+        Random random = new Random(seed);
+        long[] times = new long[samples];
+        int[] actions = new int[samples];
+        double[] instances = new double[samples];
+        double[] kpi = new double[samples];
+        double[][] metrics = new double[features][samples];
+        int current = 1;
+        for (int row = 0; row < samples; row++) {
+            times[row] = START + row * MINUTE;
+            actions[row] = random.nextInt(3) - 1;
+            current = Math.max(1, Math.min(10, current + actions[row]));
+            instances[row] = current;
+            double load = 50 + 40 * Math.sin(row * 2 * Math.PI / 1440) + random.nextGaussian() * 5;
+            kpi[row] = 0.05 / Math.max(0.01, 1 - Math.min(0.99, load / (current * 25)));
+            for (int feature = 0; feature < features; feature++) {
+                metrics[feature][row] = load * (feature + 1) / current + random.nextGaussian();
+            }
+        }
+        List<BaseVector<?, ?, ?>> vectors = new ArrayList<>();
+        vectors.add(LongVector.of("time", times));
+        vectors.add(IntVector.of("action", actions));
+        vectors.add(DoubleVector.of(INSTANCES, instances));
+        vectors.add(DoubleVector.of(KPI, kpi));
+        for (int feature = 0; feature < features; feature++) {
+            vectors.add(DoubleVector.of(metric(feature), metrics[feature]));
+        }
+        return DataFrame.of(vectors.toArray(new BaseVector[0]));
+    }
+
+    /**
+     * @return one measurement of each feature, the instances and the KPI of the app
+     */
+    static List<Metric> measurements(String app, int features, long seed) {
+        Random random = new Random(seed);
+        List<Metric> measurements = new ArrayList<>();
+        measurements.add(new SimpleMetric(INSTANCES, app, 1 + random.nextInt(10)));
+        measurements.add(new SimpleMetric(KPI, app, random.nextDouble()));
+        for (int feature = 0; feature < features; feature++) {
+            measurements.add(new SimpleMetric(metric(feature), app, random.nextDouble() * 100));
+        }
+        return measurements;
+    }
+
+    static List<ScalingProperties.KPIProperties> kpis() {
+        ScalingProperties.KPIProperties kpi = new ScalingProperties.KPIProperties();
+        kpi.setName(KPI);
+        kpi.setSlo(0.2);
+        return Collections.singletonList(kpi);
+    }
+}
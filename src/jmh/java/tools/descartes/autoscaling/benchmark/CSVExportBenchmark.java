@@ -0,0 +1,70 @@
+package tools.descartes.autoscaling.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+import tools.descartes.autoscaling.training.io.csv.CSVTrainingDataExporter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Export of the measurements of all apps of one cycle to CSV files, which runs once per export period
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CSVExportBenchmark {
+
+    @Param({"10", "100"})
+    public int apps;
+
+    @Param({"5", "50"})
+    public int metrics;
+
+    private List<Metric> measurements;
+    private Path directory;
+    private CSVTrainingDataExporter exporter;
+    private long time;
+
+    @Setup(Level.Trial)
+    public void setupMeasurements() {
+        measurements = new ArrayList<>();
+        for (int app = 0; app < apps; app++) {
+            measurements.addAll(BenchmarkData.measurements(BenchmarkData.app(app), metrics, app));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupExporter() throws IOException {
+        directory = Files.createTempDirectory("csv-export-benchmark");
+        TrainingProperties.ExportProperties exportProperties = new TrainingProperties.ExportProperties();
+        exportProperties.setDirectory(directory.toString());
+        exporter = new CSVTrainingDataExporter(new MissingValueStrategyWrapper(), exportProperties);
+        time = BenchmarkData.START;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownExporter() throws IOException {
+        exporter.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void commitMeasurements() {
+        time += BenchmarkData.MINUTE;
+        exporter.commitMeasurements(time, measurements);
+    }
+}
@@ -0,0 +1,83 @@
+package tools.descartes.autoscaling.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import smile.data.DataFrame;
+import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+import tools.descartes.autoscaling.training.io.database.JdbcTrainingDataExporter;
+import tools.descartes.autoscaling.training.io.database.JdbcTrainingDataImporter;
+import tools.descartes.autoscaling.training.io.database.JsonMetric;
+import tools.descartes.autoscaling.training.io.database.MeasurementJdbcEntity;
+import tools.descartes.autoscaling.training.io.database.MeasurementJdbcRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import of the training data of one app from an in-memory H2 database, including the parsing of the json clobs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcImportBenchmark {
+
+    private static final String APP = "app0";
+
+    @Param({"1000", "10000"})
+    public int samples;
+
+    @Param({"5", "50"})
+    public int metrics;
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTrainingDataImporter importer;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE measurements (app VARCHAR(60) NOT NULL, "
+                + "measurement_time TIMESTAMP WITHOUT TIME ZONE NOT NULL, measurement_json TEXT NOT NULL, "
+                + "actions INTEGER NOT NULL, PRIMARY KEY (app, measurement_time))");
+        MeasurementJdbcRepository repository = new MeasurementJdbcRepository(jdbcTemplate);
+        ObjectMapper objectMapper = new ObjectMapper();
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        List<MeasurementJdbcEntity> entities = new ArrayList<>();
+        for (int row = 0; row < samples; row++) {
+            List<JsonMetric> values = new ArrayList<>();
+            for (int metric = 0; metric < metrics; metric++) {
+                values.add(new JsonMetric(BenchmarkData.metric(metric), random.nextDouble()));
+            }
+            long time = now - (samples - row) * BenchmarkData.MINUTE;
+            entities.add(new MeasurementJdbcEntity(JdbcTrainingDataExporter.systemMillisToLocalDateTime(time), APP,
+                    objectMapper.writeValueAsString(values), random.nextInt(3) - 1));
+        }
+        repository.insert(entities);
+
+        TrainingProperties trainingProperties = new TrainingProperties();
+        trainingProperties.setTrainingLookbackDays(samples / 1440 + 2);
+        importer = new JdbcTrainingDataImporter(trainingProperties, repository, new MissingValueStrategyWrapper(),
+                objectMapper);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE measurements");
+    }
+
+    @Benchmark
+    public DataFrame getTrainingDataForApp() {
+        return importer.getTrainingDataForApp(APP);
+    }
+}
@@ -0,0 +1,43 @@
+package tools.descartes.autoscaling.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import smile.data.DataFrame;
+import tools.descartes.autoscaling.learning.IRLModel;
+import tools.descartes.autoscaling.learning.reward.ImprovedRewardFunction;
+import tools.descartes.autoscaling.metrics.missing.ConstantStrategy;
+import tools.descartes.autoscaling.training.smile.SMILEModelTrainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Training of a model of one app including the cleaning of the data and the reward calculation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ModelTrainingBenchmark {
+
+    @Param({"500", "5000"})
+    public int samples;
+
+    @Param({"5", "50"})
+    public int features;
+
+    private DataFrame data;
+    private SMILEModelTrainer trainer;
+
+    @Setup
+    public void setup() {
+        data = BenchmarkData.trainingData(samples, features, 42);
+        trainer = new SMILEModelTrainer("app0", new ImprovedRewardFunction(), BenchmarkData.kpis(),
+                BenchmarkData.INSTANCES, new ConstantStrategy(-1));
+    }
+
+    @Benchmark
+    public IRLModel trainModel() {
+        return trainer.trainModel(data);
+    }
+}
@@ -0,0 +1,50 @@
+package tools.descartes.autoscaling.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.prometheus.MatrixResult;
+import tools.descartes.autoscaling.metrics.prometheus.SimpleMetricAggregator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding and aggregation of Prometheus range query responses, which runs for every metric in every scaling cycle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrometheusBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int apps;
+
+    @Param({"4", "40"})
+    public int samples;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMetricAggregator aggregator = new SimpleMetricAggregator(".*", "^$");
+    private String json;
+    private MatrixResult matrix;
+
+    @Setup
+    public void setup() throws IOException {
+        json = BenchmarkData.matrixJson(apps, samples, 42);
+        matrix = objectMapper.readValue(json, MatrixResult.class);
+    }
+
+    @Benchmark
+    public MatrixResult decodeMatrixResult() throws IOException {
+        return objectMapper.readValue(json, MatrixResult.class);
+    }
+
+    @Benchmark
+    public List<Metric> aggregateMetrics() {
+        return aggregator.aggregateMetrics(matrix);
+    }
+}
@@ -0,0 +1,51 @@
+package tools.descartes.autoscaling.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import smile.data.DataFrame;
+import tools.descartes.autoscaling.learning.IRLModel;
+import tools.descartes.autoscaling.learning.actionspace.ActionSpace;
+import tools.descartes.autoscaling.learning.reward.ImprovedRewardFunction;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.missing.ConstantStrategy;
+import tools.descartes.autoscaling.training.smile.SMILEModelTrainer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inference of a trained model, which runs for every app in every proactive scaling cycle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SMILEModelBenchmark {
+
+    @Param({"500", "5000"})
+    public int samples;
+
+    @Param({"5", "50"})
+    public int features;
+
+    private final ActionSpace actionSpace = ActionSpace.getDefaultActionSpace();
+    private IRLModel model;
+    private List<Metric> measurements;
+
+    @Setup
+    public void setup() {
+        DataFrame data = BenchmarkData.trainingData(samples, features, 42);
+        SMILEModelTrainer trainer = new SMILEModelTrainer("app0", new ImprovedRewardFunction(),
+                BenchmarkData.kpis(), BenchmarkData.INSTANCES, new ConstantStrategy(-1));
+        model = trainer.trainModel(data);
+        if (model == null) throw new IllegalStateException("No model could be trained");
+        measurements = BenchmarkData.measurements("app0", features, 7);
+    }
+
+    @Benchmark
+    public Map<Integer, Double> predictValuesPerAction() {
+        return model.predictValuesPerAction(measurements, actionSpace);
+    }
+}
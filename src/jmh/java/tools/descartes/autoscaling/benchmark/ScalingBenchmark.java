@@ -0,0 +1,90 @@
+package tools.descartes.autoscaling.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.scaling.ConstraintEnforcer;
+import tools.descartes.autoscaling.scaling.Scaler;
+import tools.descartes.autoscaling.scaling.ScalingLogic;
+import tools.descartes.autoscaling.scaling.ScalingRequest;
+import tools.descartes.autoscaling.simulation.VirtualClock;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging the requests of the safety, reactive and proactive scalers and enforcing the constraints on the result,
+ * which runs once per scaling cycle over all apps
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScalingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int apps;
+
+    private final List<Metric> data = Collections.emptyList();
+    private final Map<String, Integer> lastActions = new HashMap<>();
+    private final Map<String, Integer> currentInstances = new HashMap<>();
+    private ScalingLogic combined;
+    private List<ScalingRequest> merged;
+    private ConstraintEnforcer constraintEnforcer;
+    private VirtualClock clock;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<ScalingRequest> safety = new ArrayList<>();
+        List<ScalingRequest> reactive = new ArrayList<>();
+        List<ScalingRequest> proactive = new ArrayList<>();
+        List<RulesProperties.ScalingExpression> rules = new ArrayList<>();
+        for (int i = 0; i < apps; i++) {
+            String app = BenchmarkData.app(i);
+            currentInstances.put(app, 1 + random.nextInt(10));
+            proactive.add(new ScalingRequest(app, 1 + random.nextInt(10)));
+            if (random.nextBoolean()) reactive.add(new ScalingRequest(app, 1 + random.nextInt(10)));
+            if (random.nextInt(10) == 0) safety.add(new ScalingRequest(app, 1 + random.nextInt(10)));
+            if (random.nextInt(10) == 0) {
+                RulesProperties.ScalingExpression rule = new RulesProperties.ScalingExpression();
+                rule.setApp(app);
+                rule.setRelation(RulesProperties.ScalingExpression.Relation.SMALLER_EQUAL);
+                rule.setValue(8);
+                rules.add(rule);
+            }
+        }
+        combined = Scaler.combine((d, a) -> safety, (d, a) -> reactive, (d, a) -> proactive);
+        merged = combined.calculateScaling(data, lastActions);
+
+        RulesProperties rulesProperties = new RulesProperties();
+        rulesProperties.setRules(rules);
+        ScalingProperties scalingProperties = new ScalingProperties();
+        ScalingProperties.ScalingDirectionProperties upscale = new ScalingProperties.ScalingDirectionProperties();
+        upscale.setLimit(2);
+        upscale.setTimeout(60);
+        scalingProperties.setUpscale(upscale);
+        ScalingProperties.ScalingDirectionProperties downscale = new ScalingProperties.ScalingDirectionProperties();
+        downscale.setLimit(1);
+        downscale.setTimeout(300);
+        scalingProperties.setDownscale(downscale);
+        clock = new VirtualClock(BenchmarkData.START);
+        constraintEnforcer = new ConstraintEnforcer(rulesProperties, scalingProperties, clock);
+    }
+
+    @Benchmark
+    public List<ScalingRequest> mergeRequests() {
+        return combined.calculateScaling(data, lastActions);
+    }
+
+    @Benchmark
+    public List<ScalingRequest> enforceConstraints() {
+        // every invocation is a new cycle after all timeouts, so that no request is dropped early
+        clock.advance(Duration.ofHours(1));
+        return constraintEnforcer.enforce(merged, currentInstances::get);
+    }
+}
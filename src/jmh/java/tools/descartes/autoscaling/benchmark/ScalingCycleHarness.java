@@ -0,0 +1,161 @@
+package tools.descartes.autoscaling.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.descartes.autoscaling.AutoscalerApplication;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.scaling.CycleListener;
+import tools.descartes.autoscaling.scaling.CyclePhase;
+import tools.descartes.autoscaling.scaling.CycleTimings;
+import tools.descartes.autoscaling.scaling.Scaler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the autoscaler against the simulated CloudFoundry and the Prometheus stub and runs full scaling cycles one
+ * after another, for each of the configured numbers of apps. Reports the latency distribution of each
+ * {@link CyclePhase} and of the whole cycle and the heap allocated per cycle, and whether the cycle fits into
+ * {@code scaling.timeout}.
+ * <p>
+ * Options: {@code --apps=10,100,1000 --cycles=100 --warmup=10 --output=target/cycle-benchmark.json}, all other
+ * {@code --<property>=<value>} arguments override the configuration in {@code cycle-benchmark.yml}.
+ */
+public class ScalingCycleHarness {
+
+    private static final long CYCLE_TIMEOUT_MINUTES = 10;
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> scales = new ArrayList<>(Arrays.asList(10, 100, 1000));
+        int cycles = 100;
+        int warmup = 10;
+        String output = "target/cycle-benchmark.json";
+        Map<String, String> overrides = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+                case "apps":
+                    scales.clear();
+                    for (String scale : value.split(",")) scales.add(Integer.parseInt(scale.trim()));
+                    break;
+                case "cycles": cycles = Integer.parseInt(value); break;
+                case "warmup": warmup = Integer.parseInt(value); break;
+                case "output": output = value; break;
+                default: overrides.put(key, value);
+            }
+        }
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int apps : scales) {
+            results.add(run(apps, cycles, warmup, overrides));
+        }
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        File file = new File(output);
+        if (file.getParentFile() != null) file.getParentFile().mkdirs();
+        objectMapper.writeValue(file, results);
+        System.out.println("Results written to " + file.getAbsolutePath());
+    }
+
+    private static Map<String, Object> run(int apps, int cycles, int warmup, Map<String, String> overrides)
+            throws InterruptedException, IOException {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.config.name", "cycle-benchmark");
+        properties.put("simulation.cloudfoundry.apps", String.valueOf(apps));
+        properties.put("training.exporter.directory", "target/cycle-benchmark/" + apps);
+        for (int app = 0; app < apps; app++) {
+            properties.put("scaling.kpis." + BenchmarkData.app(app) + "[0].name", "response_time_seconds");
+            properties.put("scaling.kpis." + BenchmarkData.app(app) + "[0].slo", "0.2");
+        }
+        properties.putAll(overrides);
+        new File(properties.get("training.exporter.directory")).mkdirs();
+        List<String> springArgs = new ArrayList<>();
+        properties.forEach((key, value) -> springArgs.add("--" + key + "=" + value));
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(AutoscalerApplication.class,
+                springArgs.toArray(new String[0]))) {
+            Scaler scaler = context.getBean(Scaler.class);
+            ScalingProperties scalingProperties = context.getBean(ScalingProperties.class);
+            BlockingQueue<CycleTimings> completed = new LinkedBlockingQueue<>();
+            CycleListener listener = completed::add;
+            scaler.addCycleListener(listener);
+            scaler.init();
+            List<CycleTimings> measured = new ArrayList<>();
+            for (int cycle = 0; cycle < warmup + cycles; cycle++) {
+                scaler.scalingTick(null);
+                CycleTimings timings = completed.poll(CYCLE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+                if (timings == null) throw new IllegalStateException("Cycle " + cycle + " did not complete");
+                if (cycle >= warmup) measured.add(timings);
+            }
+            scaler.removeCycleListener(listener);
+            Map<String, Object> result = summarize(apps, measured, scalingProperties.getTimeout());
+            print(result);
+            return result;
+        }
+    }
+
+    private static Map<String, Object> summarize(int apps, List<CycleTimings> cycles, int timeoutSeconds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("apps", apps);
+        result.put("cycles", cycles.size());
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (CyclePhase phase : CyclePhase.values()) {
+            phases.put(phase.name(), distribution(cycles.stream().mapToLong(c -> c.getNanos(phase)).toArray(), 1e6));
+        }
+        result.put("phasesMillis", phases);
+        Map<String, Double> total = distribution(
+                cycles.stream().mapToLong(CycleTimings::getTotalNanos).toArray(), 1e6);
+        result.put("cycleMillis", total);
+        result.put("allocatedKilobytes",
+                distribution(cycles.stream().mapToLong(CycleTimings::getAllocatedBytes).toArray(), 1024));
+        result.put("requests", distribution(cycles.stream().mapToLong(CycleTimings::getRequests).toArray(), 1));
+        result.put("scalingTimeoutMillis", timeoutSeconds * 1000L);
+        result.put("fitsIntoTimeout", total.get("max") < timeoutSeconds * 1000.0);
+        return result;
+    }
+
+    /**
+     * @return p50, p99 and max of the values divided by the unit
+     */
+    private static Map<String, Double> distribution(long[] values, double unit) {
+        Arrays.sort(values);
+        Map<String, Double> distribution = new LinkedHashMap<>();
+        distribution.put("p50", values.length == 0 ? 0 : percentile(values, 0.5) / unit);
+        distribution.put("p99", values.length == 0 ? 0 : percentile(values, 0.99) / unit);
+        distribution.put("max", values.length == 0 ? 0 : values[values.length - 1] / unit);
+        return distribution;
+    }
+
+    /**
+     * @return the nearest-rank percentile of the sorted values
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> result) {
+        System.out.println();
+        System.out.println("apps=" + result.get("apps") + " cycles=" + result.get("cycles") + " fitsIntoTimeout="
+                + result.get("fitsIntoTimeout") + " (" + result.get("scalingTimeoutMillis") + " ms)");
+        System.out.println(String.format("%-24s %12s %12s %12s", "phase [ms]", "p50", "p99", "max"));
+        Map<String, Map<String, Double>> phases = (Map<String, Map<String, Double>>) result.get("phasesMillis");
+        phases.forEach((phase, distribution) -> printRow(phase, distribution));
+        printRow("CYCLE", (Map<String, Double>) result.get("cycleMillis"));
+        printRow("ALLOCATED [KB]", (Map<String, Double>) result.get("allocatedKilobytes"));
+    }
+
+    private static void printRow(String name, Map<String, Double> distribution) {
+        System.out.println(String.format("%-24s %12.3f %12.3f %12.3f", name, distribution.get("p50"),
+                distribution.get("p99"), distribution.get("max")));
+    }
+}
@@ -3,7 +3,14 @@ package tools.descartes.autoscaling.cloudfoundry;
 import tools.descartes.autoscaling.scaling.ScalingRequest;
 import tools.descartes.autoscaling.scaling.ScalingResponse;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementing classes provide access to a CloudFoundry management plane
@@ -16,6 +23,16 @@ public interface CFConnector {
      */
     Map<String, Integer> getAppInstances();
 
+    /**
+     * Gets the states of the instances of apps on CloudFoundry
+     * @return a map containing app names as keys and instance states as values
+     */
+    default Map<String, InstanceState> getInstanceStates() {
+        Map<String, InstanceState> states = new HashMap<>();
+        getAppInstances().forEach((app, desired) -> states.put(app, InstanceState.allRunning(desired)));
+        return states;
+    }
+
     /**
      * Performs scaling defined in the provided ScalingRequest
      * @param sr ScalingRequest containing which app to scale and how many instances
@@ -23,4 +40,28 @@ public interface CFConnector {
      */
     ScalingResponse scaleApp(ScalingRequest sr);
 
+    /**
+     * Performs scaling defined in the provided ScalingRequest without blocking the caller
+     * @param sr ScalingRequest containing which app to scale and how many instances
+     * @return Mono emitting the ScalingResponse including the request and its latency
+     */
+    default Mono<ScalingResponse> scaleAppAsync(ScalingRequest sr) {
+        return Mono.fromCallable(() -> {
+            long start = System.nanoTime();
+            ScalingResponse response = scaleApp(sr);
+            return new ScalingResponse(sr, response.isSuccess(), response.getMessage(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Performs the scaling of all provided requests concurrently
+     * @param requests the requests to perform
+     * @param concurrency maximum number of requests in flight at any time
+     * @return Flux emitting the ScalingResponse of each request as soon as it is completed
+     */
+    default Flux<ScalingResponse> scaleApps(List<ScalingRequest> requests, int concurrency) {
+        return Flux.fromIterable(requests).flatMap(this::scaleAppAsync, Math.max(1, concurrency));
+    }
+
 }
@@ -1,8 +1,12 @@
 package tools.descartes.autoscaling.cloudfoundry;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import tools.descartes.autoscaling.config.CloudFoundryProperties;
 import tools.descartes.autoscaling.config.MetricsProperties;
+import tools.descartes.autoscaling.simulation.CloudFoundrySimulation;
+import tools.descartes.autoscaling.simulation.SimulatedCFConnector;
 
 /**
  * A wrapper class which instantiates a concrete CFConnector
@@ -11,8 +15,26 @@ import tools.descartes.autoscaling.config.MetricsProperties;
 public class CFConnectorWrapper {
     private final CFConnector cfConnector;
 
-    public CFConnectorWrapper(CloudFoundryProperties cfProperties, MetricsProperties metricsProperties) {
-        cfConnector = new LibCFConnector(cfProperties, metricsProperties.getEurekaToCloudfoundryNames());
+    @Autowired
+    public CFConnectorWrapper(CloudFoundryProperties cfProperties, MetricsProperties metricsProperties,
+                              CloudFoundrySimulation simulation, MeterRegistry meterRegistry) {
+        if (!simulation.isEnabled()) {
+            cfConnector = new LibCFConnector(cfProperties, metricsProperties.getEurekaToCloudfoundryNames(),
+                    meterRegistry);
+        } else if (simulation.getStub() != null) {
+            cfConnector = new LibCFConnector(simulation.stubProperties(cfProperties),
+                    metricsProperties.getEurekaToCloudfoundryNames(), meterRegistry);
+        } else {
+            cfConnector = new SimulatedCFConnector(simulation.getCloudFoundry(),
+                    metricsProperties.getEurekaToCloudfoundryNames());
+        }
+    }
+
+    /**
+     * Wraps the provided CFConnector, e.g. a simulated one outside of the application context
+     */
+    public CFConnectorWrapper(CFConnector cfConnector) {
+        this.cfConnector = cfConnector;
     }
 
     /**
@@ -0,0 +1,33 @@
+package tools.descartes.autoscaling.cloudfoundry;
+
+import jdk.jfr.*;
+
+/**
+ * A flight recorder event spanning one operation on the CloudFoundry API, which may consist of several paginated
+ * requests
+ */
+@Name("tools.descartes.autoscaling.CloudFoundryRequest")
+@Label("CloudFoundry Request")
+@Category({"Autoscaler", "CloudFoundry"})
+@Description("An operation on the CloudFoundry API")
+@StackTrace(false)
+class CloudFoundryRequestEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("App")
+    @Description("The scaled app, null for operations on all apps")
+    String app;
+
+    @Label("Instances")
+    @Description("Target instances of a scale operation")
+    int instances;
+
+    @Label("Apps")
+    @Description("Number of apps returned by operations on all apps")
+    int apps;
+
+    @Label("Outcome")
+    String outcome;
+}
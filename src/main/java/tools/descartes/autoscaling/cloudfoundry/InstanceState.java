@@ -0,0 +1,54 @@
+package tools.descartes.autoscaling.cloudfoundry;
+
+/**
+ * The numbers of desired, running, starting and crashed instances of an app
+ */
+public class InstanceState {
+    private final int desired;
+    private final int running;
+    private final int starting;
+    private final int crashed;
+
+    public InstanceState(int desired, int running, int starting, int crashed) {
+        this.desired = desired;
+        this.running = running;
+        this.starting = starting;
+        this.crashed = crashed;
+    }
+
+    /**
+     * @return a state in which all desired instances are running, if no statistics are available
+     */
+    public static InstanceState allRunning(int desired) {
+        return new InstanceState(desired, desired, 0, 0);
+    }
+
+    public int getDesired() {
+        return desired;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    public int getStarting() {
+        return starting;
+    }
+
+    public int getCrashed() {
+        return crashed;
+    }
+
+    /**
+     * @return whether instances are currently starting
+     */
+    public boolean isWarmingUp() {
+        return starting > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "InstanceState{desired=" + desired + ", running=" + running + ", starting=" + starting
+                + ", crashed=" + crashed + "}";
+    }
+}
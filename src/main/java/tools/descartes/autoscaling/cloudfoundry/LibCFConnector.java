@@ -1,26 +1,46 @@
 package tools.descartes.autoscaling.cloudfoundry;
 
-import org.cloudfoundry.client.v3.applications.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.cloudfoundry.client.v3.applications.ApplicationResource;
+import org.cloudfoundry.client.v3.applications.ListApplicationsRequest;
+import org.cloudfoundry.client.v3.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationsRequest;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationsResponse;
+import org.cloudfoundry.client.v3.organizations.OrganizationResource;
 import org.cloudfoundry.client.v3.processes.GetProcessStatisticsRequest;
-import org.cloudfoundry.client.v3.processes.GetProcessStatisticsResponse;
+import org.cloudfoundry.client.v3.processes.ListProcessesRequest;
+import org.cloudfoundry.client.v3.processes.ListProcessesResponse;
+import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.processes.ProcessState;
 import org.cloudfoundry.client.v3.processes.ProcessStatisticsResource;
+import org.cloudfoundry.client.v3.spaces.ListSpacesRequest;
+import org.cloudfoundry.client.v3.spaces.ListSpacesResponse;
+import org.cloudfoundry.client.v3.spaces.SpaceResource;
 import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
-import org.cloudfoundry.operations.applications.ApplicationSummary;
 import org.cloudfoundry.operations.applications.ScaleApplicationRequest;
 import org.cloudfoundry.reactor.ConnectionContext;
 import org.cloudfoundry.reactor.DefaultConnectionContext;
 import org.cloudfoundry.reactor.client.ReactorCloudFoundryClient;
 import org.cloudfoundry.reactor.tokenprovider.PasswordGrantTokenProvider;
+import org.cloudfoundry.util.PaginationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 import tools.descartes.autoscaling.config.CloudFoundryProperties;
 import tools.descartes.autoscaling.scaling.ScalingRequest;
 import tools.descartes.autoscaling.scaling.ScalingResponse;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 /**
@@ -30,20 +50,42 @@ public class LibCFConnector implements CFConnector {
 
     private static final Logger logger = LoggerFactory.getLogger(LibCFConnector.class);
 
+    private static final int PAGE_SIZE = 100;
+    private static final int STATISTICS_CONCURRENCY = 8;
+
     private final Pattern includeRegex;
     private final Pattern excludeRegex;
     private final ReactorCloudFoundryClient cloudFoundryClient;
     private final DefaultCloudFoundryOperations cloudFoundryOperations;
     private final Map<String, String> eurekaToCloudfoundryNames;
+    private final String organization;
+    private final String space;
+    private final MeterRegistry meterRegistry;
+    private volatile String spaceId;
 
     public LibCFConnector(CloudFoundryProperties cfProperties, Map<String, String> eurekaToCloudfoundryNames
     ) {
+        this(cfProperties, eurekaToCloudfoundryNames, Metrics.globalRegistry);
+    }
+
+    /**
+     * @param meterRegistry registry of the request latencies
+     */
+    public LibCFConnector(CloudFoundryProperties cfProperties, Map<String, String> eurekaToCloudfoundryNames,
+                          MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
         this.includeRegex = Pattern.compile(cfProperties.getIncludeappregex());
         this.excludeRegex = Pattern.compile(cfProperties.getExcludeappregex());
         this.eurekaToCloudfoundryNames = eurekaToCloudfoundryNames;
+        this.organization = cfProperties.getOrganization();
+        this.space = cfProperties.getSpace();
         ConnectionContext context = DefaultConnectionContext.builder()
-                .skipSslValidation(true)
-                .apiHost("api." + cfProperties.getDomain())
+                // the certificate is trusted with an SSL handshake, which is not possible via http
+                .skipSslValidation(cfProperties.isSecure() && cfProperties.isSkipSslValidation())
+                .apiHost(cfProperties.getApiHost() != null ? cfProperties.getApiHost()
+                        : "api." + cfProperties.getDomain())
+                .port(Optional.ofNullable(cfProperties.getPort()))
+                .secure(cfProperties.isSecure())
                 .build();
         PasswordGrantTokenProvider tokenProvider = PasswordGrantTokenProvider.builder()
                 .password(cfProperties.getPassword())
@@ -60,51 +102,180 @@ public class LibCFConnector implements CFConnector {
                 .build();
     }
 
+    /**
+     * Lists the web process instances of all apps in the space using the paginated v3 APIs
+     */
     @Override
     public Map<String, Integer> getAppInstances() {
-        return getApps()
-                .collectMap(ApplicationSummary::getName, ApplicationSummary::getInstances)
-                .block();
+        return timed("app_instances", () -> getSpaceId()
+                .flatMap(spaceId -> Mono.zip(listAppNames(spaceId), listWebProcessInstances(spaceId)))
+                .map(appsAndInstances -> {
+                    Map<String, Integer> result = new HashMap<>();
+                    appsAndInstances.getT1().forEach((appId, name) ->
+                            result.put(name, appsAndInstances.getT2().getOrDefault(appId, 0)));
+                    return result;
+                })
+                .block());
+    }
+
+    private Mono<Map<String, String>> listAppNames(String spaceId) {
+        return PaginationUtils.<ApplicationResource, ListApplicationsResponse>requestClientV3Resources(page ->
+                        cloudFoundryClient.applicationsV3().list(ListApplicationsRequest.builder()
+                                .spaceId(spaceId)
+                                .page(page)
+                                .perPage(PAGE_SIZE)
+                                .build()))
+                .filter(app -> includeRegex.matcher(app.getName()).find()
+                        && !excludeRegex.matcher(app.getName()).find())
+                .collectMap(ApplicationResource::getId, ApplicationResource::getName);
+    }
+
+    private Mono<Map<String, Integer>> listWebProcessInstances(String spaceId) {
+        return listWebProcesses(spaceId).collectMap(LibCFConnector::appId, ProcessResource::getInstances);
+    }
+
+    private Flux<ProcessResource> listWebProcesses(String spaceId) {
+        return PaginationUtils.requestClientV3Resources(page ->
+                cloudFoundryClient.processes().list(ListProcessesRequest.builder()
+                        .spaceId(spaceId)
+                        .type("web")
+                        .page(page)
+                        .perPage(PAGE_SIZE)
+                        .build()));
     }
 
+    /**
+     * Fetches the statistics of the web processes of all apps concurrently
+     */
     @Override
-    public ScalingResponse scaleApp(ScalingRequest sr) {
-        String appName = cloudfoundryAppName(sr.getApp());
-        logger.debug("scaling app= {}, target instances={}", appName, sr.getInstances());
-        ScaleApplicationRequest sar = ScaleApplicationRequest.builder()
-                .name(appName)
-                .instances(sr.getInstances())
-                .build();
+    public Map<String, InstanceState> getInstanceStates() {
+        return timed("instance_states", () -> getSpaceId()
+                .flatMap(spaceId -> Mono.zip(listAppNames(spaceId), listWebProcesses(spaceId).collectList()))
+                .flatMapMany(appsAndProcesses -> Flux.fromIterable(appsAndProcesses.getT2())
+                        .filter(process -> appsAndProcesses.getT1().containsKey(appId(process)))
+                        .flatMap(process -> cloudFoundryClient.processes()
+                                .getStatistics(GetProcessStatisticsRequest.builder().processId(process.getId()).build())
+                                .map(statistics -> Tuples.of(appsAndProcesses.getT1().get(appId(process)),
+                                        toInstanceState(process.getInstances(), statistics.getResources()))),
+                                STATISTICS_CONCURRENCY))
+                .collectMap(Tuple2::getT1, Tuple2::getT2)
+                .block());
+    }
+
+    /**
+     * Runs a blocking request for all apps and records its latency
+     * @param operation the name of the request, used as tag
+     */
+    private <T extends Map<String, ?>> T timed(String operation, Supplier<T> request) {
+        CloudFoundryRequestEvent event = new CloudFoundryRequestEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = "error";
+        T result = null;
         try {
-            cloudFoundryOperations.applications().scale(sar).block();
-            return new ScalingResponse(true, null);
-        } catch (Exception e) {
-            logger.error("Error while executing scaling: " + e.toString());
+            result = request.get();
+            outcome = "success";
+            return result;
+        } finally {
+            Timer.builder("autoscaler.cloudfoundry.requests")
+                    .description("Latency of the requests to the CloudFoundry API")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.apps = result == null ? 0 : result.size();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    private static InstanceState toInstanceState(int desired, List<ProcessStatisticsResource> statistics) {
+        int running = 0;
+        int starting = 0;
+        int crashed = 0;
+        for (ProcessStatisticsResource instance : statistics) {
+            if (instance.getState() == ProcessState.RUNNING) {
+                running++;
+            } else if (instance.getState() == ProcessState.STARTING) {
+                starting++;
+            } else if (instance.getState() == ProcessState.CRASHED) {
+                crashed++;
+            }
+        }
+        return new InstanceState(desired, running, starting, crashed);
+    }
+
+    private static String appId(ProcessResource process) {
+        return process.getRelationships().getApp().getData().getId();
+    }
+
+    /**
+     * Resolves the id of the configured space once
+     */
+    private Mono<String> getSpaceId() {
+        if (spaceId != null) {
+            return Mono.just(spaceId);
         }
-        return new ScalingResponse(false, "Error during scaling");
+        return PaginationUtils.<OrganizationResource, ListOrganizationsResponse>requestClientV3Resources(page ->
+                        cloudFoundryClient.organizationsV3().list(ListOrganizationsRequest.builder()
+                                .name(organization)
+                                .page(page)
+                                .build()))
+                .next()
+                .switchIfEmpty(Mono.error(new IllegalStateException("Organization " + organization + " not found")))
+                .flatMap(org -> PaginationUtils.<SpaceResource, ListSpacesResponse>requestClientV3Resources(page ->
+                                cloudFoundryClient.spacesV3().list(ListSpacesRequest.builder()
+                                        .organizationId(org.getId())
+                                        .name(space)
+                                        .page(page)
+                                        .build()))
+                        .next())
+                .switchIfEmpty(Mono.error(new IllegalStateException("Space " + space + " not found")))
+                .map(SpaceResource::getId)
+                .doOnNext(id -> spaceId = id);
     }
 
-    private Flux<ApplicationSummary> getApps() {
-        return cloudFoundryOperations.applications()
-                .list()
-                .filter(as -> includeRegex.matcher(as.getName()).find() && !excludeRegex.matcher(as.getName()).find());
+    @Override
+    public ScalingResponse scaleApp(ScalingRequest sr) {
+        return scaleAppAsync(sr).block();
     }
 
-    private List<ProcessStatisticsResource> getResourcesForApp(ApplicationSummary app) {
-        return Mono.just(app).map(ApplicationSummary::getId)
-                .flatMap(this::getProcessId)
-                .flatMap(processId -> cloudFoundryClient.processes()
-                        .getStatistics(GetProcessStatisticsRequest.builder().processId(processId).build()))
-                .flatMapIterable(GetProcessStatisticsResponse::getResources)
-                .filter(r -> r.getType().equals("web"))
-                .collectList()
-                .block();
+    @Override
+    public Mono<ScalingResponse> scaleAppAsync(ScalingRequest sr) {
+        return Mono.defer(() -> {
+            String appName = cloudfoundryAppName(sr.getApp());
+            logger.debug("scaling app= {}, target instances={}", appName, sr.getInstances());
+            ScaleApplicationRequest sar = ScaleApplicationRequest.builder()
+                    .name(appName)
+                    .instances(sr.getInstances())
+                    .build();
+            CloudFoundryRequestEvent event = new CloudFoundryRequestEvent();
+            event.begin();
+            long start = System.nanoTime();
+            return cloudFoundryOperations.applications().scale(sar)
+                    .then(Mono.fromCallable(() -> new ScalingResponse(sr, true, null, elapsedMillis(start))))
+                    .onErrorResume(e -> {
+                        logger.error("Error while executing scaling: " + e.toString());
+                        return Mono.just(new ScalingResponse(sr, false, "Error during scaling",
+                                elapsedMillis(start)));
+                    })
+                    .doOnNext(response -> {
+                        if (event.shouldCommit()) {
+                            event.operation = "scale";
+                            event.app = sr.getApp();
+                            event.instances = sr.getInstances();
+                            event.outcome = response.isSuccess() ? "success" : "error";
+                            event.commit();
+                        }
+                    });
+        });
     }
 
-    private Mono<String> getProcessId(String appId) {
-        return cloudFoundryClient.applicationsV3()
-                .getProcess(GetApplicationProcessRequest.builder().applicationId(appId).type("web").build())
-                .map(GetApplicationProcessResponse::getId);
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 
     private String cloudfoundryAppName(String eurekaAppName) {
@@ -14,6 +14,26 @@ public class CloudFoundryProperties {
      */
     private String domain;
 
+    /**
+     * The host of the CloudFoundry API, defaults to "api." followed by the domain
+     */
+    private String apiHost;
+
+    /**
+     * The port of the CloudFoundry API, the default port of the protocol is used if it is not set
+     */
+    private Integer port;
+
+    /**
+     * Whether the CloudFoundry API is accessed via https
+     */
+    private boolean secure = true;
+
+    /**
+     * Whether the SSL certificate of the CloudFoundry API is accepted without validation
+     */
+    private boolean skipSslValidation = true;
+
     /**
      * The organization to refer to in CloudFoundry
      */
@@ -48,6 +68,22 @@ public class CloudFoundryProperties {
      */
     private String excludeappregex;
 
+    /**
+     * Maximum number of scaling requests which are sent to CloudFoundry concurrently
+     */
+    private int scaleConcurrency = 8;
+
+    /**
+     * Temporal difference in seconds between two refreshes of the app inventory from CloudFoundry, which pick up
+     * external scaling, crashes and restarts
+     */
+    private int reconcileInterval = 60;
+
+    /**
+     * Time in seconds for which the fetched states of the instances (running, starting, crashed) are reused
+     */
+    private int instanceStatisticsTtl = 10;
+
     public String getDomain() {
         return domain;
     }
@@ -56,6 +92,38 @@ public class CloudFoundryProperties {
         this.domain = domain;
     }
 
+    public String getApiHost() {
+        return apiHost;
+    }
+
+    public void setApiHost(String apiHost) {
+        this.apiHost = apiHost;
+    }
+
+    public Integer getPort() {
+        return port;
+    }
+
+    public void setPort(Integer port) {
+        this.port = port;
+    }
+
+    public boolean isSecure() {
+        return secure;
+    }
+
+    public void setSecure(boolean secure) {
+        this.secure = secure;
+    }
+
+    public boolean isSkipSslValidation() {
+        return skipSslValidation;
+    }
+
+    public void setSkipSslValidation(boolean skipSslValidation) {
+        this.skipSslValidation = skipSslValidation;
+    }
+
     public String getOrganization() {
         return organization;
     }
@@ -104,4 +172,28 @@ public class CloudFoundryProperties {
         this.excludeappregex = excludeappregex;
     }
 
+    public int getScaleConcurrency() {
+        return scaleConcurrency;
+    }
+
+    public void setScaleConcurrency(int scaleConcurrency) {
+        this.scaleConcurrency = scaleConcurrency;
+    }
+
+    public int getReconcileInterval() {
+        return reconcileInterval;
+    }
+
+    public void setReconcileInterval(int reconcileInterval) {
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    public int getInstanceStatisticsTtl() {
+        return instanceStatisticsTtl;
+    }
+
+    public void setInstanceStatisticsTtl(int instanceStatisticsTtl) {
+        this.instanceStatisticsTtl = instanceStatisticsTtl;
+    }
+
 }
@@ -1,6 +1,9 @@
 package tools.descartes.autoscaling.config;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -20,6 +23,13 @@ public class MetricsProperties {
      */
     private Map<String, String> eurekaToCloudfoundryNames = new HashMap<>();
 
+    /**
+     * Inverse of eurekaToCloudfoundryNames, rebuilt whenever the mapping is set
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Map<String, String> cloudfoundryToEurekaNames = new HashMap<>();
+
     /**
      * All metric names which should be considered for the scaling decision should match this regex.
      * We use Matcher.find not Matcher.matches for matching.
@@ -33,9 +43,23 @@ public class MetricsProperties {
      * @return an Optional containing the Eureka app name for the provided CloudFoundry app name
      */
     public Optional<String> getEurekaNameForCloudFoundryName(String cloudfoundryName) {
-        return eurekaToCloudfoundryNames.entrySet().stream()
-                .filter(e -> e.getValue().equals(cloudfoundryName))
-                .map(Map.Entry::getKey)
-                .findAny();
+        return Optional.ofNullable(cloudfoundryToEurekaNames.get(cloudfoundryName));
+    }
+
+    /**
+     * Returns an Optional containing the CloudFoundry app name for the provided Eureka app name
+     * @param eurekaName app name in Eureka
+     * @return an Optional containing the CloudFoundry app name for the provided Eureka app name
+     */
+    public Optional<String> getCloudFoundryNameForEurekaName(String eurekaName) {
+        return Optional.ofNullable(eurekaToCloudfoundryNames.get(eurekaName));
+    }
+
+    public void setEurekaToCloudfoundryNames(Map<String, String> eurekaToCloudfoundryNames) {
+        this.eurekaToCloudfoundryNames = eurekaToCloudfoundryNames;
+        Map<String, String> inverse = new HashMap<>();
+        eurekaToCloudfoundryNames.forEach((eurekaName, cloudfoundryName) ->
+                inverse.putIfAbsent(cloudfoundryName, eurekaName));
+        this.cloudfoundryToEurekaNames = inverse;
     }
 }
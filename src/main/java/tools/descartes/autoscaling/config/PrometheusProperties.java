@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 public class PrometheusProperties {
     private String url;
     private int scrapeDuration;
+    private int maxConnections = 10;
 
     public String getUrl() {
         return url;
@@ -27,4 +28,12 @@ public class PrometheusProperties {
     public void setScrapeDuration(int scrapeDuration) {
         this.scrapeDuration = scrapeDuration;
     }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
 }
@@ -3,10 +3,12 @@ package tools.descartes.autoscaling.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * A property class containing rules for scaling a.k.a. upper and lower bounds for deployed instances
+ * A property class containing rules for scaling a.k.a. upper and lower bounds for deployed instances. These are the
+ * configured rules, the rules changed at runtime are in the {@link RuntimeConfig}.
  */
 @Component
 @ConfigurationProperties("constraints")
@@ -14,7 +16,7 @@ public class RulesProperties {
     /**
      * A list of rules a.k.a. upper and lower bounds for deployed instances per app
      */
-    private List<ScalingExpression> rules;
+    private List<ScalingExpression> rules = new ArrayList<>();
 
     public List<ScalingExpression> getRules() {
         return rules;
@@ -0,0 +1,45 @@
+package tools.descartes.autoscaling.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the current {@link ScalingConfig}. Changes replace the snapshot atomically, readers never lock and never
+ * see a partially applied change.
+ */
+@Component
+public class RuntimeConfig {
+
+    private final AtomicReference<ScalingConfig> current;
+
+    public RuntimeConfig(ScalingProperties scalingProperties, RulesProperties rulesProperties) {
+        this.current = new AtomicReference<>(ScalingConfig.of(scalingProperties, rulesProperties));
+    }
+
+    /**
+     * @return the current snapshot, which does not change while it is used
+     */
+    public ScalingConfig get() {
+        return current.get();
+    }
+
+    /**
+     * Changes a setting, see {@link ScalingConfig#withValue(String, String)}
+     * @return false if the key is unknown
+     * @throws NumberFormatException if the value is not an integer
+     */
+    public boolean set(String key, String value) {
+        if (get().withValue(key, value) == null) return false;
+        current.updateAndGet(config -> config.withValue(key, value));
+        return true;
+    }
+
+    public void addRule(RulesProperties.ScalingExpression rule) {
+        current.updateAndGet(config -> config.withRule(rule));
+    }
+
+    public void removeRules(String app) {
+        current.updateAndGet(config -> config.withoutRules(app));
+    }
+}
@@ -0,0 +1,224 @@
+package tools.descartes.autoscaling.config;
+
+import java.util.*;
+
+/**
+ * An immutable snapshot of the scaling settings which can be changed at runtime, i.e. the upscale and downscale
+ * limits and timeouts and the constraint rules, together with the KPIs of the apps. Every change creates a new
+ * snapshot with a higher version, so that a cycle decides on one consistent state while the settings are changed.
+ * The rules are compiled into one lower and upper bound per app when the snapshot is created.
+ */
+public final class ScalingConfig {
+
+    /**
+     * The keys of the settings which can be changed at runtime
+     */
+    public static final String UPSCALE_LIMIT = "scaling.upscale.limit";
+    public static final String UPSCALE_TIMEOUT = "scaling.upscale.timeout";
+    public static final String DOWNSCALE_LIMIT = "scaling.downscale.limit";
+    public static final String DOWNSCALE_TIMEOUT = "scaling.downscale.timeout";
+
+    private final long version;
+    private final int upscaleLimit;
+    private final int upscaleTimeout;
+    private final int downscaleLimit;
+    private final int downscaleTimeout;
+    private final List<RulesProperties.ScalingExpression> rules;
+    private final Map<String, Bounds> bounds;
+    private final Map<String, List<ScalingProperties.KPIProperties>> kpis;
+
+    private ScalingConfig(long version, int upscaleLimit, int upscaleTimeout, int downscaleLimit,
+                          int downscaleTimeout, List<RulesProperties.ScalingExpression> rules,
+                          Map<String, List<ScalingProperties.KPIProperties>> kpis) {
+        this.version = version;
+        this.upscaleLimit = upscaleLimit;
+        this.upscaleTimeout = upscaleTimeout;
+        this.downscaleLimit = downscaleLimit;
+        this.downscaleTimeout = downscaleTimeout;
+        this.rules = rules;
+        this.bounds = compile(rules);
+        this.kpis = kpis;
+    }
+
+    /**
+     * Creates the first snapshot of the configured properties
+     */
+    public static ScalingConfig of(ScalingProperties scalingProperties, RulesProperties rulesProperties) {
+        List<RulesProperties.ScalingExpression> rules = new ArrayList<>();
+        if (rulesProperties.getRules() != null) {
+            for (RulesProperties.ScalingExpression se : rulesProperties.getRules()) {
+                rules.add(copy(se));
+            }
+        }
+        Map<String, List<ScalingProperties.KPIProperties>> kpis = new LinkedHashMap<>();
+        if (scalingProperties.getKpis() != null) {
+            scalingProperties.getKpis().forEach((app, appKpis) ->
+                    kpis.put(app, Collections.unmodifiableList(new ArrayList<>(appKpis))));
+        }
+        return new ScalingConfig(0, scalingProperties.getUpscale().getLimit(),
+                scalingProperties.getUpscale().getTimeout(), scalingProperties.getDownscale().getLimit(),
+                scalingProperties.getDownscale().getTimeout(), Collections.unmodifiableList(rules),
+                Collections.unmodifiableMap(kpis));
+    }
+
+    /**
+     * @param key one of the keys of the settings which can be changed at runtime
+     * @return a snapshot with the changed setting, null if the key is unknown
+     * @throws NumberFormatException if the value is not an integer
+     */
+    public ScalingConfig withValue(String key, String value) {
+        switch (key) {
+            case UPSCALE_LIMIT:
+                return new ScalingConfig(version + 1, Integer.parseInt(value), upscaleTimeout, downscaleLimit,
+                        downscaleTimeout, rules, kpis);
+            case UPSCALE_TIMEOUT:
+                return new ScalingConfig(version + 1, upscaleLimit, Integer.parseInt(value), downscaleLimit,
+                        downscaleTimeout, rules, kpis);
+            case DOWNSCALE_LIMIT:
+                return new ScalingConfig(version + 1, upscaleLimit, upscaleTimeout, Integer.parseInt(value),
+                        downscaleTimeout, rules, kpis);
+            case DOWNSCALE_TIMEOUT:
+                return new ScalingConfig(version + 1, upscaleLimit, upscaleTimeout, downscaleLimit,
+                        Integer.parseInt(value), rules, kpis);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return a snapshot with the additional rule
+     */
+    public ScalingConfig withRule(RulesProperties.ScalingExpression rule) {
+        List<RulesProperties.ScalingExpression> changed = new ArrayList<>(rules);
+        changed.add(copy(rule));
+        return new ScalingConfig(version + 1, upscaleLimit, upscaleTimeout, downscaleLimit, downscaleTimeout,
+                Collections.unmodifiableList(changed), kpis);
+    }
+
+    /**
+     * @return a snapshot without the rules of the app
+     */
+    public ScalingConfig withoutRules(String app) {
+        List<RulesProperties.ScalingExpression> changed = new ArrayList<>(rules);
+        changed.removeIf(se -> Objects.equals(se.getApp(), app));
+        return new ScalingConfig(version + 1, upscaleLimit, upscaleTimeout, downscaleLimit, downscaleTimeout,
+                Collections.unmodifiableList(changed), kpis);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getUpscaleLimit() {
+        return upscaleLimit;
+    }
+
+    public int getUpscaleTimeout() {
+        return upscaleTimeout;
+    }
+
+    public int getDownscaleLimit() {
+        return downscaleLimit;
+    }
+
+    public int getDownscaleTimeout() {
+        return downscaleTimeout;
+    }
+
+    public List<RulesProperties.ScalingExpression> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return the bounds of the rules of the app, null if the app has no rules
+     */
+    public Bounds getBounds(String app) {
+        return bounds.get(app);
+    }
+
+    public Map<String, List<ScalingProperties.KPIProperties>> getKpis() {
+        return kpis;
+    }
+
+    /**
+     * @return the KPIs of the app, an empty list if the app has none
+     */
+    public List<ScalingProperties.KPIProperties> getKpis(String app) {
+        return kpis.getOrDefault(app, Collections.emptyList());
+    }
+
+    public String showEditableEntries(String separator) {
+        return UPSCALE_LIMIT + " = " + upscaleLimit + separator
+                + UPSCALE_TIMEOUT + " = " + upscaleTimeout + separator
+                + DOWNSCALE_LIMIT + " = " + downscaleLimit + separator
+                + DOWNSCALE_TIMEOUT + " = " + downscaleTimeout + separator;
+    }
+
+    public String showRules(String separator) {
+        StringBuilder builder = new StringBuilder();
+        for (RulesProperties.ScalingExpression se : rules) {
+            builder.append(se.toString());
+            builder.append(separator);
+        }
+        return builder.toString();
+    }
+
+    private static RulesProperties.ScalingExpression copy(RulesProperties.ScalingExpression se) {
+        RulesProperties.ScalingExpression copy = new RulesProperties.ScalingExpression();
+        copy.setApp(se.getApp());
+        copy.setRelation(se.getRelation());
+        copy.setValue(se.getValue());
+        return copy;
+    }
+
+    /**
+     * Combines the rules of each app into the tightest lower and upper bound
+     */
+    private static Map<String, Bounds> compile(List<RulesProperties.ScalingExpression> rules) {
+        Map<String, int[]> limits = new HashMap<>();
+        for (RulesProperties.ScalingExpression se : rules) {
+            if (se.getApp() == null || se.getRelation() == null) continue;
+            int[] appLimits = limits.computeIfAbsent(se.getApp(),
+                    app -> new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE});
+            switch (se.getRelation()) {
+                case GREATER:
+                case GREATER_EQUAL:
+                    appLimits[0] = Math.max(appLimits[0], se.getClosestValue());
+                    break;
+                default:
+                    appLimits[1] = Math.min(appLimits[1], se.getClosestValue());
+            }
+        }
+        Map<String, Bounds> bounds = new HashMap<>();
+        limits.forEach((app, appLimits) -> bounds.put(app, new Bounds(appLimits[0], appLimits[1])));
+        return bounds;
+    }
+
+    /**
+     * The allowed instances of an app, from lower to upper inclusive
+     */
+    public static final class Bounds {
+        private final int lower;
+        private final int upper;
+
+        Bounds(int lower, int upper) {
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        public int getLower() {
+            return lower;
+        }
+
+        public int getUpper() {
+            return upper;
+        }
+
+        /**
+         * @return the closest value within the bounds, the lower bound if the bounds contradict each other
+         */
+        public int clamp(int instances) {
+            return Math.max(lower, Math.min(upper, instances));
+        }
+    }
+}
@@ -54,6 +54,26 @@ public class ScalingProperties {
      */
     private Map<String, List<KPIProperties>> kpis;
 
+    /**
+     * Settings for the independent scaling pipelines of apps or shards of apps
+     */
+    private PipelineProperties pipelines = new PipelineProperties();
+
+    /**
+     * Settings for the watch of the KPIs which triggers a reactive cycle as soon as an SLO is violated
+     */
+    private FastPathProperties fastPath = new FastPathProperties();
+
+    /**
+     * Parameters of the reward function used for training and proactive scaling
+     */
+    private RewardProperties reward = new RewardProperties();
+
+    /**
+     * Settings for the journal of the scaling decisions
+     */
+    private JournalProperties journal = new JournalProperties();
+
     public int getTimeout() {
         return timeout;
     }
@@ -102,21 +122,36 @@ public class ScalingProperties {
         this.kpis = kpis;
     }
 
-    public String showEditableEntries(String separator) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("scaling.upscale.limit = ");
-        builder.append(this.getUpscale().getLimit());
-        builder.append(separator);
-        builder.append("scaling.upscale.timeout = ");
-        builder.append(this.getUpscale().getTimeout());
-        builder.append(separator);
-        builder.append("scaling.downscale.limit = ");
-        builder.append(this.getDownscale().getLimit());
-        builder.append(separator);
-        builder.append("scaling.downscale.timeout = ");
-        builder.append(this.getDownscale().getTimeout());
-        builder.append(separator);
-        return builder.toString();
+    public PipelineProperties getPipelines() {
+        return pipelines;
+    }
+
+    public void setPipelines(PipelineProperties pipelines) {
+        this.pipelines = pipelines;
+    }
+
+    public FastPathProperties getFastPath() {
+        return fastPath;
+    }
+
+    public void setFastPath(FastPathProperties fastPath) {
+        this.fastPath = fastPath;
+    }
+
+    public RewardProperties getReward() {
+        return reward;
+    }
+
+    public void setReward(RewardProperties reward) {
+        this.reward = reward;
+    }
+
+    public JournalProperties getJournal() {
+        return journal;
+    }
+
+    public void setJournal(JournalProperties journal) {
+        this.journal = journal;
     }
 
     public String showKPIs(String separator) {
@@ -162,6 +197,18 @@ public class ScalingProperties {
     public static class SafetyProperties {
         private int period;
         private double ratio;
+        /**
+         * Number of periods the minimum number of instances of an interval is taken over
+         */
+        private int lookback = 10;
+        /**
+         * File the history of the safety scalers is saved to and restored from after a restart, not saved if empty
+         */
+        private String snapshotFile;
+        /**
+         * Number of scaling periods after which the history is saved, it is also saved on shutdown
+         */
+        private int snapshotInterval = 10;
 
         public int getPeriod() {
             return period;
@@ -178,6 +225,235 @@ public class ScalingProperties {
         public void setRatio(double ratio) {
             this.ratio = ratio;
         }
+
+        public int getLookback() {
+            return lookback;
+        }
+
+        public void setLookback(int lookback) {
+            this.lookback = lookback;
+        }
+
+        public String getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        public void setSnapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+
+        public int getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(int snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+
+    public static class PipelineProperties {
+        /**
+         * Number of threads shared by all scaling pipelines
+         */
+        private int threads = 4;
+        /**
+         * Number of shards the apps are split into, 0 runs one pipeline per app. Each pipeline queries every metric
+         * once per period, so the number of queries grows with the number of shards.
+         */
+        private int shards = 8;
+        /**
+         * Number of threads executing the scaling actions and exports handed over by the pipelines
+         */
+        private int executionThreads = 2;
+        /**
+         * Maximum number of cycles waiting for execution, a full queue makes the pipelines execute their actions
+         */
+        private int executionQueueCapacity = 16;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            this.shards = shards;
+        }
+
+        public int getExecutionThreads() {
+            return executionThreads;
+        }
+
+        public void setExecutionThreads(int executionThreads) {
+            this.executionThreads = executionThreads;
+        }
+
+        public int getExecutionQueueCapacity() {
+            return executionQueueCapacity;
+        }
+
+        public void setExecutionQueueCapacity(int executionQueueCapacity) {
+            this.executionQueueCapacity = executionQueueCapacity;
+        }
+    }
+
+    public static class FastPathProperties {
+        /**
+         * Whether the KPIs are watched between two scaling cycles
+         */
+        private boolean enabled = false;
+        /**
+         * Temporal difference between two queries of the KPIs in seconds
+         */
+        private int interval = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInterval() {
+            return interval;
+        }
+
+        public void setInterval(int interval) {
+            this.interval = interval;
+        }
+    }
+
+    public static class RewardProperties {
+        /**
+         * Number of instances at which the instance cost reaches its maximum
+         */
+        private double maxInstances = 10;
+        /**
+         * Weight of the KPI penalty compared to the instance cost, between 0 and 1
+         */
+        private double weight = 0.9;
+        /**
+         * Steepness of the KPI penalty for SLO violations
+         */
+        private double steepness = 2;
+
+        public double getMaxInstances() {
+            return maxInstances;
+        }
+
+        public void setMaxInstances(double maxInstances) {
+            this.maxInstances = maxInstances;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+
+        public double getSteepness() {
+            return steepness;
+        }
+
+        public void setSteepness(double steepness) {
+            this.steepness = steepness;
+        }
+    }
+
+    public static class JournalProperties {
+        /**
+         * true to write a record of the inputs, proposals, constraints and execution of each app per cycle
+         */
+        private boolean enabled = false;
+        /**
+         * Directory of the journal files
+         */
+        private String directory = "journal";
+        /**
+         * Size of a journal file after which a new file is started (in bytes)
+         */
+        private long maxFileBytes = 64L * 1024 * 1024;
+        /**
+         * Number of journal files to keep, the oldest file is deleted when a new file is started
+         */
+        private int maxFiles = 10;
+        /**
+         * Maximum number of records waiting to be written, further records are dropped
+         */
+        private int queueCapacity = 100000;
+        /**
+         * true to record the measurements the decisions were based on
+         */
+        private boolean includeInputs = true;
+        /**
+         * Number of decisions buffered per live subscriber, the oldest are dropped if the subscriber is too slow
+         */
+        private int streamBufferSize = 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getMaxFileBytes() {
+            return maxFileBytes;
+        }
+
+        public void setMaxFileBytes(long maxFileBytes) {
+            this.maxFileBytes = maxFileBytes;
+        }
+
+        public int getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(int maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public boolean isIncludeInputs() {
+            return includeInputs;
+        }
+
+        public void setIncludeInputs(boolean includeInputs) {
+            this.includeInputs = includeInputs;
+        }
+
+        public int getStreamBufferSize() {
+            return streamBufferSize;
+        }
+
+        public void setStreamBufferSize(int streamBufferSize) {
+            this.streamBufferSize = streamBufferSize;
+        }
     }
 
     public static class KPIProperties {
@@ -0,0 +1,132 @@
+package tools.descartes.autoscaling.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import tools.descartes.autoscaling.simulation.Workload;
+
+/**
+ * A property class containing settings for simulated environments used in load and scale tests
+ */
+@Data
+@Component
+@ConfigurationProperties("simulation")
+public class SimulationProperties {
+    /**
+     * Settings for the simulated CloudFoundry
+     */
+    private CloudFoundrySimulationProperties cloudfoundry = new CloudFoundrySimulationProperties();
+
+    /**
+     * Settings for the simulated Prometheus, which requires the simulated CloudFoundry
+     */
+    private PrometheusSimulationProperties prometheus = new PrometheusSimulationProperties();
+
+    @Data
+    public static class CloudFoundrySimulationProperties {
+        /**
+         * Whether apps are scaled in a simulated CloudFoundry instead of the configured one
+         */
+        private boolean enabled = false;
+
+        /**
+         * Whether the simulation is accessed via a local HTTP stub of the CloudFoundry API instead of in-process
+         */
+        private boolean http = false;
+
+        /**
+         * Port of the HTTP stub, 0 picks a free port
+         */
+        private int stubPort = 0;
+
+        /**
+         * Number of simulated apps, named by the prefix followed by their index
+         */
+        private int apps = 10;
+        private String appPrefix = "app";
+
+        /**
+         * Number of instances of each app at the start
+         */
+        private int initialInstances = 1;
+
+        /**
+         * Latency of each request in milliseconds
+         */
+        private long latencyMillis = 0;
+
+        /**
+         * Probability that a request fails
+         */
+        private double failureRate = 0;
+
+        /**
+         * Time in milliseconds a new instance is starting before it is running
+         */
+        private long startupDelayMillis = 0;
+
+        /**
+         * Seed for the injected failures
+         */
+        private long seed = 0;
+    }
+
+    @Data
+    public static class PrometheusSimulationProperties {
+        /**
+         * Whether metrics are queried from a local stub of the Prometheus API instead of the configured server
+         */
+        private boolean enabled = false;
+
+        /**
+         * Port of the stub, 0 picks a free port
+         */
+        private int port = 0;
+
+        /**
+         * Course of the request rate of each app (STEP, DIURNAL or SPIKE)
+         */
+        private Workload.Shape workload = Workload.Shape.DIURNAL;
+
+        /**
+         * Lowest and highest request rate of each app in requests per second
+         */
+        private double baseLoad = 10;
+        private double peakLoad = 100;
+
+        /**
+         * Period of the workload in seconds
+         */
+        private long period = 3600;
+
+        /**
+         * Requests per second an instance can serve
+         */
+        private double capacityPerInstance = 25;
+
+        /**
+         * Response time of an idle instance in seconds
+         */
+        private double serviceTime = 0.05;
+
+        /**
+         * Number of additional metrics per app, to scale the size of the responses
+         */
+        private int syntheticMetrics = 0;
+
+        /**
+         * Name of the metric containing the number of instances
+         */
+        private String instancesMetric = "instances";
+
+        /**
+         * Time between two samples in seconds
+         */
+        private int scrapeInterval = 15;
+
+        /**
+         * Latency of each request in milliseconds
+         */
+        private long latencyMillis = 0;
+    }
+}
@@ -48,6 +48,36 @@ public class TrainingProperties {
          */
         private String metricStorageExclusionRegex;
         private boolean storeMetricsInDatabase = false;
+
+        /**
+         * File format of exported training data, ignored if training data is stored in the database
+         */
+        private Format format = Format.CSV;
+
+        /**
+         * Duration of one file segment in seconds for segmented formats (e.g. ARROW)
+         */
+        private int segmentDurationSeconds = 3600;
+
+        /**
+         * Directory where training data files are written to
+         */
+        private String directory = ".";
+
+        /**
+         * Buffered training data files are flushed at least after this number of seconds
+         */
+        private int flushIntervalSeconds = 60;
+
+        /**
+         * Buffered training data files are flushed at least after this number of rows
+         */
+        private int flushMaxRows = 100;
+
+        /**
+         * Number of records per segment file of the memory-mapped measurement log (MAPPED_LOG)
+         */
+        private int mappedSegmentRecords = 8192;
     }
 
     @Data
@@ -55,8 +85,49 @@ public class TrainingProperties {
         boolean importMetricsFromDatabase = false;
 
         /**
-         * Paths where to look for CSV files for training
+         * Paths where to look for CSV or ARROW files for training, the MAPPED_LOG format reads the export directory
          */
         private List<String> sources;
+
+        /**
+         * File format of training data in the sources, ignored if training data is imported from the database
+         */
+        private Format format = Format.CSV;
+
+        /**
+         * Number of threads loading CSV training data files in parallel
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Number of parsed CSV training data files which are cached, so that only their appended rows are parsed on
+         * the next import
+         */
+        private int cacheFiles = 256;
+
+        /**
+         * Number of apps whose training data is held in memory at once, the data of an app is released after its
+         * model was trained. Does not limit the buffered training data of the MAPPED_LOG format and the database,
+         * which are imported incrementally and keep the lookback of every app between trainings.
+         */
+        private int batchSize = 4;
+    }
+
+    /**
+     * File formats for training data
+     */
+    public enum Format {
+        /**
+         * One CSV file (plus segments with extended headers) per app
+         */
+        CSV,
+        /**
+         * Columnar Apache Arrow files, one per app and time segment
+         */
+        ARROW,
+        /**
+         * Memory-mapped append-only measurement log with fixed-width records, one segment series per app
+         */
+        MAPPED_LOG
     }
 }
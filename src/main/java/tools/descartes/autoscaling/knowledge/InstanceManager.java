@@ -1,13 +1,19 @@
 package tools.descartes.autoscaling.knowledge;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import tools.descartes.autoscaling.cloudfoundry.CFConnectorWrapper;
+import tools.descartes.autoscaling.cloudfoundry.InstanceState;
+import tools.descartes.autoscaling.config.CloudFoundryProperties;
 import tools.descartes.autoscaling.config.MetricsProperties;
 
 /**
@@ -21,26 +27,134 @@ public class InstanceManager {
 
     private final CFConnectorWrapper cfConnector;
     private final MetricsProperties metricsProperties;
-    private Map<String, Integer> instanceCounter;
+    private volatile Map<String, Integer> instanceCounter;
+    /**
+     * Time (System.nanoTime) of the last own update of each app, used to keep updates made during a refresh
+     */
+    private final Map<String, Long> localUpdates = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final long statesTtlNanos;
+    private final AtomicBoolean fetchingStates = new AtomicBoolean();
+    private volatile Map<String, InstanceState> instanceStates = Collections.emptyMap();
+    private volatile long statesFetchedAt;
 
     public InstanceManager(CFConnectorWrapper cfConnector,
-                           MetricsProperties metricsProperties) {
+                           MetricsProperties metricsProperties, CloudFoundryProperties cloudFoundryProperties) {
         this.cfConnector = cfConnector;
         this.metricsProperties = metricsProperties;
+        this.statesTtlNanos = TimeUnit.SECONDS.toNanos(cloudFoundryProperties.getInstanceStatisticsTtl());
     }
 
     /**
      * Queries the number of instances from CloudFoundry and reads app name mapping from MetricsProperties
      */
     public void init() {
-        instanceCounter = new HashMap<>();
+        synchronized (writeLock) {
+            localUpdates.clear();
+            instanceCounter = queryInstances();
+        }
+        logger.debug("Got initial instance counts from cloudfoundry: {}", instanceCounter);
+    }
+
+    /**
+     * Refreshes the number of instances from CloudFoundry, e.g. after external scaling, crashes or restarts. The
+     * counts are replaced at once, readers never block. Counts set by {@link #setCountOf} while the query was
+     * running are kept.
+     */
+    public void refresh() {
+        if (instanceCounter == null) return;
+        long start = System.nanoTime();
+        Map<String, Integer> counts = queryInstances();
+        synchronized (writeLock) {
+            Map<String, Integer> current = instanceCounter;
+            localUpdates.forEach((app, updated) -> {
+                if (updated - start > 0 && current.containsKey(app)) {
+                    counts.put(app, current.get(app));
+                }
+            });
+            for (Map.Entry<String, Integer> count : counts.entrySet()) {
+                Integer old = current.get(count.getKey());
+                if (old != null && !old.equals(count.getValue())) {
+                    logger.info("Instance count of app " + count.getKey() + " changed externally from " + old
+                            + " to " + count.getValue());
+                }
+            }
+            instanceCounter = counts;
+        }
+        logger.debug("Refreshed instance counts from cloudfoundry: {}", counts);
+    }
+
+    /**
+     * Fetches the states of the instances of all apps, if the cached states are older than the configured time to
+     * live. If another thread is already fetching the states, the cached states are kept.
+     */
+    public void refreshInstanceStates() {
+        if (instanceCounter == null) return;
+        if (!instanceStates.isEmpty() && System.nanoTime() - statesFetchedAt < statesTtlNanos) return;
+        if (!fetchingStates.compareAndSet(false, true)) return;
+        try {
+            Map<String, InstanceState> states = new HashMap<>();
+            cfConnector.getCfConnector().getInstanceStates().forEach((cloudfoundryName, state) -> {
+                String eurekaName = metricsProperties.getEurekaNameForCloudFoundryName(cloudfoundryName)
+                        .orElse(cloudfoundryName);
+                if (state.getCrashed() > 0) {
+                    logger.warn("App " + eurekaName + " has " + state.getCrashed() + " crashed instances");
+                }
+                states.put(eurekaName, state);
+            });
+            instanceStates = states;
+            statesFetchedAt = System.nanoTime();
+            logger.debug("Got instance states from cloudfoundry: {}", states);
+        } catch (RuntimeException re) {
+            logger.error("Could not fetch instance states from cloudfoundry", re);
+        } finally {
+            fetchingStates.set(false);
+        }
+    }
+
+    /**
+     * Gets the last fetched instance state for provided app
+     * @param app The app name for the query
+     * @return The instance state, all desired instances are considered running if no state was fetched yet
+     */
+    public InstanceState getStateOf(String app) {
+        InstanceState state = instanceStates.get(app);
+        return state != null ? state : InstanceState.allRunning(getCountOf(app));
+    }
+
+    /**
+     * Gets the number of running instances for provided app, which are the instances actually serving requests
+     * @param app The app name for the query
+     * @return The number of running instances, at most the number of desired instances
+     */
+    public int getEffectiveCountOf(String app) {
+        return Math.min(getStateOf(app).getRunning(), getCountOf(app));
+    }
+
+    /**
+     * Gets the ratio of running to running and starting instances for provided app. Load measured while instances
+     * are still starting is expected to decrease by this ratio once they are running. Crashed or missing instances are
+     * not expected to take over load, so they are not discounted.
+     * @param app The app name for the query
+     * @return The ratio of running to running and starting instances, 1 if no instance is starting
+     */
+    public double getWarmupFactor(String app) {
+        InstanceState state = getStateOf(app);
+        int running = state.getRunning();
+        int starting = state.getStarting();
+        if (running <= 0 || starting <= 0) return 1;
+        return (double) running / (running + starting);
+    }
+
+    private Map<String, Integer> queryInstances() {
+        Map<String, Integer> counts = new ConcurrentHashMap<>();
         Map<String, Integer> instances = cfConnector.getCfConnector().getAppInstances();
         for (Map.Entry<String, Integer> instanceInfo: instances.entrySet()) {
             String eurekaName = metricsProperties.getEurekaNameForCloudFoundryName(instanceInfo.getKey())
                     .orElse(instanceInfo.getKey());
-            instanceCounter.put(eurekaName, instanceInfo.getValue());
+            counts.put(eurekaName, instanceInfo.getValue());
         }
-        logger.debug("Got initial instance counts from cloudfoundry: {}", instanceCounter);
+        return counts;
     }
 
     /**
@@ -59,8 +173,11 @@ public class InstanceManager {
      * @return difference from new to old value
      */
     public int setCountOf(String app, int count) {
-        Integer oldVal = instanceCounter.put(app, count);
-        return oldVal != null ? count - oldVal : 0;
+        synchronized (writeLock) {
+            localUpdates.put(app, System.nanoTime());
+            Integer oldVal = instanceCounter.put(app, count);
+            return oldVal != null ? count - oldVal : 0;
+        }
     }
 
     /**
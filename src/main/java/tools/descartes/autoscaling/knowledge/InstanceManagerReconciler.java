@@ -0,0 +1,33 @@
+package tools.descartes.autoscaling.knowledge;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically reconciles the instance counts of the {@link InstanceManager} with the app inventory of CloudFoundry
+ */
+@EnableScheduling
+@Component
+public class InstanceManagerReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceManagerReconciler.class);
+
+    private final InstanceManager instanceManager;
+
+    public InstanceManagerReconciler(InstanceManager instanceManager) {
+        this.instanceManager = instanceManager;
+    }
+
+    @Scheduled(fixedDelayString = "#{@cloudFoundryProperties.reconcileInterval * 1000}",
+            initialDelayString = "#{@cloudFoundryProperties.reconcileInterval * 1000}")
+    public void reconcile() {
+        try {
+            instanceManager.refresh();
+        } catch (RuntimeException re) {
+            logger.error("Could not refresh app inventory from cloudfoundry", re);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package tools.descartes.autoscaling.learning;
+
+import jdk.jfr.*;
+
+/**
+ * A flight recorder event spanning the prediction of the best action by the model of an app
+ */
+@Name("tools.descartes.autoscaling.ModelPrediction")
+@Label("Model Prediction")
+@Category({"Autoscaler", "Learning"})
+@Description("A prediction of the best scaling action by a model")
+@StackTrace(false)
+class ModelPredictionEvent extends Event {
+
+    @Label("App")
+    String app;
+
+    @Label("Features")
+    @Description("Number of measurements passed to the model, including the reward")
+    int features;
+
+    @Label("Instances")
+    @Description("Number of currently deployed instances")
+    int instances;
+
+    @Label("Action")
+    @Description("The predicted change of the instances")
+    int action;
+}
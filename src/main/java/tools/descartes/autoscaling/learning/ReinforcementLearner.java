@@ -2,7 +2,11 @@ package tools.descartes.autoscaling.learning;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,12 +27,22 @@ public class ReinforcementLearner {
 	private final String app;
 	private final ActionSpace actions;
 	private final IRewardFunction reward;
+	private final MeterRegistry meterRegistry;
 
 	public ReinforcementLearner(String app, ModelRegistry modelRegistry, IRewardFunction reward) {
+		this(app, modelRegistry, reward, Metrics.globalRegistry);
+	}
+
+	/**
+	 * @param meterRegistry registry of the inference latencies
+	 */
+	public ReinforcementLearner(String app, ModelRegistry modelRegistry, IRewardFunction reward,
+								MeterRegistry meterRegistry) {
 		this.app = app;
 		this.modelRegistry = modelRegistry;
 		this.actions = ActionSpace.getDefaultActionSpace();
 		this.reward = reward;
+		this.meterRegistry = meterRegistry;
 	}
 
 	/**
@@ -49,13 +63,40 @@ public class ReinforcementLearner {
 	 * @return a list containing one ScalingRequest or an empty list if error or no action needed
 	 */
 	public List<ScalingRequest> makePrediction(List<Metric> measurements, List<Metric> kpiMetrics, List<ScalingProperties.KPIProperties> kpis, int instances) {
+		return makePrediction(measurements, kpiMetrics, kpis, instances, instances);
+	}
+
+	/**
+	 * Returns scaling decisions for current measurements, the reward is calculated for the effective capacity
+	 * @param instances number of currently deployed instances
+	 * @param effectiveInstances number of currently running instances
+	 * @return a list containing one ScalingRequest or an empty list if error or no action needed
+	 */
+	public List<ScalingRequest> makePrediction(List<Metric> measurements, List<Metric> kpiMetrics, List<ScalingProperties.KPIProperties> kpis, int instances,
+			int effectiveInstances) {
 		if (!isTrained()) {
 			throw new IllegalStateException("The model of app \"" + app + "\" not yet ready for predictions...");
 		}
 		List<Metric> measurementsWithReward = new ArrayList<>(measurements);
-		measurementsWithReward.add(Metric.of("Reward", reward.getReward(instances, kpiMetrics, kpis), app));
+		measurementsWithReward.add(Metric.of("Reward", reward.getReward(effectiveInstances, kpiMetrics, kpis), app));
 		IRLModel model = modelRegistry.getModelForApp(app);
+		ModelPredictionEvent event = new ModelPredictionEvent();
+		event.begin();
+		long start = System.nanoTime();
 		int action = model.predictBestAction(measurementsWithReward, actions);
+		if (event.shouldCommit()) {
+			event.app = app;
+			event.features = measurementsWithReward.size();
+			event.instances = instances;
+			event.action = action;
+			event.commit();
+		}
+		Timer.builder("autoscaler.model.inference")
+				.description("Latency of the predictions of the best action by the model of an app")
+				.tag("app", app)
+				.tag("outcome", action > 0 ? "upscale" : action < 0 ? "downscale" : "none")
+				.register(meterRegistry)
+				.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 		logger.info("The model predicted an action of  \"" + action + "\" for app\"" + app
 				+ "\". Resulting target instances: " + (instances + action));
 		List<ScalingRequest> list = new ArrayList<>();
@@ -14,6 +14,27 @@ public class ImprovedRewardFunction implements IRewardFunction {
 
 	private static final double STEEPNESS = 2;
 
+	private final double maxInstances;
+
+	private final double weight;
+
+	private final double steepness;
+
+	public ImprovedRewardFunction() {
+		this(MAX_INSTANCES, WEIGHT, STEEPNESS);
+	}
+
+	/**
+	 * @param maxInstances number of instances at which the instance cost reaches its maximum
+	 * @param weight weight of the KPI penalty compared to the instance cost, between 0 and 1
+	 * @param steepness steepness of the KPI penalty for SLO violations
+	 */
+	public ImprovedRewardFunction(double maxInstances, double weight, double steepness) {
+		this.maxInstances = maxInstances;
+		this.weight = weight;
+		this.steepness = steepness;
+	}
+
 	@Override
 	public double getReward(double instances, List<Metric> kpiMetrics, List<KPIProperties> kpis) {
 		double totalReward = 0;
@@ -32,15 +53,15 @@ public class ImprovedRewardFunction implements IRewardFunction {
 
 	private double getRewardOfOneKPI(double instances, double kpiVal, double kpiTarget) {
 		// scale the instance value, when
-		double instanceValue = instances / MAX_INSTANCES;
+		double instanceValue = instances / maxInstances;
 
 		// if x is smaller than 1, we have no problem with our Kpis -> kpiValue should
 		// be 0
 		double x = Math.max((kpiVal / kpiTarget) - 1, 0);
 
-		double kpiValue = (STEEPNESS * x) / (STEEPNESS * x + 1);
+		double kpiValue = (steepness * x) / (steepness * x + 1);
 
-		double target = (1 - WEIGHT) * instanceValue + WEIGHT * kpiValue;
+		double target = (1 - weight) * instanceValue + weight * kpiValue;
 
 		return -target;
 	}
@@ -1,6 +1,7 @@
 package tools.descartes.autoscaling.learning.reward;
 
 import org.springframework.stereotype.Component;
+import tools.descartes.autoscaling.config.ScalingProperties;
 
 /**
  * A wrapper class which instantiates a concrete instance of IRewardFunction
@@ -9,8 +10,10 @@ import org.springframework.stereotype.Component;
 public class RewardFunctionWrapper {
     private final IRewardFunction rewardFunction;
 
-    public RewardFunctionWrapper() {
-        this.rewardFunction = new ImprovedRewardFunction();
+    public RewardFunctionWrapper(ScalingProperties scalingProperties) {
+        ScalingProperties.RewardProperties reward = scalingProperties.getReward();
+        this.rewardFunction = new ImprovedRewardFunction(reward.getMaxInstances(), reward.getWeight(),
+                reward.getSteepness());
     }
 
     /**
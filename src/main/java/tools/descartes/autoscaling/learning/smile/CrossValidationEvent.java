@@ -0,0 +1,34 @@
+package tools.descartes.autoscaling.learning.smile;
+
+import jdk.jfr.*;
+
+/**
+ * A flight recorder event spanning the cross-validation of one candidate regression model during training
+ */
+@Name("tools.descartes.autoscaling.CrossValidation")
+@Label("Cross-Validation")
+@Category({"Autoscaler", "Training"})
+@Description("A cross-validation of a candidate regression model")
+@StackTrace(false)
+class CrossValidationEvent extends Event {
+
+    @Label("Model")
+    String model;
+
+    @Label("Folds")
+    int folds;
+
+    @Label("Samples")
+    int samples;
+
+    @Label("Features")
+    @Description("Number of columns of the training data")
+    int features;
+
+    @Label("Error")
+    @Description("Mean absolute deviation over all folds, NaN if a fold failed")
+    double error;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -27,6 +27,8 @@ public class SuperSMILERegressor implements Regression<Tuple> {
 
 	private static final Logger logger = LoggerFactory.getLogger(SuperSMILERegressor.class);
 
+	private static final int FOLDS = 5;
+
 	private final DataFrameRegression predictor;
 
 	private final Map<String, BiFunction<Formula, DataFrame, DataFrameRegression>> regressors;
@@ -57,12 +59,16 @@ public class SuperSMILERegressor implements Regression<Tuple> {
 		for (Entry<String, BiFunction<Formula, DataFrame, DataFrameRegression>> entry : regressors.entrySet()) {
 			BiFunction<Formula, DataFrame, DataFrameRegression> func = entry.getValue();
 			double error;
+			CrossValidationEvent event = new CrossValidationEvent();
+			event.begin();
 			try {
-				error = CrossValidation.regression(5, f, data, func).avg.mad;
+				error = CrossValidation.regression(FOLDS, f, data, func).avg.mad;
 				logger.debug(
 						"Training of \"" + entry.getKey() + "\" achieved a cross-validation error of: " + error + ".");
+				commit(event, entry.getKey(), data, error, "success");
 			} catch (IllegalArgumentException e) {
 				logger.info("Could not execute Cross-Validation for \"" + entry.getKey() + "\" because at least one fold failed, nested exception is: ", e);
+				commit(event, entry.getKey(), data, Double.NaN, "failure");
 				if (currBest == null) currBest = entry;
 				continue;
 			}
@@ -81,6 +87,19 @@ public class SuperSMILERegressor implements Regression<Tuple> {
 		return currBest.getValue().apply(f, data);
 	}
 
+	private static void commit(CrossValidationEvent event, String model, DataFrame data, double error,
+							   String outcome) {
+		if (event.shouldCommit()) {
+			event.model = model;
+			event.folds = FOLDS;
+			event.samples = data.nrows();
+			event.features = data.ncols();
+			event.error = error;
+			event.outcome = outcome;
+			event.commit();
+		}
+	}
+
 	@Override
 	public double predict(Tuple x) {
 		return predictor.predict(x);
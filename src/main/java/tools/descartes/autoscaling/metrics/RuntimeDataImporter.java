@@ -1,6 +1,8 @@
 package tools.descartes.autoscaling.metrics;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Implementing classes provide a way to obtain measurement data
@@ -18,6 +20,17 @@ public interface RuntimeDataImporter {
      */
     List<Metric> getAveragedValuesForMetric(String metricName, int windowInSeconds);
 
+    /**
+     * Queries the averaged values of a metric for the provided apps only
+     * @param apps names of the apps to query the metric for
+     * @return the averaged values of this metric for the provided apps
+     */
+    default List<Metric> getAveragedValuesForMetric(String metricName, int windowInSeconds, Collection<String> apps) {
+        return getAveragedValuesForMetric(metricName, windowInSeconds).stream()
+                .filter(metric -> apps.contains(metric.getApp()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Queries the latest value of single metric
      * @param metricName name or query key of this metric
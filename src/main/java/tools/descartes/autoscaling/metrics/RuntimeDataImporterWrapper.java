@@ -1,9 +1,11 @@
 package tools.descartes.autoscaling.metrics;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Component;
 import tools.descartes.autoscaling.config.PrometheusProperties;
 import tools.descartes.autoscaling.metrics.prometheus.MetricAggregatorWrapper;
 import tools.descartes.autoscaling.metrics.prometheus.PrometheusConnector;
+import tools.descartes.autoscaling.simulation.PrometheusSimulation;
 
 /**
  * A wrapper class which instantiates a concrete implementation of RuntimeDataImporter
@@ -12,8 +14,11 @@ import tools.descartes.autoscaling.metrics.prometheus.PrometheusConnector;
 public class RuntimeDataImporterWrapper {
     private final RuntimeDataImporter runtimeDataImporter;
 
-    public RuntimeDataImporterWrapper(PrometheusProperties prometheusProperties, MetricAggregatorWrapper metricAggregatorWrapper) {
-        runtimeDataImporter = new PrometheusConnector(prometheusProperties.getUrl(), metricAggregatorWrapper.getAggregator());
+    public RuntimeDataImporterWrapper(PrometheusProperties prometheusProperties, MetricAggregatorWrapper metricAggregatorWrapper,
+                                      PrometheusSimulation simulation, MeterRegistry meterRegistry) {
+        String url = simulation.isEnabled() ? simulation.getStub().getBaseUrl() : prometheusProperties.getUrl();
+        runtimeDataImporter = new PrometheusConnector(url, metricAggregatorWrapper.getAggregator(),
+                prometheusProperties.getMaxConnections(), meterRegistry);
     }
 
     public RuntimeDataImporter getRuntimeDataImporter() {
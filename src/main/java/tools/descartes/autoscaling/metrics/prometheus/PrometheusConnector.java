@@ -2,6 +2,9 @@ package tools.descartes.autoscaling.metrics.prometheus;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -14,12 +17,15 @@ import org.slf4j.LoggerFactory;
 import tools.descartes.autoscaling.metrics.RuntimeDataImporter;
 import tools.descartes.autoscaling.metrics.Metric;
 import tools.descartes.autoscaling.metrics.RewritableMetric;
+import tools.descartes.autoscaling.scaling.CyclePhase;
+import tools.descartes.autoscaling.scaling.CycleTimings;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A RuntimeDataImporter which queries monitoring data from Prometheus
@@ -31,35 +37,104 @@ public class PrometheusConnector implements RuntimeDataImporter {
     private final String prometheusUrl;
     private final CloseableHttpClient httpClient;
     private final MetricAggregator aggregator;
+    private final MeterRegistry meterRegistry;
 
     public PrometheusConnector(String prometheusUrl, MetricAggregator aggregator) {
         this.prometheusUrl = prometheusUrl;
         httpClient = HttpClients.createDefault();
         this.aggregator = aggregator;
+        this.meterRegistry = Metrics.globalRegistry;
     }
 
-    private <T> T performGetRequest(String url, Class<T> targetClass) throws JsonProcessingException {
+    /**
+     * @param maxConnections maximum number of concurrent connections to the Prometheus server
+     */
+    public PrometheusConnector(String prometheusUrl, MetricAggregator aggregator, int maxConnections) {
+        this(prometheusUrl, aggregator, maxConnections, Metrics.globalRegistry);
+    }
+
+    /**
+     * @param maxConnections maximum number of concurrent connections to the Prometheus server
+     * @param meterRegistry registry of the request latencies
+     */
+    public PrometheusConnector(String prometheusUrl, MetricAggregator aggregator, int maxConnections,
+                               MeterRegistry meterRegistry) {
+        this.prometheusUrl = prometheusUrl;
+        httpClient = HttpClients.custom()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .build();
+        this.aggregator = aggregator;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param endpoint the queried API endpoint, used to tag the request latency
+     */
+    private <T> T performGetRequest(String endpoint, String url, Class<T> targetClass)
+            throws JsonProcessingException {
         HttpGet request = new HttpGet(prometheusUrl + url);
-        String text;
+        String text = null;
+        T result = null;
+        PrometheusQueryEvent event = new PrometheusQueryEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = "error";
         try {
             CloseableHttpResponse response = httpClient.execute(request);
             HttpEntity entity = response.getEntity();
             text = EntityUtils.toString(entity);
+            result = new ObjectMapper().readValue(text, targetClass);
+            outcome = "success";
+            return result;
         } catch (ClientProtocolException cpe) {
             logger.error("ClientProtocolException while querying Prometheus server at " + prometheusUrl);
             return null;
+        } catch (JsonProcessingException jpe) {
+            outcome = "invalid_response";
+            throw jpe;
         } catch (IOException ioe) {
             logger.error("IOException while querying from Prometheus server at " + prometheusUrl);
             return null;
+        } finally {
+            Timer.builder("autoscaler.prometheus.requests")
+                    .description("Latency of the requests to the Prometheus HTTP API, including decoding")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (event.shouldCommit()) {
+                event.endpoint = endpoint;
+                event.query = url;
+                event.responseLength = text == null ? 0 : text.length();
+                event.series = seriesCount(result);
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @return number of series or metric names in a decoded response
+     */
+    private static int seriesCount(Object result) {
+        if (result instanceof MatrixResult && ((MatrixResult) result).data != null
+                && ((MatrixResult) result).data.result != null) {
+            return ((MatrixResult) result).data.result.size();
+        } else if (result instanceof VectorResult && ((VectorResult) result).data != null
+                && ((VectorResult) result).data.result != null) {
+            return ((VectorResult) result).data.result.size();
+        } else if (result instanceof GetAllMetricsResponse && ((GetAllMetricsResponse) result).data != null) {
+            return ((GetAllMetricsResponse) result).data.size();
         }
-        return new ObjectMapper().readValue(text, targetClass);
+        return 0;
     }
 
     @Override
     public List<String> getAllMetricNames() {
         GetAllMetricsResponse resp = null;
         try {
-             resp = performGetRequest("/api/v1/label/__name__/values", GetAllMetricsResponse.class);
+             resp = performGetRequest("label_values", "/api/v1/label/__name__/values", GetAllMetricsResponse.class);
         } catch (JsonProcessingException jpe) {
             logger.error("Error while querying metric names from Prometheus", jpe);
         }
@@ -75,7 +150,30 @@ public class PrometheusConnector implements RuntimeDataImporter {
     public List<Metric> getAveragedValuesForMetric(String metricName, int windowInSeconds) {
         MatrixResult result;
         try {
-            result = performGetRequest("/api/v1/query?query=" + metricName + "[" + windowInSeconds + "s]", MatrixResult.class);
+            result = performGetRequest("query", "/api/v1/query?query=" + metricName + "[" + windowInSeconds + "s]", MatrixResult.class);
+        } catch (JsonProcessingException jpe) {
+            logger.error("Querying results for metric " + metricName + " resulted in JsonProcessingException", jpe);
+            return new ArrayList<>();
+        }
+        if (result == null) return new ArrayList<>();
+        if (!result.status.equals("success")) {
+            logger.error("Querying metric " + metricName + " returned status " + result.status);
+            return new ArrayList<>();
+        }
+        return aggregate(result);
+    }
+
+    @Override
+    public List<Metric> getAveragedValuesForMetric(String metricName, int windowInSeconds, Collection<String> apps) {
+        if (apps.isEmpty()) return new ArrayList<>();
+        MatrixResult result;
+        try {
+            String selector = metricName + "{app=~\"" + appRegex(apps) + "\"}[" + windowInSeconds + "s]";
+            String encodedQuery = URLEncoder.encode(selector, StandardCharsets.UTF_8.toString());
+            result = performGetRequest("query", "/api/v1/query?query=" + encodedQuery, MatrixResult.class);
+        } catch (UnsupportedEncodingException usee) {
+            logger.error("UnsupportedEncodingException: ", usee);
+            return new ArrayList<>();
         } catch (JsonProcessingException jpe) {
             logger.error("Querying results for metric " + metricName + " resulted in JsonProcessingException", jpe);
             return new ArrayList<>();
@@ -85,7 +183,33 @@ public class PrometheusConnector implements RuntimeDataImporter {
             logger.error("Querying metric " + metricName + " returned status " + result.status);
             return new ArrayList<>();
         }
-        return aggregator.aggregateMetrics(result);
+        return aggregate(result);
+    }
+
+    private List<Metric> aggregate(MatrixResult result) {
+        return CycleTimings.time(CyclePhase.AGGREGATION, () -> aggregator.aggregateMetrics(result));
+    }
+
+    /**
+     * Builds a regex matching exactly the provided app names, escaped for a PromQL string literal
+     */
+    static String appRegex(Collection<String> apps) {
+        StringJoiner regex = new StringJoiner("|");
+        for (String app : apps) {
+            StringBuilder escaped = new StringBuilder();
+            for (char c : app.toCharArray()) {
+                if (".^$|?*+()[]{}\\".indexOf(c) >= 0) {
+                    // one backslash for the regex, escaped once more for the string literal
+                    escaped.append("\\\\");
+                }
+                if (c == '\\' || c == '"') {
+                    escaped.append('\\');
+                }
+                escaped.append(c);
+            }
+            regex.add(escaped);
+        }
+        return regex.toString();
     }
 
     @Override
@@ -93,7 +217,7 @@ public class PrometheusConnector implements RuntimeDataImporter {
         VectorResult result;
         try {
             String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8.toString());
-            result = performGetRequest("/api/v1/query?query=" + encodedQuery, VectorResult.class);
+            result = performGetRequest("query", "/api/v1/query?query=" + encodedQuery, VectorResult.class);
         } catch (UnsupportedEncodingException usee) {
             logger.error("UnsupportedEncodingException: ", usee);
             return null;
@@ -106,7 +230,7 @@ public class PrometheusConnector implements RuntimeDataImporter {
             logger.error("Querying metric " + query + " returned status " + result.status);
             return null;
         }
-        return aggregator.aggregateMetrics(result);
+        return CycleTimings.time(CyclePhase.AGGREGATION, () -> aggregator.aggregateMetrics(result));
     }
 
     /*
@@ -0,0 +1,31 @@
+package tools.descartes.autoscaling.metrics.prometheus;
+
+import jdk.jfr.*;
+
+/**
+ * A flight recorder event spanning one request to the Prometheus HTTP API including the decoding of the response
+ */
+@Name("tools.descartes.autoscaling.PrometheusQuery")
+@Label("Prometheus Query")
+@Category({"Autoscaler", "Import"})
+@Description("A request to the Prometheus HTTP API")
+@StackTrace(false)
+class PrometheusQueryEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Query")
+    String query;
+
+    @Label("Response Length")
+    @Description("Characters of the response body")
+    long responseLength;
+
+    @Label("Series")
+    @Description("Number of returned series or metric names")
+    int series;
+
+    @Label("Outcome")
+    String outcome;
+}
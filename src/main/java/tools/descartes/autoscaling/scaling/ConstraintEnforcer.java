@@ -0,0 +1,131 @@
+package tools.descartes.autoscaling.scaling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.ScalingConfig;
+import tools.descartes.autoscaling.config.ScalingProperties;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Enforces the logical constraints, the user set rules and the upscale and downscale limits and timeouts on scaling
+ * requests. The timeouts are measured with the provided clock, so that decisions can be replayed on a virtual clock.
+ * The limits, timeouts and the bounds compiled from the rules are read from a {@link ScalingConfig} snapshot, so that
+ * enforcing is linear in the number of requests.
+ */
+public class ConstraintEnforcer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConstraintEnforcer.class);
+
+    private final Supplier<ScalingConfig> config;
+    private final Clock clock;
+    private final Map<String, Long> upscaleTime = new ConcurrentHashMap<>();
+    private final Map<String, Long> downscaleTime = new ConcurrentHashMap<>();
+
+    /**
+     * @param config supplies the current snapshot of the settings
+     */
+    public ConstraintEnforcer(Supplier<ScalingConfig> config, Clock clock) {
+        this.config = config;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates an enforcer of fixed settings
+     */
+    public ConstraintEnforcer(RulesProperties rulesProperties, ScalingProperties scalingProperties, Clock clock) {
+        this(fixed(ScalingConfig.of(scalingProperties, rulesProperties)), clock);
+    }
+
+    private static Supplier<ScalingConfig> fixed(ScalingConfig config) {
+        return () -> config;
+    }
+
+    /**
+     * @return whether the upscale timeout of the app has passed
+     */
+    public boolean isUpscaleAllowed(String app) {
+        Long upscaleAllowedAt = upscaleTime.get(app);
+        return upscaleAllowedAt == null || upscaleAllowedAt < clock.millis();
+    }
+
+    /**
+     * Enforces all constraints and drops requests which do not change the instance count
+     * @param currentInstances the current number of instances of an app
+     * @return the accepted requests
+     */
+    public List<ScalingRequest> enforce(List<ScalingRequest> requests, ToIntFunction<String> currentInstances) {
+        return enforce(requests, currentInstances, config.get());
+    }
+
+    /**
+     * Enforces all constraints of the provided snapshot and drops requests which do not change the instance count
+     * @param currentInstances the current number of instances of an app
+     * @return the accepted requests
+     */
+    public List<ScalingRequest> enforce(List<ScalingRequest> requests, ToIntFunction<String> currentInstances,
+                                        ScalingConfig config) {
+        List<ScalingRequest> acceptedRequests = new ArrayList<>(requests.size());
+        long now = clock.millis();
+        for (ScalingRequest sr : requests) {
+            String app = sr.getApp();
+            int desiredReplicas = sr.getInstances();
+            if (desiredReplicas <= 0) {
+                logger.info("Logical constraint enforced: Request \"" + sr.toString() + "\" instance count is too low");
+                desiredReplicas = 1;
+            }
+            // Enforce user set constraints
+            ScalingConfig.Bounds appBounds = config.getBounds(app);
+            if (appBounds != null) {
+                desiredReplicas = appBounds.clamp(desiredReplicas);
+            }
+
+            int currentReplicas = currentInstances.applyAsInt(app);
+            if (desiredReplicas > currentReplicas) {
+                // Check upscale timing
+                Long upscaleAllowedAt = upscaleTime.get(app);
+                if (upscaleAllowedAt == null || upscaleAllowedAt < now) {
+                    int usTimeout = config.getUpscaleTimeout();
+                    upscaleTime.put(app, now + usTimeout * 1000L);
+                } else {
+                    logger.info("Upscaling for app " + app + " not allowed, timeout active");
+                    continue;
+                }
+                // Check upscale limit
+                int usLimit = config.getUpscaleLimit();
+                if (desiredReplicas - currentReplicas > usLimit) {
+                    logger.info("Upscale limit for app " + app + " enforced");
+                    desiredReplicas = currentReplicas + usLimit;
+                }
+                acceptedRequests.add(desiredReplicas == sr.getInstances() ? sr
+                        : new ScalingRequest(app, desiredReplicas));
+            } else if (desiredReplicas < currentReplicas) {
+                // Check downscale timing
+                Long downscaleAllowedAt = downscaleTime.get(app);
+                if (downscaleAllowedAt == null || downscaleAllowedAt < now) {
+                    int dsTimeout = config.getDownscaleTimeout();
+                    downscaleTime.put(app, now + dsTimeout * 1000L);
+                } else {
+                    logger.info("Downscaling for app " + app + " not allowed, timeout active");
+                    continue;
+                }
+                // Check downscale limit
+                int dsLimit = config.getDownscaleLimit();
+                if (currentReplicas - desiredReplicas > dsLimit) {
+                    logger.info("Downscale limit for app " + app + " enforced");
+                    desiredReplicas = currentReplicas - dsLimit;
+                }
+                acceptedRequests.add(desiredReplicas == sr.getInstances() ? sr
+                        : new ScalingRequest(app, desiredReplicas));
+            }
+        }
+        return acceptedRequests;
+    }
+}
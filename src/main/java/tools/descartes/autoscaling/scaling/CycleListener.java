@@ -0,0 +1,13 @@
+package tools.descartes.autoscaling.scaling;
+
+/**
+ * Is notified by the {@link Scaler} after each scaling cycle including the execution of its actions
+ */
+@FunctionalInterface
+public interface CycleListener {
+
+    /**
+     * Called on the thread that executed the scaling actions, must not block
+     */
+    void cycleCompleted(CycleTimings timings);
+}
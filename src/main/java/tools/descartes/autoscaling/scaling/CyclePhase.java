@@ -0,0 +1,35 @@
+package tools.descartes.autoscaling.scaling;
+
+/**
+ * The phases of a scaling cycle, in the order they run
+ */
+public enum CyclePhase {
+    /**
+     * Querying the names of all available metrics
+     */
+    NAME_DISCOVERY,
+    /**
+     * Querying the measurements of the metrics, without their aggregation
+     */
+    METRIC_IMPORT,
+    /**
+     * Aggregating the queried measurements per app
+     */
+    AGGREGATION,
+    SAFETY_SCALER,
+    REACTIVE_SCALER,
+    PROACTIVE_SCALER,
+    /**
+     * Merging the requests of the scalers by priority
+     */
+    MERGE,
+    CONSTRAINT_ENFORCEMENT,
+    /**
+     * Executing the scaling actions on CloudFoundry
+     */
+    EXECUTION,
+    /**
+     * Exporting the actions and measurements as training data
+     */
+    EXPORT
+}
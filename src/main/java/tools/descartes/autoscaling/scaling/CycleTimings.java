@@ -0,0 +1,164 @@
+package tools.descartes.autoscaling.scaling;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The time spent in each {@link CyclePhase} of one scaling cycle and the heap allocated by it. A cycle runs on a
+ * pipeline thread until its actions are handed over to the execution stage, the timings of the pipeline thread are
+ * bound to it while it runs, so that phases deeper in the call stack can be timed with {@link #time}. The completed
+ * cycle is emitted as {@link ScalingCycleEvent} if the flight recorder is recording.
+ */
+public class CycleTimings {
+
+    private static final ThreadLocal<CycleTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startMillis;
+    private final long startNanos;
+    private final long startAllocatedBytes;
+    private final long[] phaseNanos = new long[CyclePhase.values().length];
+    private final ScalingCycleEvent event = new ScalingCycleEvent();
+    private long totalNanos;
+    private long allocatedBytes;
+    private int apps;
+    private int requests;
+
+    CycleTimings(long startMillis) {
+        this.startMillis = startMillis;
+        this.startNanos = System.nanoTime();
+        this.startAllocatedBytes = threadAllocatedBytes();
+        event.begin();
+    }
+
+    /**
+     * Runs the action and adds its duration to the phase of the cycle bound to the current thread, if there is one
+     */
+    public static <T> T time(CyclePhase phase, Supplier<T> action) {
+        CycleTimings timings = CURRENT.get();
+        if (timings == null) return action.get();
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            timings.add(phase, System.nanoTime() - start);
+        }
+    }
+
+    static CycleTimings current() {
+        return CURRENT.get();
+    }
+
+    void bind() {
+        CURRENT.set(this);
+    }
+
+    void unbind() {
+        CURRENT.remove();
+    }
+
+    void add(CyclePhase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * Adds the allocations of a thread between two values of {@link #threadAllocatedBytes()}
+     */
+    void addAllocatedBytes(long startBytes, long endBytes) {
+        if (startBytes < 0 || endBytes < 0 || allocatedBytes < 0) {
+            allocatedBytes = -1;
+        } else {
+            allocatedBytes += endBytes - startBytes;
+        }
+    }
+
+    /**
+     * Adds the allocations of the pipeline thread, which created the timings
+     */
+    void pipelineCompleted() {
+        addAllocatedBytes(startAllocatedBytes, threadAllocatedBytes());
+    }
+
+    void setApps(int apps) {
+        this.apps = apps;
+    }
+
+    void setRequests(int requests) {
+        this.requests = requests;
+    }
+
+    /**
+     * @param success false if the execution or export of the actions failed
+     */
+    void complete(boolean success) {
+        totalNanos = System.nanoTime() - startNanos;
+        if (event.shouldCommit()) {
+            event.set(this, success);
+            event.commit();
+        }
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far or -1 if not supported by the JVM
+     */
+    static long threadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+                return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return system time at the start of the cycle in milliseconds
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getNanos(CyclePhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public Map<CyclePhase, Long> getPhaseNanos() {
+        Map<CyclePhase, Long> result = new EnumMap<>(CyclePhase.class);
+        for (CyclePhase phase : CyclePhase.values()) {
+            result.put(phase, phaseNanos[phase.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * @return time from the start of the cycle until its actions were executed and exported, including waiting for
+     * the actions of the previous cycle
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return bytes allocated by the pipeline and execution threads during the cycle or -1 if not measurable
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return number of apps with measurements in the cycle
+     */
+    public int getApps() {
+        return apps;
+    }
+
+    /**
+     * @return number of scaling requests which were accepted for execution
+     */
+    public int getRequests() {
+        return requests;
+    }
+}
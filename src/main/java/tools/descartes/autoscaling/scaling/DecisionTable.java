@@ -0,0 +1,74 @@
+package tools.descartes.autoscaling.scaling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The proposals of the scalers for each app in one cycle. Each app has one row with a slot per scaler, so that merging
+ * is a single pass over the apps.
+ */
+class DecisionTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionTable.class);
+
+    private final String[] scalers;
+    private final Map<String, ScalingRequest[]> rows;
+
+    /**
+     * @param scalers the names of the scalers by ascending priority, used for logging
+     * @param expectedApps the expected number of apps
+     */
+    DecisionTable(String[] scalers, int expectedApps) {
+        this.scalers = scalers;
+        this.rows = new LinkedHashMap<>(Math.max(16, expectedApps * 4 / 3 + 1));
+    }
+
+    /**
+     * Sets the requests of a scaler, a later request of the scaler for the same app replaces the earlier
+     * @param scaler the index of the scaler
+     */
+    void propose(int scaler, List<ScalingRequest> requests) {
+        for (ScalingRequest request : requests) {
+            rows.computeIfAbsent(request.getApp(), app -> new ScalingRequest[scalers.length])[scaler] = request;
+        }
+    }
+
+    /**
+     * Merges the proposals of each app. A scaler overrides the scalers of lower priority if it requests more
+     * instances.
+     * @return one request per app, in the order the apps were first proposed
+     */
+    List<ScalingRequest> merge() {
+        List<ScalingRequest> merged = new ArrayList<>(rows.size());
+        for (ScalingRequest[] row : rows.values()) {
+            ScalingRequest chosen = null;
+            for (int scaler = 0; scaler < row.length; scaler++) {
+                ScalingRequest request = row[scaler];
+                if (request == null) continue;
+                if (chosen == null) {
+                    if (scaler > 0 && logger.isDebugEnabled()) {
+                        String capitalized = scalers[scaler].substring(0, 1).toUpperCase()
+                                + scalers[scaler].substring(1);
+                        logger.debug(capitalized + " scaler applied to App \"" + request.getApp()
+                                + "\" by setting instance count to " + request.getInstances() + ".");
+                    }
+                    chosen = request;
+                } else if (chosen.getInstances() < request.getInstances()) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Overwriting scaling of " + chosen.getInstances() + " instances by "
+                                + scalers[scaler] + " scaler (" + request.getInstances() + " instances) for app \""
+                                + request.getApp() + "\".");
+                    }
+                    chosen = request;
+                }
+            }
+            merged.add(chosen);
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,114 @@
+package tools.descartes.autoscaling.scaling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Hands the scaling actions of the cycles over to a bounded executor. A cycle owns its apps from its decision until
+ * its actions are executed, so that the cycles of an app decide one after another on the state left by the previous
+ * one, while cycles of different apps never wait for each other.
+ */
+class ExecutionStage {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionStage.class);
+
+    private final Map<String, Claim> executions = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    ExecutionStage(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Waits until the actions of previous cycles for the apps are executed and takes ownership of the apps
+     * @return the claim of the apps, which has to be executed or released
+     */
+    Claim claim(Collection<String> apps) {
+        Claim claim = new Claim();
+        while (true) {
+            Claim pending = null;
+            for (String app : apps) {
+                pending = executions.putIfAbsent(app, claim);
+                if (pending != null) break;
+                claim.apps.add(app);
+            }
+            if (pending == null) return claim;
+            // the apps claimed so far are released while waiting, so that two cycles never wait for each other
+            claim.apps.forEach(app -> executions.remove(app, claim));
+            claim.apps.clear();
+            pending.execution.join();
+        }
+    }
+
+    /**
+     * Runs the actions on the executor and releases the claim afterwards. If the executor is saturated or shut down,
+     * the actions are run on the calling thread, which slows the calling pipeline down instead.
+     * An affected app owned by a cycle whose actions were already handed over is taken over after these actions are
+     * executed, as such a cycle never waits for another one. An affected app owned by a cycle which is still deciding
+     * is left to that cycle, as it might wait for this one.
+     * @param affectedApps apps the actions refer to besides the claimed ones, which are owned until the actions are
+     *                     executed as well
+     */
+    void execute(Claim claim, Collection<String> affectedApps, Runnable actions) {
+        List<CompletableFuture<Void>> predecessors = new ArrayList<>();
+        synchronized (this) {
+            for (String app : affectedApps) {
+                if (claim.apps.contains(app)) continue;
+                Claim owner = executions.putIfAbsent(app, claim);
+                if (owner == null) {
+                    claim.apps.add(app);
+                } else if (owner.handedOver && executions.replace(app, owner, claim)) {
+                    predecessors.add(owner.execution);
+                    claim.apps.add(app);
+                } else {
+                    logger.debug("App " + app + " is owned by a deciding cycle, its actions are not awaited");
+                }
+            }
+            claim.handedOver = true;
+        }
+        // waits on the pipeline like claim(), the awaited cycles were handed over earlier and never wait for this one
+        predecessors.forEach(CompletableFuture::join);
+        Runnable stage = () -> {
+            try {
+                actions.run();
+            } finally {
+                claim.release();
+            }
+        };
+        try {
+            executor.execute(stage);
+        } catch (RejectedExecutionException ree) {
+            logger.debug("Execution stage is saturated, executing scaling actions in pipeline");
+            stage.run();
+        }
+    }
+
+    /**
+     * The ownership of a cycle of its apps
+     */
+    final class Claim {
+        private final CompletableFuture<Void> execution = new CompletableFuture<>();
+        private final Set<String> apps = new HashSet<>();
+        /**
+         * Whether the actions were handed over, the claim does not take further apps afterwards
+         */
+        private volatile boolean handedOver;
+
+        private Claim() {
+        }
+
+        /**
+         * Releases the apps without executing actions, e.g. if the decision failed
+         */
+        void release() {
+            apps.forEach(app -> executions.remove(app, this));
+            execution.complete(null);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package tools.descartes.autoscaling.scaling;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The metric names of the runtime data importer, shared by the scaling pipelines. The names are discovered at most
+ * once per scaling period, so that each pipeline does not query all names on its own.
+ */
+class MetricNameCache {
+
+    private final Supplier<List<String>> discovery;
+    private final LongSupplier currentMillis;
+    private final long maxAgeMillis;
+    private List<String> names;
+    private long discoveredMillis;
+
+    /**
+     * @param discovery queries all metric names
+     * @param maxAgeMillis the names are discovered again after this age
+     */
+    MetricNameCache(Supplier<List<String>> discovery, LongSupplier currentMillis, long maxAgeMillis) {
+        this.discovery = discovery;
+        this.currentMillis = currentMillis;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * @return the cached names, which are discovered again if they are too old. Pipelines asking while the names are
+     * discovered wait for the result instead of discovering them as well.
+     */
+    synchronized List<String> get() {
+        long now = currentMillis.getAsLong();
+        if (names == null || now - discoveredMillis >= maxAgeMillis) {
+            names = discovery.get();
+            discoveredMillis = now;
+        }
+        return names;
+    }
+}
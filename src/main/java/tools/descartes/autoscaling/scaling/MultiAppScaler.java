@@ -1,10 +1,11 @@
 package tools.descartes.autoscaling.scaling;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
@@ -32,7 +33,7 @@ public abstract class MultiAppScaler implements ScalingLogic {
 			throw new IllegalStateException("No config values found.");
 		}
 		this.instanceManager = manager;
-		appscalers = new HashMap<>();
+		appscalers = new ConcurrentHashMap<>();
 	}
 
 	@Override
@@ -43,13 +44,27 @@ public abstract class MultiAppScaler implements ScalingLogic {
 		for (Entry<String, List<Metric>> entry : groupedByApp.entrySet()) {
 			String appString = entry.getKey();
 			// get or create the respective app scaler, if not already present
-			SingleAppScaler appscaler = appscalers.computeIfAbsent(appString, this::createAppScaler);
+			SingleAppScaler appscaler = getAppScaler(appString);
 			// sum up all scalings created by calling each sub-scaler for each specific app
 			result.addAll(appscaler.calculateScaling(entry.getValue(), lastActions));
 		}
 		return result;
 	}
 
+	/**
+	 * @return the scaler of the provided app, which is created if not already present
+	 */
+	public SingleAppScaler getAppScaler(String app) {
+		return appscalers.computeIfAbsent(app, this::createAppScaler);
+	}
+
+	/**
+	 * @return the scalers created so far by app
+	 */
+	protected Map<String, SingleAppScaler> getAppScalers() {
+		return Collections.unmodifiableMap(appscalers);
+	}
+
 	public abstract SingleAppScaler createAppScaler(String app);
 
 }
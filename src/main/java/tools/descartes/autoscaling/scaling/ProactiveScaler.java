@@ -1,5 +1,6 @@
 package tools.descartes.autoscaling.scaling;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Component;
 
 import tools.descartes.autoscaling.config.ScalingProperties;
@@ -18,16 +19,18 @@ public class ProactiveScaler extends MultiAppScaler {
 
 	private final ModelRegistry modelRegistry;
 	private final IRewardFunction reward;
+	private final MeterRegistry meterRegistry;
 
 	public ProactiveScaler(ScalingProperties scalingProperties, InstanceManager manager, ModelRegistry modelRegistry,
-                           RewardFunctionWrapper rewardFunctionWrapper) {
+                           RewardFunctionWrapper rewardFunctionWrapper, MeterRegistry meterRegistry) {
 		super(manager, scalingProperties);
 		this.modelRegistry = modelRegistry;
 		this.reward = rewardFunctionWrapper.getRewardFunction();
+		this.meterRegistry = meterRegistry;
 	}
 
 	@Override
 	public SingleAppScaler createAppScaler(String app) {
-		return new ProactiveSingleAppScaler(app, scalingProperties, instanceManager, modelRegistry, reward);
+		return new ProactiveSingleAppScaler(app, scalingProperties, instanceManager, modelRegistry, reward, meterRegistry);
 	}
 }
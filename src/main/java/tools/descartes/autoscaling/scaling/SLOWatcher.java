@@ -0,0 +1,93 @@
+package tools.descartes.autoscaling.scaling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import tools.descartes.autoscaling.config.RuntimeConfig;
+import tools.descartes.autoscaling.config.ScalingConfig;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.knowledge.InstanceManager;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.RewritableMetric;
+import tools.descartes.autoscaling.metrics.RuntimeDataImporter;
+import tools.descartes.autoscaling.metrics.RuntimeDataImporterWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Watches the configured KPIs of all apps between two scaling cycles. Only the KPI queries are sent, if an SLO is
+ * violated an immediate reactive cycle is run for the affected app.
+ */
+@Component
+public class SLOWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SLOWatcher.class);
+
+    private final Scaler scaler;
+    private final ReactiveScaler reactiveScaler;
+    private final InstanceManager instanceManager;
+    private final ScalingProperties scalingProperties;
+    private final RuntimeConfig runtimeConfig;
+    private final RuntimeDataImporter runtimeDataImporter;
+
+    public SLOWatcher(Scaler scaler, ReactiveScaler reactiveScaler, InstanceManager instanceManager,
+                      ScalingProperties scalingProperties, RuntimeConfig runtimeConfig,
+                      RuntimeDataImporterWrapper runtimeDataImporterWrapper) {
+        this.scaler = scaler;
+        this.reactiveScaler = reactiveScaler;
+        this.instanceManager = instanceManager;
+        this.scalingProperties = scalingProperties;
+        this.runtimeConfig = runtimeConfig;
+        this.runtimeDataImporter = runtimeDataImporterWrapper.getRuntimeDataImporter();
+    }
+
+    public boolean isEnabled() {
+        return scalingProperties.getFastPath().isEnabled();
+    }
+
+    /**
+     * @return temporal difference between two queries of the KPIs in seconds
+     */
+    public int getIntervalSeconds() {
+        return scalingProperties.getFastPath().getInterval();
+    }
+
+    /**
+     * Queries the KPIs of all known apps once and triggers a reactive cycle for each app violating an SLO. The KPIs are
+     * read from the current settings snapshot, like in a scaling cycle.
+     */
+    public void poll() {
+        if (instanceManager.getApps() == null) return;
+        instanceManager.refreshInstanceStates();
+        ScalingConfig config = runtimeConfig.get();
+        for (Map.Entry<String, List<ScalingProperties.KPIProperties>> entry : config.getKpis().entrySet()) {
+            String app = entry.getKey();
+            if (instanceManager.getCountOf(app) < 0) continue;
+            List<Metric> kpiMeasurements = queryKPIs(app, entry.getValue());
+            if (kpiMeasurements == null) continue;
+            if (reactiveScaler.getAppScaler(app).isAnySLOViolated(kpiMeasurements, entry.getValue())) {
+                scaler.reactiveTick(app, kpiMeasurements);
+            }
+        }
+    }
+
+    /**
+     * @return the current values of all KPIs of the app or null if any of them is missing
+     */
+    private List<Metric> queryKPIs(String app, List<ScalingProperties.KPIProperties> kpis) {
+        List<Metric> result = new ArrayList<>();
+        for (ScalingProperties.KPIProperties kpi : kpis) {
+            RewritableMetric measurement = runtimeDataImporter.getSingleMetric(kpi.getQuery());
+            if (measurement == null) {
+                logger.debug("No value of KPI " + kpi.getName() + " for app " + app);
+                return null;
+            }
+            measurement.setName(kpi.getName());
+            measurement.setApp(app);
+            result.add(measurement);
+        }
+        return result;
+    }
+}
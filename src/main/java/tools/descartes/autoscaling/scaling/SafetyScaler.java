@@ -1,5 +1,18 @@
 package tools.descartes.autoscaling.scaling;
 
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import tools.descartes.autoscaling.config.ScalingProperties;
@@ -8,17 +21,124 @@ import tools.descartes.autoscaling.scaling.appscaler.SafetySingleAppScaler;
 import tools.descartes.autoscaling.scaling.appscaler.SingleAppScaler;
 
 /**
- * A child class of MultiAppScaler which instantiates safety single app scalers.
+ * A child class of MultiAppScaler which instantiates safety single app scalers. If a snapshot file is configured, the
+ * history of the scalers is saved to it every few scaling periods by the {@link ScalerThread} and on shutdown, and
+ * restored when the scalers are created.
  */
 @Component
 public class SafetyScaler extends MultiAppScaler {
 
+	private static final Logger logger = LoggerFactory.getLogger(SafetyScaler.class);
+	private static final int SNAPSHOT_MAGIC = 0x53414645;
+	private static final int SNAPSHOT_VERSION = 1;
+
+	private final Path snapshotFile;
+	private final int snapshotInterval;
+	/**
+	 * The saved histories of the apps whose scalers were not created yet
+	 */
+	private final Map<String, byte[]> restored;
+
 	public SafetyScaler(ScalingProperties scalingProperties, InstanceManager manager) {
 		super(manager, scalingProperties);
+		ScalingProperties.SafetyProperties safety = scalingProperties.getSafety();
+		String file = safety == null ? null : safety.getSnapshotFile();
+		boolean active = safety != null && safety.getPeriod() > 0;
+		this.snapshotFile = active && file != null && !file.isEmpty() ? Paths.get(file) : null;
+		this.snapshotInterval = safety == null ? 0 : safety.getSnapshotInterval();
+		this.restored = readSnapshot();
 	}
 
 	@Override
 	public SingleAppScaler createAppScaler(String app) {
-		return new SafetySingleAppScaler(app, scalingProperties, instanceManager);
+		SafetySingleAppScaler scaler = new SafetySingleAppScaler(app, scalingProperties, instanceManager);
+		byte[] history;
+		synchronized (restored) {
+			history = restored.remove(app);
+		}
+		if (history != null) {
+			try {
+				if (!scaler.restoreHistory(new DataInputStream(new ByteArrayInputStream(history)))) {
+					logger.info("Discarding saved safety scaler history of app " + app + ", the period changed");
+				}
+			} catch (IOException ioe) {
+				logger.error("Could not restore safety scaler history of app " + app, ioe);
+			}
+		}
+		return scaler;
+	}
+
+	/**
+	 * @return whether the history is saved periodically
+	 */
+	public boolean isSnapshotEnabled() {
+		return snapshotFile != null && snapshotInterval > 0;
+	}
+
+	/**
+	 * @return the seconds between two periodic snapshots, the configured number of scaling periods
+	 */
+	public long getSnapshotPeriodSeconds() {
+		return (long) snapshotInterval * Math.max(1, scalingProperties.getTimeout());
+	}
+
+	/**
+	 * Saves the history of all scalers, replacing the previous snapshot atomically
+	 */
+	@PreDestroy
+	public synchronized void writeSnapshot() {
+		if (snapshotFile == null) return;
+		Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+		Map<String, byte[]> histories = new HashMap<>();
+		synchronized (restored) {
+			// apps which were not scaled since the restart keep their history
+			histories.putAll(restored);
+		}
+		try {
+			for (Map.Entry<String, SingleAppScaler> entry : getAppScalers().entrySet()) {
+				ByteArrayOutputStream history = new ByteArrayOutputStream();
+				((SafetySingleAppScaler) entry.getValue()).writeHistory(new DataOutputStream(history));
+				histories.put(entry.getKey(), history.toByteArray());
+			}
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(SNAPSHOT_MAGIC);
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeInt(histories.size());
+				for (Map.Entry<String, byte[]> entry : histories.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeInt(entry.getValue().length);
+					out.write(entry.getValue());
+				}
+			}
+			Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ioe) {
+			logger.error("Could not save safety scaler history to " + snapshotFile.toAbsolutePath(), ioe);
+		}
+	}
+
+	private Map<String, byte[]> readSnapshot() {
+		Map<String, byte[]> histories = new HashMap<>();
+		if (snapshotFile == null) return histories;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+			if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+				logger.warn("Ignoring safety scaler history " + snapshotFile.toAbsolutePath()
+						+ ", the format is not supported");
+				return histories;
+			}
+			int apps = in.readInt();
+			for (int i = 0; i < apps; i++) {
+				String app = in.readUTF();
+				byte[] history = new byte[in.readInt()];
+				in.readFully(history);
+				histories.put(app, history);
+			}
+			logger.info("Restored safety scaler history of " + apps + " apps from " + snapshotFile.toAbsolutePath());
+		} catch (NoSuchFileException nsfe) {
+			// first start
+		} catch (IOException ioe) {
+			logger.error("Could not read safety scaler history from " + snapshotFile.toAbsolutePath(), ioe);
+			histories.clear();
+		}
+		return histories;
 	}
 }
@@ -1,22 +1,30 @@
 package tools.descartes.autoscaling.scaling;
 
+import java.time.Clock;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import tools.descartes.autoscaling.cloudfoundry.CFConnector;
 import tools.descartes.autoscaling.cloudfoundry.CFConnectorWrapper;
+import tools.descartes.autoscaling.config.CloudFoundryProperties;
 import tools.descartes.autoscaling.config.MetricsProperties;
 import tools.descartes.autoscaling.config.PrometheusProperties;
-import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.RuntimeConfig;
+import tools.descartes.autoscaling.config.ScalingConfig;
 import tools.descartes.autoscaling.config.ScalingProperties;
 import tools.descartes.autoscaling.config.TrainingProperties;
 import tools.descartes.autoscaling.knowledge.InstanceManager;
+import tools.descartes.autoscaling.scaling.journal.DecisionJournal;
+import tools.descartes.autoscaling.scaling.journal.DecisionTrace;
 import tools.descartes.autoscaling.training.io.TrainingDataExporter;
 import tools.descartes.autoscaling.training.io.TrainingDataExporterWrapper;
 import tools.descartes.autoscaling.metrics.Metric;
@@ -25,14 +33,15 @@ import tools.descartes.autoscaling.metrics.RuntimeDataImporter;
 import tools.descartes.autoscaling.metrics.RuntimeDataImporterWrapper;
 
 /**
- * The core class which runs the autoscaling and measurement queries
+ * The core class which runs the autoscaling and measurement queries. The ticks are scheduled by {@link ScalerThread},
+ * scaling ticks of disjoint sets of apps may run concurrently.
  */
 @Component
-public class Scaler implements Runnable {
+public class Scaler {
 
     private static final Logger logger = LoggerFactory.getLogger(Scaler.class);
+    private static final String[] MERGE_ORDER = {"proactive", "reactive", "safety"};
 
-    private final AtomicBoolean isRunning;
     private final InstanceManager instanceManager;
     private final ProactiveScaler proactiveScaler;
     private final ReactiveScaler reactiveScaler;
@@ -42,20 +51,28 @@ public class Scaler implements Runnable {
     private final PrometheusProperties prometheusProperties;
     private final TrainingProperties trainingProperties;
     private final ScalingProperties scalingProperties;
-    private final RulesProperties rulesProperties;
+    private final CloudFoundryProperties cloudFoundryProperties;
     private final MetricsProperties metricsProperties;
     private final RuntimeDataImporter runtimeDataImporter;
-    private long scalingAllowedAtTime = 0;
-    private final Map<String, Long> upscaleTime;
-    private final Map<String, Long> downscaleTime;
+    private final Map<String, Integer> lastActions = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final RuntimeConfig runtimeConfig;
+    private final ConstraintEnforcer constraintEnforcer;
+    private final ExecutorService executionExecutor;
+    private final ExecutionStage executionStage;
+    private final List<CycleListener> cycleListeners = new CopyOnWriteArrayList<>();
+    private final ScalerMetrics metrics;
+    private final DecisionJournal journal;
+    private final MetricNameCache metricNameCache;
 
-    public Scaler(InstanceManager instanceManager, RulesProperties rulesProperties,
+    public Scaler(InstanceManager instanceManager, RuntimeConfig runtimeConfig,
                   CFConnectorWrapper cfConnector, ProactiveScaler proactiveScaler, ReactiveScaler reactiveScaler,
                   SafetyScaler safetyScaler, TrainingDataExporterWrapper trainingExporter,
                   PrometheusProperties prometheusProperties, TrainingProperties trainingProperties,
                   ScalingProperties scalingProperties, MetricsProperties metricsProperties,
-                  RuntimeDataImporterWrapper runtimeDataImporterWrapper) {
-        isRunning = new AtomicBoolean(false);
+                  RuntimeDataImporterWrapper runtimeDataImporterWrapper,
+                  CloudFoundryProperties cloudFoundryProperties, MeterRegistry meterRegistry,
+                  DecisionJournal journal) {
         this.instanceManager = instanceManager;
         this.proactiveScaler = proactiveScaler;
         this.reactiveScaler = reactiveScaler;
@@ -63,90 +80,291 @@ public class Scaler implements Runnable {
         this.cfConnector = cfConnector.getCfConnector();
         this.trainingDataExporter = trainingExporter.getExporter();
         this.runtimeDataImporter = runtimeDataImporterWrapper.getRuntimeDataImporter();
-        upscaleTime = new HashMap<>();
-        downscaleTime = new HashMap<>();
+        this.clock = Clock.systemUTC();
+        this.runtimeConfig = runtimeConfig;
+        this.constraintEnforcer = new ConstraintEnforcer(runtimeConfig::get, clock);
         this.prometheusProperties = prometheusProperties;
         this.trainingProperties = trainingProperties;
         this.scalingProperties = scalingProperties;
-        this.rulesProperties = rulesProperties;
         this.metricsProperties = metricsProperties;
+        this.cloudFoundryProperties = cloudFoundryProperties;
+        ScalingProperties.PipelineProperties pipelines = scalingProperties.getPipelines();
+        int executionThreads = Math.max(1, pipelines.getExecutionThreads());
+        this.executionExecutor = new ThreadPoolExecutor(executionThreads, executionThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, pipelines.getExecutionQueueCapacity())), runnable -> {
+                    Thread thread = new Thread(runnable, "scaling-execution");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executionStage = new ExecutionStage(executionExecutor);
+        this.metrics = new ScalerMetrics(meterRegistry, instanceManager);
+        // the pipelines of one scaling period share the discovered metric names
+        this.metricNameCache = new MetricNameCache(runtimeDataImporter::getAllMetricNames, clock::millis,
+                TimeUnit.SECONDS.toMillis(Math.max(1, scalingProperties.getTimeout())));
+        cycleListeners.add(metrics);
+        this.journal = journal;
     }
 
-    @Override
-    public void run() {
-        isRunning.set(true);
-        // First, we initialize the InstanceManager which is required for scaling
+    /**
+     * Initializes the InstanceManager which is required for scaling, called before the first tick
+     */
+    public void init() {
         instanceManager.init();
-        boolean exportData = trainingProperties.getExporter().isEnabled();
-        Map<String, Integer> lastActions = new HashMap<>();
-        long currentTime;
-        while (isRunning.get()) {
-            currentTime = System.currentTimeMillis();
-            // Collect measured data for export (if training data without actions should be exported)
-            if (exportData) {
-                logger.info("Exporting measurement data for training");
-                List<Metric> data = importMeasurementData(false);
-                trainingDataExporter.commitMeasurements(currentTime, data);
-            }
-            // If autoscaling logic can be triggered (no timeout active)
-            if (currentTime >= scalingAllowedAtTime) {
-                // Import measurement data
-                List<Metric> aggregatedData = importMeasurementData(true);
-                // Calculate scaling requests
-                List<ScalingRequest> requests = calculateScaling(aggregatedData, lastActions);
-                // Enforce logical constraints
-                requests = enforceLogicalConstraints(requests);
-                // Enforce user set constraints
-                requests = enforceConstraints(requests);
-                if (requests.isEmpty()) {
-                    logger.info("No scaling action needed");
+        lastActions.clear();
+    }
+
+    /**
+     * Registers a listener which is notified with the phase timings of every scaling cycle
+     */
+    public void addCycleListener(CycleListener listener) {
+        cycleListeners.add(listener);
+    }
+
+    public void removeCycleListener(CycleListener listener) {
+        cycleListeners.remove(listener);
+    }
+
+    /**
+     * Collects measured data for export (if training data without actions should be exported)
+     */
+    public void exportTick() {
+        long currentTime = clock.millis();
+        logger.info("Exporting measurement data for training");
+        List<Metric> data = importMeasurementData(false, null, runtimeConfig.get());
+        synchronized (trainingDataExporter) {
+            trainingDataExporter.commitMeasurements(currentTime, data);
+        }
+    }
+
+    /**
+     * Writes the training data buffered by the exporter
+     */
+    public void flushTick() {
+        synchronized (trainingDataExporter) {
+            trainingDataExporter.flush();
+        }
+    }
+
+    /**
+     * Runs one autoscaling cycle for the provided apps. Measurements are imported while the scaling actions of the
+     * previous cycle may still be executed, the decisions for an app are made after its previous actions completed.
+     * The scaling actions and the export are handed over to the execution stage.
+     * @param apps the apps to scale, all apps if null
+     */
+    public void scalingTick(Collection<String> apps) {
+        long currentTime = clock.millis();
+        CycleTimings timings = new CycleTimings(currentTime);
+        timings.bind();
+        try {
+            // the whole cycle decides on the same settings, even if they are changed meanwhile
+            ScalingConfig config = runtimeConfig.get();
+            // Import measurement data
+            List<Metric> aggregatedData = importMeasurementData(true, apps, config);
+            instanceManager.refreshInstanceStates();
+            DecisionTrace trace = journal.startTrace(currentTime, "cycle");
+            decideAndExecute(currentTime, apps, aggregatedData, calculateScaling(trace), config, trace, timings);
+        } finally {
+            timings.unbind();
+        }
+    }
+
+    /**
+     * Runs an immediate reactive cycle for an app whose KPIs violate their SLOs. The upscale limit and timeout are
+     * enforced as in a regular cycle, the measurements are not exported.
+     * @param app the app to scale
+     * @param kpiMeasurements current KPI measurements of the app
+     */
+    public void reactiveTick(String app, List<Metric> kpiMeasurements) {
+        if (!constraintEnforcer.isUpscaleAllowed(app)) {
+            logger.debug("Ignoring SLO violation of app " + app + ", upscale timeout active");
+            metrics.recordReactiveTick(app, false);
+            return;
+        }
+        logger.info("SLO violation of app " + app + " detected, running reactive cycle");
+        metrics.recordReactiveTick(app, true);
+        long currentTime = clock.millis();
+        DecisionTrace trace = journal.startTrace(currentTime, "reactive");
+        decideAndExecute(currentTime, Collections.singleton(app), kpiMeasurements,
+                observe("reactive", reactiveScaler, trace), runtimeConfig.get(), trace, null);
+    }
+
+    /**
+     * Decides and constrains the scaling of the provided apps and hands the requests over to the execution stage
+     * @param config the settings of the cycle
+     * @param trace the journal trace of the cycle
+     * @param timings the timings of a full cycle, null if the data does not cover all measurements of the apps, which
+     *                are then not exported
+     */
+    private void decideAndExecute(long currentTime, Collection<String> apps, List<Metric> data, ScalingLogic logic,
+                                  ScalingConfig config, DecisionTrace trace, CycleTimings timings) {
+        trace.inputs(data);
+        // the fast path and the pipeline of an app must not decide on the same state
+        ExecutionStage.Claim claim = executionStage.claim(apps != null ? apps : allApps(data));
+        List<ScalingRequest> requests;
+        Set<String> affectedApps;
+        try {
+            // Calculate scaling requests
+            requests = logic.calculateScaling(data, lastActions);
+            // Enforce logical and user set constraints
+            List<ScalingRequest> calculatedRequests = requests;
+            requests = CycleTimings.time(CyclePhase.CONSTRAINT_ENFORCEMENT,
+                    () -> constraintEnforcer.enforce(calculatedRequests, instanceManager::getCountOf, config));
+            metrics.recordConstraints(calculatedRequests, requests);
+            trace.decided(calculatedRequests, requests, instanceManager::getCountOf);
+            affectedApps = data.stream().map(Metric::getApp).collect(Collectors.toSet());
+            requests.forEach(request -> affectedApps.add(request.getApp()));
+        } catch (RuntimeException re) {
+            claim.release();
+            throw re;
+        }
+        if (requests.isEmpty()) {
+            logger.info("No scaling action needed");
+        }
+        List<ScalingRequest> acceptedRequests = requests;
+        affectedApps.forEach(metrics::registerInstanceGauge);
+        if (timings != null) {
+            timings.setApps(affectedApps.size());
+            timings.setRequests(acceptedRequests.size());
+            // the timings are handed over to the execution stage
+            timings.pipelineCompleted();
+        }
+        executionStage.execute(claim, affectedApps, () -> {
+            long allocatedBytes = CycleTimings.threadAllocatedBytes();
+            boolean success = false;
+            try {
+                executeAndExport(currentTime, apps, data, acceptedRequests, trace, timings);
+                success = true;
+            } catch (RuntimeException re) {
+                logger.error("Execution of scaling actions failed", re);
+            } finally {
+                trace.commit();
+                if (timings != null) {
+                    timings.addAllocatedBytes(allocatedBytes, CycleTimings.threadAllocatedBytes());
+                    timings.complete(success);
+                    notifyCycleListeners(timings);
                 }
-                // Set new scaling timeout
-                scalingAllowedAtTime = currentTime + (long) scalingProperties.getTimeout() * 1000;
-                Map<String, Integer> executedActions = new HashMap<>();
-                // Execute scaling actions
-                for (ScalingRequest request : requests) {
-                    ScalingResponse response = executeScaling(request);
+            }
+        });
+    }
+
+    /**
+     * @return the known apps and the apps of the data
+     */
+    private Set<String> allApps(List<Metric> data) {
+        Set<String> apps = new HashSet<>();
+        if (instanceManager.getApps() != null) apps.addAll(instanceManager.getApps());
+        data.forEach(metric -> apps.add(metric.getApp()));
+        return apps;
+    }
+
+    private void notifyCycleListeners(CycleTimings timings) {
+        for (CycleListener listener : cycleListeners) {
+            try {
+                listener.cycleCompleted(timings);
+            } catch (RuntimeException re) {
+                logger.error("Cycle listener failed", re);
+            }
+        }
+    }
+
+    /**
+     * @param timings the timings of a full cycle, null if the data does not cover all measurements of the apps
+     */
+    private void executeAndExport(long currentTime, Collection<String> apps, List<Metric> aggregatedData,
+                                  List<ScalingRequest> requests, DecisionTrace trace, CycleTimings timings) {
+        Map<String, Integer> executedActions = new ConcurrentHashMap<>();
+        long executionStart = System.nanoTime();
+        // Execute scaling actions concurrently, the instance counts are updated as each of them completes
+        cfConnector.scaleApps(requests, cloudFoundryProperties.getScaleConcurrency())
+                .doOnNext(response -> {
+                    ScalingRequest request = response.getRequest();
+                    metrics.recordAction(response);
+                    trace.executed(response);
                     if (response.isSuccess()) {
-                        logger.info("Scaling action \"" + request.toString() + "\" successful");
+                        logger.info("Scaling action \"" + request.toString() + "\" successful (took "
+                                + response.getLatencyMillis() + "ms)");
                         int diff = instanceManager.setCountOf(request.getApp(), request.getInstances());
                         executedActions.put(request.getApp(), diff);
                     } else {
-                        logger.error("Scaling action \"" + request.toString() + "\" failed, reason: " + response.getMessage());
+                        logger.error("Scaling action \"" + request.toString() + "\" failed after "
+                                + response.getLatencyMillis() + "ms, reason: " + response.getMessage());
                         executedActions.put(request.getApp(), 0);
                     }
+                })
+                .blockLast();
+        if (timings == null) {
+            lastActions.putAll(executedActions);
+            return;
+        }
+        timings.add(CyclePhase.EXECUTION, System.nanoTime() - executionStart);
+        // Export actions and measurement data which led to these actions
+        if (isExportEnabled()) {
+            logger.info("Exporting action data for training");
+            Set<String> measuredApps = aggregatedData.stream().map(Metric::getApp).collect(Collectors.toSet());
+            // Complete actions
+            measuredApps.forEach(app -> {
+                if (!executedActions.containsKey(app)) {
+                    executedActions.put(app, 0);
                 }
-                // Export actions and measurement data which led to these actions
-                if (exportData) {
-                    logger.info("Exporting action data for training");
-                    Set<String> apps = aggregatedData.stream().map(Metric::getApp).collect(Collectors.toSet());
-                    // Complete actions
-                    apps.forEach(app -> {
-                        if (!executedActions.containsKey(app)) {
-                            executedActions.put(app, 0);
-                        }
-                    });
-                    trainingDataExporter.commitActions(currentTime, aggregatedData, executedActions);
-                }
-                lastActions = executedActions;
+            });
+            // the exporters are not thread-safe, they are shared by all pipelines
+            long exportStart = System.nanoTime();
+            synchronized (trainingDataExporter) {
+                trainingDataExporter.commitActions(currentTime, aggregatedData, executedActions);
             }
-            // Depending on whether measurements without actions should be exported, set timeout and sleep
-            int timeoutSeconds = scalingProperties.getTimeout();
-            int exportTimeoutSeconds = prometheusProperties.getScrapeDuration();
-            try {
-                int finalTimeout = timeoutSeconds < exportTimeoutSeconds ? timeoutSeconds * 1000 : exportTimeoutSeconds * 1000;
-                Thread.sleep(finalTimeout);
-            } catch (InterruptedException ie) {
-                logger.error("InterruptedException while scaling pause");
+            timings.add(CyclePhase.EXPORT, System.nanoTime() - exportStart);
+        }
+        if (apps == null) {
+            lastActions.clear();
+        } else {
+            lastActions.keySet().removeAll(apps);
+        }
+        lastActions.putAll(executedActions);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executionExecutor.shutdown();
+        try {
+            if (!executionExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executionExecutor.shutdownNow();
             }
+        } catch (InterruptedException ie) {
+            executionExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
         }
     }
 
-    public void exit() {
-        isRunning.set(false);
+    public boolean isExportEnabled() {
+        return trainingProperties.getExporter().isEnabled();
+    }
+
+    /**
+     * @return temporal difference between two scaling cycles in seconds
+     */
+    public int getScalingPeriodSeconds() {
+        return scalingProperties.getTimeout();
+    }
+
+    /**
+     * @return temporal difference between two exports of measurement data in seconds
+     */
+    public int getExportPeriodSeconds() {
+        return prometheusProperties.getScrapeDuration();
     }
 
-    private List<Metric> importMeasurementData(boolean aggregate) {
+    /**
+     * @return the longest time exported training data is buffered in seconds
+     */
+    public int getExportFlushIntervalSeconds() {
+        return trainingProperties.getExporter().getFlushIntervalSeconds();
+    }
+
+    /**
+     * @param apps the apps to query measurements for, all apps if null
+     * @param config the settings of the cycle, which provide the KPIs
+     */
+    private List<Metric> importMeasurementData(boolean aggregate, Collection<String> apps, ScalingConfig config) {
         int scalingWindowSeconds;
         if (aggregate) {
             scalingWindowSeconds = scalingProperties.getTimeout();
@@ -156,25 +374,31 @@ public class Scaler implements Runnable {
         String scalingMetric = metricsProperties.getIncluderegex();
         List<Metric> result;
         List<String> metricNames;
+        CycleTimings timings = CycleTimings.current();
+        long aggregationNanos = timings == null ? 0 : timings.getNanos(CyclePhase.AGGREGATION);
+        long importStart = System.nanoTime();
         if (scalingMetric == null) {
-            metricNames = runtimeDataImporter.getAllMetricNames();
+            metricNames = CycleTimings.time(CyclePhase.NAME_DISCOVERY, metricNameCache::get);
+            importStart = System.nanoTime();
             result = new ArrayList<>();
             for (String metric : metricNames) {
-                result.addAll(runtimeDataImporter.getAveragedValuesForMetric(metric, scalingWindowSeconds));
+                result.addAll(queryMetric(metric, scalingWindowSeconds, apps));
             }
         } else {
             Pattern includePattern = Pattern.compile(scalingMetric);
-            metricNames = runtimeDataImporter.getAllMetricNames();
+            metricNames = CycleTimings.time(CyclePhase.NAME_DISCOVERY, metricNameCache::get);
+            importStart = System.nanoTime();
             result = new ArrayList<>();
             for (String metric : metricNames) {
                 if (includePattern.matcher(metric).find()) {
-                    result.addAll(runtimeDataImporter.getAveragedValuesForMetric(metric, scalingWindowSeconds));
+                    result.addAll(queryMetric(metric, scalingWindowSeconds, apps));
                 }
             }
         }
-        Map<String, List<ScalingProperties.KPIProperties>> kpis = scalingProperties.getKpis();
-        for (String app : kpis.keySet()) {
-            List<ScalingProperties.KPIProperties> kpisForApp = kpis.get(app);
+        for (Map.Entry<String, List<ScalingProperties.KPIProperties>> entry : config.getKpis().entrySet()) {
+            String app = entry.getKey();
+            if (apps != null && !apps.contains(app)) continue;
+            List<ScalingProperties.KPIProperties> kpisForApp = entry.getValue();
             for (ScalingProperties.KPIProperties kpi : kpisForApp) {
                 if (!metricNames.contains(kpi.getName())) {
                     RewritableMetric manual = runtimeDataImporter.getSingleMetric(kpi.getQuery());
@@ -187,135 +411,62 @@ public class Scaler implements Runnable {
                 }
             }
         }
+        if (timings != null) {
+            // the aggregation is timed separately by the importer
+            long aggregation = timings.getNanos(CyclePhase.AGGREGATION) - aggregationNanos;
+            timings.add(CyclePhase.METRIC_IMPORT, System.nanoTime() - importStart - aggregation);
+        }
         return result;
     }
 
-    private List<ScalingRequest> calculateScaling(List<Metric> data, Map<String, Integer> lastActions) {
-        List<ScalingRequest> safetyRequests = safetyScaler.calculateScaling(data, lastActions);
-        List<ScalingRequest> reactiveRequests = reactiveScaler.calculateScaling(data, lastActions);
-        List<ScalingRequest> proactiveRequests = proactiveScaler.calculateScaling(data, lastActions);
-
-        // we start with the least priority (proactive)
-        List<ScalingRequest> finalScaling = new ArrayList<>(proactiveRequests);
-
-        mergeRequests(finalScaling, reactiveRequests, "reactive");
-        mergeRequests(finalScaling, safetyRequests, "safety");
+    private List<Metric> queryMetric(String metric, int windowSeconds, Collection<String> apps) {
+        if (apps == null) {
+            return runtimeDataImporter.getAveragedValuesForMetric(metric, windowSeconds);
+        }
+        return runtimeDataImporter.getAveragedValuesForMetric(metric, windowSeconds, apps);
+    }
 
-        return finalScaling;
+    private ScalingLogic calculateScaling(DecisionTrace trace) {
+        return combine(observe("safety", safetyScaler, trace), observe("reactive", reactiveScaler, trace),
+                observe("proactive", proactiveScaler, trace));
     }
 
     /**
-     * Merges the requests of one scaler with another.
-     *
-     * @param finalScaling  The starting list, i.e., the default scaling.
-     * @param mergeRequests The requests to merge into the starting list.
-     * @param logName       The name of the scaler that created the requests to be
-     *                      merged. Is just used for io.
+     * Wraps a scaler, so that its requests are counted and journaled
+     * @param scaler the name of the scaler
      */
-    private void mergeRequests(List<ScalingRequest> finalScaling, List<ScalingRequest> mergeRequests,
-                               String logName) {
-        for (ScalingRequest request : mergeRequests) {
-            // all reactive requests overwrite the proactive requests, if they are higher
-            // (or get added if not previously present)
-            boolean match = false;
-            for (ScalingRequest finalrequest : finalScaling) {
-                if (finalrequest.getApp().equals(request.getApp())) {
-                    // we found a match
-                    match = true;
-                    if (finalrequest.getInstances() < request.getInstances()) {
-                        logger.info("Overwriting scaling of " + finalrequest.getInstances() + " instances by " + logName
-                                + " scaler (" + request.getInstances() + " instances) for app \"" + request.getApp()
-                                + "\".");
-                        finalScaling.remove(finalrequest);
-                        finalScaling.add(request);
-                    }
-                    break;
-                }
-            }
-            if (!match) {
-                // we did not find a match -> we need to insert the new scaling
-                String capitalized = logName.substring(0, 1).toUpperCase() + logName.substring(1);
-                logger.info(capitalized + " scaler applied to App \"" + request.getApp()
-                        + "\" by setting instance count to " + request.getInstances() + ".");
-                finalScaling.add(request);
-            }
-        }
+    private ScalingLogic observe(String scaler, ScalingLogic logic, DecisionTrace trace) {
+        ScalingLogic counted = metrics.countDecisions(scaler, logic);
+        return (data, lastActions) -> {
+            List<ScalingRequest> requests = counted.calculateScaling(data, lastActions);
+            trace.proposals(scaler, requests);
+            return requests;
+        };
     }
 
-    private List<ScalingRequest> enforceLogicalConstraints(List<ScalingRequest> requests) {
-        List<ScalingRequest> result = new ArrayList<>();
-        for (ScalingRequest sr : requests) {
-            if (sr.getInstances() <= 0) {
-                logger.info("Logical constraint enforced: Request \"" + sr.toString() + "\" instance count is too low");
-                ScalingRequest newSr = new ScalingRequest(sr.getApp(), 1);
-                result.add(newSr);
-            } else {
-                result.add(sr);
-            }
-        }
-        return result;
-    }
-
-    private List<ScalingRequest> enforceConstraints(List<ScalingRequest> requests) {
-        List<ScalingRequest> result = new ArrayList<>();
-        // Enforce user set constraints
-        RequestLoop:
-        for (ScalingRequest sr : requests) {
-            List<RulesProperties.ScalingExpression> expressions = rulesProperties.getRules().stream()
-                    .filter(se -> se.getApp().equals(sr.getApp()))
-                    .collect(Collectors.toList());
-            for (RulesProperties.ScalingExpression se : expressions) {
-                if (!se.evaluate(sr.getInstances())) {
-                    result.add(new ScalingRequest(sr.getApp(), se.getClosestValue()));
-                    continue RequestLoop;
-                }
-            }
-            result.add(sr);
-        }
-
-        List<ScalingRequest> acceptedRequests = new ArrayList<>();
-        for (ScalingRequest sr : result) {
-            String app = sr.getApp();
-            int desiredReplicas = sr.getInstances();
-            int currentReplicas = instanceManager.getCountOf(app);
-            if (desiredReplicas > currentReplicas) {
-                // Check upscale timing
-                if (upscaleTime.get(app) == null || upscaleTime.get(app) < System.currentTimeMillis()) {
-                    int usTimeout = scalingProperties.getUpscale().getTimeout();
-                    upscaleTime.put(app, System.currentTimeMillis() + usTimeout * 1000L);
-                } else {
-                    logger.info("Upscaling for app " + app + " not allowed, timeout active");
-                    continue;
-                }
-                // Check upscale limit
-                int usLimit = scalingProperties.getUpscale().getLimit();
-                if (desiredReplicas - currentReplicas > usLimit) {
-                    logger.info("Upscale limit for app " + app + " enforced");
-                    desiredReplicas = currentReplicas + usLimit;
-                }
-                acceptedRequests.add(new ScalingRequest(app, desiredReplicas));
-            } else if (desiredReplicas < currentReplicas) {
-                // Check downscale timing
-                if (downscaleTime.get(app) == null || downscaleTime.get(app) < System.currentTimeMillis()) {
-                    int dsTimeout = scalingProperties.getDownscale().getTimeout();
-                    downscaleTime.put(app, System.currentTimeMillis() + dsTimeout * 1000L);
-                } else {
-                    logger.info("Downscaling for app " + app + " not allowed, timeout active");
-                    continue;
-                }
-                // Check downscale limit
-                int dsLimit = scalingProperties.getDownscale().getLimit();
-                if (currentReplicas - desiredReplicas > dsLimit) {
-                    logger.info("Downscale limit for app " + app + " enforced");
-                    desiredReplicas = currentReplicas - dsLimit;
-                }
-                acceptedRequests.add(new ScalingRequest(app, desiredReplicas));
-            }
-        }
-        return acceptedRequests;
-    }
+    /**
+     * Combines the scalers by priority, the safety scaler overrides lower reactive and proactive requests and the
+     * reactive scaler overrides lower proactive requests
+     */
+    public static ScalingLogic combine(ScalingLogic safetyScaler, ScalingLogic reactiveScaler,
+                                       ScalingLogic proactiveScaler) {
+        return (data, lastActions) -> {
+            List<ScalingRequest> safetyRequests = CycleTimings.time(CyclePhase.SAFETY_SCALER,
+                    () -> safetyScaler.calculateScaling(data, lastActions));
+            List<ScalingRequest> reactiveRequests = CycleTimings.time(CyclePhase.REACTIVE_SCALER,
+                    () -> reactiveScaler.calculateScaling(data, lastActions));
+            List<ScalingRequest> proactiveRequests = CycleTimings.time(CyclePhase.PROACTIVE_SCALER,
+                    () -> proactiveScaler.calculateScaling(data, lastActions));
 
-    private ScalingResponse executeScaling(ScalingRequest request) {
-        return cfConnector.scaleApp(request);
+            return CycleTimings.time(CyclePhase.MERGE, () -> {
+                // by ascending priority, proactive requests are overridden by higher reactive and safety requests
+                DecisionTable table = new DecisionTable(MERGE_ORDER, Math.max(proactiveRequests.size(),
+                        Math.max(reactiveRequests.size(), safetyRequests.size())));
+                table.propose(0, proactiveRequests);
+                table.propose(1, reactiveRequests);
+                table.propose(2, safetyRequests);
+                return table.merge();
+            });
+        };
     }
 }
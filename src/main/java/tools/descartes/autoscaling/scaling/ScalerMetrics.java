@@ -0,0 +1,126 @@
+package tools.descartes.autoscaling.scaling;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import tools.descartes.autoscaling.knowledge.InstanceManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the meters of the {@link Scaler}: the duration of each cycle and its phases, the requests of each scaler,
+ * how the constraints changed them and the outcome of the scaling actions
+ */
+class ScalerMetrics implements CycleListener {
+
+    private final MeterRegistry meterRegistry;
+    private final InstanceManager instanceManager;
+    private final Timer cycleTimer;
+    private final Map<CyclePhase, Timer> phaseTimers = new EnumMap<>(CyclePhase.class);
+    private final DistributionSummary allocatedBytes;
+    private final DistributionSummary cycleRequests;
+    private final Set<String> instanceGauges = ConcurrentHashMap.newKeySet();
+
+    ScalerMetrics(MeterRegistry meterRegistry, InstanceManager instanceManager) {
+        this.meterRegistry = meterRegistry;
+        this.instanceManager = instanceManager;
+        cycleTimer = Timer.builder("autoscaler.cycle")
+                .description("Duration of full scaling cycles until their actions are executed and exported")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        for (CyclePhase phase : CyclePhase.values()) {
+            phaseTimers.put(phase, Timer.builder("autoscaler.cycle.phase")
+                    .description("Time spent in a phase of full scaling cycles")
+                    .tag("phase", phase.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        allocatedBytes = DistributionSummary.builder("autoscaler.cycle.allocated")
+                .description("Heap allocated by the pipeline and execution threads during full scaling cycles")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        cycleRequests = DistributionSummary.builder("autoscaler.cycle.requests")
+                .description("Scaling requests accepted for execution per full scaling cycle")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void cycleCompleted(CycleTimings timings) {
+        cycleTimer.record(timings.getTotalNanos(), TimeUnit.NANOSECONDS);
+        phaseTimers.forEach((phase, timer) -> timer.record(timings.getNanos(phase), TimeUnit.NANOSECONDS));
+        if (timings.getAllocatedBytes() >= 0) {
+            allocatedBytes.record(timings.getAllocatedBytes());
+        }
+        cycleRequests.record(timings.getRequests());
+    }
+
+    /**
+     * Wraps a scaler, so that its requests are counted per app
+     * @param scaler the name of the scaler, used as tag
+     */
+    ScalingLogic countDecisions(String scaler, ScalingLogic logic) {
+        return (data, lastActions) -> {
+            List<ScalingRequest> requests = logic.calculateScaling(data, lastActions);
+            for (ScalingRequest request : requests) {
+                meterRegistry.counter("autoscaler.scaling.decisions", "app", request.getApp(), "scaler", scaler)
+                        .increment();
+            }
+            return requests;
+        };
+    }
+
+    /**
+     * Counts for each calculated request whether the constraints accepted, changed or dropped it
+     */
+    void recordConstraints(List<ScalingRequest> calculated, List<ScalingRequest> enforced) {
+        Map<String, Integer> enforcedInstances = new HashMap<>();
+        enforced.forEach(request -> enforcedInstances.put(request.getApp(), request.getInstances()));
+        for (ScalingRequest request : calculated) {
+            Integer instances = enforcedInstances.get(request.getApp());
+            String outcome;
+            if (instances == null) {
+                outcome = "dropped";
+            } else if (instances != request.getInstances()) {
+                outcome = "constrained";
+            } else {
+                outcome = "accepted";
+            }
+            meterRegistry.counter("autoscaler.scaling.constraints", "app", request.getApp(), "outcome", outcome)
+                    .increment();
+        }
+    }
+
+    /**
+     * Records the latency of an executed scaling action
+     */
+    void recordAction(ScalingResponse response) {
+        Timer.builder("autoscaler.scaling.actions")
+                .description("Latency of the scaling actions issued to CloudFoundry")
+                .tag("app", response.getRequest().getApp())
+                .tag("outcome", response.isSuccess() ? "success" : "failure")
+                .register(meterRegistry)
+                .record(response.getLatencyMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Counts the SLO violations which triggered a reactive fast-path cycle or were ignored
+     */
+    void recordReactiveTick(String app, boolean executed) {
+        meterRegistry.counter("autoscaler.reactive.ticks", "app", app, "outcome", executed ? "executed" : "suppressed")
+                .increment();
+    }
+
+    /**
+     * Registers a gauge of the desired instances of the app, once per app
+     */
+    void registerInstanceGauge(String app) {
+        if (!instanceGauges.add(app)) return;
+        Gauge.builder("autoscaler.app.instances", instanceManager, manager -> manager.getCountOf(app))
+                .description("Desired instances of the app as known to the autoscaler")
+                .tag("app", app)
+                .register(meterRegistry);
+    }
+}
@@ -6,21 +6,63 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.knowledge.InstanceManager;
+import tools.descartes.autoscaling.scheduling.FixedRateTask;
+import tools.descartes.autoscaling.scheduling.TickScheduler;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A wrapper for a thread which runs the logic in the Scaler class
+ * Runs the logic in the Scaler class on the {@link TickScheduler}. Each app, or each shard of apps, is scaled by its
+ * own pipeline with its own tick, so that a slow app does not delay the others. The pipelines share a bounded
+ * executor. If the known apps change, only the pipelines whose apps changed are replaced, the others keep their
+ * schedule. At most one tick of each pipeline is running at any time.
  */
 @Component
 public class ScalerThread {
 
     private static final Logger logger = LoggerFactory.getLogger(ScalerThread.class);
 
+    private static final String PIPELINE_PREFIX = "scaling-";
+
     private final Scaler scaler;
     private final ScalingProperties scalingProperties;
+    private final TickScheduler tickScheduler;
+    private final InstanceManager instanceManager;
+    private final SLOWatcher sloWatcher;
+    private final SafetyScaler safetyScaler;
+    private final ExecutorService pipelineExecutor;
+    private final Map<String, FixedRateTask> pipelines = new HashMap<>();
+    private final Map<String, Set<String>> pipelineShards = new HashMap<>();
+    private Set<String> pipelineApps = Collections.emptySet();
+    /**
+     * Time the first pipeline was started at, the pipelines are spread over the period relative to it
+     */
+    private long phaseOriginMillis;
+    private FixedRateTask coordinatorTask;
+    private FixedRateTask exportTask;
+    private FixedRateTask flushTask;
+    private FixedRateTask watchTask;
+    private FixedRateTask snapshotTask;
 
-    public ScalerThread(Scaler scaler, ScalingProperties scalingProperties) {
+    public ScalerThread(Scaler scaler, ScalingProperties scalingProperties, TickScheduler tickScheduler,
+                        InstanceManager instanceManager, SLOWatcher sloWatcher, SafetyScaler safetyScaler) {
         this.scaler = scaler;
         this.scalingProperties = scalingProperties;
+        this.tickScheduler = tickScheduler;
+        this.instanceManager = instanceManager;
+        this.sloWatcher = sloWatcher;
+        this.safetyScaler = safetyScaler;
+        this.pipelineExecutor = Executors.newFixedThreadPool(
+                Math.max(1, scalingProperties.getPipelines().getThreads()), runnable -> {
+                    Thread thread = new Thread(runnable, "scaling-pipeline");
+                    thread.setDaemon(true);
+                    return thread;
+                });
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -33,11 +75,148 @@ public class ScalerThread {
         }
     }
 
-    public void start() {
-        new Thread(scaler).start();
+    public synchronized void start() {
+        if (coordinatorTask != null && coordinatorTask.isRunning()) {
+            logger.info("Autoscaler is already running.");
+            return;
+        }
+        long period = Math.max(1, scaler.getScalingPeriodSeconds());
+        // the pipelines are built after the apps are known
+        tickScheduler.execute(() -> {
+            scaler.init();
+            reshard();
+        });
+        if (scaler.isExportEnabled()) {
+            exportTask = tickScheduler.scheduleAtFixedRate("export", 0,
+                    Math.max(1, scaler.getExportPeriodSeconds()), TimeUnit.SECONDS, scaler::exportTick,
+                    pipelineExecutor);
+            // the buffered rows are written even if no new rows are exported
+            long flushInterval = Math.max(1, scaler.getExportFlushIntervalSeconds());
+            flushTask = tickScheduler.scheduleAtFixedRate("export-flush", flushInterval, flushInterval,
+                    TimeUnit.SECONDS, scaler::flushTick, pipelineExecutor);
+        }
+        if (sloWatcher.isEnabled()) {
+            long interval = Math.max(1, sloWatcher.getIntervalSeconds());
+            watchTask = tickScheduler.scheduleAtFixedRate("slo-watch", interval, interval, TimeUnit.SECONDS,
+                    sloWatcher::poll, pipelineExecutor);
+        }
+        if (safetyScaler.isSnapshotEnabled()) {
+            // saved in the background, so that the pipelines never wait for the file
+            long interval = safetyScaler.getSnapshotPeriodSeconds();
+            snapshotTask = tickScheduler.scheduleAtFixedRate("safety-snapshot", interval, interval, TimeUnit.SECONDS,
+                    safetyScaler::writeSnapshot, pipelineExecutor);
+        }
+        // run on the pipeline executor, as it waits for the ticks of replaced pipelines
+        coordinatorTask = tickScheduler.scheduleAtFixedRate("pipelines", period, period, TimeUnit.SECONDS,
+                this::reshard, pipelineExecutor);
+    }
+
+    public synchronized void stop() {
+        if (coordinatorTask != null) {
+            coordinatorTask.stop();
+            coordinatorTask = null;
+        }
+        if (exportTask != null) {
+            exportTask.stop();
+            exportTask = null;
+        }
+        if (flushTask != null) {
+            flushTask.stop();
+            flushTask = null;
+        }
+        if (watchTask != null) {
+            watchTask.stop();
+            watchTask = null;
+        }
+        if (snapshotTask != null) {
+            snapshotTask.stop();
+            snapshotTask = null;
+        }
+        stopPipelines();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop();
+        pipelineExecutor.shutdownNow();
     }
 
-    public void stop() {
-        scaler.exit();
+    /**
+     * Replaces the pipelines whose apps have changed, the unchanged pipelines keep running on their schedule
+     */
+    synchronized void reshard() {
+        if (coordinatorTask == null) return;
+        Set<String> apps = instanceManager.getApps();
+        if (apps == null || apps.equals(pipelineApps)) return;
+        Map<String, List<String>> shards = shard(apps, scalingProperties.getPipelines().getShards());
+        long periodMillis = TimeUnit.SECONDS.toMillis(Math.max(1, scaler.getScalingPeriodSeconds()));
+        boolean first = pipelines.isEmpty();
+        List<FixedRateTask> stopped = new ArrayList<>();
+        Iterator<Map.Entry<String, FixedRateTask>> it = pipelines.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, FixedRateTask> pipeline = it.next();
+            List<String> shardApps = shards.get(pipeline.getKey());
+            if (shardApps == null || !pipelineShards.get(pipeline.getKey()).equals(new HashSet<>(shardApps))) {
+                pipeline.getValue().stop();
+                stopped.add(pipeline.getValue());
+                pipelineShards.remove(pipeline.getKey());
+                it.remove();
+            }
+        }
+        // the apps of a stopped pipeline are only scaled by the new pipelines after its last tick completed
+        for (FixedRateTask pipeline : stopped) {
+            if (!pipeline.awaitIdle(periodMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn("Tick of stopped scaling pipeline " + pipeline.getName() + " is still running");
+            }
+        }
+        long now = System.currentTimeMillis();
+        if (first) {
+            phaseOriginMillis = now;
+        }
+        int started = 0;
+        int index = 0;
+        for (Map.Entry<String, List<String>> shard : shards.entrySet()) {
+            // the pipelines are spread over the period to avoid bursts of queries
+            long offset = periodMillis * index++ / shards.size();
+            if (pipelines.containsKey(shard.getKey())) continue;
+            List<String> shardApps = shard.getValue();
+            // the next time of the slot of the pipeline, so that it does not run an additional cycle
+            long initialDelay = Math.floorMod(phaseOriginMillis + offset - now, periodMillis);
+            pipelines.put(shard.getKey(), tickScheduler.scheduleAtFixedRate(PIPELINE_PREFIX + shard.getKey(),
+                    initialDelay, periodMillis, TimeUnit.MILLISECONDS, () -> scaler.scalingTick(shardApps),
+                    pipelineExecutor));
+            pipelineShards.put(shard.getKey(), new HashSet<>(shardApps));
+            started++;
+        }
+        pipelineApps = new HashSet<>(apps);
+        logger.info("Started " + started + " and stopped " + stopped.size() + " scaling pipelines, "
+                + pipelines.size() + " pipelines for " + pipelineApps.size() + " apps");
+    }
+
+    /**
+     * @return the running pipelines by name of the app or shard
+     */
+    synchronized Map<String, FixedRateTask> getPipelines() {
+        return new HashMap<>(pipelines);
+    }
+
+    private void stopPipelines() {
+        pipelines.values().forEach(FixedRateTask::stop);
+        pipelines.clear();
+        pipelineShards.clear();
+        pipelineApps = Collections.emptySet();
+    }
+
+    /**
+     * Assigns the apps to pipelines, one per app or by hash of the app name if a number of shards is set
+     * @return apps per pipeline name
+     */
+    static Map<String, List<String>> shard(Collection<String> apps, int shards) {
+        Map<String, List<String>> result = new TreeMap<>();
+        for (String app : apps) {
+            String key = shards <= 0 ? app : "shard-" + Math.floorMod(app.hashCode(), shards);
+            result.computeIfAbsent(key, k -> new ArrayList<>()).add(app);
+        }
+        return result;
     }
 }
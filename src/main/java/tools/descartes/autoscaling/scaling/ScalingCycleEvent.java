@@ -0,0 +1,91 @@
+package tools.descartes.autoscaling.scaling;
+
+import jdk.jfr.*;
+
+/**
+ * A flight recorder event spanning a full scaling cycle from the import of the measurements until its actions are
+ * executed and exported, with the time spent in each {@link CyclePhase}
+ */
+@Name("tools.descartes.autoscaling.ScalingCycle")
+@Label("Scaling Cycle")
+@Category({"Autoscaler", "Scaling"})
+@Description("A full scaling cycle of the autoscaler")
+@StackTrace(false)
+class ScalingCycleEvent extends Event {
+
+    @Label("Apps")
+    @Description("Number of apps with measurements in the cycle")
+    int apps;
+
+    @Label("Requests")
+    @Description("Number of scaling requests accepted for execution")
+    int requests;
+
+    @Label("Allocated")
+    @Description("Heap allocated by the pipeline and execution threads, -1 if not measurable")
+    @DataAmount
+    long allocated;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Name Discovery")
+    @Timespan
+    long nameDiscovery;
+
+    @Label("Metric Import")
+    @Timespan
+    long metricImport;
+
+    @Label("Aggregation")
+    @Timespan
+    long aggregation;
+
+    @Label("Safety Scaler")
+    @Timespan
+    long safetyScaler;
+
+    @Label("Reactive Scaler")
+    @Timespan
+    long reactiveScaler;
+
+    @Label("Proactive Scaler")
+    @Timespan
+    long proactiveScaler;
+
+    @Label("Merge")
+    @Timespan
+    long merge;
+
+    @Label("Constraint Enforcement")
+    @Timespan
+    long constraintEnforcement;
+
+    @Label("Execution")
+    @Timespan
+    long execution;
+
+    @Label("Export")
+    @Timespan
+    long export;
+
+    /**
+     * Sets the fields from the completed timings
+     */
+    void set(CycleTimings timings, boolean success) {
+        apps = timings.getApps();
+        requests = timings.getRequests();
+        allocated = timings.getAllocatedBytes();
+        outcome = success ? "success" : "failure";
+        nameDiscovery = timings.getNanos(CyclePhase.NAME_DISCOVERY);
+        metricImport = timings.getNanos(CyclePhase.METRIC_IMPORT);
+        aggregation = timings.getNanos(CyclePhase.AGGREGATION);
+        safetyScaler = timings.getNanos(CyclePhase.SAFETY_SCALER);
+        reactiveScaler = timings.getNanos(CyclePhase.REACTIVE_SCALER);
+        proactiveScaler = timings.getNanos(CyclePhase.PROACTIVE_SCALER);
+        merge = timings.getNanos(CyclePhase.MERGE);
+        constraintEnforcement = timings.getNanos(CyclePhase.CONSTRAINT_ENFORCEMENT);
+        execution = timings.getNanos(CyclePhase.EXECUTION);
+        export = timings.getNanos(CyclePhase.EXPORT);
+    }
+}
@@ -4,12 +4,28 @@ package tools.descartes.autoscaling.scaling;
  * Response to a ScalingRequest, if not successful, it contains an error message
  */
 public class ScalingResponse {
+    private final ScalingRequest request;
     private final boolean success;
     private final String message;
+    private final long latencyMillis;
 
     public ScalingResponse(boolean success, String message) {
+        this(null, success, message, 0);
+    }
+
+    /**
+     * @param request the request this is the response to
+     * @param latencyMillis time from issuing the request until its completion
+     */
+    public ScalingResponse(ScalingRequest request, boolean success, String message, long latencyMillis) {
+        this.request = request;
         this.success = success;
         this.message = message;
+        this.latencyMillis = latencyMillis;
+    }
+
+    public ScalingRequest getRequest() {
+        return request;
     }
 
     public boolean isSuccess() {
@@ -20,4 +36,8 @@ public class ScalingResponse {
         return message;
     }
 
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
 }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,9 +30,9 @@ public class ProactiveSingleAppScaler extends SingleAppScaler {
 	private int backoffTime;
 
 	public ProactiveSingleAppScaler(String app, ScalingProperties scalingProperties, InstanceManager manager, ModelRegistry modelRegistry,
-                                    IRewardFunction reward) {
+                                    IRewardFunction reward, MeterRegistry meterRegistry) {
 		super(app, scalingProperties, manager);
-		this.model = new ReinforcementLearner(app, modelRegistry, reward);
+		this.model = new ReinforcementLearner(app, modelRegistry, reward, meterRegistry);
 		numFineIntervals = 0;
 		appliedDownScaling = false;
 		backoffTime = BACKOFF_TABLE[0];
@@ -51,7 +52,8 @@ public class ProactiveSingleAppScaler extends SingleAppScaler {
 
 	private List<ScalingRequest> getModelDecisionWithExploration(List<Metric> measurements, List<Metric> kpiMetrics, List<ScalingProperties.KPIProperties> kpis, int lastAction) {
 		// Get output from model
-		List<ScalingRequest> modelOutput = model.makePrediction(measurements, kpiMetrics, kpis, instanceManager.getCountOf(app));
+		List<ScalingRequest> modelOutput = model.makePrediction(measurements, kpiMetrics, kpis, instanceManager.getCountOf(app),
+				instanceManager.getEffectiveCountOf(app));
 		Optional<ScalingRequest> reqForApp = modelOutput.stream().filter(sr -> sr.getApp().equals(app)).findFirst();
 		// But also evaluate what default policy would say (keeps backoff and all other variables up to date)
 		List<ScalingRequest> defaultPolicyOutput = getDefaultBehavior(measurements, kpiMetrics, kpis, lastAction);
@@ -27,7 +27,8 @@ public class ReactiveSingleAppScaler extends SingleAppScaler {
 		List<ScalingRequest> list = new ArrayList<>();
 		if (isAnySLOViolated(kpiMetrics, kpis)) {
 			// currently we only support MAX_KPIs, aka only define upper bounds
-			int currentInstances = instanceManager.getCountOf(app);
+			// the measured load is served by the running instances only
+			int currentInstances = instanceManager.getEffectiveCountOf(app);
 			// we check all kpis, do linear interpolation and choose the max number
 			int maxInstances = Integer.MIN_VALUE;
 			Metric decisionMetric = null;
@@ -49,10 +50,20 @@ public class ReactiveSingleAppScaler extends SingleAppScaler {
 				}
 			}
 
+			if (maxInstances <= instanceManager.getCountOf(app)) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Reactive scaler for app \"" + app + "\": " + maxInstances
+							+ " instances needed, which are already requested.");
+				}
+				return list;
+			}
 			list.add(new ScalingRequest(app, maxInstances));
-			logger.info("Reactive scaler for app \"" + app + "\": Measured KPI (\"" + decisionMetric.getName()
-					+ "\") value of " + decisionMetric.getValue() + " with defined SLO of " + decisionSLO
-					+ ". Increasing instances (linear policy) from " + currentInstances + " to " + maxInstances + ".");
+			if (logger.isDebugEnabled()) {
+				logger.debug("Reactive scaler for app \"" + app + "\": Measured KPI (\"" + decisionMetric.getName()
+						+ "\") value of " + decisionMetric.getValue() + " with defined SLO of " + decisionSLO
+						+ ". Increasing instances (linear policy) from " + currentInstances + " to " + maxInstances
+						+ ".");
+			}
 		}
 		return list;
 	}
@@ -1,9 +1,10 @@
 package tools.descartes.autoscaling.scaling.appscaler;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,7 +15,8 @@ import tools.descartes.autoscaling.metrics.Metric;
 import tools.descartes.autoscaling.scaling.ScalingRequest;
 
 /**
- * A safety scaler for a single app
+ * A safety scaler for a single app. It keeps the minimum number of instances of each interval of the period over the
+ * last lookback periods and scales up to at least this minimum divided by the ratio.
  */
 public class SafetySingleAppScaler extends SingleAppScaler {
 
@@ -22,19 +24,21 @@ public class SafetySingleAppScaler extends SingleAppScaler {
 	private int currInterval;
 	private final int period;
 	private final double ratio;
+	private final int lookback;
 
 	/**
-	 * Maps from an interval number (Integer) to an internal data structure
+	 * Maps from an interval number (the index) to an internal data structure
 	 * (MeasurementsStore) for measurements of that interval.
 	 */
-	private final Map<Integer, MeasurementsStore> intervalMapping;
+	private final MeasurementsStore[] intervals;
 
 	public SafetySingleAppScaler(String app, ScalingProperties scalingProperties, InstanceManager manager) {
 		super(app, scalingProperties, manager);
 		currInterval = 0;
 		this.period = extractPeriod();
 		this.ratio = extractRatio();
-		intervalMapping = new HashMap<>();
+		this.lookback = extractLookback();
+		intervals = new MeasurementsStore[period];
 	}
 
 	private int extractPeriod() {
@@ -68,21 +72,35 @@ public class SafetySingleAppScaler extends SingleAppScaler {
 		return ratio;
 	}
 
+	private int extractLookback() {
+		int configLookback = scalingProperties.getSafety().getLookback();
+		if (configLookback <= 0) {
+			logger.warn("The lookback value (" + configLookback
+					+ ") given to the saftey scaler is not supported. Choosing default lookback of 10 for app: \""
+					+ app + "\".");
+			return 10;
+		}
+		return configLookback;
+	}
+
 	@Override
 	public Logger getLogger() {
 		return logger;
 	}
 
 	@Override
-	public List<ScalingRequest> calculateScalingRequests(List<Metric> measurements, List<Metric> kpiMetrics, List<ScalingProperties.KPIProperties> kpis, int lastAction) {
+	public synchronized List<ScalingRequest> calculateScalingRequests(List<Metric> measurements, List<Metric> kpiMetrics, List<ScalingProperties.KPIProperties> kpis, int lastAction) {
 		List<ScalingRequest> list = new ArrayList<>();
 		if (isActive()) {
 			MeasurementsStore interval = addToHistory(measurements, kpiMetrics, kpis);
 			int minInstances = interval.retrieveMinValueFromHistory();
 			int targetinstances = (int) (minInstances / ratio);
 			if (instanceManager.getCountOf(app) < targetinstances) {
-				logger.info("Safety scaler for app \"" + app + "\" determines a minimum number of " + targetinstances
-						+ " necessary and therefore issues a scaling request to match at least this number.");
+				if (logger.isDebugEnabled()) {
+					logger.debug("Safety scaler for app \"" + app + "\" determines a minimum number of "
+							+ targetinstances
+							+ " necessary and therefore issues a scaling request to match at least this number.");
+				}
 				list.add(new ScalingRequest(app, targetinstances));
 			}
 		}
@@ -96,14 +114,56 @@ public class SafetySingleAppScaler extends SingleAppScaler {
 
 	private MeasurementsStore addToHistory(List<Metric> measurements, List<Metric> kpiMetrics, List<ScalingProperties.KPIProperties> kpis) {
 		updateInterval();
-		MeasurementsStore store = intervalMapping.computeIfAbsent(currInterval, k -> new MeasurementsStore());
+		MeasurementsStore store = getStore(currInterval);
 		if (!isAnySLOViolated(kpiMetrics, kpis)) {
 			// we only consider the example, if the kpi is fine
-			store.addExample(measurements, instanceManager.getCountOf(app));
+			store.addExample(measurements, instanceManager.getEffectiveCountOf(app));
 		}
 		return store;
 	}
 
+	private MeasurementsStore getStore(int interval) {
+		if (intervals[interval] == null) {
+			intervals[interval] = new MeasurementsStore(lookback);
+		}
+		return intervals[interval];
+	}
+
+	/**
+	 * Writes the history of all intervals, see {@link #restoreHistory(DataInput)}
+	 */
+	public synchronized void writeHistory(DataOutput out) throws IOException {
+		out.writeInt(period);
+		out.writeInt(currInterval);
+		for (MeasurementsStore store : intervals) {
+			int[] history = store == null ? new int[0] : store.minInstances.toArray();
+			out.writeInt(history.length);
+			for (int instances : history) {
+				out.writeInt(instances);
+			}
+		}
+	}
+
+	/**
+	 * Restores the history written by {@link #writeHistory(DataOutput)}. If the lookback was changed meanwhile, the
+	 * newest values are kept.
+	 * @return false if the history was written with another period and is ignored
+	 */
+	public synchronized boolean restoreHistory(DataInput in) throws IOException {
+		int writtenPeriod = in.readInt();
+		if (writtenPeriod != period) {
+			return false;
+		}
+		currInterval = in.readInt();
+		for (int interval = 0; interval < period; interval++) {
+			int length = in.readInt();
+			for (int i = 0; i < length; i++) {
+				getStore(interval).minInstances.add(in.readInt());
+			}
+		}
+		return true;
+	}
+
 	private boolean isActive() {
 		// only do scaling if active (i.e., if period has a meaningful value)
 		return period > 0;
@@ -111,21 +171,14 @@ public class SafetySingleAppScaler extends SingleAppScaler {
 
 	static class MeasurementsStore {
 
-		List<Integer> minInstances;
+		final SlidingMinimum minInstances;
 
-		public MeasurementsStore() {
-			minInstances = new ArrayList<>();
+		public MeasurementsStore(int lookback) {
+			minInstances = new SlidingMinimum(lookback);
 		}
 
 		private int retrieveMinValueFromHistory() {
-			int minval = Integer.MAX_VALUE;
-			for (Integer integer : minInstances) {
-				minval = Math.min(minval, integer);
-			}
-			if (minval != Integer.MAX_VALUE) {
-				return minval;
-			}
-			return 0;
+			return minInstances.min();
 		}
 
 		public void addExample(List<Metric> measurements, int currentInstances) {
@@ -88,7 +88,17 @@ public abstract class SingleAppScaler implements ScalingLogic {
 	public boolean isSLOViolated(Metric kpi, Double kpiSLO) {
 		// currently we only support MAX_KPIs, aka only define upper bounds
 		// TODO support Min-KPIs as well
-		return kpi.getValue() > kpiSLO;
+		if (kpi.getValue() <= kpiSLO) {
+			return false;
+		}
+		// while instances are starting, the load is expected to decrease once they are running
+		double expectedValue = kpi.getValue() * instanceManager.getWarmupFactor(app);
+		if (expectedValue <= kpiSLO) {
+			getLogger().debug("Discounting violation of KPI \"" + kpi.getName() + "\" for app \"" + app
+					+ "\", instances are warming up (expected value " + expectedValue + ")");
+			return false;
+		}
+		return true;
 	}
 
 	protected abstract Logger getLogger();
@@ -0,0 +1,75 @@
+package tools.descartes.autoscaling.scaling.appscaler;
+
+/**
+ * The minimum of the last values added, which are kept in a fixed-capacity ring buffer. A monotonic deque holds the
+ * increasing minima of the window, so that the minimum is its head and adding a value takes amortized constant time.
+ */
+class SlidingMinimum {
+
+	private final int[] values;
+	private int next;
+	private int size;
+
+	private final int[] dequeValues;
+	private final long[] dequeSequences;
+	private int dequeHead;
+	private int dequeSize;
+	private long sequence;
+
+	/**
+	 * @param capacity the number of last values the minimum is taken over
+	 */
+	SlidingMinimum(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive, but was " + capacity);
+		}
+		this.values = new int[capacity];
+		this.dequeValues = new int[capacity];
+		this.dequeSequences = new long[capacity];
+	}
+
+	void add(int value) {
+		int capacity = values.length;
+		values[next] = value;
+		next = (next + 1) % capacity;
+		if (size < capacity) size++;
+
+		// values which are not smaller than the new value can never become the minimum again
+		while (dequeSize > 0 && dequeValues[(dequeHead + dequeSize - 1) % capacity] >= value) {
+			dequeSize--;
+		}
+		// at most the head can have left the window
+		if (dequeSize > 0 && dequeSequences[dequeHead] <= sequence - capacity) {
+			dequeHead = (dequeHead + 1) % capacity;
+			dequeSize--;
+		}
+		int tail = (dequeHead + dequeSize) % capacity;
+		dequeValues[tail] = value;
+		dequeSequences[tail] = sequence;
+		dequeSize++;
+		sequence++;
+	}
+
+	/**
+	 * @return the minimum of the last values, 0 if no value was added
+	 */
+	int min() {
+		return dequeSize == 0 ? 0 : dequeValues[dequeHead];
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the last values, oldest first
+	 */
+	int[] toArray() {
+		int[] result = new int[size];
+		int start = (next - size + values.length) % values.length;
+		for (int i = 0; i < size; i++) {
+			result[i] = values[(start + i) % values.length];
+		}
+		return result;
+	}
+}
@@ -0,0 +1,64 @@
+package tools.descartes.autoscaling.scaling.journal;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import tools.descartes.autoscaling.config.ScalingProperties;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcasts the decisions of each cycle to live subscribers, e.g. the dashboard. Publishing never blocks: every
+ * subscriber has its own bounded buffer which drops the oldest decisions if the subscriber is too slow, and is
+ * drained on a separate thread.
+ */
+@Component
+public class DecisionBroadcaster {
+
+    private final Sinks.Many<DecisionRecord> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public DecisionBroadcaster(ScalingProperties scalingProperties) {
+        this.bufferSize = Math.max(1, scalingProperties.getJournal().getStreamBufferSize());
+    }
+
+    public boolean hasSubscribers() {
+        return sink.currentSubscriberCount() > 0;
+    }
+
+    void publish(Collection<DecisionRecord> records) {
+        if (!hasSubscribers()) return;
+        // the sink must not be signalled concurrently, the lock is only held to hand over to the buffers
+        synchronized (sink) {
+            for (DecisionRecord record : records) {
+                sink.tryEmitNext(record);
+            }
+        }
+    }
+
+    /**
+     * @param app the app to stream decisions of, all apps if null
+     * @return the decisions of all cycles completed after subscribing
+     */
+    public Flux<DecisionRecord> stream(String app) {
+        Flux<DecisionRecord> records = sink.asFlux();
+        if (app != null) {
+            records = records.filter(record -> app.equals(record.getApp()));
+        }
+        return records
+                .onBackpressureBuffer(bufferSize, record -> dropped.incrementAndGet(),
+                        BufferOverflowStrategy.DROP_OLDEST)
+                .publishOn(Schedulers.boundedElastic(), 1);
+    }
+
+    /**
+     * @return number of decisions dropped for slow subscribers
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,274 @@
+package tools.descartes.autoscaling.scaling.journal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tools.descartes.autoscaling.config.ScalingProperties;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A journal of the scaling decisions, written as JSON lines to rotating files
+ * ({@code decisions_<time of the first record>.jsonl}). The records are queued by the cycles and written by a
+ * background thread, so that the cycles never wait for the disk. If the queue is full, records are dropped.
+ * The records are also published to the live subscribers of the {@link DecisionBroadcaster}.
+ */
+@Component
+public class DecisionJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionJournal.class);
+
+    static final String FILE_PREFIX = "decisions_";
+    static final String FILE_SUFFIX = ".jsonl";
+    private static final Pattern FILE_PATTERN = Pattern.compile(Pattern.quote(FILE_PREFIX) + "(\\d+)"
+            + Pattern.quote(FILE_SUFFIX));
+    private static final DecisionRecord POISON = new DecisionRecord();
+    /**
+     * Cycles complete out of order, so a file may contain records slightly older than its name
+     */
+    private static final long ORDER_SLACK_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final ScalingProperties.JournalProperties properties;
+    private final DecisionBroadcaster broadcaster;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<DecisionRecord> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Object fileLock = new Object();
+    private final Path directory;
+    private Thread writer;
+    private OutputStream out;
+    private long currentBytes;
+
+    public DecisionJournal(ScalingProperties scalingProperties) {
+        this(scalingProperties, new DecisionBroadcaster(scalingProperties));
+    }
+
+    @Autowired
+    public DecisionJournal(ScalingProperties scalingProperties, DecisionBroadcaster broadcaster) {
+        this.properties = scalingProperties.getJournal();
+        this.broadcaster = broadcaster;
+        this.directory = Paths.get(properties.getDirectory());
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        if (properties.isEnabled()) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException ioe) {
+                throw new UncheckedIOException("Could not create journal directory "
+                        + directory.toAbsolutePath(), ioe);
+            }
+            writer = new Thread(this::write, "decision-journal");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Starts the trace of a cycle, which does nothing if the journal is disabled and nobody is subscribed to the
+     * live decisions
+     * @param time system time at the start of the cycle in milliseconds
+     * @param trigger "cycle" for full cycles, "reactive" for reactive cycles
+     */
+    public DecisionTrace startTrace(long time, String trigger) {
+        if (!properties.isEnabled() && !broadcaster.hasSubscribers()) return DecisionTrace.NONE;
+        return new DecisionTrace(this, time, trigger, properties.isIncludeInputs());
+    }
+
+    /**
+     * Queues the records for writing, records which do not fit into the queue are dropped
+     */
+    void append(Collection<DecisionRecord> records) {
+        broadcaster.publish(records);
+        if (!properties.isEnabled()) return;
+        for (DecisionRecord record : records) {
+            if (!queue.offer(record) && dropped.getAndIncrement() == 0) {
+                logger.warn("Decision journal queue is full, dropping records");
+            }
+        }
+    }
+
+    /**
+     * @return number of records dropped because the queue was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the records in the time range, oldest first. If there are more than limit records, the newest are
+     * returned.
+     * @param app the app to return records of, all apps if null
+     * @param from start of the time range in milliseconds, inclusive
+     * @param to end of the time range in milliseconds, inclusive
+     */
+    public List<DecisionRecord> query(String app, long from, long to, int limit) {
+        Deque<DecisionRecord> result = new ArrayDeque<>();
+        if (limit <= 0) return new ArrayList<>();
+        String appField = app == null ? null : "\"app\":" + quote(app);
+        SortedMap<Long, Path> files = listFiles();
+        List<Long> starts = new ArrayList<>(files.keySet());
+        long lastStart = to > Long.MAX_VALUE - ORDER_SLACK_MILLIS ? Long.MAX_VALUE : to + ORDER_SLACK_MILLIS;
+        long firstEnd = from < Long.MIN_VALUE + ORDER_SLACK_MILLIS ? Long.MIN_VALUE : from - ORDER_SLACK_MILLIS;
+        for (int i = 0; i < starts.size(); i++) {
+            // the records of a file end about where the next file starts
+            if (starts.get(i) > lastStart || (i + 1 < starts.size() && starts.get(i + 1) < firstEnd)) continue;
+            try (BufferedReader reader = Files.newBufferedReader(files.get(starts.get(i)), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (appField != null && !line.contains(appField)) continue;
+                    DecisionRecord record;
+                    try {
+                        record = objectMapper.readValue(line, DecisionRecord.class);
+                    } catch (IOException ioe) {
+                        // a line which is still written
+                        continue;
+                    }
+                    if (record.getTime() < from || record.getTime() > to) continue;
+                    if (app != null && !app.equals(record.getApp())) continue;
+                    result.addLast(record);
+                    if (result.size() > limit) result.removeFirst();
+                }
+            } catch (NoSuchFileException nsfe) {
+                // rotated away while querying
+            } catch (IOException ioe) {
+                logger.error("Could not read journal file " + files.get(starts.get(i)), ioe);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private String quote(String value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    private void write() {
+        ObjectWriter recordWriter = objectMapper.writerFor(DecisionRecord.class);
+        // the records are serialized into a reused buffer, so that the file size is known before writing
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        List<DecisionRecord> batch = new ArrayList<>();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.setRootValueSeparator(null);
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (DecisionRecord record : batch) {
+                    if (record == POISON) {
+                        closeFile();
+                        return;
+                    }
+                    buffer.reset();
+                    recordWriter.writeValue(generator, record);
+                    generator.flush();
+                    buffer.write('\n');
+                    writeLine(record.getTime(), buffer);
+                }
+                batch.clear();
+                // flushed whenever the queue is drained, so that queries see all written records
+                synchronized (fileLock) {
+                    if (out != null) out.flush();
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ioe) {
+            logger.error("Could not write decision journal, journal is stopped", ioe);
+        }
+        closeFile();
+    }
+
+    private void writeLine(long time, ByteArrayOutputStream line) throws IOException {
+        synchronized (fileLock) {
+            if (out == null || currentBytes + line.size() > properties.getMaxFileBytes()) {
+                rotate(time);
+            }
+            line.writeTo(out);
+            currentBytes += line.size();
+        }
+    }
+
+    /**
+     * Starts a new file named by the time of its first record and deletes the oldest files
+     */
+    private void rotate(long time) throws IOException {
+        if (out != null) out.close();
+        SortedMap<Long, Path> files = listFiles();
+        // the file names must increase, even if the clock of the records does not
+        long start = files.isEmpty() ? time : Math.max(time, files.lastKey() + 1);
+        out = new BufferedOutputStream(Files.newOutputStream(directory.resolve(FILE_PREFIX + start + FILE_SUFFIX)),
+                64 * 1024);
+        currentBytes = 0;
+        files = listFiles();
+        while (files.size() > Math.max(1, properties.getMaxFiles())) {
+            Files.deleteIfExists(files.remove(files.firstKey()));
+        }
+    }
+
+    private void closeFile() {
+        synchronized (fileLock) {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException ioe) {
+                logger.error("Could not close journal file", ioe);
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * @return the journal files by the time of their first record
+     */
+    private SortedMap<Long, Path> listFiles() {
+        SortedMap<Long, Path> files = new TreeMap<>();
+        File[] existing = directory.toFile().listFiles();
+        if (existing == null) return files;
+        for (File file : existing) {
+            Matcher matcher = FILE_PATTERN.matcher(file.getName());
+            if (matcher.matches()) {
+                files.put(Long.parseLong(matcher.group(1)), file.toPath());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Writes the queued records and closes the current file
+     */
+    @PreDestroy
+    public void close() {
+        if (writer == null) return;
+        try {
+            queue.put(POISON);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,162 @@
+package tools.descartes.autoscaling.scaling.journal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The decision for one app in one scaling cycle: the measurements it was based on, the proposal of each scaler, the
+ * merged request, the request after the constraints were enforced and the result of its execution
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DecisionRecord {
+
+    private long time;
+    private String trigger;
+    private String app;
+    private Integer instances;
+    private Map<String, Double> inputs;
+    private Map<String, Integer> proposals = new LinkedHashMap<>();
+    private Integer merged;
+    private Integer enforced;
+    private String constraint;
+    private String execution;
+    private Long latencyMillis;
+    private String message;
+
+    public DecisionRecord() {
+    }
+
+    DecisionRecord(long time, String trigger, String app) {
+        this.time = time;
+        this.trigger = trigger;
+        this.app = app;
+    }
+
+    /**
+     * @return system time at the start of the cycle in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * @return "cycle" for a full scaling cycle, "reactive" for a reactive cycle triggered by an SLO violation
+     */
+    public String getTrigger() {
+        return trigger;
+    }
+
+    public void setTrigger(String trigger) {
+        this.trigger = trigger;
+    }
+
+    public String getApp() {
+        return app;
+    }
+
+    public void setApp(String app) {
+        this.app = app;
+    }
+
+    /**
+     * @return desired instances of the app when the constraints were enforced
+     */
+    public Integer getInstances() {
+        return instances;
+    }
+
+    public void setInstances(Integer instances) {
+        this.instances = instances;
+    }
+
+    /**
+     * @return the measurements of the app by metric name, null if inputs are not recorded
+     */
+    public Map<String, Double> getInputs() {
+        return inputs;
+    }
+
+    public void setInputs(Map<String, Double> inputs) {
+        this.inputs = inputs;
+    }
+
+    /**
+     * @return the requested instances by the name of the scaler, only scalers which requested a scaling
+     */
+    public Map<String, Integer> getProposals() {
+        return proposals;
+    }
+
+    public void setProposals(Map<String, Integer> proposals) {
+        this.proposals = proposals;
+    }
+
+    /**
+     * @return the requested instances after merging the proposals, null if no scaler requested a scaling
+     */
+    public Integer getMerged() {
+        return merged;
+    }
+
+    public void setMerged(Integer merged) {
+        this.merged = merged;
+    }
+
+    /**
+     * @return the requested instances after enforcing the constraints, null if the request was dropped
+     */
+    public Integer getEnforced() {
+        return enforced;
+    }
+
+    public void setEnforced(Integer enforced) {
+        this.enforced = enforced;
+    }
+
+    /**
+     * @return "accepted", "constrained" or "dropped", null if there was no merged request
+     */
+    public String getConstraint() {
+        return constraint;
+    }
+
+    public void setConstraint(String constraint) {
+        this.constraint = constraint;
+    }
+
+    /**
+     * @return "success" or "failure", null if no scaling action was executed
+     */
+    public String getExecution() {
+        return execution;
+    }
+
+    public void setExecution(String execution) {
+        this.execution = execution;
+    }
+
+    public Long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public void setLatencyMillis(Long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @return the error message of a failed scaling action
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
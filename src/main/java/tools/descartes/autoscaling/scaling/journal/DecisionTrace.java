@@ -0,0 +1,104 @@
+package tools.descartes.autoscaling.scaling.journal;
+
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.scaling.ScalingRequest;
+import tools.descartes.autoscaling.scaling.ScalingResponse;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Collects the {@link DecisionRecord}s of the apps of one cycle while the cycle runs and hands them over to the
+ * journal once the actions are executed. All methods do nothing for {@link #NONE}.
+ */
+public class DecisionTrace {
+
+    /**
+     * The trace of cycles which are not journaled
+     */
+    public static final DecisionTrace NONE = new DecisionTrace(null, 0, null, false);
+
+    private final DecisionJournal journal;
+    private final long time;
+    private final String trigger;
+    private final boolean includeInputs;
+    private final Map<String, DecisionRecord> records = new ConcurrentHashMap<>();
+
+    DecisionTrace(DecisionJournal journal, long time, String trigger, boolean includeInputs) {
+        this.journal = journal;
+        this.time = time;
+        this.trigger = trigger;
+        this.includeInputs = includeInputs;
+    }
+
+    /**
+     * Records the measurements of each app
+     */
+    public void inputs(List<Metric> data) {
+        if (journal == null) return;
+        for (Metric metric : data) {
+            DecisionRecord record = record(metric.getApp());
+            if (!includeInputs) continue;
+            if (record.getInputs() == null) record.setInputs(new TreeMap<>());
+            record.getInputs().put(metric.getName(), metric.getValue());
+        }
+    }
+
+    /**
+     * Records the requests of a scaler
+     * @param scaler the name of the scaler
+     */
+    public void proposals(String scaler, List<ScalingRequest> requests) {
+        if (journal == null) return;
+        for (ScalingRequest request : requests) {
+            record(request.getApp()).getProposals().put(scaler, request.getInstances());
+        }
+    }
+
+    /**
+     * Records the merged requests and the result of the constraints
+     * @param instances the desired instances of an app
+     */
+    public void decided(List<ScalingRequest> merged, List<ScalingRequest> enforced,
+                        ToIntFunction<String> instances) {
+        if (journal == null) return;
+        for (ScalingRequest request : merged) {
+            DecisionRecord record = record(request.getApp());
+            record.setMerged(request.getInstances());
+            record.setConstraint("dropped");
+        }
+        for (ScalingRequest request : enforced) {
+            DecisionRecord record = record(request.getApp());
+            record.setEnforced(request.getInstances());
+            record.setConstraint(Objects.equals(record.getMerged(), request.getInstances())
+                    ? "accepted" : "constrained");
+        }
+        for (DecisionRecord record : records.values()) {
+            record.setInstances(instances.applyAsInt(record.getApp()));
+        }
+    }
+
+    /**
+     * Records the result of a scaling action
+     */
+    public void executed(ScalingResponse response) {
+        if (journal == null) return;
+        DecisionRecord record = record(response.getRequest().getApp());
+        record.setExecution(response.isSuccess() ? "success" : "failure");
+        record.setLatencyMillis(response.getLatencyMillis());
+        record.setMessage(response.getMessage());
+    }
+
+    /**
+     * Hands the records over to the journal
+     */
+    public void commit() {
+        if (journal == null) return;
+        journal.append(records.values());
+    }
+
+    private DecisionRecord record(String app) {
+        return records.computeIfAbsent(app, a -> new DecisionRecord(time, trigger, a));
+    }
+}
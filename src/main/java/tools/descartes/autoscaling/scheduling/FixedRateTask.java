@@ -0,0 +1,157 @@
+package tools.descartes.autoscaling.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a task at a fixed rate without drift: tick n is scheduled at start + n * period, independent of how long
+ * previous ticks took. If a tick overruns, the ticks whose time has passed are not run in a burst. Only the most recent
+ * one is run immediately, the others are counted as skipped. Ticks can be run on a separate worker, at most one tick
+ * of a task is in flight at any time.
+ */
+public class FixedRateTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixedRateTask.class);
+
+    private final String name;
+    private final long periodNanos;
+    private final Runnable task;
+    private final ScheduledExecutorService executor;
+    private final Executor worker;
+    private final long initialDelayNanos;
+    private final TickStatistics statistics;
+    private final LongSupplier nanoTime;
+    /**
+     * Guards the check whether the task is running against stopping it, so that no tick starts after it was stopped
+     */
+    private final Object tickLock = new Object();
+    private boolean ticking;
+    private long startNanos;
+    private long tick;
+    private volatile boolean running;
+    private volatile ScheduledFuture<?> next;
+
+    FixedRateTask(String name, long initialDelay, long period, TimeUnit unit, Runnable task,
+                  ScheduledExecutorService executor, Executor worker, TickStatistics statistics,
+                  LongSupplier nanoTime) {
+        this.name = name;
+        this.initialDelayNanos = unit.toNanos(initialDelay);
+        this.periodNanos = unit.toNanos(period);
+        this.task = task;
+        this.executor = executor;
+        this.worker = worker;
+        this.statistics = statistics;
+        this.nanoTime = nanoTime;
+    }
+
+    synchronized void start() {
+        running = true;
+        startNanos = nanoTime.getAsLong() + initialDelayNanos;
+        tick = 0;
+        next = executor.schedule(this::trigger, initialDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops scheduling further ticks, a currently running tick is completed
+     */
+    public void stop() {
+        synchronized (tickLock) {
+            running = false;
+        }
+        ScheduledFuture<?> scheduled = next;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Waits until a tick which was running while the task was stopped is completed
+     * @return false if the tick is still running after the timeout or the thread was interrupted
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (tickLock) {
+            try {
+                while (ticking) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) return false;
+                    TimeUnit.NANOSECONDS.timedWait(tickLock, remaining);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Hands the tick over to the worker, the next tick is only scheduled after this one is completed
+     */
+    private void trigger() {
+        if (!running) return;
+        try {
+            worker.execute(this::runTick);
+        } catch (RejectedExecutionException ree) {
+            logger.debug("Worker of task " + name + " is shut down, task is stopped");
+            running = false;
+        }
+    }
+
+    private void runTick() {
+        synchronized (tickLock) {
+            if (!running) return;
+            ticking = true;
+        }
+        long begin = nanoTime.getAsLong();
+        statistics.recordTick(TimeUnit.NANOSECONDS.toMillis(begin - (startNanos + tick * periodNanos)));
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // an exception must not end the schedule
+            logger.error("Tick of task " + name + " failed", e);
+        } finally {
+            synchronized (tickLock) {
+                ticking = false;
+                tickLock.notifyAll();
+            }
+        }
+        long end = nanoTime.getAsLong();
+        long nextTick = tick + 1;
+        long due = startNanos + nextTick * periodNanos;
+        if (end > due) {
+            // the most recent tick whose time has passed is run immediately, all others are skipped
+            long passed = (end - due) / periodNanos + 1;
+            nextTick += passed - 1;
+            statistics.recordOverrun(passed - 1);
+            logger.warn("Tick of task " + name + " ended after the next tick was due (took "
+                    + TimeUnit.NANOSECONDS.toMillis(end - begin) + "ms, period "
+                    + TimeUnit.NANOSECONDS.toMillis(periodNanos) + "ms), skipped " + (passed - 1) + " ticks");
+        }
+        tick = nextTick;
+        if (running) {
+            try {
+                next = executor.schedule(this::trigger, Math.max(0, startNanos + tick * periodNanos - end),
+                        TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException ree) {
+                logger.debug("Scheduler is shut down, task " + name + " is stopped");
+                running = false;
+            }
+        }
+    }
+}
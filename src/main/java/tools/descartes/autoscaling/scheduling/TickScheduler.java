@@ -0,0 +1,137 @@
+package tools.descartes.autoscaling.scheduling;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Schedules the periodic ticks of the autoscaler as {@link FixedRateTask}s. Unless a worker is provided, ticks run on
+ * the scheduler thread, so that they never run concurrently. Tick lag, overruns and skipped ticks are exposed as
+ * metrics per task.
+ */
+@Component
+public class TickScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickScheduler.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final ScheduledExecutorService executor;
+    private final LongSupplier nanoTime;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TickStatistics> statistics;
+
+    public TickScheduler(MeterRegistry meterRegistry) {
+        this(meterRegistry, createExecutor(), System::nanoTime);
+    }
+
+    /**
+     * @param executor runs the ticks unless a worker is provided
+     * @param nanoTime the time source the ticks are scheduled with, must match the delays of the executor
+     */
+    TickScheduler(MeterRegistry meterRegistry, ScheduledExecutorService executor, LongSupplier nanoTime) {
+        this.meterRegistry = meterRegistry;
+        this.statistics = new ConcurrentHashMap<>();
+        this.executor = executor;
+        this.nanoTime = nanoTime;
+    }
+
+    private static ScheduledExecutorService createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "tick-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // on shutdown, a running tick is completed but no further ticks are started
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    /**
+     * Starts running a task at a fixed rate, the first tick is run immediately
+     * @param name name of the task, used for logging and metrics
+     * @return the started task
+     */
+    public FixedRateTask scheduleAtFixedRate(String name, long period, TimeUnit unit, Runnable task) {
+        return scheduleAtFixedRate(name, 0, period, unit, task, Runnable::run);
+    }
+
+    /**
+     * Starts running a task at a fixed rate, the ticks are run on the provided worker instead of the scheduler thread
+     * @param name name of the task, used for logging and metrics
+     * @param initialDelay delay of the first tick, e.g. to spread the ticks of several tasks over the period
+     * @return the started task
+     */
+    public FixedRateTask scheduleAtFixedRate(String name, long initialDelay, long period, TimeUnit unit,
+                                             Runnable task, Executor worker) {
+        FixedRateTask fixedRateTask = new FixedRateTask(name, initialDelay, period, unit, task, executor, worker,
+                statistics.computeIfAbsent(name, this::registerMetrics), nanoTime);
+        fixedRateTask.start();
+        logger.info("Scheduled task " + name + " every " + unit.toMillis(period) + "ms");
+        return fixedRateTask;
+    }
+
+    /**
+     * Runs a task once on the scheduler thread before all ticks scheduled afterwards
+     */
+    public void execute(Runnable task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Scheduled task failed", e);
+            }
+        });
+    }
+
+    public TickStatistics getStatistics(String name) {
+        return statistics.get(name);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Scheduled tasks did not finish within " + SHUTDOWN_TIMEOUT_SECONDS + "s, interrupting");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ie) {
+            logger.error("Interrupted while waiting for scheduled tasks to finish");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private TickStatistics registerMetrics(String name) {
+        TickStatistics tickStatistics = new TickStatistics();
+        Gauge.builder("autoscaler.scheduler.tick.lag", tickStatistics, TickStatistics::getLastLagMillis)
+                .description("Delay between scheduled and actual start of the last tick")
+                .baseUnit("milliseconds")
+                .tag("task", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("autoscaler.scheduler.ticks", tickStatistics, TickStatistics::getTicks)
+                .tag("task", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("autoscaler.scheduler.overruns", tickStatistics, TickStatistics::getOverruns)
+                .description("Ticks which ended after the next tick was due")
+                .tag("task", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("autoscaler.scheduler.skipped.ticks", tickStatistics, TickStatistics::getSkippedTicks)
+                .description("Ticks which were skipped because a previous tick overran")
+                .tag("task", name)
+                .register(meterRegistry);
+        return tickStatistics;
+    }
+}
@@ -0,0 +1,52 @@
+package tools.descartes.autoscaling.scheduling;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the ticks of one named {@link FixedRateTask}, kept across restarts of the task
+ */
+public class TickStatistics {
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong skippedTicks = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+
+    void recordTick(long lagMillis) {
+        ticks.incrementAndGet();
+        lastLagMillis.set(lagMillis);
+    }
+
+    void recordOverrun(long skipped) {
+        overruns.incrementAndGet();
+        skippedTicks.addAndGet(skipped);
+    }
+
+    /**
+     * @return number of executed ticks
+     */
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    /**
+     * @return number of ticks which ended after the next tick was due
+     */
+    public long getOverruns() {
+        return overruns.get();
+    }
+
+    /**
+     * @return number of ticks which have not been executed because a previous tick overran
+     */
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    /**
+     * @return delay between the scheduled and the actual start of the last tick in milliseconds
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis.get();
+    }
+}
@@ -0,0 +1,251 @@
+package tools.descartes.autoscaling.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import smile.data.DataFrame;
+import tools.descartes.autoscaling.cloudfoundry.CFConnector;
+import tools.descartes.autoscaling.cloudfoundry.CFConnectorWrapper;
+import tools.descartes.autoscaling.config.CloudFoundryProperties;
+import tools.descartes.autoscaling.config.MetricsProperties;
+import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.knowledge.InstanceManager;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.SimpleMetric;
+import tools.descartes.autoscaling.scaling.ConstraintEnforcer;
+import tools.descartes.autoscaling.scaling.ScalingLogic;
+import tools.descartes.autoscaling.scaling.ScalingRequest;
+import tools.descartes.autoscaling.scaling.ScalingResponse;
+
+import java.util.*;
+
+/**
+ * Replays recorded training data through scaling logic in a closed loop on a {@link VirtualClock}. A scaling cycle
+ * is simulated every scaling period from the first to the last recorded measurement, each using the latest recorded
+ * row of each app. The recorded load is spread over the simulated running instances instead of the recorded ones,
+ * i.e. a measurement of a metric is scaled by recorded instances / simulated running instances. The decisions are
+ * constrained like in the Scaler and executed on a {@link SimulatedCloudFoundry}, where new instances are starting
+ * for the start-up delay.
+ * <p>
+ * The scalers under test must be created with the {@link InstanceManager} of the backtest. A backtest is run once,
+ * use a {@link ParameterSweep} to compare several configurations.
+ */
+public class Backtest {
+
+    private static final Logger logger = LoggerFactory.getLogger(Backtest.class);
+
+    private static final String TIME = "time";
+    private static final String ACTION = "action";
+
+    private final ScalingProperties scalingProperties;
+    private final Map<String, List<ScalingProperties.KPIProperties>> slos;
+    private final VirtualClock clock;
+    private final SimulatedCloudFoundry cloudFoundry;
+    private final CFConnector cfConnector;
+    private final InstanceManager instanceManager;
+    private final ConstraintEnforcer constraintEnforcer;
+    private final double missingValue;
+
+    /**
+     * @param startupDelayMillis time new instances are starting before they serve requests
+     * @param missingValue the value of missing measurements in the training data, which are not replayed
+     */
+    public Backtest(ScalingProperties scalingProperties, RulesProperties rulesProperties, long startupDelayMillis,
+                    double missingValue) {
+        this(scalingProperties, scalingProperties.getKpis(), rulesProperties, startupDelayMillis, missingValue);
+    }
+
+    /**
+     * @param slos the KPIs whose SLO violations are counted, independent of the KPIs the scalers are configured with
+     * @param startupDelayMillis time new instances are starting before they serve requests
+     * @param missingValue the value of missing measurements in the training data, which are not replayed
+     */
+    public Backtest(ScalingProperties scalingProperties, Map<String, List<ScalingProperties.KPIProperties>> slos,
+                    RulesProperties rulesProperties, long startupDelayMillis, double missingValue) {
+        this.scalingProperties = scalingProperties;
+        this.slos = slos != null ? slos : Collections.emptyMap();
+        this.missingValue = missingValue;
+        this.clock = new VirtualClock(0);
+        this.cloudFoundry = new SimulatedCloudFoundry(clock, 0);
+        cloudFoundry.setStartupDelayMillis(startupDelayMillis);
+        this.cfConnector = new SimulatedCFConnector(cloudFoundry, Collections.emptyMap());
+        CloudFoundryProperties cloudFoundryProperties = new CloudFoundryProperties();
+        // the states are fetched from the simulation in every cycle, as they depend on the virtual clock
+        cloudFoundryProperties.setInstanceStatisticsTtl(0);
+        this.instanceManager = new InstanceManager(new CFConnectorWrapper(cfConnector), new MetricsProperties(),
+                cloudFoundryProperties);
+        this.constraintEnforcer = new ConstraintEnforcer(rulesProperties, scalingProperties, clock);
+    }
+
+    public InstanceManager getInstanceManager() {
+        return instanceManager;
+    }
+
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * @param traces recorded training data per app, as imported by a TrainingDataImporter
+     * @param logic the scaling logic under test
+     */
+    public BacktestReport run(Map<String, DataFrame> traces, ScalingLogic logic) {
+        return replay(prepare(traces), logic);
+    }
+
+    /**
+     * Converts the training data into immutable traces, which can be replayed by several backtests concurrently
+     */
+    static Map<String, Trace> prepare(Map<String, DataFrame> traces) {
+        Map<String, Trace> prepared = new TreeMap<>();
+        traces.forEach((app, frame) -> {
+            if (frame != null && frame.nrows() > 0) prepared.put(app, new Trace(frame));
+        });
+        return Collections.unmodifiableMap(prepared);
+    }
+
+    BacktestReport replay(Map<String, Trace> replayed, ScalingLogic logic) {
+        long wallClockStart = System.nanoTime();
+        BacktestReport report = new BacktestReport();
+        if (replayed.isEmpty()) return report;
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (Map.Entry<String, Trace> trace : replayed.entrySet()) {
+            start = Math.min(start, trace.getValue().times[0]);
+            end = Math.max(end, trace.getValue().times[trace.getValue().times.length - 1]);
+            cloudFoundry.createApp(trace.getKey(), Math.max(1, recordedInstances(trace.getValue(), 0, 1)));
+        }
+        long period = Math.max(1, scalingProperties.getTimeout()) * 1000L;
+        clock.setMillis(start);
+        instanceManager.init();
+        Map<String, Integer> lastActions = new HashMap<>();
+        for (long time = start; time <= end; time += period) {
+            clock.setMillis(time);
+            instanceManager.refreshInstanceStates();
+            List<Metric> data = new ArrayList<>();
+            for (Map.Entry<String, Trace> trace : replayed.entrySet()) {
+                List<Metric> measurements = measurementsAt(trace.getKey(), trace.getValue(), time);
+                report.addInterval(trace.getKey(), instanceManager.getCountOf(trace.getKey()),
+                        isSloViolated(trace.getKey(), measurements), period);
+                data.addAll(measurements);
+            }
+            List<ScalingRequest> requests = constraintEnforcer.enforce(logic.calculateScaling(data, lastActions),
+                    instanceManager::getCountOf);
+            Map<String, Integer> executedActions = new HashMap<>();
+            for (ScalingRequest request : requests) {
+                ScalingResponse response = cfConnector.scaleApp(request);
+                if (response.isSuccess()) {
+                    executedActions.put(request.getApp(),
+                            instanceManager.setCountOf(request.getApp(), request.getInstances()));
+                    report.addScalingAction(request.getApp());
+                }
+            }
+            replayed.keySet().forEach(app -> executedActions.putIfAbsent(app, 0));
+            lastActions = executedActions;
+            report.addCycle(period);
+        }
+        report.setWallClockMillis((System.nanoTime() - wallClockStart) / 1_000_000);
+        logger.info("Backtest finished: " + report);
+        return report;
+    }
+
+    /**
+     * @return the measurements of the latest recorded row at the provided time, rescaled to the simulated instances
+     */
+    private List<Metric> measurementsAt(String app, Trace trace, long time) {
+        int row = trace.rowAt(time);
+        if (row < 0) return Collections.emptyList();
+        int desired = instanceManager.getCountOf(app);
+        int running = Math.max(1, instanceManager.getEffectiveCountOf(app));
+        int recorded = recordedInstances(trace, row, desired);
+        List<Metric> measurements = new ArrayList<>();
+        for (int column = 0; column < trace.names.size(); column++) {
+            String name = trace.names.get(column);
+            double value = trace.values[column][row];
+            if (name.equals(scalingProperties.getInstances())) {
+                measurements.add(new SimpleMetric(name, app, desired));
+            } else if (!Double.isNaN(value) && value != missingValue) {
+                measurements.add(new SimpleMetric(name, app, value * recorded / running));
+            }
+        }
+        return measurements;
+    }
+
+    /**
+     * @return the recorded number of instances of the row or the default value if it was not recorded
+     */
+    private int recordedInstances(Trace trace, int row, int defaultValue) {
+        int column = trace.names.indexOf(scalingProperties.getInstances());
+        if (column < 0) return defaultValue;
+        double value = trace.values[column][row];
+        return Double.isNaN(value) || value == missingValue || value < 1 ? defaultValue : (int) Math.round(value);
+    }
+
+    private boolean isSloViolated(String app, List<Metric> measurements) {
+        List<ScalingProperties.KPIProperties> kpis = slos.get(app);
+        if (kpis == null) return false;
+        for (ScalingProperties.KPIProperties kpi : kpis) {
+            for (Metric measurement : measurements) {
+                if (measurement.getName().equals(kpi.getName()) && measurement.getValue() > kpi.getSlo()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The recorded measurements of one app ordered by time
+     */
+    static class Trace {
+        private final long[] times;
+        private final List<String> names = new ArrayList<>();
+        private final double[][] values;
+
+        Trace(DataFrame frame) {
+            int timeColumn = frame.columnIndex(TIME);
+            Integer[] order = new Integer[frame.nrows()];
+            long[] unordered = new long[frame.nrows()];
+            for (int row = 0; row < order.length; row++) {
+                order[row] = row;
+                unordered[row] = toLong(frame.get(row, timeColumn));
+            }
+            Arrays.sort(order, Comparator.comparingLong(row -> unordered[row]));
+            times = new long[order.length];
+            List<double[]> columns = new ArrayList<>();
+            for (String name : frame.names()) {
+                if (name.equals(TIME) || name.equals(ACTION)) continue;
+                int column = frame.columnIndex(name);
+                double[] columnValues = new double[order.length];
+                for (int row = 0; row < order.length; row++) {
+                    Object value = frame.get(order[row], column);
+                    columnValues[row] = value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+                }
+                names.add(name);
+                columns.add(columnValues);
+            }
+            for (int row = 0; row < order.length; row++) {
+                times[row] = unordered[order[row]];
+            }
+            values = columns.toArray(new double[0][]);
+        }
+
+        /**
+         * @return the index of the latest row at or before the provided time or -1 if there is none
+         */
+        int rowAt(long time) {
+            int index = Arrays.binarySearch(times, time);
+            if (index >= 0) {
+                // the last of several rows with the same time
+                while (index + 1 < times.length && times[index + 1] == time) index++;
+                return index;
+            }
+            return -index - 2;
+        }
+
+        private static long toLong(Object value) {
+            if (value instanceof Number) return ((Number) value).longValue();
+            return Long.parseLong(String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package tools.descartes.autoscaling.simulation;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The outcome of a {@link Backtest}: the cost in instance-hours and the time in which an SLO was violated
+ */
+public class BacktestReport {
+
+    private final Map<String, Double> instanceHours = new TreeMap<>();
+    private final Map<String, Double> sloViolationMinutes = new TreeMap<>();
+    private final Map<String, Integer> scalingActions = new TreeMap<>();
+    private int cycles;
+    private long simulatedMillis;
+    private long wallClockMillis;
+
+    void addInterval(String app, int instances, boolean sloViolated, long millis) {
+        instanceHours.merge(app, instances * millis / 3_600_000.0, Double::sum);
+        sloViolationMinutes.merge(app, sloViolated ? millis / 60_000.0 : 0, Double::sum);
+        scalingActions.putIfAbsent(app, 0);
+    }
+
+    void addScalingAction(String app) {
+        scalingActions.merge(app, 1, Integer::sum);
+    }
+
+    void addCycle(long millis) {
+        cycles++;
+        simulatedMillis += millis;
+    }
+
+    void setWallClockMillis(long wallClockMillis) {
+        this.wallClockMillis = wallClockMillis;
+    }
+
+    public Map<String, Double> getInstanceHours() {
+        return Collections.unmodifiableMap(instanceHours);
+    }
+
+    public Map<String, Double> getSloViolationMinutes() {
+        return Collections.unmodifiableMap(sloViolationMinutes);
+    }
+
+    public Map<String, Integer> getScalingActions() {
+        return Collections.unmodifiableMap(scalingActions);
+    }
+
+    public double getTotalInstanceHours() {
+        return instanceHours.values().stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    public double getTotalSloViolationMinutes() {
+        return sloViolationMinutes.values().stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    public int getTotalScalingActions() {
+        return scalingActions.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int getCycles() {
+        return cycles;
+    }
+
+    public long getSimulatedMillis() {
+        return simulatedMillis;
+    }
+
+    public long getWallClockMillis() {
+        return wallClockMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BacktestReport{" +
+                "cycles=" + cycles +
+                ", simulatedMinutes=" + simulatedMillis / 60_000 +
+                ", wallClockMillis=" + wallClockMillis +
+                ", instanceHours=" + String.format("%.2f", getTotalInstanceHours()) +
+                ", sloViolationMinutes=" + String.format("%.2f", getTotalSloViolationMinutes()) +
+                ", scalingActions=" + getTotalScalingActions() +
+                '}';
+    }
+}
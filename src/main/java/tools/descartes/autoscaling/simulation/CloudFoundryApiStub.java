@@ -0,0 +1,466 @@
+package tools.descartes.autoscaling.simulation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A minimal HTTP stand-in for the CloudFoundry API on a {@link SimulatedCloudFoundry}. It serves the root and UAA
+ * endpoints needed to log in, the paginated v3 endpoints used to list apps, processes and their statistics and the v2
+ * endpoints used by the operations API to scale an app. Every request is delayed by the configured latency and fails
+ * with the configured failure rate. The stub has a single organization and space.
+ */
+public class CloudFoundryApiStub {
+
+    private static final Logger logger = LoggerFactory.getLogger(CloudFoundryApiStub.class);
+
+    static final String ORGANIZATION_ID = "00000000-0000-0000-0000-00000000000a";
+    static final String SPACE_ID = "00000000-0000-0000-0000-00000000000b";
+    private static final String TIMESTAMP = "2021-01-01T00:00:00Z";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final Pattern PROCESS_STATS = Pattern.compile("/v3/processes/([^/]+)/stats");
+    private static final Pattern V2_APP = Pattern.compile("/v2/apps/([^/]+)");
+    private static final Pattern V2_ORGANIZATION_SPACES = Pattern.compile("/v2/organizations/[^/]+/spaces");
+    private static final Pattern V2_SPACE_APPS = Pattern.compile("/v2/spaces/[^/]+/apps");
+
+    private final SimulatedCloudFoundry cloudFoundry;
+    private final String organization;
+    private final String space;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the stub on the provided port, 0 picks a free port
+     */
+    public CloudFoundryApiStub(SimulatedCloudFoundry cloudFoundry, String organization, String space, int port)
+            throws IOException {
+        this.cloudFoundry = cloudFoundry;
+        this.organization = organization;
+        this.space = space;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "cf-api-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("CloudFoundry API stub listening on " + getBaseUrl());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] request = readAll(body);
+            simulateLatency();
+            if (cloudFoundry.nextRequestFails()) {
+                respond(exchange, 500, error(10001, "CF-SimulatedFailure", "Simulated failure"));
+                return;
+            }
+            Object response = route(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                    query(exchange.getRequestURI().getRawQuery()), request);
+            if (response == null) {
+                logger.debug("CloudFoundry API stub does not serve " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI());
+                respond(exchange, 404, error(10000, "CF-NotFound", "Unknown request"));
+            } else {
+                respond(exchange, exchange.getRequestMethod().equals("PUT") ? 201 : 200, response);
+            }
+        } catch (RuntimeException re) {
+            logger.error("CloudFoundry API stub could not handle " + exchange.getRequestURI(), re);
+            respond(exchange, 500, error(10001, "CF-ServerError", re.toString()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Object route(String method, String path, Map<String, String> query, byte[] body) throws IOException {
+        if (path.equals("/") || path.isEmpty()) return root();
+        if (path.equals("/v2/info")) return info();
+        if (path.equals("/oauth/token")) return token();
+        if (path.equals("/v3/organizations")) {
+            return v3Page(path, query, matches(query.get("names"), organization)
+                    ? Collections.singletonList(v3Organization()) : Collections.emptyList());
+        }
+        if (path.equals("/v3/spaces")) {
+            return v3Page(path, query, matches(query.get("names"), space)
+                    ? Collections.singletonList(v3Space()) : Collections.emptyList());
+        }
+        if (path.equals("/v3/apps")) {
+            List<Map<String, Object>> apps = new ArrayList<>();
+            for (SimulatedApp app : cloudFoundry.getApps()) {
+                if (matches(query.get("names"), app.getName())) apps.add(v3App(app));
+            }
+            return v3Page(path, query, apps);
+        }
+        if (path.equals("/v3/processes")) {
+            List<Map<String, Object>> processes = new ArrayList<>();
+            for (SimulatedApp app : cloudFoundry.getApps()) {
+                processes.add(v3Process(app));
+            }
+            return v3Page(path, query, processes);
+        }
+        Matcher stats = PROCESS_STATS.matcher(path);
+        if (stats.matches()) {
+            SimulatedApp app = appByProcessId(stats.group(1));
+            return app == null ? null : v3ProcessStatistics(app);
+        }
+        if (path.equals("/v2/organizations")) {
+            return v2Page(matches(v2Name(query), organization)
+                    ? Collections.singletonList(v2Organization()) : Collections.emptyList());
+        }
+        if (V2_ORGANIZATION_SPACES.matcher(path).matches() || path.equals("/v2/spaces")) {
+            return v2Page(matches(v2Name(query), space)
+                    ? Collections.singletonList(v2Space()) : Collections.emptyList());
+        }
+        if (V2_SPACE_APPS.matcher(path).matches() || path.equals("/v2/apps")) {
+            List<Map<String, Object>> apps = new ArrayList<>();
+            for (SimulatedApp app : cloudFoundry.getApps()) {
+                if (matches(v2Name(query), app.getName())) apps.add(v2App(app));
+            }
+            return v2Page(apps);
+        }
+        Matcher v2App = V2_APP.matcher(path);
+        if (v2App.matches()) {
+            SimulatedApp app = cloudFoundry.getAppById(v2App.group(1));
+            if (app == null) return null;
+            if (method.equals("PUT")) {
+                Map<?, ?> update = objectMapper.readValue(body, Map.class);
+                if (update.get("instances") instanceof Number) {
+                    cloudFoundry.scale(app.getName(), ((Number) update.get("instances")).intValue());
+                }
+            }
+            return v2App(app);
+        }
+        return null;
+    }
+
+    private Map<String, Object> root() {
+        String base = getBaseUrl();
+        Map<String, Object> links = new LinkedHashMap<>();
+        links.put("self", link(base));
+        links.put("cloud_controller_v2", link(base + "/v2"));
+        links.put("cloud_controller_v3", link(base + "/v3"));
+        links.put("uaa", link(base));
+        links.put("login", link(base));
+        return map("links", links);
+    }
+
+    private Map<String, Object> info() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("name", "simulation");
+        info.put("api_version", "2.150.0");
+        info.put("authorization_endpoint", getBaseUrl());
+        info.put("token_endpoint", getBaseUrl());
+        info.put("min_cli_version", null);
+        info.put("min_recommended_cli_version", null);
+        return info;
+    }
+
+    private Map<String, Object> token() {
+        long issued = cloudFoundry.getClock().millis() / 1000;
+        long expires = issued + 3600;
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("access_token", jwt(issued, expires));
+        token.put("token_type", "bearer");
+        token.put("refresh_token", jwt(issued, expires));
+        token.put("expires_in", 3600);
+        token.put("scope", "cloud_controller.read cloud_controller.write");
+        token.put("jti", "simulation");
+        return token;
+    }
+
+    private String jwt(long issued, long expires) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = "{\"alg\":\"none\",\"typ\":\"JWT\"}";
+        // the client logs issue and expiration time of the tokens at debug level
+        String payload = "{\"user_name\":\"simulation\",\"iat\":" + issued + ",\"exp\":" + expires + "}";
+        return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".";
+    }
+
+    private Map<String, Object> v3Organization() {
+        Map<String, Object> resource = v3Resource(ORGANIZATION_ID);
+        resource.put("name", organization);
+        resource.put("suspended", false);
+        return resource;
+    }
+
+    private Map<String, Object> v3Space() {
+        Map<String, Object> resource = v3Resource(SPACE_ID);
+        resource.put("name", space);
+        resource.put("relationships", map("organization", relationship(ORGANIZATION_ID)));
+        return resource;
+    }
+
+    private Map<String, Object> v3App(SimulatedApp app) {
+        Map<String, Object> resource = v3Resource(app.getId());
+        resource.put("name", app.getName());
+        resource.put("state", "STARTED");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("buildpacks", Collections.emptyList());
+        data.put("stack", "cflinuxfs3");
+        Map<String, Object> lifecycle = new LinkedHashMap<>();
+        lifecycle.put("type", "buildpack");
+        lifecycle.put("data", data);
+        resource.put("lifecycle", lifecycle);
+        resource.put("relationships", map("space", relationship(SPACE_ID)));
+        return resource;
+    }
+
+    private Map<String, Object> v3Process(SimulatedApp app) {
+        Map<String, Object> resource = v3Resource(app.getProcessId());
+        resource.put("type", "web");
+        // the API redacts the command for users without read permission
+        resource.put("command", "[PRIVATE DATA HIDDEN]");
+        resource.put("instances", app.getDesired());
+        resource.put("memory_in_mb", 1024);
+        resource.put("disk_in_mb", 1024);
+        Map<String, Object> healthCheck = new LinkedHashMap<>();
+        healthCheck.put("type", "port");
+        healthCheck.put("data", map("timeout", null));
+        resource.put("health_check", healthCheck);
+        resource.put("relationships", map("app", relationship(app.getId())));
+        return resource;
+    }
+
+    private Map<String, Object> v3ProcessStatistics(SimulatedApp app) {
+        List<Map<String, Object>> instances = new ArrayList<>();
+        List<SimulatedApp.State> states = app.getInstanceStates(cloudFoundry.getClock().millis(),
+                cloudFoundry.getStartupDelayMillis());
+        for (int i = 0; i < states.size(); i++) {
+            Map<String, Object> instance = new LinkedHashMap<>();
+            instance.put("type", "web");
+            instance.put("index", i);
+            instance.put("state", states.get(i).name());
+            Map<String, Object> usage = new LinkedHashMap<>();
+            usage.put("time", TIMESTAMP);
+            usage.put("cpu", 0.0);
+            usage.put("mem", 0);
+            usage.put("disk", 0);
+            instance.put("usage", usage);
+            instance.put("host", "10.0.0.1");
+            instance.put("uptime", 0);
+            instance.put("mem_quota", 1073741824L);
+            instance.put("disk_quota", 1073741824L);
+            instance.put("fds_quota", 16384);
+            instance.put("instance_ports", Collections.emptyList());
+            instances.add(instance);
+        }
+        return map("resources", instances);
+    }
+
+    private Map<String, Object> v3Resource(String id) {
+        Map<String, Object> resource = new LinkedHashMap<>();
+        resource.put("guid", id);
+        resource.put("created_at", TIMESTAMP);
+        resource.put("updated_at", TIMESTAMP);
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("labels", Collections.emptyMap());
+        metadata.put("annotations", Collections.emptyMap());
+        resource.put("metadata", metadata);
+        resource.put("links", Collections.emptyMap());
+        return resource;
+    }
+
+    private Map<String, Object> v3Page(String path, Map<String, String> query, List<Map<String, Object>> resources) {
+        int page = Math.max(1, intParameter(query, "page", 1));
+        int perPage = Math.max(1, intParameter(query, "per_page", DEFAULT_PAGE_SIZE));
+        int totalPages = Math.max(1, (resources.size() + perPage - 1) / perPage);
+        int from = Math.min(resources.size(), (page - 1) * perPage);
+        int to = Math.min(resources.size(), from + perPage);
+        Map<String, Object> pagination = new LinkedHashMap<>();
+        pagination.put("total_results", resources.size());
+        pagination.put("total_pages", totalPages);
+        pagination.put("first", link(pageUrl(path, 1, perPage)));
+        pagination.put("last", link(pageUrl(path, totalPages, perPage)));
+        pagination.put("next", page < totalPages ? link(pageUrl(path, page + 1, perPage)) : null);
+        pagination.put("previous", page > 1 ? link(pageUrl(path, page - 1, perPage)) : null);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("pagination", pagination);
+        response.put("resources", resources.subList(from, to));
+        return response;
+    }
+
+    private String pageUrl(String path, int page, int perPage) {
+        return getBaseUrl() + path + "?page=" + page + "&per_page=" + perPage;
+    }
+
+    private Map<String, Object> v2Organization() {
+        Map<String, Object> entity = new LinkedHashMap<>();
+        entity.put("name", organization);
+        entity.put("status", "active");
+        return v2Resource(ORGANIZATION_ID, "/v2/organizations/", entity);
+    }
+
+    private Map<String, Object> v2Space() {
+        Map<String, Object> entity = new LinkedHashMap<>();
+        entity.put("name", space);
+        entity.put("organization_guid", ORGANIZATION_ID);
+        return v2Resource(SPACE_ID, "/v2/spaces/", entity);
+    }
+
+    private Map<String, Object> v2App(SimulatedApp app) {
+        Map<String, Object> entity = new LinkedHashMap<>();
+        entity.put("name", app.getName());
+        entity.put("space_guid", SPACE_ID);
+        entity.put("instances", app.getDesired());
+        entity.put("memory", 1024);
+        entity.put("disk_quota", 1024);
+        entity.put("state", "STARTED");
+        entity.put("package_state", "STAGED");
+        return v2Resource(app.getId(), "/v2/apps/", entity);
+    }
+
+    private static Map<String, Object> v2Resource(String id, String path, Map<String, Object> entity) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("guid", id);
+        metadata.put("url", path + id);
+        metadata.put("created_at", TIMESTAMP);
+        metadata.put("updated_at", TIMESTAMP);
+        Map<String, Object> resource = new LinkedHashMap<>();
+        resource.put("metadata", metadata);
+        resource.put("entity", entity);
+        return resource;
+    }
+
+    /**
+     * Single pages suffice, as v2 requests of the operations API always filter by name
+     */
+    private static Map<String, Object> v2Page(List<Map<String, Object>> resources) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("total_results", resources.size());
+        response.put("total_pages", 1);
+        response.put("prev_url", null);
+        response.put("next_url", null);
+        response.put("resources", resources);
+        return response;
+    }
+
+    /**
+     * @return the name of a v2 filter like q=name:app or null
+     */
+    private static String v2Name(Map<String, String> query) {
+        String filter = query.get("q");
+        return filter != null && filter.startsWith("name:") ? filter.substring("name:".length()) : null;
+    }
+
+    private SimulatedApp appByProcessId(String processId) {
+        for (SimulatedApp app : cloudFoundry.getApps()) {
+            if (app.getProcessId().equals(processId)) return app;
+        }
+        return null;
+    }
+
+    /**
+     * @return whether no filter is set or the comma separated filter contains the name
+     */
+    private static boolean matches(String filter, String name) {
+        return filter == null || Arrays.asList(filter.split(",")).contains(name);
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        try {
+            return query.containsKey(name) ? Integer.parseInt(query.get(name)) : defaultValue;
+        } catch (NumberFormatException nfe) {
+            return defaultValue;
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator < 0) continue;
+            // of repeated v2 filters like q=name:space&q=organization_guid:id the name comes first
+            query.putIfAbsent(URLDecoder.decode(parameter.substring(0, separator), "UTF-8"),
+                    URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+        }
+        return query;
+    }
+
+    private static Map<String, Object> error(int code, String errorCode, String description) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("code", code);
+        error.put("error_code", errorCode);
+        error.put("description", description);
+        return error;
+    }
+
+    private static Map<String, Object> link(String href) {
+        return map("href", href);
+    }
+
+    private static Map<String, Object> relationship(String id) {
+        return map("data", map("guid", id));
+    }
+
+    private static Map<String, Object> map(String key, Object value) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(key, value);
+        return map;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void simulateLatency() {
+        long latency = cloudFoundry.getLatencyMillis();
+        if (latency <= 0) return;
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        byte[] buffer = new byte[4096];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
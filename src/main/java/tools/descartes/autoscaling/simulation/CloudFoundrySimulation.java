@@ -0,0 +1,94 @@
+package tools.descartes.autoscaling.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import tools.descartes.autoscaling.config.CloudFoundryProperties;
+import tools.descartes.autoscaling.config.SimulationProperties;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+
+/**
+ * Sets up the simulated CloudFoundry if it is enabled, and the HTTP stub of its API if it is accessed via HTTP
+ */
+@Component
+public class CloudFoundrySimulation {
+
+    private static final Logger logger = LoggerFactory.getLogger(CloudFoundrySimulation.class);
+
+    private final SimulationProperties.CloudFoundrySimulationProperties properties;
+    private final SimulatedCloudFoundry cloudFoundry;
+    private final CloudFoundryApiStub stub;
+
+    public CloudFoundrySimulation(SimulationProperties simulationProperties, CloudFoundryProperties cfProperties) {
+        this.properties = simulationProperties.getCloudfoundry();
+        if (!properties.isEnabled()) {
+            cloudFoundry = null;
+            stub = null;
+            return;
+        }
+        cloudFoundry = new SimulatedCloudFoundry(Clock.systemUTC(), properties.getSeed());
+        cloudFoundry.setLatencyMillis(properties.getLatencyMillis());
+        cloudFoundry.setFailureRate(properties.getFailureRate());
+        cloudFoundry.setStartupDelayMillis(properties.getStartupDelayMillis());
+        cloudFoundry.createApps(properties.getAppPrefix(), properties.getApps(), properties.getInitialInstances());
+        logger.info("Simulating CloudFoundry with " + properties.getApps() + " apps");
+        if (properties.isHttp()) {
+            try {
+                stub = new CloudFoundryApiStub(cloudFoundry, cfProperties.getOrganization(), cfProperties.getSpace(),
+                        properties.getStubPort());
+            } catch (IOException ioe) {
+                throw new UncheckedIOException("Could not start CloudFoundry API stub", ioe);
+            }
+            stub.start();
+        } else {
+            stub = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return cloudFoundry != null;
+    }
+
+    /**
+     * @return the simulated CloudFoundry or null if the simulation is disabled
+     */
+    public SimulatedCloudFoundry getCloudFoundry() {
+        return cloudFoundry;
+    }
+
+    /**
+     * @return the HTTP stub or null if the simulation is accessed in-process
+     */
+    public CloudFoundryApiStub getStub() {
+        return stub;
+    }
+
+    /**
+     * @return a copy of the provided properties pointing to the HTTP stub
+     */
+    public CloudFoundryProperties stubProperties(CloudFoundryProperties cfProperties) {
+        CloudFoundryProperties properties = new CloudFoundryProperties();
+        properties.setApiHost("localhost");
+        properties.setPort(stub.getPort());
+        properties.setSecure(false);
+        properties.setSkipSslValidation(false);
+        properties.setOrganization(cfProperties.getOrganization());
+        properties.setSpace(cfProperties.getSpace());
+        properties.setUser(cfProperties.getUser());
+        properties.setPassword(cfProperties.getPassword());
+        properties.setIncludeappregex(cfProperties.getIncludeappregex());
+        properties.setExcludeappregex(cfProperties.getExcludeappregex());
+        return properties;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (stub != null) {
+            stub.stop();
+        }
+    }
+}
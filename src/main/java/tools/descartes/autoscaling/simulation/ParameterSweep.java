@@ -0,0 +1,332 @@
+package tools.descartes.autoscaling.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import smile.data.DataFrame;
+import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.knowledge.InstanceManager;
+import tools.descartes.autoscaling.learning.reward.IRewardFunction;
+import tools.descartes.autoscaling.learning.reward.ImprovedRewardFunction;
+import tools.descartes.autoscaling.scaling.ReactiveScaler;
+import tools.descartes.autoscaling.scaling.SafetyScaler;
+import tools.descartes.autoscaling.scaling.Scaler;
+import tools.descartes.autoscaling.scaling.ScalingLogic;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs a {@link Backtest} for every configuration of a grid or random search over the scaling parameters and ranks
+ * the results. The backtests are distributed over a fork-join pool. Every backtest gets its own copy of the scaling
+ * properties, its own simulated CloudFoundry, instance manager and scalers, so that no state is shared between runs
+ * or with the beans of the running autoscaler. Only the prepared traces and the rules are shared read-only.
+ */
+public class ParameterSweep {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParameterSweep.class);
+
+    public static final String UPSCALE_LIMIT = "upscale.limit";
+    public static final String UPSCALE_TIMEOUT = "upscale.timeout";
+    public static final String DOWNSCALE_LIMIT = "downscale.limit";
+    public static final String DOWNSCALE_TIMEOUT = "downscale.timeout";
+    public static final String SAFETY_PERIOD = "safety.period";
+    public static final String SAFETY_RATIO = "safety.ratio";
+    /**
+     * Factor applied to the SLOs of all KPIs the scalers are configured with. The violations of every configuration
+     * are counted against the base SLOs, so that the configurations remain comparable.
+     */
+    public static final String SLO_FACTOR = "slo-factor";
+    public static final String REWARD_MAX_INSTANCES = "reward.max-instances";
+    public static final String REWARD_WEIGHT = "reward.weight";
+    public static final String REWARD_STEEPNESS = "reward.steepness";
+
+    private static final Set<String> PARAMETERS = new HashSet<>(Arrays.asList(UPSCALE_LIMIT, UPSCALE_TIMEOUT,
+            DOWNSCALE_LIMIT, DOWNSCALE_TIMEOUT, SAFETY_PERIOD, SAFETY_RATIO, SLO_FACTOR, REWARD_MAX_INSTANCES,
+            REWARD_WEIGHT, REWARD_STEEPNESS));
+
+    /**
+     * Configurations with fewer SLO violation minutes rank first, ties are broken by the instance-hours
+     */
+    public static final Comparator<BacktestReport> FEWEST_VIOLATIONS =
+            Comparator.comparingDouble(BacktestReport::getTotalSloViolationMinutes)
+                    .thenComparingDouble(BacktestReport::getTotalInstanceHours);
+
+    /**
+     * Creates the scaling logic under test of one configuration
+     */
+    @FunctionalInterface
+    public interface ScalingLogicFactory {
+        ScalingLogic create(ScalingProperties scalingProperties, IRewardFunction rewardFunction,
+                            InstanceManager instanceManager);
+
+        /**
+         * @return whether the created logic uses the reward function, the reward parameters are only swept if it does
+         */
+        default boolean usesRewardFunction() {
+            return true;
+        }
+    }
+
+    /**
+     * The safety and reactive scalers combined like in the Scaler. The proactive scaler is left out, as it needs
+     * trained models, so the reward function is not used.
+     */
+    public static final ScalingLogicFactory SAFETY_AND_REACTIVE = new ScalingLogicFactory() {
+        @Override
+        public ScalingLogic create(ScalingProperties scalingProperties, IRewardFunction rewardFunction,
+                                   InstanceManager manager) {
+            return Scaler.combine(new SafetyScaler(scalingProperties, manager),
+                    new ReactiveScaler(scalingProperties, manager),
+                    (data, lastActions) -> Collections.emptyList());
+        }
+
+        @Override
+        public boolean usesRewardFunction() {
+            return false;
+        }
+    };
+
+    private static final Set<String> REWARD_PARAMETERS = new HashSet<>(Arrays.asList(REWARD_MAX_INSTANCES,
+            REWARD_WEIGHT, REWARD_STEEPNESS));
+
+    private final ScalingProperties scalingProperties;
+    private final RulesProperties rulesProperties;
+    private final long startupDelayMillis;
+    private final double missingValue;
+    private final ScalingLogicFactory factory;
+    private final int parallelism;
+    private Comparator<BacktestReport> ranking = FEWEST_VIOLATIONS;
+
+    /**
+     * @param scalingProperties the base configuration, which is copied and never modified
+     * @param startupDelayMillis time new instances are starting before they serve requests
+     * @param missingValue the value of missing measurements in the training data
+     * @param parallelism the number of backtests run concurrently
+     */
+    public ParameterSweep(ScalingProperties scalingProperties, RulesProperties rulesProperties,
+                          long startupDelayMillis, double missingValue, ScalingLogicFactory factory,
+                          int parallelism) {
+        this.scalingProperties = scalingProperties;
+        this.rulesProperties = rulesProperties;
+        this.startupDelayMillis = startupDelayMillis;
+        this.missingValue = missingValue;
+        this.factory = factory;
+        this.parallelism = parallelism;
+    }
+
+    public ParameterSweep(ScalingProperties scalingProperties, RulesProperties rulesProperties,
+                          long startupDelayMillis, double missingValue) {
+        this(scalingProperties, rulesProperties, startupDelayMillis, missingValue, SAFETY_AND_REACTIVE,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public void setRanking(Comparator<BacktestReport> ranking) {
+        this.ranking = ranking;
+    }
+
+    /**
+     * Runs every combination of the provided values
+     * @param values the values of each swept parameter by name
+     * @return the results ranked from best to worst
+     */
+    public List<SweepResult> grid(Map<String, DataFrame> traces, Map<String, double[]> values) {
+        validate(values.keySet());
+        List<String> names = new ArrayList<>(values.keySet());
+        long combinations = 1;
+        for (String name : names) {
+            if (values.get(name).length == 0) throw new IllegalArgumentException("No values for " + name);
+            combinations *= values.get(name).length;
+        }
+        if (combinations > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many combinations");
+        List<Map<String, Double>> configurations = new ArrayList<>();
+        for (int index = 0; index < combinations; index++) {
+            // mixed-radix decomposition of the index, the last parameter changes fastest
+            Map<String, Double> configuration = new LinkedHashMap<>();
+            int remainder = index;
+            for (int i = names.size() - 1; i >= 0; i--) {
+                double[] options = values.get(names.get(i));
+                configuration.put(names.get(i), options[remainder % options.length]);
+                remainder /= options.length;
+            }
+            configurations.add(order(configuration, names));
+        }
+        return run(traces, configurations);
+    }
+
+    /**
+     * Runs configurations drawn uniformly from the provided ranges. Integer parameters are rounded.
+     * @param bounds the minimum and maximum of each swept parameter by name
+     * @return the results ranked from best to worst
+     */
+    public List<SweepResult> random(Map<String, DataFrame> traces, Map<String, double[]> bounds, int samples,
+                                    long seed) {
+        validate(bounds.keySet());
+        List<String> names = new ArrayList<>(bounds.keySet());
+        Random random = new Random(seed);
+        List<Map<String, Double>> configurations = new ArrayList<>();
+        for (int sample = 0; sample < samples; sample++) {
+            Map<String, Double> configuration = new LinkedHashMap<>();
+            for (String name : names) {
+                double[] range = bounds.get(name);
+                if (range.length != 2) throw new IllegalArgumentException("Expected minimum and maximum for " + name);
+                double value = range[0] + random.nextDouble() * (range[1] - range[0]);
+                configuration.put(name, isInteger(name) ? Math.round(value) : value);
+            }
+            configurations.add(configuration);
+        }
+        return run(traces, configurations);
+    }
+
+    private List<SweepResult> run(Map<String, DataFrame> traces, List<Map<String, Double>> configurations) {
+        long start = System.nanoTime();
+        Map<String, Backtest.Trace> prepared = Backtest.prepare(traces);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        List<SweepResult> results;
+        try {
+            results = pool.invoke(new SweepTask(prepared, configurations, 0, configurations.size()));
+        } finally {
+            pool.shutdown();
+        }
+        results.sort((a, b) -> ranking.compare(a.getReport(), b.getReport()));
+        logger.info("Parameter sweep of " + configurations.size() + " configurations finished in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return results;
+    }
+
+    private SweepResult runConfiguration(Map<String, Backtest.Trace> traces, Map<String, Double> configuration) {
+        ScalingProperties properties = configure(configuration);
+        ScalingProperties.RewardProperties reward = properties.getReward();
+        IRewardFunction rewardFunction = new ImprovedRewardFunction(reward.getMaxInstances(), reward.getWeight(),
+                reward.getSteepness());
+        // the scaled SLOs are only used by the scalers, every configuration is scored against the base SLOs
+        Backtest backtest = new Backtest(properties, scalingProperties.getKpis(), rulesProperties, startupDelayMillis,
+                missingValue);
+        ScalingLogic logic = factory.create(properties, rewardFunction, backtest.getInstanceManager());
+        return new SweepResult(configuration, backtest.replay(traces, logic));
+    }
+
+    /**
+     * @return a deep copy of the base configuration with the swept parameters applied
+     */
+    private ScalingProperties configure(Map<String, Double> configuration) {
+        ScalingProperties properties = new ScalingProperties();
+        properties.setAutostart(scalingProperties.isAutostart());
+        properties.setTimeout(scalingProperties.getTimeout());
+        properties.setInstances(scalingProperties.getInstances());
+        properties.setPipelines(scalingProperties.getPipelines());
+        properties.setFastPath(scalingProperties.getFastPath());
+        properties.setUpscale(copy(scalingProperties.getUpscale()));
+        properties.setDownscale(copy(scalingProperties.getDownscale()));
+        ScalingProperties.SafetyProperties safety = new ScalingProperties.SafetyProperties();
+        if (scalingProperties.getSafety() != null) {
+            safety.setPeriod(scalingProperties.getSafety().getPeriod());
+            safety.setRatio(scalingProperties.getSafety().getRatio());
+            // the history of the sweeps is not saved
+            safety.setLookback(scalingProperties.getSafety().getLookback());
+        }
+        properties.setSafety(safety);
+        ScalingProperties.RewardProperties reward = new ScalingProperties.RewardProperties();
+        reward.setMaxInstances(scalingProperties.getReward().getMaxInstances());
+        reward.setWeight(scalingProperties.getReward().getWeight());
+        reward.setSteepness(scalingProperties.getReward().getSteepness());
+        properties.setReward(reward);
+
+        double sloFactor = configuration.getOrDefault(SLO_FACTOR, 1.0);
+        Map<String, List<ScalingProperties.KPIProperties>> kpis = new HashMap<>();
+        if (scalingProperties.getKpis() != null) {
+            scalingProperties.getKpis().forEach((app, appKpis) -> {
+                List<ScalingProperties.KPIProperties> copies = new ArrayList<>();
+                for (ScalingProperties.KPIProperties kpi : appKpis) {
+                    ScalingProperties.KPIProperties copy = new ScalingProperties.KPIProperties();
+                    copy.setName(kpi.getName());
+                    copy.setQuery(kpi.getQuery());
+                    copy.setSlo(kpi.getSlo() * sloFactor);
+                    copies.add(copy);
+                }
+                kpis.put(app, copies);
+            });
+        }
+        properties.setKpis(kpis);
+
+        configuration.forEach((name, value) -> {
+            switch (name) {
+                case UPSCALE_LIMIT: properties.getUpscale().setLimit(value.intValue()); break;
+                case UPSCALE_TIMEOUT: properties.getUpscale().setTimeout(value.intValue()); break;
+                case DOWNSCALE_LIMIT: properties.getDownscale().setLimit(value.intValue()); break;
+                case DOWNSCALE_TIMEOUT: properties.getDownscale().setTimeout(value.intValue()); break;
+                case SAFETY_PERIOD: safety.setPeriod(value.intValue()); break;
+                case SAFETY_RATIO: safety.setRatio(value); break;
+                case REWARD_MAX_INSTANCES: reward.setMaxInstances(value); break;
+                case REWARD_WEIGHT: reward.setWeight(value); break;
+                case REWARD_STEEPNESS: reward.setSteepness(value); break;
+                default: break;
+            }
+        });
+        return properties;
+    }
+
+    private static ScalingProperties.ScalingDirectionProperties copy(
+            ScalingProperties.ScalingDirectionProperties direction) {
+        ScalingProperties.ScalingDirectionProperties copy = new ScalingProperties.ScalingDirectionProperties();
+        if (direction != null) {
+            copy.setLimit(direction.getLimit());
+            copy.setTimeout(direction.getTimeout());
+        }
+        return copy;
+    }
+
+    private static boolean isInteger(String name) {
+        return name.equals(UPSCALE_LIMIT) || name.equals(UPSCALE_TIMEOUT) || name.equals(DOWNSCALE_LIMIT)
+                || name.equals(DOWNSCALE_TIMEOUT) || name.equals(SAFETY_PERIOD);
+    }
+
+    private void validate(Collection<String> names) {
+        for (String name : names) {
+            if (!PARAMETERS.contains(name)) throw new IllegalArgumentException("Unknown parameter " + name);
+            if (REWARD_PARAMETERS.contains(name) && !factory.usesRewardFunction()) {
+                throw new IllegalArgumentException("Parameter " + name
+                        + " has no effect, the scaling logic does not use the reward function");
+            }
+        }
+    }
+
+    private static Map<String, Double> order(Map<String, Double> configuration, List<String> names) {
+        Map<String, Double> ordered = new LinkedHashMap<>();
+        names.forEach(name -> ordered.put(name, configuration.get(name)));
+        return ordered;
+    }
+
+    /**
+     * Splits the configurations in halves until a single backtest is left
+     */
+    private class SweepTask extends RecursiveTask<List<SweepResult>> {
+        private final Map<String, Backtest.Trace> traces;
+        private final List<Map<String, Double>> configurations;
+        private final int from;
+        private final int to;
+
+        SweepTask(Map<String, Backtest.Trace> traces, List<Map<String, Double>> configurations, int from, int to) {
+            this.traces = traces;
+            this.configurations = configurations;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<SweepResult> compute() {
+            if (to - from <= 1) {
+                List<SweepResult> results = new ArrayList<>();
+                if (to > from) results.add(runConfiguration(traces, configurations.get(from)));
+                return results;
+            }
+            int middle = (from + to) >>> 1;
+            SweepTask left = new SweepTask(traces, configurations, from, middle);
+            left.fork();
+            List<SweepResult> results = new ArrayList<>(new SweepTask(traces, configurations, middle, to).compute());
+            results.addAll(0, left.join());
+            return results;
+        }
+    }
+}
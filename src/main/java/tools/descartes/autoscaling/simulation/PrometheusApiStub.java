@@ -0,0 +1,329 @@
+package tools.descartes.autoscaling.simulation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A minimal HTTP stand-in for the Prometheus API which serves synthetic series of the apps of a
+ * {@link SimulatedCloudFoundry}. The load of each app follows a {@link Workload} and is spread over its running
+ * instances, so that scaling the simulated apps changes the utilization and response time they report.
+ * Only plain selectors like {@code metric{app=~"a|b"}[60s]} are evaluated, an enclosing aggregation like
+ * {@code avg(metric{app="a"})} is ignored, so that its series are averaged by the aggregator instead.
+ */
+public class PrometheusApiStub {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrometheusApiStub.class);
+
+    static final String REQUEST_RATE = "request_rate";
+    static final String CPU_UTILIZATION = "cpu_utilization";
+    static final String RESPONSE_TIME = "response_time_seconds";
+    static final String SYNTHETIC_PREFIX = "synthetic_metric_";
+
+    /**
+     * Utilization at which the response time is capped, as it grows without bounds towards full utilization
+     */
+    private static final double MAX_UTILIZATION = 0.99;
+    private static final double NOISE = 0.05;
+    private static final Pattern SELECTOR = Pattern.compile(
+            "^\\s*(?:[a-z_]+\\s*\\(\\s*)*([a-zA-Z_:][a-zA-Z0-9_:]*)\\s*(?:\\{([^}]*)})?\\s*(?:\\[(\\d+)([smh])])?");
+    private static final Pattern LABEL_MATCHER = Pattern.compile("(\\w+)\\s*(=~|!~|!=|=)\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final SimulatedCloudFoundry cloudFoundry;
+    private final Workload workload;
+    private final List<String> metricNames;
+    private final String instancesMetric;
+    private final double capacityPerInstance;
+    private final double serviceTimeSeconds;
+    private final long scrapeIntervalMillis;
+    private final long seed;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile long latencyMillis;
+
+    /**
+     * @param syntheticMetrics number of additional metrics which follow the utilization, to scale the response size
+     * @param capacityPerInstance requests per second an instance can serve
+     * @param port port of the stub, 0 picks a free port
+     */
+    public PrometheusApiStub(SimulatedCloudFoundry cloudFoundry, Workload workload, int syntheticMetrics,
+                             String instancesMetric, double capacityPerInstance, double serviceTimeSeconds,
+                             long scrapeIntervalMillis, long seed, int port) throws IOException {
+        this.cloudFoundry = cloudFoundry;
+        this.workload = workload;
+        this.instancesMetric = instancesMetric;
+        this.capacityPerInstance = capacityPerInstance;
+        this.serviceTimeSeconds = serviceTimeSeconds;
+        this.scrapeIntervalMillis = Math.max(1, scrapeIntervalMillis);
+        this.seed = seed;
+        List<String> names = new ArrayList<>();
+        names.add(REQUEST_RATE);
+        names.add(CPU_UTILIZATION);
+        names.add(RESPONSE_TIME);
+        names.add(instancesMetric);
+        for (int i = 0; i < syntheticMetrics; i++) {
+            names.add(SYNTHETIC_PREFIX + i);
+        }
+        this.metricNames = Collections.unmodifiableList(names);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "prometheus-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/v1/label/__name__/values", this::handleNames);
+        server.createContext("/api/v1/query", this::handleQuery);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Prometheus API stub listening on " + getBaseUrl());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    public List<String> getMetricNames() {
+        return metricNames;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    private void handleNames(HttpExchange exchange) throws IOException {
+        try {
+            simulateLatency();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody();
+                 JsonGenerator json = jsonFactory.createGenerator(out)) {
+                json.writeStartObject();
+                json.writeStringField("status", "success");
+                json.writeArrayFieldStart("data");
+                for (String name : metricNames) {
+                    json.writeString(name);
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleQuery(HttpExchange exchange) throws IOException {
+        try {
+            simulateLatency();
+            String query = queryParameter(exchange.getRequestURI().getRawQuery());
+            Matcher selector = query == null ? null : SELECTOR.matcher(query);
+            if (selector == null || !selector.find()) {
+                respondError(exchange, "bad_data", "Unsupported query " + query);
+                return;
+            }
+            String metric = selector.group(1);
+            Pattern appPattern = appPattern(selector.group(2));
+            long window = selector.group(3) == null ? -1
+                    : Long.parseLong(selector.group(3)) * unitMillis(selector.group(4));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody();
+                 JsonGenerator json = jsonFactory.createGenerator(out)) {
+                writeResult(json, metric, appPattern, window);
+            }
+        } catch (RuntimeException re) {
+            logger.error("Prometheus API stub could not handle " + exchange.getRequestURI(), re);
+            respondError(exchange, "internal", re.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Writes a matrix with the samples of the window or a vector with the current values if the window is negative
+     */
+    private void writeResult(JsonGenerator json, String metric, Pattern appPattern, long window) throws IOException {
+        long now = cloudFoundry.getClock().millis();
+        json.writeStartObject();
+        json.writeStringField("status", "success");
+        json.writeObjectFieldStart("data");
+        json.writeStringField("resultType", window < 0 ? "vector" : "matrix");
+        json.writeArrayFieldStart("result");
+        if (metricNames.contains(metric)) {
+            for (SimulatedApp app : cloudFoundry.getApps()) {
+                if (appPattern != null && !appPattern.matcher(app.getName()).matches()) continue;
+                // past samples are derived from the current instances, the simulation keeps no history
+                int running = app.getState(now, cloudFoundry.getStartupDelayMillis()).getRunning();
+                int series = metric.equals(instancesMetric) ? 1 : Math.max(1, running);
+                for (int instance = 0; instance < series; instance++) {
+                    json.writeStartObject();
+                    json.writeObjectFieldStart("metric");
+                    json.writeStringField("__name__", metric);
+                    json.writeStringField("app", app.getName());
+                    json.writeStringField("instance", app.getName() + ":" + instance);
+                    json.writeEndObject();
+                    if (window < 0) {
+                        json.writeFieldName("value");
+                        writeSample(json, app, metric, instance, running, now);
+                    } else {
+                        json.writeArrayFieldStart("values");
+                        long first = (now - window) - Math.floorMod(now - window, scrapeIntervalMillis)
+                                + scrapeIntervalMillis;
+                        for (long time = first; time <= now; time += scrapeIntervalMillis) {
+                            writeSample(json, app, metric, instance, running, time);
+                        }
+                        json.writeEndArray();
+                    }
+                    json.writeEndObject();
+                }
+            }
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private void writeSample(JsonGenerator json, SimulatedApp app, String metric, int instance, int running,
+                             long time) throws IOException {
+        json.writeStartArray();
+        json.writeNumber(time / 1000.0);
+        json.writeString(Double.toString(value(app, metric, instance, running, time)));
+        json.writeEndArray();
+    }
+
+    /**
+     * @return the value of the metric of an instance, the load of the app is spread evenly over its running instances
+     */
+    double value(SimulatedApp app, String metric, int instance, int running, long time) {
+        if (metric.equals(instancesMetric)) {
+            return app.getDesired();
+        }
+        double rate = workload.requestRate(app.getName(), time);
+        double utilization = running == 0 ? 1 : rate / (running * capacityPerInstance);
+        double noise = 1 + NOISE * noise(app.getName(), metric, instance, time);
+        switch (metric) {
+            case REQUEST_RATE:
+                return rate / Math.max(1, running) * noise;
+            case CPU_UTILIZATION:
+                return Math.min(1, utilization * noise);
+            case RESPONSE_TIME:
+                // response time of a single server queue
+                return serviceTimeSeconds / (1 - Math.min(MAX_UTILIZATION, utilization)) * noise;
+            default:
+                return Math.min(1, utilization) * noise;
+        }
+    }
+
+    /**
+     * @return a deterministic pseudo random value in [-1, 1]
+     */
+    private double noise(String app, String metric, int instance, long time) {
+        long hash = seed;
+        hash = hash * 31 + app.hashCode();
+        hash = hash * 31 + metric.hashCode();
+        hash = hash * 31 + instance;
+        hash = hash * 31 + time / scrapeIntervalMillis;
+        // finalizer of MurmurHash3 to spread the bits
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (hash >>> 11) * 0x1.0p-53 * 2 - 1;
+    }
+
+    /**
+     * @return a pattern for the app label matcher of the selector or null if it does not filter apps
+     */
+    private static Pattern appPattern(String labelMatchers) {
+        if (labelMatchers == null) return null;
+        Matcher matcher = LABEL_MATCHER.matcher(labelMatchers);
+        while (matcher.find()) {
+            if (!matcher.group(1).equals("app")) continue;
+            String value = matcher.group(3).replaceAll("\\\\(.)", "$1");
+            switch (matcher.group(2)) {
+                case "=":
+                    return Pattern.compile(Pattern.quote(value));
+                case "=~":
+                    return Pattern.compile(value);
+                case "!=":
+                    return Pattern.compile("(?!" + Pattern.quote(value) + "$).*");
+                default:
+                    return Pattern.compile("(?!(?:" + value + ")$).*");
+            }
+        }
+        return null;
+    }
+
+    private static long unitMillis(String unit) {
+        switch (unit) {
+            case "h":
+                return 3_600_000;
+            case "m":
+                return 60_000;
+            default:
+                return 1000;
+        }
+    }
+
+    private static String queryParameter(String rawQuery) throws UnsupportedEncodingException {
+        if (rawQuery == null) return null;
+        for (String parameter : rawQuery.split("&")) {
+            if (parameter.startsWith("query=")) {
+                return URLDecoder.decode(parameter.substring("query=".length()), "UTF-8");
+            }
+        }
+        return null;
+    }
+
+    private void respondError(HttpExchange exchange, String errorType, String error) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(400, 0);
+        try (OutputStream out = exchange.getResponseBody();
+             JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("status", "error");
+            json.writeStringField("errorType", errorType);
+            json.writeStringField("error", error);
+            json.writeEndObject();
+        }
+    }
+
+    private void simulateLatency() {
+        long latency = latencyMillis;
+        if (latency <= 0) return;
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package tools.descartes.autoscaling.simulation;
+
+import org.springframework.stereotype.Component;
+import tools.descartes.autoscaling.config.SimulationProperties;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the stub of the Prometheus API on the apps of the simulated CloudFoundry if it is enabled
+ */
+@Component
+public class PrometheusSimulation {
+
+    private final PrometheusApiStub stub;
+
+    public PrometheusSimulation(SimulationProperties simulationProperties,
+                                CloudFoundrySimulation cloudFoundrySimulation) {
+        SimulationProperties.PrometheusSimulationProperties properties = simulationProperties.getPrometheus();
+        if (!properties.isEnabled()) {
+            stub = null;
+            return;
+        }
+        if (!cloudFoundrySimulation.isEnabled()) {
+            throw new IllegalStateException("The simulated Prometheus requires the simulated CloudFoundry");
+        }
+        Workload workload = new Workload(properties.getWorkload(), properties.getBaseLoad(),
+                properties.getPeakLoad(), TimeUnit.SECONDS.toMillis(properties.getPeriod()));
+        try {
+            stub = new PrometheusApiStub(cloudFoundrySimulation.getCloudFoundry(), workload,
+                    properties.getSyntheticMetrics(), properties.getInstancesMetric(),
+                    properties.getCapacityPerInstance(), properties.getServiceTime(),
+                    TimeUnit.SECONDS.toMillis(properties.getScrapeInterval()),
+                    simulationProperties.getCloudfoundry().getSeed(), properties.getPort());
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Could not start Prometheus API stub", ioe);
+        }
+        stub.setLatencyMillis(properties.getLatencyMillis());
+        stub.start();
+    }
+
+    public boolean isEnabled() {
+        return stub != null;
+    }
+
+    /**
+     * @return the stub or null if the simulation is disabled
+     */
+    public PrometheusApiStub getStub() {
+        return stub;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (stub != null) {
+            stub.stop();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package tools.descartes.autoscaling.simulation;
+
+import tools.descartes.autoscaling.cloudfoundry.InstanceState;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An app of the {@link SimulatedCloudFoundry}. Each instance is starting until the start-up delay has passed after
+ * its start, crashed instances stay crashed until the app is scaled down.
+ */
+public class SimulatedApp {
+
+    /**
+     * States of a single instance, named as in the CloudFoundry API
+     */
+    public enum State { RUNNING, STARTING, CRASHED }
+
+    private final String name;
+    private final String id;
+    private final String processId;
+    private final List<Long> startTimes = new ArrayList<>();
+    private int crashed;
+
+    SimulatedApp(String name, int instances) {
+        this.name = name;
+        // derived from the name, so that ids are stable between runs
+        this.id = UUID.nameUUIDFromBytes(("app:" + name).getBytes(StandardCharsets.UTF_8)).toString();
+        this.processId = UUID.nameUUIDFromBytes(("process:" + name).getBytes(StandardCharsets.UTF_8)).toString();
+        for (int i = 0; i < instances; i++) {
+            // initial instances are running from the beginning
+            startTimes.add(Long.MIN_VALUE);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProcessId() {
+        return processId;
+    }
+
+    public synchronized int getDesired() {
+        return startTimes.size() + crashed;
+    }
+
+    synchronized void scale(int instances, long now) {
+        while (getDesired() > instances) {
+            if (crashed > 0) {
+                crashed--;
+            } else {
+                startTimes.remove(startTimes.size() - 1);
+            }
+        }
+        while (getDesired() < instances) {
+            startTimes.add(now);
+        }
+    }
+
+    synchronized void crash(int instances) {
+        for (int i = 0; i < instances && !startTimes.isEmpty(); i++) {
+            startTimes.remove(startTimes.size() - 1);
+            crashed++;
+        }
+    }
+
+    /**
+     * @return the state of each instance, ordered by instance index
+     */
+    public synchronized List<State> getInstanceStates(long now, long startupDelayMillis) {
+        List<State> states = new ArrayList<>(getDesired());
+        for (long startTime : startTimes) {
+            states.add(startTime == Long.MIN_VALUE || now - startTime >= startupDelayMillis
+                    ? State.RUNNING : State.STARTING);
+        }
+        for (int i = 0; i < crashed; i++) {
+            states.add(State.CRASHED);
+        }
+        return states;
+    }
+
+    public InstanceState getState(long now, long startupDelayMillis) {
+        int running = 0;
+        int starting = 0;
+        int crashedInstances = 0;
+        List<State> states = getInstanceStates(now, startupDelayMillis);
+        for (State state : states) {
+            if (state == State.RUNNING) running++;
+            else if (state == State.STARTING) starting++;
+            else crashedInstances++;
+        }
+        return new InstanceState(states.size(), running, starting, crashedInstances);
+    }
+}
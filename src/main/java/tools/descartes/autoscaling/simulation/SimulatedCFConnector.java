@@ -0,0 +1,91 @@
+package tools.descartes.autoscaling.simulation;
+
+import reactor.core.publisher.Mono;
+import tools.descartes.autoscaling.cloudfoundry.CFConnector;
+import tools.descartes.autoscaling.cloudfoundry.InstanceState;
+import tools.descartes.autoscaling.scaling.ScalingRequest;
+import tools.descartes.autoscaling.scaling.ScalingResponse;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An in-process CFConnector on a {@link SimulatedCloudFoundry}, for load and scale tests without a CloudFoundry
+ * foundation. Scaling requests are delayed without blocking a thread.
+ */
+public class SimulatedCFConnector implements CFConnector {
+
+    private final SimulatedCloudFoundry cloudFoundry;
+    private final Map<String, String> eurekaToCloudfoundryNames;
+
+    public SimulatedCFConnector(SimulatedCloudFoundry cloudFoundry, Map<String, String> eurekaToCloudfoundryNames) {
+        this.cloudFoundry = cloudFoundry;
+        this.eurekaToCloudfoundryNames = eurekaToCloudfoundryNames;
+    }
+
+    @Override
+    public Map<String, Integer> getAppInstances() {
+        simulateQuery();
+        Map<String, Integer> instances = new HashMap<>();
+        for (SimulatedApp app : cloudFoundry.getApps()) {
+            instances.put(app.getName(), app.getDesired());
+        }
+        return instances;
+    }
+
+    @Override
+    public Map<String, InstanceState> getInstanceStates() {
+        simulateQuery();
+        long now = cloudFoundry.getClock().millis();
+        Map<String, InstanceState> states = new HashMap<>();
+        for (SimulatedApp app : cloudFoundry.getApps()) {
+            states.put(app.getName(), app.getState(now, cloudFoundry.getStartupDelayMillis()));
+        }
+        return states;
+    }
+
+    @Override
+    public ScalingResponse scaleApp(ScalingRequest sr) {
+        return scaleAppAsync(sr).block();
+    }
+
+    @Override
+    public Mono<ScalingResponse> scaleAppAsync(ScalingRequest sr) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.delay(Duration.ofMillis(cloudFoundry.getLatencyMillis()))
+                    .map(tick -> scale(sr, start));
+        });
+    }
+
+    private ScalingResponse scale(ScalingRequest sr, long start) {
+        long latency = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        if (cloudFoundry.nextRequestFails()) {
+            return new ScalingResponse(sr, false, "Simulated failure", latency);
+        }
+        try {
+            cloudFoundry.scale(eurekaToCloudfoundryNames.getOrDefault(sr.getApp(), sr.getApp()), sr.getInstances());
+            return new ScalingResponse(sr, true, null, latency);
+        } catch (IllegalArgumentException iae) {
+            return new ScalingResponse(sr, false, iae.getMessage(), latency);
+        }
+    }
+
+    /**
+     * Delays a query by the latency and fails it like the CloudFoundry client would
+     */
+    private void simulateQuery() {
+        long latency = cloudFoundry.getLatencyMillis();
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (cloudFoundry.nextRequestFails()) {
+            throw new IllegalStateException("Simulated failure");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package tools.descartes.autoscaling.simulation;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The state of a simulated CloudFoundry space, shared by the {@link SimulatedCFConnector} and the
+ * {@link CloudFoundryApiStub}. Latency, failures and start-up delays of instances are configurable, failures are drawn
+ * from a seeded random generator.
+ */
+public class SimulatedCloudFoundry {
+
+    private final Map<String, SimulatedApp> appsByName = new ConcurrentSkipListMap<>();
+    private final Map<String, SimulatedApp> appsById = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final Random random;
+    private volatile long latencyMillis;
+    private volatile double failureRate;
+    private volatile long startupDelayMillis;
+
+    public SimulatedCloudFoundry(Clock clock, long seed) {
+        this.clock = clock;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Creates apps named prefix0 to prefix(count - 1)
+     */
+    public void createApps(String prefix, int count, int instances) {
+        for (int i = 0; i < count; i++) {
+            createApp(prefix + i, instances);
+        }
+    }
+
+    public SimulatedApp createApp(String name, int instances) {
+        SimulatedApp app = new SimulatedApp(name, instances);
+        appsByName.put(name, app);
+        appsById.put(app.getId(), app);
+        return app;
+    }
+
+    /**
+     * @return all apps ordered by name
+     */
+    public Collection<SimulatedApp> getApps() {
+        return Collections.unmodifiableCollection(appsByName.values());
+    }
+
+    public SimulatedApp getApp(String name) {
+        return appsByName.get(name);
+    }
+
+    public SimulatedApp getAppById(String id) {
+        return appsById.get(id);
+    }
+
+    /**
+     * Sets the desired instances of an app, new instances are starting for the start-up delay
+     * @throws IllegalArgumentException if the app does not exist
+     */
+    public void scale(String name, int instances) {
+        SimulatedApp app = appsByName.get(name);
+        if (app == null) {
+            throw new IllegalArgumentException("App " + name + " does not exist");
+        }
+        app.scale(instances, clock.millis());
+    }
+
+    /**
+     * Lets instances of an app crash, e.g. to test reconciliation
+     */
+    public void crash(String name, int instances) {
+        SimulatedApp app = appsByName.get(name);
+        if (app != null) {
+            app.crash(instances);
+        }
+    }
+
+    /**
+     * @return whether the next request should fail according to the failure rate
+     */
+    public boolean nextRequestFails() {
+        if (failureRate <= 0) return false;
+        synchronized (random) {
+            return random.nextDouble() < failureRate;
+        }
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public double getFailureRate() {
+        return failureRate;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public long getStartupDelayMillis() {
+        return startupDelayMillis;
+    }
+
+    public void setStartupDelayMillis(long startupDelayMillis) {
+        this.startupDelayMillis = startupDelayMillis;
+    }
+}
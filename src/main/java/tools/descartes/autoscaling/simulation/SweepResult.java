@@ -0,0 +1,37 @@
+package tools.descartes.autoscaling.simulation;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The outcome of one configuration of a {@link ParameterSweep}
+ */
+public class SweepResult {
+
+    private final Map<String, Double> parameters;
+    private final BacktestReport report;
+
+    SweepResult(Map<String, Double> parameters, BacktestReport report) {
+        this.parameters = Collections.unmodifiableMap(parameters);
+        this.report = report;
+    }
+
+    /**
+     * @return the swept parameters of the configuration by name
+     */
+    public Map<String, Double> getParameters() {
+        return parameters;
+    }
+
+    public BacktestReport getReport() {
+        return report;
+    }
+
+    @Override
+    public String toString() {
+        return "SweepResult{" +
+                "parameters=" + parameters +
+                ", report=" + report +
+                '}';
+    }
+}
@@ -0,0 +1,82 @@
+package tools.descartes.autoscaling.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock which only advances when told to, so that simulations can run faster than real time. The clock is in UTC,
+ * views in other zones share its instant.
+ */
+public class VirtualClock extends Clock {
+
+    private final AtomicLong millis;
+
+    public VirtualClock(long millis) {
+        this.millis = new AtomicLong(millis);
+    }
+
+    public void setMillis(long millis) {
+        this.millis.set(millis);
+    }
+
+    public void advance(Duration duration) {
+        millis.addAndGet(duration.toMillis());
+    }
+
+    @Override
+    public long millis() {
+        return millis.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    /**
+     * @return this clock for UTC, otherwise a view in the zone which advances with this clock
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return ZoneOffset.UTC.equals(zone) ? this : new ZonedView(this, zone);
+    }
+
+    private static class ZonedView extends Clock {
+        private final VirtualClock clock;
+        private final ZoneId zone;
+
+        ZonedView(VirtualClock clock, ZoneId zone) {
+            this.clock = clock;
+            this.zone = zone;
+        }
+
+        @Override
+        public long millis() {
+            return clock.millis();
+        }
+
+        @Override
+        public Instant instant() {
+            return clock.instant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return clock.withZone(zone);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package tools.descartes.autoscaling.simulation;
+
+/**
+ * A synthetic workload, the request rate of each app over time. The apps are shifted in time by a phase derived from
+ * their name, so that they do not peak at once.
+ */
+public class Workload {
+
+    /**
+     * The course of the request rate within a period
+     */
+    public enum Shape {
+        /**
+         * Base load in the first half of each period, peak load in the second half
+         */
+        STEP,
+        /**
+         * A cosine between base and peak load, e.g. the daily pattern of user traffic
+         */
+        DIURNAL,
+        /**
+         * Base load with a short burst of peak load at the start of each period
+         */
+        SPIKE
+    }
+
+    /**
+     * Share of the period with peak load for the spike shape
+     */
+    private static final double SPIKE_SHARE = 0.1;
+
+    private final Shape shape;
+    private final double baseLoad;
+    private final double peakLoad;
+    private final long periodMillis;
+
+    public Workload(Shape shape, double baseLoad, double peakLoad, long periodMillis) {
+        this.shape = shape;
+        this.baseLoad = baseLoad;
+        this.peakLoad = peakLoad;
+        this.periodMillis = Math.max(1, periodMillis);
+    }
+
+    /**
+     * @return requests per second of the app at the provided time
+     */
+    public double requestRate(String app, long timeMillis) {
+        long phase = Math.floorMod(app.hashCode(), periodMillis);
+        double position = (double) Math.floorMod(timeMillis + phase, periodMillis) / periodMillis;
+        switch (shape) {
+            case STEP:
+                return position < 0.5 ? baseLoad : peakLoad;
+            case DIURNAL:
+                return baseLoad + (peakLoad - baseLoad) * (1 - Math.cos(2 * Math.PI * position)) / 2;
+            case SPIKE:
+                return position < SPIKE_SHARE ? peakLoad : baseLoad;
+            default:
+                throw new IllegalStateException("Unknown workload shape " + shape);
+        }
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+}
@@ -0,0 +1,28 @@
+package tools.descartes.autoscaling.training;
+
+import jdk.jfr.*;
+
+/**
+ * A flight recorder event spanning the training of the model of an app
+ */
+@Name("tools.descartes.autoscaling.ModelTraining")
+@Label("Model Training")
+@Category({"Autoscaler", "Training"})
+@Description("A training of the model of an app")
+@StackTrace(false)
+class ModelTrainingEvent extends Event {
+
+    @Label("App")
+    String app;
+
+    @Label("Samples")
+    @Description("Number of rows of the training data")
+    int samples;
+
+    @Label("Features")
+    @Description("Number of columns of the training data")
+    int features;
+
+    @Label("Outcome")
+    String outcome;
+}
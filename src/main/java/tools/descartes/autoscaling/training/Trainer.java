@@ -1,18 +1,27 @@
 package tools.descartes.autoscaling.training;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import smile.data.DataFrame;
 import tools.descartes.autoscaling.config.TrainingProperties;
 import tools.descartes.autoscaling.knowledge.InstanceManager;
 import tools.descartes.autoscaling.knowledge.ModelRegistry;
 import tools.descartes.autoscaling.learning.IRLModel;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategy;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+import tools.descartes.autoscaling.training.io.IncrementalTrainingDataImporter;
 import tools.descartes.autoscaling.training.io.TrainingDataImporter;
 import tools.descartes.autoscaling.training.io.TrainingDataImporterWrapper;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -29,15 +38,22 @@ public class Trainer implements Runnable {
     private final InstanceManager instanceManager;
     private final ModelRegistry modelRegistry;
     private final TrainingProperties trainingProperties;
+    private final MissingValueStrategy missingValueStrategy;
+    private final Map<String, TrainingDataBuffer> trainingDataBuffers;
+    private final MeterRegistry meterRegistry;
 
     public Trainer(TrainingDataImporterWrapper trainingDataImporterWrapper, ModelTrainerFactory trainerFactory,
-                   InstanceManager instanceManager, ModelRegistry modelRegistry, TrainingProperties trainingProperties) {
+                   InstanceManager instanceManager, ModelRegistry modelRegistry, TrainingProperties trainingProperties,
+                   MissingValueStrategyWrapper missingValueStrategyWrapper, MeterRegistry meterRegistry) {
         isRunning = new AtomicBoolean(false);
         this.trainingDataImporter = trainingDataImporterWrapper.getDataImporter();
         this.trainerFactory = trainerFactory;
         this.instanceManager = instanceManager;
         this.modelRegistry = modelRegistry;
         this.trainingProperties = trainingProperties;
+        this.missingValueStrategy = missingValueStrategyWrapper.getDefaultStrategy();
+        this.trainingDataBuffers = new HashMap<>();
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -53,24 +69,33 @@ public class Trainer implements Runnable {
         while (this.isRunning.get()) {
             Set<String> apps = instanceManager.getApps();
             if (apps != null && !apps.isEmpty()) {
+                // the buffered training data of removed apps is released
+                trainingDataBuffers.keySet().retainAll(apps);
                 for (String app : apps) {
-                    ModelTrainer trainer;
-                    if (trainerMap.containsKey(app)) {
-                        trainer = trainerMap.get(app);
-                    } else {
-                        trainer = trainerFactory.getModelTrainer(app);
+                    if (!trainerMap.containsKey(app)) {
+                        ModelTrainer trainer = trainerFactory.getModelTrainer(app);
                         if (trainer != null) trainerMap.put(app, trainer);
-                        else continue;
                     }
-                    logger.debug("Training model for app " + app);
-                    IRLModel model = trainer.trainModel(trainingDataImporter);
-                    if (model != null) {
-                        logger.debug("Training model for app " + app + " finished");
-                        modelRegistry.setModelForApp(app, model);
-                    } else {
-                        logger.info("Training for app " + app + " was not successful");
+                }
+                List<String> trainableApps = new ArrayList<>(apps);
+                trainableApps.retainAll(trainerMap.keySet());
+                int batchSize = Math.max(1, trainingProperties.getImporter().getBatchSize());
+                long importDuration = 0;
+                // only the imported training data of one batch of apps is held in memory at once, apart from the
+                // buffers of incremental importers, which keep the lookback of every app
+                for (int from = 0; from < trainableApps.size(); from += batchSize) {
+                    List<String> batch = trainableApps.subList(from, Math.min(from + batchSize, trainableApps.size()));
+                    long importStart = System.nanoTime();
+                    Map<String, DataFrame> trainingData = importTrainingData(batch);
+                    importDuration += System.nanoTime() - importStart;
+                    for (String app : batch) {
+                        trainModel(app, trainerMap.get(app), trainingData.get(app));
                     }
                 }
+                Timer.builder("autoscaler.training.import")
+                        .description("Duration of the import of the training data of all trainable apps")
+                        .register(meterRegistry)
+                        .record(importDuration, TimeUnit.NANOSECONDS);
             } else {
                 logger.info("InstanceManager seems to be not ready yet, no training possible at the moment, waiting 30s...");
                 try {
@@ -94,6 +119,50 @@ public class Trainer implements Runnable {
         this.isRunning.set(false);
     }
 
+    private void trainModel(String app, ModelTrainer trainer, DataFrame data) {
+        logger.debug("Training model for app " + app);
+        ModelTrainingEvent event = new ModelTrainingEvent();
+        event.begin();
+        long trainingStart = System.nanoTime();
+        IRLModel model = trainer.trainModel(data);
+        if (event.shouldCommit()) {
+            event.app = app;
+            event.samples = data == null ? 0 : data.nrows();
+            event.features = data == null ? 0 : data.ncols();
+            event.outcome = model != null ? "success" : "failure";
+            event.commit();
+        }
+        Timer.builder("autoscaler.training")
+                .description("Duration of the training of the model of an app")
+                .tag("app", app)
+                .tag("outcome", model != null ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - trainingStart, TimeUnit.NANOSECONDS);
+        if (model != null) {
+            logger.debug("Training model for app " + app + " finished");
+            modelRegistry.setModelForApp(app, model);
+        } else {
+            logger.info("Training for app " + app + " was not successful");
+        }
+    }
+
+    private Map<String, DataFrame> importTrainingData(List<String> apps) {
+        if (!(trainingDataImporter instanceof IncrementalTrainingDataImporter)) {
+            // import the training data of the batch at once, so that the importer can load it in parallel
+            return trainingDataImporter.getTrainingDataForApps(apps);
+        }
+        IncrementalTrainingDataImporter importer = (IncrementalTrainingDataImporter) trainingDataImporter;
+        long lookbackStart = System.currentTimeMillis()
+                - TimeUnit.DAYS.toMillis(trainingProperties.getTrainingLookbackDays());
+        Map<String, DataFrame> trainingData = new HashMap<>();
+        for (String app : apps) {
+            TrainingDataBuffer buffer = trainingDataBuffers.computeIfAbsent(app,
+                    a -> new TrainingDataBuffer(missingValueStrategy.getDefaultValue()));
+            trainingData.put(app, buffer.refresh(importer, app, lookbackStart));
+        }
+        return trainingData;
+    }
+
     public void exit() {
         isRunning.set(false);
     }
@@ -0,0 +1,104 @@
+package tools.descartes.autoscaling.training;
+
+import smile.data.DataFrame;
+import smile.data.vector.BaseVector;
+import tools.descartes.autoscaling.training.io.IncrementalTrainingDataImporter;
+import tools.descartes.autoscaling.training.io.TrainingDataFrames;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The in-memory training data of one app. New rows are appended after each training round and rows older than the
+ * training lookback are evicted, so that only the delta has to be imported. Appended rows are kept as separate frames
+ * and merged with the buffered rows once, when the data is requested for training.
+ */
+public class TrainingDataBuffer {
+
+    private static final String TIME_COLUMN = "time";
+
+    private final double missingValue;
+    private DataFrame data;
+    private final List<DataFrame> appended;
+    private long watermark;
+
+    public TrainingDataBuffer(double missingValue) {
+        this.missingValue = missingValue;
+        this.appended = new ArrayList<>();
+    }
+
+    /**
+     * Imports the rows added since the last training round, or all rows if the buffer is empty, and evicts the rows
+     * before the lookback start
+     * @return the buffered rows or null if the buffer is empty
+     */
+    public DataFrame refresh(IncrementalTrainingDataImporter importer, String app, long lookbackStart) {
+        if (isEmpty()) {
+            append(importer.getTrainingDataForApp(app));
+        } else {
+            // only query the rows added since the last training round
+            append(importer.getTrainingDataForAppAfter(app, watermark));
+        }
+        evictBefore(lookbackStart);
+        return getData();
+    }
+
+    /**
+     * Appends rows which are newer than all buffered rows, new metrics are added as columns
+     */
+    public void append(DataFrame rows) {
+        if (rows == null || rows.nrows() == 0) return;
+        appended.add(rows);
+        watermark = rows.column(TIME_COLUMN).getLong(rows.nrows() - 1);
+    }
+
+    /**
+     * Removes all rows with a time before the provided time
+     */
+    public void evictBefore(long time) {
+        data = evict(data, time);
+        appended.replaceAll(rows -> evict(rows, time));
+        appended.removeIf(rows -> rows == null);
+    }
+
+    public boolean isEmpty() {
+        return data == null && appended.isEmpty();
+    }
+
+    /**
+     * @return time of the newest buffered row
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return the buffered rows or null if the buffer is empty
+     */
+    public DataFrame getData() {
+        if (!appended.isEmpty()) {
+            List<DataFrame> frames = new ArrayList<>(appended.size() + 1);
+            frames.add(data);
+            frames.addAll(appended);
+            data = TrainingDataFrames.union(frames, missingValue);
+            appended.clear();
+        }
+        return data;
+    }
+
+    /**
+     * @return the rows with a time not before the provided time, null if there are none
+     */
+    private static DataFrame evict(DataFrame rows, long time) {
+        if (rows == null) return null;
+        BaseVector<?, ?, ?> times = rows.column(TIME_COLUMN);
+        int first = 0;
+        while (first < times.size() && times.getLong(first) < time) {
+            first++;
+        }
+        if (first == times.size()) {
+            return null;
+        }
+        return first > 0 ? rows.slice(first, times.size()) : rows;
+    }
+}
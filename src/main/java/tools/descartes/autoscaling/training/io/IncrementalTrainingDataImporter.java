@@ -0,0 +1,16 @@
+package tools.descartes.autoscaling.training.io;
+
+import smile.data.DataFrame;
+
+/**
+ * A TrainingDataImporter which can import only the training data added after a watermark, so that training rounds do
+ * not have to reload the whole lookback window
+ */
+public interface IncrementalTrainingDataImporter extends TrainingDataImporter {
+    /**
+     * @param app Name of app for training
+     * @param watermark time in milliseconds of the newest row already imported
+     * @return training data for this app with a time after the watermark or null if there is none
+     */
+    DataFrame getTrainingDataForAppAfter(String app, long watermark);
+}
@@ -0,0 +1,72 @@
+package tools.descartes.autoscaling.training.io;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import tools.descartes.autoscaling.metrics.Metric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A TrainingDataExporter which records the duration of the exports of another exporter
+ */
+class MeteredTrainingDataExporter implements TrainingDataExporter {
+
+    private final TrainingDataExporter exporter;
+    private final MeterRegistry meterRegistry;
+    private final String format;
+
+    /**
+     * @param format the name of the export format, used as tag
+     */
+    MeteredTrainingDataExporter(TrainingDataExporter exporter, MeterRegistry meterRegistry, String format) {
+        this.exporter = exporter;
+        this.meterRegistry = meterRegistry;
+        this.format = format;
+    }
+
+    @Override
+    public void commitActions(long time, List<Metric> measurements, Map<String, Integer> actions) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            exporter.commitActions(time, measurements, actions);
+            outcome = "success";
+        } finally {
+            record("actions", outcome, start);
+        }
+    }
+
+    @Override
+    public void commitMeasurements(long time, List<Metric> measurements) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            exporter.commitMeasurements(time, measurements);
+            outcome = "success";
+        } finally {
+            record("measurements", outcome, start);
+        }
+    }
+
+    @Override
+    public void flush() {
+        exporter.flush();
+    }
+
+    @Override
+    public void close() {
+        exporter.close();
+    }
+
+    private void record(String operation, String outcome, long startNanos) {
+        Timer.builder("autoscaler.export")
+                .description("Duration of the exports of training data")
+                .tag("operation", operation)
+                .tag("format", format)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -21,4 +21,15 @@ public interface TrainingDataExporter {
      */
     default void commitMeasurements(long time, List<Metric> measurements) { }
 
+    /**
+     * Writes all buffered rows, called periodically so that rows are not buffered longer than the flush interval
+     * while nothing new is committed
+     */
+    default void flush() { }
+
+    /**
+     * Flushes and releases all resources held by this exporter, called on shutdown
+     */
+    default void close() { }
+
 }
@@ -1,12 +1,17 @@
 package tools.descartes.autoscaling.training.io;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import tools.descartes.autoscaling.config.TrainingProperties;
 import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+import tools.descartes.autoscaling.training.io.arrow.ArrowTrainingDataExporter;
 import tools.descartes.autoscaling.training.io.csv.CSVTrainingDataExporter;
 import tools.descartes.autoscaling.training.io.database.JdbcTrainingDataExporter;
+import tools.descartes.autoscaling.training.io.mapped.MappedTrainingDataExporter;
+
+import javax.annotation.PreDestroy;
 
 /**
  * A wrapper class which instantiates a concrete instance of TrainingDataExporter
@@ -21,18 +26,33 @@ public class TrainingDataExporterWrapper {
     public TrainingDataExporterWrapper(
             TrainingProperties trainingProperties,
             MissingValueStrategyWrapper missingValueStrategyWrapper,
-            JdbcTrainingDataExporter jdbcTrainingDataExporter
+            JdbcTrainingDataExporter jdbcTrainingDataExporter,
+            MappedTrainingDataExporter mappedTrainingDataExporter,
+            MeterRegistry meterRegistry
     ) {
         if (trainingProperties.getExporter().isStoreMetricsInDatabase()) {
             logger.debug("Exporting training data to relational database using jdbc");
-            exporter = jdbcTrainingDataExporter;
+            exporter = new MeteredTrainingDataExporter(jdbcTrainingDataExporter, meterRegistry, "jdbc");
+        } else if (trainingProperties.getExporter().getFormat() == TrainingProperties.Format.MAPPED_LOG) {
+            logger.debug("Exporting training data to memory-mapped measurement log");
+            exporter = new MeteredTrainingDataExporter(mappedTrainingDataExporter, meterRegistry, "mapped_log");
+        } else if (trainingProperties.getExporter().getFormat() == TrainingProperties.Format.ARROW) {
+            logger.debug("Exporting training data to arrow files");
+            exporter = new MeteredTrainingDataExporter(new ArrowTrainingDataExporter(missingValueStrategyWrapper,
+                    trainingProperties.getExporter()), meterRegistry, "arrow");
         } else {
             logger.debug("Exporting training data to csv files");
-            exporter = new CSVTrainingDataExporter(missingValueStrategyWrapper);
+            exporter = new MeteredTrainingDataExporter(new CSVTrainingDataExporter(missingValueStrategyWrapper,
+                    trainingProperties.getExporter()), meterRegistry, "csv");
         }
     }
 
     public TrainingDataExporter getExporter() {
         return exporter;
     }
+
+    @PreDestroy
+    public void close() {
+        exporter.close();
+    }
 }
@@ -0,0 +1,120 @@
+package tools.descartes.autoscaling.training.io;
+
+import smile.data.DataFrame;
+import smile.data.type.DataType;
+import smile.data.type.StructField;
+import smile.data.vector.BaseVector;
+import smile.data.vector.DoubleVector;
+import smile.data.vector.IntVector;
+import smile.data.vector.LongVector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helper methods for combining training data frames which were written with different sets of metrics
+ */
+public final class TrainingDataFrames {
+
+    private TrainingDataFrames() {
+    }
+
+    /**
+     * Unions all given frames. Frames with an identical schema are simply concatenated. Otherwise, the columns are
+     * aligned by name (in order of their first appearance) and cells of metrics which are missing in a frame are
+     * filled with the provided missing value.
+     * @param frames frames to union, null entries are ignored
+     * @param missingValue value to use for metrics which are not contained in a frame
+     * @return the union of all frames or null if there is no frame
+     */
+    public static DataFrame union(List<DataFrame> frames, double missingValue) {
+        List<DataFrame> present = new ArrayList<>(frames.size());
+        for (DataFrame frame : frames) {
+            if (frame != null) present.add(frame);
+        }
+        if (present.isEmpty()) return null;
+        DataFrame first = present.get(0);
+        if (present.size() == 1) return first;
+        boolean sameSchema = present.stream().allMatch(f -> f.schema().equals(first.schema()));
+        if (sameSchema) {
+            return first.union(present.subList(1, present.size()).toArray(new DataFrame[0]));
+        }
+        return alignedUnion(present, missingValue);
+    }
+
+    private static DataFrame alignedUnion(List<DataFrame> frames, double missingValue) {
+        // column name -> type of the union column
+        Map<String, DataType.ID> columns = new LinkedHashMap<>();
+        int rows = 0;
+        for (DataFrame frame : frames) {
+            rows += frame.nrows();
+            for (StructField field : frame.schema().fields()) {
+                DataType.ID id = numericId(field.type);
+                columns.merge(field.name, id, (known, other) -> known == other ? known : DataType.ID.Double);
+            }
+        }
+        List<BaseVector<?, ?, ?>> vectors = new ArrayList<>(columns.size());
+        for (Map.Entry<String, DataType.ID> column : columns.entrySet()) {
+            vectors.add(alignColumn(frames, column.getKey(), column.getValue(), rows, missingValue));
+        }
+        return DataFrame.of(vectors.toArray(new BaseVector[0]));
+    }
+
+    private static DataType.ID numericId(DataType type) {
+        if (DataType.isLong(type)) return DataType.ID.Long;
+        if (DataType.isInt(type)) return DataType.ID.Integer;
+        return DataType.ID.Double;
+    }
+
+    private static BaseVector<?, ?, ?> alignColumn(List<DataFrame> frames, String name, DataType.ID id, int rows,
+                                                   double missingValue) {
+        switch (id) {
+            case Long: {
+                long[] values = new long[rows];
+                int offset = 0;
+                for (DataFrame frame : frames) {
+                    int index = columnIndex(frame, name);
+                    for (int i = 0; i < frame.nrows(); i++) {
+                        values[offset + i] = index < 0 ? (long) missingValue : frame.getLong(i, index);
+                    }
+                    offset += frame.nrows();
+                }
+                return LongVector.of(name, values);
+            }
+            case Integer: {
+                int[] values = new int[rows];
+                int offset = 0;
+                for (DataFrame frame : frames) {
+                    int index = columnIndex(frame, name);
+                    for (int i = 0; i < frame.nrows(); i++) {
+                        values[offset + i] = index < 0 ? (int) missingValue : frame.getInt(i, index);
+                    }
+                    offset += frame.nrows();
+                }
+                return IntVector.of(name, values);
+            }
+            default: {
+                double[] values = new double[rows];
+                int offset = 0;
+                for (DataFrame frame : frames) {
+                    int index = columnIndex(frame, name);
+                    for (int i = 0; i < frame.nrows(); i++) {
+                        values[offset + i] = index < 0 ? missingValue : frame.getDouble(i, index);
+                    }
+                    offset += frame.nrows();
+                }
+                return DoubleVector.of(name, values);
+            }
+        }
+    }
+
+    private static int columnIndex(DataFrame frame, String name) {
+        String[] names = frame.names();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+}
@@ -2,6 +2,10 @@ package tools.descartes.autoscaling.training.io;
 
 import smile.data.DataFrame;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 @FunctionalInterface
 public interface TrainingDataImporter {
     /**
@@ -9,4 +13,22 @@ public interface TrainingDataImporter {
      * @return training data for this app
      */
     DataFrame getTrainingDataForApp(String app);
+
+    /**
+     * Imports the training data of several apps at once, implementations may load them in parallel
+     * @param apps Names of apps for training
+     * @return training data per app, null values for apps without training data
+     */
+    default Map<String, DataFrame> getTrainingDataForApps(Collection<String> apps) {
+        Map<String, DataFrame> result = new HashMap<>();
+        for (String app : apps) {
+            result.put(app, getTrainingDataForApp(app));
+        }
+        return result;
+    }
+
+    /**
+     * Releases all resources held by this importer, called on shutdown
+     */
+    default void close() { }
 }
@@ -4,8 +4,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+import tools.descartes.autoscaling.training.io.arrow.ArrowTrainingDataImporter;
 import tools.descartes.autoscaling.training.io.csv.CSVTrainingDataImporter;
 import tools.descartes.autoscaling.training.io.database.JdbcTrainingDataImporter;
+import tools.descartes.autoscaling.training.io.mapped.MappedTrainingDataImporter;
+
+import javax.annotation.PreDestroy;
 
 /**
  * A wrapper class which instantiates a concrete instance of TrainingDataImporter
@@ -19,18 +24,35 @@ public class TrainingDataImporterWrapper {
 
     public TrainingDataImporterWrapper(
             TrainingProperties trainingProperties,
-            JdbcTrainingDataImporter jdbcTrainingDataImporter
+            MissingValueStrategyWrapper missingValueStrategyWrapper,
+            JdbcTrainingDataImporter jdbcTrainingDataImporter,
+            MappedTrainingDataImporter mappedTrainingDataImporter
     ) {
         if (trainingProperties.getImporter().isImportMetricsFromDatabase()) {
             logger.debug("Importing training data from relational database using jdbc");
             dataImporter = jdbcTrainingDataImporter;
+        } else if (trainingProperties.getImporter().getFormat() == TrainingProperties.Format.MAPPED_LOG) {
+            logger.debug("Importing training data from memory-mapped measurement log");
+            dataImporter = mappedTrainingDataImporter;
+        } else if (trainingProperties.getImporter().getFormat() == TrainingProperties.Format.ARROW) {
+            logger.debug("Importing training data from arrow files");
+            dataImporter = new ArrowTrainingDataImporter(trainingProperties.getImporter().getSources(),
+                    missingValueStrategyWrapper.getDefaultStrategy(), trainingProperties.getTrainingLookbackDays());
         } else {
             logger.debug("Importing training data from csv files");
-            dataImporter = new CSVTrainingDataImporter(trainingProperties.getImporter().getSources());
+            dataImporter = new CSVTrainingDataImporter(trainingProperties.getImporter().getSources(),
+                    missingValueStrategyWrapper.getDefaultStrategy(),
+                    trainingProperties.getImporter().getParallelism(), trainingProperties.getTrainingLookbackDays(),
+                    trainingProperties.getImporter().getCacheFiles());
         }
     }
 
     public TrainingDataImporter getDataImporter() {
         return dataImporter;
     }
+
+    @PreDestroy
+    public void close() {
+        dataImporter.close();
+    }
 }
@@ -0,0 +1,218 @@
+package tools.descartes.autoscaling.training.io.arrow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import smile.data.DataFrame;
+import smile.data.vector.BaseVector;
+import smile.data.vector.DoubleVector;
+import smile.data.vector.IntVector;
+import smile.data.vector.LongVector;
+import smile.io.Write;
+import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategy;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+import tools.descartes.autoscaling.training.io.TrainingDataExporter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * An implementation of TrainingDataExporter which exports training data to columnar Apache Arrow files.
+ * Each app gets one segment per time interval. Since Arrow files cannot be appended to, every flush writes the rows
+ * added since the last flush as a new part of the segment ({@code <app>_actions_<segment start>_<part>.arrow}, or
+ * {@code <app>_measurements_...} for measurements without actions). Existing files are never overwritten, so a restart
+ * within a segment continues with the next free part.
+ */
+public class ArrowTrainingDataExporter implements TrainingDataExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArrowTrainingDataExporter.class);
+
+    static final String FILE_SUFFIX = ".arrow";
+    static final String ACTIONS = "actions";
+    static final String MEASUREMENTS = "measurements";
+
+    private final Map<String, Segment> actionSegments;
+    private final Map<String, Segment> measurementSegments;
+    private final MissingValueStrategy missingValueStrategy;
+    private final Path directory;
+    private final long segmentDurationMillis;
+    private final long flushIntervalMillis;
+    private final int flushMaxRows;
+
+    public ArrowTrainingDataExporter(MissingValueStrategyWrapper missingValueStrategyWrapper,
+                                     TrainingProperties.ExportProperties exportProperties) {
+        this.actionSegments = new HashMap<>();
+        this.measurementSegments = new HashMap<>();
+        this.missingValueStrategy = missingValueStrategyWrapper.getDefaultStrategy();
+        this.directory = Paths.get(exportProperties.getDirectory());
+        this.segmentDurationMillis = exportProperties.getSegmentDurationSeconds() * 1000L;
+        this.flushIntervalMillis = exportProperties.getFlushIntervalSeconds() * 1000L;
+        this.flushMaxRows = exportProperties.getFlushMaxRows();
+    }
+
+    @Override
+    public synchronized void commitActions(long time, List<Metric> measurements, Map<String, Integer> actions) {
+        Map<String, List<Metric>> measurementsByApp = measurements.stream()
+                .collect(Collectors.groupingBy(Metric::getApp));
+        for (Map.Entry<String, List<Metric>> entry : measurementsByApp.entrySet()) {
+            String app = entry.getKey();
+            append(actionSegments, app, ACTIONS, time, actions.getOrDefault(app, 0), entry.getValue());
+        }
+    }
+
+    @Override
+    public synchronized void commitMeasurements(long time, List<Metric> measurements) {
+        Map<String, List<Metric>> measurementsByApp = measurements.stream()
+                .collect(Collectors.groupingBy(Metric::getApp));
+        for (Map.Entry<String, List<Metric>> entry : measurementsByApp.entrySet()) {
+            append(measurementSegments, entry.getKey(), MEASUREMENTS, time, 0, entry.getValue());
+        }
+    }
+
+    private void append(Map<String, Segment> segments, String app, String kind, long time, int action,
+                        List<Metric> measurements) {
+        Segment segment = segments.get(app);
+        if (segment != null && time >= segment.start + segmentDurationMillis) {
+            // roll over to the next time segment
+            write(segment);
+            segment = null;
+        }
+        if (segment == null) {
+            segment = new Segment(app, kind, time - Math.floorMod(time, segmentDurationMillis));
+            segments.put(app, segment);
+        }
+        segment.add(time, action, measurements);
+        if (segment.rows.size() >= flushMaxRows
+                || System.currentTimeMillis() - segment.lastFlushTime >= flushIntervalMillis) {
+            write(segment);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        for (Segment segment : actionSegments.values()) {
+            write(segment);
+        }
+        for (Segment segment : measurementSegments.values()) {
+            write(segment);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : actionSegments.values()) {
+            write(segment);
+        }
+        for (Segment segment : measurementSegments.values()) {
+            write(segment);
+        }
+        actionSegments.clear();
+        measurementSegments.clear();
+    }
+
+    /**
+     * Writes the rows added since the last flush as the next free part of the segment
+     */
+    private void write(Segment segment) {
+        segment.lastFlushTime = System.currentTimeMillis();
+        if (segment.rows.isEmpty()) {
+            return;
+        }
+        String name = fileName(segment.app, segment.kind, segment.start, segment.nextPart);
+        Path tmp = directory.resolve(name + ".tmp");
+        try {
+            Write.arrow(segment.toDataFrame(missingValueStrategy.getDefaultValue()), tmp);
+            Path file = directory.resolve(name);
+            while (Files.exists(file)) {
+                // written before a restart
+                segment.nextPart++;
+                file = directory.resolve(fileName(segment.app, segment.kind, segment.start, segment.nextPart));
+            }
+            // readers must never see a partially written part
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Wrote " + segment.rows.size() + " rows to training data file " + file.toAbsolutePath());
+            segment.nextPart++;
+            segment.clear();
+        } catch (IOException ioe) {
+            // the rows are kept and written with the next flush
+            logger.error("Error while writing training data file " + directory.resolve(name).toAbsolutePath(), ioe);
+        }
+    }
+
+    static String fileName(String app, String kind, long segmentStart, int part) {
+        return app + "_" + kind + "_" + segmentStart + "_" + part + FILE_SUFFIX;
+    }
+
+    /**
+     * The rows of the current time segment of one app which are not written yet
+     */
+    private static class Segment {
+        private final String app;
+        private final String kind;
+        private final long start;
+        private final List<Long> times = new ArrayList<>();
+        private final List<Integer> actions = new ArrayList<>();
+        private final Map<String, Integer> columnIndex = new HashMap<>();
+        private final List<String> columns = new ArrayList<>();
+        private final List<double[]> rows = new ArrayList<>();
+        private int nextPart;
+        private long lastFlushTime;
+
+        Segment(String app, String kind, long start) {
+            this.app = app;
+            this.kind = kind;
+            this.start = start;
+            this.lastFlushTime = System.currentTimeMillis();
+        }
+
+        void add(long time, int action, List<Metric> measurements) {
+            for (Metric metric : measurements) {
+                if (!columnIndex.containsKey(metric.getName())) {
+                    columnIndex.put(metric.getName(), columns.size());
+                    columns.add(metric.getName());
+                }
+            }
+            double[] row = new double[columns.size()];
+            Arrays.fill(row, Double.NaN);
+            for (Metric metric : measurements) {
+                row[columnIndex.get(metric.getName())] = metric.getValue();
+            }
+            times.add(time);
+            actions.add(action);
+            rows.add(row);
+        }
+
+        void clear() {
+            times.clear();
+            actions.clear();
+            rows.clear();
+        }
+
+        DataFrame toDataFrame(double missingValue) {
+            int n = times.size();
+            boolean withAction = ACTIONS.equals(kind);
+            int offset = withAction ? 2 : 1;
+            BaseVector<?, ?, ?>[] vectors = new BaseVector[columns.size() + offset];
+            vectors[0] = LongVector.of("time", times.stream().mapToLong(Long::longValue).toArray());
+            if (withAction) {
+                vectors[1] = IntVector.of("action", actions.stream().mapToInt(Integer::intValue).toArray());
+            }
+            for (int c = 0; c < columns.size(); c++) {
+                double[] values = new double[n];
+                for (int r = 0; r < n; r++) {
+                    double[] row = rows.get(r);
+                    // rows added before a metric appeared are shorter than the current header
+                    values[r] = c < row.length && !Double.isNaN(row[c]) ? row[c] : missingValue;
+                }
+                vectors[c + offset] = DoubleVector.of(columns.get(c), values);
+            }
+            return DataFrame.of(vectors);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package tools.descartes.autoscaling.training.io.arrow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import smile.data.DataFrame;
+import smile.io.Read;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategy;
+import tools.descartes.autoscaling.training.io.TrainingDataFrames;
+import tools.descartes.autoscaling.training.io.TrainingDataImporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An implementation of TrainingDataImporter which imports training data from the Apache Arrow segments written by
+ * {@link ArrowTrainingDataExporter}. Only segments which overlap with the training lookback are read, with all their
+ * parts.
+ */
+public class ArrowTrainingDataImporter implements TrainingDataImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArrowTrainingDataImporter.class);
+
+    private final List<String> paths;
+    private final MissingValueStrategy missingValueStrategy;
+    private final int lookbackDays;
+
+    public ArrowTrainingDataImporter(List<String> paths, MissingValueStrategy missingValueStrategy, int lookbackDays) {
+        this.paths = paths;
+        this.missingValueStrategy = missingValueStrategy;
+        this.lookbackDays = lookbackDays;
+    }
+
+    @Override
+    public DataFrame getTrainingDataForApp(String app) {
+        long since = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(lookbackDays);
+        List<DataFrame> frames = new ArrayList<>();
+        for (String path : paths) {
+            List<SegmentFile> segments = findSegments(new File(path), app);
+            if (segments.isEmpty()) {
+                logger.warn("Looking for training files of app " + app + " in \"" + new File(path).getAbsolutePath()
+                        + "\" but could not find any.");
+            }
+            // a segment ends where the next one starts, so the segments before the one containing since are skipped
+            long firstStart = Long.MIN_VALUE;
+            for (SegmentFile segment : segments) {
+                if (segment.start <= since) firstStart = segment.start;
+            }
+            for (SegmentFile segment : segments) {
+                if (segment.start < firstStart) continue;
+                try {
+                    frames.add(Read.arrow(segment.file.toPath()));
+                } catch (IOException ioe) {
+                    logger.error("Error while reading training file " + segment.file.getAbsolutePath(), ioe);
+                }
+            }
+        }
+        if (frames.isEmpty()) {
+            logger.warn("There has been an error, as no file could be successfully loaded for training app: " + app);
+            return null;
+        }
+        return TrainingDataFrames.union(frames, missingValueStrategy.getDefaultValue());
+    }
+
+    private List<SegmentFile> findSegments(File directory, String app) {
+        // files of earlier versions have no part number
+        Pattern segmentPattern = Pattern.compile(Pattern.quote(app + "_" + ArrowTrainingDataExporter.ACTIONS + "_")
+                + "(\\d+)(?:_(\\d+))?" + Pattern.quote(ArrowTrainingDataExporter.FILE_SUFFIX));
+        List<SegmentFile> result = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return result;
+        }
+        for (File file : files) {
+            Matcher matcher = segmentPattern.matcher(file.getName());
+            if (matcher.matches()) {
+                int part = matcher.group(2) == null ? -1 : Integer.parseInt(matcher.group(2));
+                result.add(new SegmentFile(file, Long.parseLong(matcher.group(1)), part));
+            }
+        }
+        result.sort(Comparator.<SegmentFile>comparingLong(segment -> segment.start)
+                .thenComparingInt(segment -> segment.part));
+        return result;
+    }
+
+    private static class SegmentFile {
+        private final File file;
+        private final long start;
+        private final int part;
+
+        SegmentFile(File file, long start, int part) {
+            this.file = file;
+            this.start = start;
+            this.part = part;
+        }
+    }
+}
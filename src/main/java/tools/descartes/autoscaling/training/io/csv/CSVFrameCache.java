@@ -0,0 +1,304 @@
+package tools.descartes.autoscaling.training.io.csv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import smile.data.DataFrame;
+import smile.data.Tuple;
+import smile.data.type.StructType;
+import smile.data.vector.BaseVector;
+import smile.io.CSV;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches parsed training data files keyed by path, size and modification time. As training data files are only
+ * appended to, a file which has grown since it was parsed is not parsed again, only its appended tail is parsed and
+ * appended to the cached frame. A row of a last line without line break is parsed again when the file grows, as it
+ * might have been written partially.
+ * Rows older than the requested time are dropped from the cached frames, and at most a fixed number of files is
+ * cached, the least recently loaded file is evicted first.
+ */
+class CSVFrameCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CSVFrameCache.class);
+
+    private static final int SCHEMA_INFERENCE_ROWS = 1000;
+    private static final int TAIL_SCAN_CHUNK = 8192;
+    private static final String TIME = "time";
+
+    private final Map<String, CachedFrame> frames;
+
+    /**
+     * @param maxFiles the maximum number of cached files
+     */
+    CSVFrameCache(int maxFiles) {
+        this.frames = Collections.synchronizedMap(new LinkedHashMap<String, CachedFrame>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedFrame> eldest) {
+                return size() > maxFiles;
+            }
+        });
+    }
+
+    /**
+     * @return the parsed file or null if it does not contain any rows yet
+     */
+    DataFrame load(File file) throws IOException {
+        return load(file, Long.MIN_VALUE);
+    }
+
+    /**
+     * @param since rows with an earlier time are dropped, also from the cache
+     * @return the parsed rows of the file with a time greater than or equal to since or null if there are none
+     */
+    DataFrame load(File file, long since) throws IOException {
+        String path = file.getAbsolutePath();
+        long size = file.length();
+        long modified = file.lastModified();
+        CachedFrame cached = frames.get(path);
+        if (cached != null && cached.size == size && cached.modified == modified) {
+            cached = cached.dropBefore(since);
+            frames.put(path, cached);
+            return cached.frame;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long end = endOfLastLine(channel, size);
+            CachedFrame loaded = null;
+            if (cached != null && cached.end <= end) {
+                try {
+                    loaded = parseTail(channel, cached, end, size, modified);
+                    logger.debug("Parsed appended rows of training file " + path);
+                } catch (IllegalArgumentException iae) {
+                    // e.g. values which do not match the schema inferred from the first rows
+                    logger.debug("Could not parse appended rows of training file " + path + ", parsing whole file");
+                }
+            }
+            if (loaded == null) {
+                loaded = parse(channel, end, size, modified);
+                logger.debug("Parsed training file " + path);
+                if (loaded.frame == null) {
+                    // the schema is inferred again once the file contains rows
+                    frames.remove(path);
+                    return null;
+                }
+            }
+            loaded = loaded.dropBefore(since);
+            frames.put(path, loaded);
+            return loaded.frame;
+        }
+    }
+
+    /**
+     * Drops the cached frames of files which do not exist anymore, e.g. deleted by a retention policy
+     */
+    void evictMissing() {
+        synchronized (frames) {
+            frames.keySet().removeIf(path -> !new File(path).exists());
+        }
+    }
+
+    int size() {
+        return frames.size();
+    }
+
+    private CachedFrame parse(FileChannel channel, long end, long size, long modified) throws IOException {
+        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build();
+        StructType schema = inferSchema(channel, end, format);
+        List<Tuple> rows = readRows(channel, 0, end, format, schema);
+        if (rows.isEmpty()) {
+            // no complete row yet, use the unterminated line for the schema as well
+            schema = inferSchema(channel, size, format);
+            rows = readRows(channel, 0, size, format, schema);
+            DataFrame frame = rows.isEmpty() ? null : DataFrame.of(rows, schema);
+            return new CachedFrame(frame, schema, size, modified, end, frame != null && end < size);
+        }
+        boolean partial = readPartialRow(channel, end, size, schema, rows);
+        return new CachedFrame(DataFrame.of(rows, schema), schema, size, modified, end, partial);
+    }
+
+    private CachedFrame parseTail(FileChannel channel, CachedFrame cached, long end, long size, long modified)
+            throws IOException {
+        StructType schema = cached.schema;
+        DataFrame frame = cached.frame;
+        if (cached.partial) {
+            // the last row of an unterminated line might have been incomplete, it is parsed again
+            frame = frame.nrows() == 1 ? null : frame.slice(0, frame.nrows() - 1);
+        }
+        String[] names = Arrays.stream(schema.fields()).map(field -> field.name).toArray(String[]::new);
+        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader(names).build();
+        List<Tuple> rows = readRows(channel, cached.end, end, format, schema);
+        boolean partial = readPartialRow(channel, end, size, schema, rows);
+        if (!rows.isEmpty()) {
+            DataFrame tail = DataFrame.of(rows, schema);
+            frame = frame == null ? tail : frame.union(tail);
+        }
+        return new CachedFrame(frame, schema, size, modified, end, partial);
+    }
+
+    /**
+     * Adds the row of an unterminated last line if it can be parsed
+     * @return whether a row was added
+     */
+    private boolean readPartialRow(FileChannel channel, long end, long size, StructType schema, List<Tuple> rows)
+            throws IOException {
+        if (end == size) return false;
+        try {
+            String[] names = Arrays.stream(schema.fields()).map(field -> field.name).toArray(String[]::new);
+            CSVFormat format = CSVFormat.DEFAULT.builder().setHeader(names).build();
+            List<Tuple> partial = readRows(channel, end, size, format, schema);
+            rows.addAll(partial);
+            return !partial.isEmpty();
+        } catch (IllegalArgumentException iae) {
+            return false;
+        }
+    }
+
+    private StructType inferSchema(FileChannel channel, long end, CSVFormat format) throws IOException {
+        try (Reader reader = reader(channel, 0, end)) {
+            return new CSV(format).inferSchema(reader, SCHEMA_INFERENCE_ROWS);
+        }
+    }
+
+    private List<Tuple> readRows(FileChannel channel, long start, long end, CSVFormat format, StructType schema)
+            throws IOException {
+        List<Tuple> rows = new ArrayList<>();
+        try (CSVParser parser = format.parse(reader(channel, start, end))) {
+            for (CSVRecord record : parser) {
+                Object[] row = new Object[schema.length()];
+                for (int i = 0; i < row.length; i++) {
+                    String value = i < record.size() ? record.get(i) : "";
+                    row[i] = value.isEmpty() ? null : schema.field(i).valueOf(value);
+                }
+                rows.add(Tuple.of(row, schema));
+            }
+        }
+        return rows;
+    }
+
+    private static Reader reader(FileChannel channel, long start, long end) throws IOException {
+        channel.position(start);
+        InputStream in = new BoundedInputStream(Channels.newInputStream(channel), end - start);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the position after the last line break of the file
+     */
+    private static long endOfLastLine(FileChannel channel, long size) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(TAIL_SCAN_CHUNK);
+        long position = size;
+        while (position > 0) {
+            long chunkStart = Math.max(0, position - TAIL_SCAN_CHUNK);
+            chunk.clear();
+            chunk.limit((int) (position - chunkStart));
+            while (chunk.hasRemaining() && channel.read(chunk, chunkStart + chunk.position()) >= 0) {
+                // fill the chunk
+            }
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    return chunkStart + i + 1;
+                }
+            }
+            position = chunkStart;
+        }
+        return 0;
+    }
+
+    private static class CachedFrame {
+        /**
+         * The parsed rows, null if all rows were dropped
+         */
+        private final DataFrame frame;
+        private final StructType schema;
+        private final long size;
+        private final long modified;
+        /**
+         * Position after the last parsed line
+         */
+        private final long end;
+        /**
+         * Whether the last row of the frame stems from a line without line break
+         */
+        private final boolean partial;
+
+        CachedFrame(DataFrame frame, StructType schema, long size, long modified, long end, boolean partial) {
+            this.frame = frame;
+            this.schema = schema;
+            this.size = size;
+            this.modified = modified;
+            this.end = end;
+            this.partial = partial;
+        }
+
+        /**
+         * @return the cached frame without the rows before since
+         */
+        CachedFrame dropBefore(long since) {
+            if (since == Long.MIN_VALUE || frame == null || !Arrays.asList(frame.names()).contains(TIME)) {
+                return this;
+            }
+            BaseVector<?, ?, ?> times = frame.column(TIME);
+            // the rows are appended in time order
+            int low = 0;
+            int high = frame.nrows();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times.getLong(mid) < since) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low == 0) return this;
+            if (low == frame.nrows()) {
+                // a dropped partial row does not need to be removed when the file grows
+                return new CachedFrame(null, schema, size, modified, end, false);
+            }
+            return new CachedFrame(frame.slice(low, frame.nrows()), schema, size, modified, end, partial);
+        }
+    }
+
+    private static class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // the channel is closed by its owner
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package tools.descartes.autoscaling.training.io.csv;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.descartes.autoscaling.metrics.Metric;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps one CSV file of an app open and appends lines to it through a buffer.
+ * If a metric appears which is not part of the current header, the current file is closed and a new segment with an
+ * extended header is started. The first segment is named {@code <base>.csv}, all following segments are named
+ * {@code <base>.<n>.csv}.
+ */
+class CSVSegmentWriter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CSVSegmentWriter.class);
+
+    private final Path directory;
+    private final String baseName;
+    private final boolean withAction;
+    private final double missingValue;
+    private final long flushIntervalMillis;
+    private final int flushMaxRows;
+
+    /**
+     * Maps metric names to their position in the metric columns of the current segment
+     */
+    private final Map<String, Integer> columnIndex;
+    private final List<String> columns;
+    private BufferedWriter writer;
+    private int segment;
+    private int unflushedRows;
+    private long lastFlushTime;
+
+    CSVSegmentWriter(Path directory, String baseName, boolean withAction, double missingValue,
+                     long flushIntervalMillis, int flushMaxRows) {
+        this.directory = directory;
+        this.baseName = baseName;
+        this.withAction = withAction;
+        this.missingValue = missingValue;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushMaxRows = flushMaxRows;
+        this.columnIndex = new HashMap<>();
+        this.columns = new ArrayList<>();
+        this.segment = -1;
+    }
+
+    /**
+     * Appends a line to the current segment, starts a new segment if new metrics appeared
+     * @param time time of the measurements
+     * @param action executed action, ignored if this writer has no action column
+     * @param measurements measurements of this app
+     * @throws IOException if the segment could not be opened or written
+     */
+    void append(long time, int action, List<Metric> measurements) throws IOException {
+        boolean newColumns = false;
+        for (Metric metric : measurements) {
+            if (!columnIndex.containsKey(metric.getName())) {
+                columnIndex.put(metric.getName(), columns.size());
+                columns.add(metric.getName());
+                newColumns = true;
+            }
+        }
+        if (writer == null || newColumns) {
+            if (writer != null) {
+                logger.info("New metrics appeared for " + baseName + ", rolling over to a new file segment");
+            }
+            openNextSegment();
+        }
+        double[] values = new double[columns.size()];
+        Arrays.fill(values, missingValue);
+        for (Metric metric : measurements) {
+            if (!Double.isNaN(metric.getValue())) {
+                values[columnIndex.get(metric.getName())] = metric.getValue();
+            }
+        }
+        StringBuilder line = new StringBuilder(16 + values.length * 12);
+        line.append(time);
+        if (withAction) {
+            line.append(',').append(action);
+        }
+        for (double value : values) {
+            line.append(',').append(value);
+        }
+        line.append('\n');
+        writer.write(line.toString());
+        unflushedRows++;
+        long now = System.currentTimeMillis();
+        if (unflushedRows >= flushMaxRows || now - lastFlushTime >= flushIntervalMillis) {
+            flush();
+        }
+    }
+
+    void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        unflushedRows = 0;
+        lastFlushTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        close();
+        Path file;
+        // never overwrite existing files (e.g. from a previous run of the autoscaler)
+        do {
+            segment++;
+            file = directory.resolve(segmentFileName(baseName, segment));
+        } while (Files.exists(file));
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        StringBuilder header = new StringBuilder("time");
+        if (withAction) {
+            header.append(",action");
+        }
+        for (String column : columns) {
+            header.append(',').append(column);
+        }
+        header.append('\n');
+        writer.write(header.toString());
+        flush();
+        logger.debug("Opened training data file " + file.toAbsolutePath());
+    }
+
+    static String segmentFileName(String baseName, int segment) {
+        return segment == 0 ? baseName + ".csv" : baseName + "." + segment + ".csv";
+    }
+}
@@ -2,19 +2,23 @@ package tools.descartes.autoscaling.training.io.csv;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import tools.descartes.autoscaling.config.TrainingProperties;
 import tools.descartes.autoscaling.metrics.Metric;
 import tools.descartes.autoscaling.metrics.missing.MissingValueStrategy;
 import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
 import tools.descartes.autoscaling.training.io.TrainingDataExporter;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * An implementation of TrainingDataExporter which exports data to a CSV file
+ * An implementation of TrainingDataExporter which exports data to CSV files.
+ * The files of each app are kept open and written through a buffer, which is flushed after a configurable number of
+ * rows or time. The time is also held while nothing is committed by calling {@link #flush()} periodically. New metrics
+ * lead to a new file segment with an extended header (see {@link CSVSegmentWriter}).
  */
 public class CSVTrainingDataExporter implements TrainingDataExporter {
     /**
@@ -22,151 +26,94 @@ public class CSVTrainingDataExporter implements TrainingDataExporter {
      * Time,Action,<LIST_OF_METRICS>
      */
     private static final Logger logger = LoggerFactory.getLogger(CSVTrainingDataExporter.class);
-    private final Map<String, List<String>> knownMetrics;
-    private final Map<String, List<String>> knownMetricsAction;
+    private final Map<String, CSVSegmentWriter> measurementWriters;
+    private final Map<String, CSVSegmentWriter> actionWriters;
     private final MissingValueStrategy missingValueStrategy;
+    private final Path directory;
+    private final long flushIntervalMillis;
+    private final int flushMaxRows;
 
-    public CSVTrainingDataExporter(MissingValueStrategyWrapper missingValueStrategyWrapper) {
-        knownMetrics = new HashMap<>();
-        knownMetricsAction = new HashMap<>();
+    public CSVTrainingDataExporter(MissingValueStrategyWrapper missingValueStrategyWrapper,
+                                   TrainingProperties.ExportProperties exportProperties) {
+        measurementWriters = new HashMap<>();
+        actionWriters = new HashMap<>();
         this.missingValueStrategy = missingValueStrategyWrapper.getDefaultStrategy();
+        this.directory = Paths.get(exportProperties.getDirectory());
+        this.flushIntervalMillis = exportProperties.getFlushIntervalSeconds() * 1000L;
+        this.flushMaxRows = exportProperties.getFlushMaxRows();
     }
 
     @Override
-    public void commitActions(long time, List<Metric> measurements, Map<String, Integer> actions) {
-        Set<String> apps = measurements.stream().map(Metric::getApp).collect(Collectors.toSet());
-        for (String app : apps) {
-            List<Metric> measurementsOfApp = measurements.stream()
-                    .filter(metric -> metric.getApp().equals(app))
-                    .collect(Collectors.toList());
-            writeToActionFile(app, time, actions.get(app), measurementsOfApp);
-        }
-    }
-
-    private void writeToActionFile(String app, long time, int action, List<Metric> measurements) {
-        if (!knownMetricsAction.containsKey(app)) {
-            StringBuilder header = new StringBuilder();
-            header.append("time,action");
-            knownMetricsAction.put(app, new ArrayList<>());
-            measurements.stream().map(Metric::getName).forEach(name -> {
-                header.append(",").append(name);
-                knownMetricsAction.get(app).add(name);
-            });
-            File file = new File(app + "_actions.csv");
+    public synchronized void commitActions(long time, List<Metric> measurements, Map<String, Integer> actions) {
+        Map<String, List<Metric>> measurementsByApp = measurements.stream()
+                .collect(Collectors.groupingBy(Metric::getApp));
+        for (Map.Entry<String, List<Metric>> entry : measurementsByApp.entrySet()) {
+            String app = entry.getKey();
+            CSVSegmentWriter writer = actionWriters.computeIfAbsent(app,
+                    a -> createWriter(a + "_actions", true));
             try {
-                file.createNewFile();
-            } catch (IOException ioe) {
-                logger.error("Error while creating file " + app + "_actions.csv", ioe);
-                return;
-            }
-            try (FileWriter writer = new FileWriter(app + "_actions.csv")) {
-                writer.write(header.toString() + "\n");
+                writer.append(time, actions.getOrDefault(app, 0), entry.getValue());
             } catch (IOException ioe) {
                 logger.error("Error while writing file " + app + "_actions.csv", ioe);
-                return;
             }
         }
-        List<String> newMetrics = measurements.stream()
-                .map(Metric::getName)
-                .filter(name -> !knownMetricsAction.get(app).contains(name))
-                .collect(Collectors.toList());
-        if (!newMetrics.isEmpty()) {
-            newMetrics.forEach(name -> {
-                logger.warn("A new metric appeared: " + name + ". Currently unable to handle this");
-                // knownMetricsAction.get(app).add(name);
-                // append name to file header
-                // append ,<MISSINGVALUESTRATEGY.DEFAULTVALUE> to each line in file
-            });
-        }
-        StringBuilder line = new StringBuilder();
-        line.append(time).append(",").append(action).append(",");
-        for (String metricName : knownMetricsAction.get(app)) {
-            OptionalDouble value = measurements.stream()
-                    .filter(metric -> metric.getName().equals(metricName))
-                    .mapToDouble(Metric::getValue)
-                    .findFirst();
-            if (value.isPresent() && !Double.isNaN(value.getAsDouble())) {
-                line.append(value.getAsDouble()).append(",");
-            } else {
-                line.append(missingValueStrategy.getDefaultValue());
-                line.append(",");
+    }
+
+    @Override
+    public synchronized void commitMeasurements(long time, List<Metric> measurements) {
+        Map<String, List<Metric>> measurementsByApp = measurements.stream()
+                .collect(Collectors.groupingBy(Metric::getApp));
+        for (Map.Entry<String, List<Metric>> entry : measurementsByApp.entrySet()) {
+            String app = entry.getKey();
+            CSVSegmentWriter writer = measurementWriters.computeIfAbsent(app, a -> createWriter(a, false));
+            try {
+                writer.append(time, 0, entry.getValue());
+            } catch (IOException ioe) {
+                logger.error("Error while writing file " + app + ".csv", ioe);
             }
         }
-        // Delete last comma
-        line.deleteCharAt(line.length() - 1);
-        try (FileWriter writer = new FileWriter(app + "_actions.csv", true)) {
-            writer.write(line.toString() + "\n");
-        } catch (IOException ioe) {
-            logger.error("Error while writing file " + app + "_actions.csv", ioe);
-        }
     }
 
     @Override
-    public void commitMeasurements(long time, List<Metric> measurements) {
-        Set<String> apps = measurements.stream().map(Metric::getApp).collect(Collectors.toSet());
-        for (String app : apps) {
-            List<Metric> measurementsOfApp = measurements.stream()
-                    .filter(metric -> metric.getApp().equals(app))
-                    .collect(Collectors.toList());
-            writeToMeasurementFile(app, time, measurementsOfApp);
+    public synchronized void flush() {
+        for (CSVSegmentWriter writer : measurementWriters.values()) {
+            flushQuietly(writer);
+        }
+        for (CSVSegmentWriter writer : actionWriters.values()) {
+            flushQuietly(writer);
         }
     }
 
-    private void writeToMeasurementFile(String app, long time, List<Metric> measurements) {
-        if (!knownMetrics.containsKey(app)) {
-            StringBuilder header = new StringBuilder();
-            header.append("time");
-            knownMetrics.put(app, new ArrayList<>());
-            measurements.stream().map(Metric::getName).forEach(name -> {
-                header.append(",").append(name);
-                knownMetrics.get(app).add(name);
-            });
-            File file = new File(app + ".csv");
-            try {
-                file.createNewFile();
-            } catch (IOException ioe) {
-                logger.error("Error while creating file " + app + ".csv", ioe);
-                return;
-            }
-            try (FileWriter writer = new FileWriter(app + ".csv")) {
-                writer.write(header.toString() + "\n");
-            } catch (IOException ioe) {
-                logger.error("Error while writing file " + app + ".csv", ioe);
-                return;
-            }
+    @Override
+    public synchronized void close() {
+        for (CSVSegmentWriter writer : measurementWriters.values()) {
+            closeQuietly(writer);
         }
-        List<String> newMetrics = measurements.stream()
-                .map(Metric::getName)
-                .filter(name -> !knownMetrics.get(app).contains(name))
-                .collect(Collectors.toList());
-        if (!newMetrics.isEmpty()) {
-            newMetrics.forEach(name -> {
-                logger.warn("A new metric appeared: " + name + ". Currently unable to handle this");
-                // knownMetrics.get(app).add(name);
-                // append name to file header
-                // append ,<MISSINGVALUESTRATEGY.DEFAULTVALUE> to each line in file
-            });
+        for (CSVSegmentWriter writer : actionWriters.values()) {
+            closeQuietly(writer);
         }
-        StringBuilder line = new StringBuilder();
-        line.append(time).append(",");
-        for (String metricName : knownMetrics.get(app)) {
-            OptionalDouble value = measurements.stream()
-                    .filter(metric -> metric.getName().equals(metricName))
-                    .mapToDouble(Metric::getValue)
-                    .findFirst();
-            if (value.isPresent() && !Double.isNaN(value.getAsDouble())) {
-                line.append(value.getAsDouble()).append(",");
-            } else {
-                line.append(missingValueStrategy.getDefaultValue());
-                line.append(",");
-            }
+        measurementWriters.clear();
+        actionWriters.clear();
+    }
+
+    private CSVSegmentWriter createWriter(String baseName, boolean withAction) {
+        return new CSVSegmentWriter(directory, baseName, withAction, missingValueStrategy.getDefaultValue(),
+                flushIntervalMillis, flushMaxRows);
+    }
+
+    private void flushQuietly(CSVSegmentWriter writer) {
+        try {
+            writer.flush();
+        } catch (IOException ioe) {
+            logger.error("Error while flushing training data file", ioe);
         }
-        // Delete last comma
-        line.deleteCharAt(line.length() - 1);
-        try (FileWriter writer = new FileWriter(app + ".csv", true)) {
-            writer.write(line.toString() + "\n");
+    }
+
+    private void closeQuietly(CSVSegmentWriter writer) {
+        try {
+            writer.close();
         } catch (IOException ioe) {
-            logger.error("Error while writing file " + app + ".csv", ioe);
+            logger.error("Error while closing training data file", ioe);
         }
     }
 }
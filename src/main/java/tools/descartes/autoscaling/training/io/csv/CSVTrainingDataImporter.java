@@ -1,67 +1,150 @@
 package tools.descartes.autoscaling.training.io.csv;
 
-import org.apache.commons.csv.CSVFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import smile.data.DataFrame;
-import smile.io.Read;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategy;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+import tools.descartes.autoscaling.training.io.TrainingDataFrames;
 import tools.descartes.autoscaling.training.io.TrainingDataImporter;
 
 import java.io.File;
-import java.io.IOException;
-import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
- * An implementation of TrainingDataImporter which imports training data from a CSV file
+ * An implementation of TrainingDataImporter which imports training data from CSV files.
+ * Besides {@code <app>_actions.csv}, all file segments {@code <app>_actions.<n>.csv} written by
+ * {@link CSVTrainingDataExporter} are imported. Files are loaded in parallel and parsed frames are cached, so that
+ * only files which changed since the last import are parsed again. Only the rows within the training lookback are
+ * imported and cached.
  */
 public class CSVTrainingDataImporter implements TrainingDataImporter {
 
     private static final Logger logger = LoggerFactory.getLogger(CSVTrainingDataImporter.class);
+    private static final int DEFAULT_CACHE_FILES = 256;
 
     private final List<String> paths;
+    private final MissingValueStrategy missingValueStrategy;
+    private final CSVFrameCache cache;
+    private final ExecutorService executor;
+    private final int lookbackDays;
 
     public CSVTrainingDataImporter(List<String> paths) {
+        this(paths, new MissingValueStrategyWrapper().getDefaultStrategy());
+    }
+
+    /**
+     * Imports all rows of the files
+     */
+    public CSVTrainingDataImporter(List<String> paths, MissingValueStrategy missingValueStrategy) {
+        this(paths, missingValueStrategy, Runtime.getRuntime().availableProcessors(), 0, DEFAULT_CACHE_FILES);
+    }
+
+    /**
+     * @param lookbackDays only rows of the last days are imported, all rows if not positive
+     * @param cacheFiles the maximum number of parsed files which are cached
+     */
+    public CSVTrainingDataImporter(List<String> paths, MissingValueStrategy missingValueStrategy, int parallelism,
+                                   int lookbackDays, int cacheFiles) {
         this.paths = paths;
+        this.missingValueStrategy = missingValueStrategy;
+        this.lookbackDays = lookbackDays;
+        this.cache = new CSVFrameCache(Math.max(1, cacheFiles));
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "csv-training-data-import");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
     public DataFrame getTrainingDataForApp(String app) {
-        List<String> files = new ArrayList<>();
-        for (String path : paths) {
-            File f = new File( path + "/" + app + "_actions.csv");
-            if (!f.exists()) {
-                logger.warn("Looking for training file \"" + f.getAbsolutePath() + "\" but could not find it.");
-            } else {
-                files.add(f.getAbsolutePath());
+        return getTrainingDataForApps(Collections.singletonList(app)).get(app);
+    }
+
+    @Override
+    public Map<String, DataFrame> getTrainingDataForApps(Collection<String> apps) {
+        cache.evictMissing();
+        long since = lookbackDays > 0
+                ? System.currentTimeMillis() - TimeUnit.DAYS.toMillis(lookbackDays)
+                : Long.MIN_VALUE;
+        // submit the files of all apps first, so that they are loaded in parallel across sources and apps
+        Map<String, List<Future<DataFrame>>> loads = new LinkedHashMap<>();
+        for (String app : apps) {
+            List<Future<DataFrame>> appLoads = new ArrayList<>();
+            for (String path : paths) {
+                List<File> segments = findSegments(new File(path), app);
+                if (segments.isEmpty()) {
+                    logger.warn("Looking for training file \"" + new File(path, app + "_actions.csv").getAbsolutePath()
+                            + "\" but could not find it.");
+                }
+                for (File segment : segments) {
+                    appLoads.add(executor.submit(() -> cache.load(segment, since)));
+                }
             }
+            loads.put(app, appLoads);
         }
 
-        ArrayList<DataFrame> frames = new ArrayList<>();
-        for (String file : files) {
-            try {
-                frames.add(loadDataFromFile(file));
-            } catch (IOException | URISyntaxException e) {
-                e.printStackTrace();
+        Map<String, DataFrame> result = new HashMap<>();
+        for (Map.Entry<String, List<Future<DataFrame>>> entry : loads.entrySet()) {
+            String app = entry.getKey();
+            List<DataFrame> frames = new ArrayList<>();
+            for (Future<DataFrame> load : entry.getValue()) {
+                try {
+                    DataFrame frame = load.get();
+                    if (frame != null) frames.add(frame);
+                } catch (ExecutionException ee) {
+                    logger.error("Error while loading training file for app " + app, ee.getCause());
+                } catch (InterruptedException ie) {
+                    logger.error("Interrupted while loading training files for app " + app);
+                    Thread.currentThread().interrupt();
+                }
             }
+            if (frames.size() == 0) {
+                logger.warn("There has been an error, as no file could be successfully loaded for training app: "
+                        + app);
+                result.put(app, null);
+                continue;
+            }
+            // merge frames for returning, segments might differ in their metrics
+            result.put(app, TrainingDataFrames.union(frames, missingValueStrategy.getDefaultValue()));
         }
-        if (frames.size() == 0) {
-            logger.warn("There has been an error, as no file could be successfully loaded for training app: " + app);
-            return null;
-        }
-        // merge frames for returning
-        DataFrame start = frames.get(0);
-        frames.remove(0);
-        if (frames.size() > 0) {
-            return start.union(frames.toArray(new DataFrame[0]));
-        } else {
-            return start;
+        return result;
+    }
+
+    /**
+     * Stops the threads loading the files
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private List<File> findSegments(File directory, String app) {
+        Pattern segmentPattern = Pattern.compile(Pattern.quote(app + "_actions") + "(\\.\\d+)?\\.csv");
+        File[] segments = directory.listFiles((dir, name) -> segmentPattern.matcher(name).matches());
+        if (segments == null) {
+            return new ArrayList<>();
         }
+        List<File> result = new ArrayList<>(Arrays.asList(segments));
+        result.sort(Comparator.comparingInt(CSVTrainingDataImporter::segmentNumber));
+        return result;
     }
 
-    private DataFrame loadDataFromFile(String path) throws IOException, URISyntaxException {
-        CSVFormat format = CSVFormat.DEFAULT.withFirstRecordAsHeader();
-        return Read.csv(path, format);
+    private static int segmentNumber(File segment) {
+        String[] parts = segment.getName().split("\\.");
+        // <app>_actions.csv is the first segment, <app>_actions.<n>.csv the following ones
+        if (parts.length < 3) return 0;
+        try {
+            return Integer.parseInt(parts[parts.length - 2]);
+        } catch (NumberFormatException nfe) {
+            return 0;
+        }
     }
 }
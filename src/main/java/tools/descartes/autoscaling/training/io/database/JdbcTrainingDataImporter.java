@@ -6,14 +6,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import smile.data.DataFrame;
-import smile.data.Tuple;
-import smile.data.type.DataTypes;
-import smile.data.type.StructField;
-import smile.data.type.StructType;
+import smile.data.vector.BaseVector;
+import smile.data.vector.DoubleVector;
+import smile.data.vector.IntVector;
+import smile.data.vector.LongVector;
 import tools.descartes.autoscaling.config.TrainingProperties;
 import tools.descartes.autoscaling.metrics.missing.MissingValueStrategy;
 import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
-import tools.descartes.autoscaling.training.io.TrainingDataImporter;
+import tools.descartes.autoscaling.training.io.IncrementalTrainingDataImporter;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -21,10 +21,11 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 /**
- * An implementation of TrainingDataImporter which imports training data from a database using JDBC
+ * An implementation of TrainingDataImporter which imports training data from a database using JDBC.
+ * Supports incremental imports of the measurements after a watermark.
  */
 @Component
-public class JdbcTrainingDataImporter implements TrainingDataImporter {
+public class JdbcTrainingDataImporter implements IncrementalTrainingDataImporter {
 
     private static final Logger logger = LoggerFactory.getLogger(JdbcTrainingDataImporter.class);
     private static final String TIME_DATA_FIELD_NAME = "time";
@@ -57,53 +58,62 @@ public class JdbcTrainingDataImporter implements TrainingDataImporter {
             logger.warn("No measurement entities found for training. Returning null.");
             return null;
         }
-        List<String> metricHeaders = inferMetricHeaders(entites);
-        logger.info("Importing training data for app={} with #rows={} and #colums={}",
-                app, entites.size(), metricHeaders.size() + 2);
-        StructType schema = createSchema(metricHeaders);
-        Iterator<MeasurementJdbcEntity> entityIt = entites.iterator();
-        DataFrame dataFrame = toDataFrame(schema, valuesAsRow(metricHeaders, entityIt.next()));
-        while (entityIt.hasNext()) {
-            dataFrame = dataFrame.union(toDataFrame(schema, valuesAsRow(metricHeaders, entityIt.next())));
+        return toDataFrame(app, entites);
+    }
+
+    @Override
+    public DataFrame getTrainingDataForAppAfter(String app, long watermark) {
+        List<MeasurementJdbcEntity> entites = measurementJdbcRepository
+                .measurementsAfter(app, JdbcTrainingDataExporter.systemMillisToLocalDateTime(watermark));
+        if (entites.isEmpty()) {
+            logger.debug("No new measurement entities found for app={} after {}", app, watermark);
+            return null;
         }
-        return dataFrame;
+        return toDataFrame(app, entites);
     }
 
-    private List<String> inferMetricHeaders(List<MeasurementJdbcEntity> entites) {
-        Set<String> metricHeaders = new HashSet<>();
+    /**
+     * Builds the DataFrame column by column in one pass, each json clob is parsed only once
+     */
+    private DataFrame toDataFrame(String app, List<MeasurementJdbcEntity> entites) {
+        List<List<JsonMetric>> metricsPerEntity = new ArrayList<>(entites.size());
+        Set<String> metricHeaderSet = new HashSet<>();
         for (MeasurementJdbcEntity entity : entites) {
             List<JsonMetric> metrics = getMetricsFromJsonClob(entity);
-            metrics.forEach(m -> metricHeaders.add(m.getName()));
+            metrics.forEach(m -> metricHeaderSet.add(m.getName()));
+            metricsPerEntity.add(metrics);
         }
-        return new ArrayList<>(metricHeaders);
-    }
-
-    private Object[] valuesAsRow(List<String> metricHeaders, MeasurementJdbcEntity entity) {
-        Object[] values = new Object[metricHeaders.size() + 2];
-        values[0] = JdbcTrainingDataExporter.localDateTimeToSystemTimeMillis(entity.getMeasurementTime());
-        values[1] = entity.getActions();
-        int i = 2;
-        for (double value : getMetricValuesInHeaderOrder(metricHeaders, entity)) {
-            values[i] = value;
-            i++;
+        List<String> metricHeaders = new ArrayList<>(metricHeaderSet);
+        logger.info("Importing training data for app={} with #rows={} and #colums={}",
+                app, entites.size(), metricHeaders.size() + 2);
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (String metricHeader : metricHeaders) {
+            columnIndex.put(metricHeader, columnIndex.size());
         }
-        return values;
-    }
 
-    private List<Double> getMetricValuesInHeaderOrder(List<String> metricHeaders, MeasurementJdbcEntity entity) {
-        Map<String, JsonMetric> metricsByName = new HashMap<>();
-        List<JsonMetric> metrics = getMetricsFromJsonClob(entity);
-        metrics.forEach(m -> metricsByName.put(m.getName(), m));
-        List<Double> values = new ArrayList<>(metricHeaders.size());
-        for (String header : metricHeaders) {
-            JsonMetric metric = metricsByName.get(header);
-            if (metric != null) {
-                values.add(metric.getValue());
-            } else {
-                values.add(defaultMissingValueStrategy.getDefaultValue());
+        int rows = entites.size();
+        long[] times = new long[rows];
+        int[] actions = new int[rows];
+        double[][] values = new double[metricHeaders.size()][rows];
+        for (double[] column : values) {
+            Arrays.fill(column, defaultMissingValueStrategy.getDefaultValue());
+        }
+        for (int row = 0; row < rows; row++) {
+            MeasurementJdbcEntity entity = entites.get(row);
+            times[row] = JdbcTrainingDataExporter.localDateTimeToSystemTimeMillis(entity.getMeasurementTime());
+            actions[row] = entity.getActions() == null ? 0 : entity.getActions();
+            for (JsonMetric metric : metricsPerEntity.get(row)) {
+                values[columnIndex.get(metric.getName())][row] = metric.getValue();
             }
         }
-        return values;
+
+        BaseVector<?, ?, ?>[] vectors = new BaseVector[metricHeaders.size() + 2];
+        vectors[0] = LongVector.of(TIME_DATA_FIELD_NAME, times);
+        vectors[1] = IntVector.of(ACTION_DATA_FIELD_NAME, actions);
+        for (int i = 0; i < metricHeaders.size(); i++) {
+            vectors[i + 2] = DoubleVector.of(metricHeaders.get(i), values[i]);
+        }
+        return DataFrame.of(vectors);
     }
 
     private List<JsonMetric> getMetricsFromJsonClob(MeasurementJdbcEntity entity) {
@@ -114,18 +124,4 @@ public class JdbcTrainingDataImporter implements TrainingDataImporter {
             throw new UncheckedIOException(e);
         }
     }
-
-    private static DataFrame toDataFrame(StructType schema, Object[] valueRow) {
-        return DataFrame.of(Collections.singletonList(Tuple.of(valueRow, schema)), schema);
-    }
-
-    private static StructType createSchema(List<String> metricHeaders) {
-        List<StructField> fieldTypes = new ArrayList<>(metricHeaders.size() + 2);
-        fieldTypes.add(new StructField(TIME_DATA_FIELD_NAME, DataTypes.LongType));
-        fieldTypes.add(new StructField(ACTION_DATA_FIELD_NAME, DataTypes.IntegerType));
-        for (String metricHeader: metricHeaders) {
-            fieldTypes.add(new StructField(metricHeader, DataTypes.DoubleType));
-        }
-        return new StructType(fieldTypes);
-    }
 }
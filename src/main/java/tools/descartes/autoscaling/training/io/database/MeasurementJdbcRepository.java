@@ -42,6 +42,14 @@ public class MeasurementJdbcRepository {
         );
     }
 
+    public List<MeasurementJdbcEntity> measurementsAfter(String app, LocalDateTime after) {
+        return jdbcTemplate.query(
+                "SELECT measurement_time,app,measurement_json,actions FROM measurements " +
+                        "WHERE app = ? AND measurement_time > ? ORDER BY measurement_time ASC",
+                new BeanPropertyRowMapper<>(MeasurementJdbcEntity.class), app, after
+        );
+    }
+
     public int deleteAllMeasurementsBefore(LocalDateTime beforeTime) {
         return jdbcTemplate.update("DELETE from measurements WHERE measurement_time < ?", beforeTime);
     }
@@ -0,0 +1,202 @@
+package tools.descartes.autoscaling.training.io.mapped;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import smile.data.DataFrame;
+import smile.data.vector.BaseVector;
+import smile.data.vector.DoubleVector;
+import smile.data.vector.IntVector;
+import smile.data.vector.LongVector;
+import tools.descartes.autoscaling.metrics.Metric;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The append-only measurement log of one app, consisting of numbered {@link MappedSegment}s
+ * ({@code <app>_actions_<n>.mlog}). Only the newest segment is written, a new segment is started if it is full or if
+ * new metrics appear. Segments of a previous run are opened read-only.
+ */
+class MappedMeasurementLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedMeasurementLog.class);
+
+    static final String FILE_SUFFIX = ".mlog";
+
+    private final String app;
+    private final Path directory;
+    private final int segmentCapacity;
+    private final double missingValue;
+    private final List<MappedSegment> segments;
+    private final List<Integer> segmentNumbers;
+    private MappedSegment current;
+    private Map<String, Integer> currentColumns;
+
+    MappedMeasurementLog(String app, Path directory, int segmentCapacity, double missingValue) {
+        this.app = app;
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        this.missingValue = missingValue;
+        this.segments = new ArrayList<>();
+        this.segmentNumbers = new ArrayList<>();
+        openExistingSegments();
+    }
+
+    synchronized void append(long time, int action, List<Metric> measurements) throws IOException {
+        boolean newColumns = current == null || current.isFull();
+        if (!newColumns) {
+            for (Metric metric : measurements) {
+                if (!currentColumns.containsKey(metric.getName())) {
+                    newColumns = true;
+                    break;
+                }
+            }
+        }
+        if (newColumns) {
+            startSegment(measurements);
+        }
+        double[] values = new double[currentColumns.size()];
+        Arrays.fill(values, missingValue);
+        for (Metric metric : measurements) {
+            if (!Double.isNaN(metric.getValue())) {
+                values[currentColumns.get(metric.getName())] = metric.getValue();
+            }
+        }
+        current.append(time, action, values);
+    }
+
+    /**
+     * Reads all records with a time greater than or equal to since into a DataFrame
+     * @return the DataFrame or null if there are no such records
+     */
+    synchronized DataFrame read(long since) {
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        int rows = 0;
+        List<MappedSegment> relevant = new ArrayList<>();
+        for (MappedSegment segment : segments) {
+            if (segment.isEmpty() || segment.lastTime() < since) continue;
+            relevant.add(segment);
+            rows += segment.size() - segment.firstRecordAtOrAfter(since);
+            for (String column : segment.getColumns()) {
+                columns.putIfAbsent(column, columns.size());
+            }
+        }
+        if (rows == 0) return null;
+        long[] times = new long[rows];
+        int[] actions = new int[rows];
+        double[][] values = new double[columns.size()][rows];
+        int row = 0;
+        for (MappedSegment segment : relevant) {
+            int from = segment.firstRecordAtOrAfter(since);
+            int to = segment.size();
+            int[] target = new int[segment.getColumns().size()];
+            for (int c = 0; c < target.length; c++) {
+                target[c] = columns.get(segment.getColumns().get(c));
+            }
+            // columns which are not part of this segment keep the missing value
+            boolean[] present = new boolean[columns.size()];
+            for (int c : target) {
+                present[c] = true;
+            }
+            for (int c = 0; c < present.length; c++) {
+                if (!present[c]) Arrays.fill(values[c], row, row + to - from, missingValue);
+            }
+            for (int r = from; r < to; r++, row++) {
+                times[row] = segment.timeAt(r);
+                actions[row] = segment.actionAt(r);
+                for (int c = 0; c < target.length; c++) {
+                    values[target[c]][row] = segment.valueAt(r, c);
+                }
+            }
+        }
+        BaseVector<?, ?, ?>[] vectors = new BaseVector[columns.size() + 2];
+        vectors[0] = LongVector.of("time", times);
+        vectors[1] = IntVector.of("action", actions);
+        for (Map.Entry<String, Integer> column : columns.entrySet()) {
+            vectors[column.getValue() + 2] = DoubleVector.of(column.getKey(), values[column.getValue()]);
+        }
+        return DataFrame.of(vectors);
+    }
+
+    /**
+     * Deletes all segments which only contain records older than the provided time
+     * @return number of deleted segments
+     */
+    synchronized int deleteSegmentsBefore(long before) {
+        int deleted = 0;
+        Iterator<MappedSegment> segmentIt = segments.iterator();
+        Iterator<Integer> numberIt = segmentNumbers.iterator();
+        while (segmentIt.hasNext()) {
+            MappedSegment segment = segmentIt.next();
+            numberIt.next();
+            if (segment == current || segment.lastTime() >= before) continue;
+            try {
+                Files.deleteIfExists(segment.getFile());
+                segmentIt.remove();
+                numberIt.remove();
+                deleted++;
+            } catch (IOException ioe) {
+                logger.error("Could not delete outdated segment " + segment.getFile(), ioe);
+            }
+        }
+        return deleted;
+    }
+
+    synchronized void force() {
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    private void startSegment(List<Metric> measurements) throws IOException {
+        Set<String> columns = new LinkedHashSet<>();
+        if (current != null) {
+            current.force();
+            columns.addAll(current.getColumns());
+        }
+        for (Metric metric : measurements) {
+            columns.add(metric.getName());
+        }
+        int number = segmentNumbers.isEmpty() ? 0 : segmentNumbers.get(segmentNumbers.size() - 1) + 1;
+        Path file = directory.resolve(fileName(app, number));
+        current = MappedSegment.create(file, new ArrayList<>(columns), segmentCapacity);
+        currentColumns = new HashMap<>();
+        for (String column : current.getColumns()) {
+            currentColumns.put(column, currentColumns.size());
+        }
+        segments.add(current);
+        segmentNumbers.add(number);
+        logger.debug("Started measurement log segment " + file.toAbsolutePath());
+    }
+
+    private void openExistingSegments() {
+        Pattern segmentPattern = Pattern.compile(Pattern.quote(app + "_actions_") + "(\\d+)"
+                + Pattern.quote(FILE_SUFFIX));
+        File[] files = directory.toFile().listFiles();
+        if (files == null) return;
+        SortedMap<Integer, File> existing = new TreeMap<>();
+        for (File file : files) {
+            Matcher matcher = segmentPattern.matcher(file.getName());
+            if (matcher.matches()) {
+                existing.put(Integer.parseInt(matcher.group(1)), file);
+            }
+        }
+        for (Map.Entry<Integer, File> entry : existing.entrySet()) {
+            try {
+                segments.add(MappedSegment.open(entry.getValue().toPath()));
+                segmentNumbers.add(entry.getKey());
+            } catch (IOException ioe) {
+                logger.error("Could not open measurement log segment " + entry.getValue().getAbsolutePath(), ioe);
+            }
+        }
+    }
+
+    static String fileName(String app, int number) {
+        return app + "_actions_" + number + FILE_SUFFIX;
+    }
+}
@@ -0,0 +1,106 @@
+package tools.descartes.autoscaling.training.io.mapped;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import smile.data.DataFrame;
+import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local storage engine for training data, which keeps one memory-mapped, append-only {@link MappedMeasurementLog}
+ * per app in the export directory. Logs are opened lazily on first access.
+ */
+@Component
+public class MappedMeasurementStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedMeasurementStore.class);
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("(.+)_actions_\\d+"
+            + Pattern.quote(MappedMeasurementLog.FILE_SUFFIX));
+
+    private final Map<String, MappedMeasurementLog> logs;
+    private final Path directory;
+    private final int segmentCapacity;
+    private final double missingValue;
+
+    public MappedMeasurementStore(TrainingProperties trainingProperties,
+                                  MissingValueStrategyWrapper missingValueStrategyWrapper) {
+        this.logs = new ConcurrentHashMap<>();
+        this.directory = Paths.get(trainingProperties.getExporter().getDirectory());
+        this.segmentCapacity = trainingProperties.getExporter().getMappedSegmentRecords();
+        this.missingValue = missingValueStrategyWrapper.getDefaultStrategy().getDefaultValue();
+    }
+
+    public void append(String app, long time, int action, List<Metric> measurements) {
+        try {
+            getLog(app).append(time, action, measurements);
+        } catch (IOException ioe) {
+            logger.error("Error while appending to measurement log of app " + app + " in "
+                    + directory.toAbsolutePath(), ioe);
+        }
+    }
+
+    /**
+     * @return all records of the app with a time greater than or equal to since or null if there are none
+     */
+    public DataFrame read(String app, long since) {
+        return getLog(app).read(since);
+    }
+
+    /**
+     * Deletes all segments of all apps in the directory which only contain records older than the provided time,
+     * including apps whose log was not opened by this process, e.g. apps which were removed before a restart
+     * @return number of deleted segments
+     */
+    public int deleteSegmentsBefore(long before) {
+        int deleted = 0;
+        for (String app : appsWithSegments()) {
+            MappedMeasurementLog log = logs.get(app);
+            if (log == null) {
+                // opened only for the deletion, so that the logs of removed apps are not kept
+                log = new MappedMeasurementLog(app, directory, segmentCapacity, missingValue);
+            }
+            deleted += log.deleteSegmentsBefore(before);
+        }
+        return deleted;
+    }
+
+    @PreDestroy
+    public void close() {
+        logs.values().forEach(MappedMeasurementLog::force);
+    }
+
+    /**
+     * @return the apps which have segments in the directory or an open log
+     */
+    private Set<String> appsWithSegments() {
+        Set<String> apps = new TreeSet<>(logs.keySet());
+        File[] files = directory.toFile().listFiles();
+        if (files == null) return apps;
+        for (File file : files) {
+            Matcher matcher = SEGMENT_PATTERN.matcher(file.getName());
+            if (matcher.matches()) {
+                apps.add(matcher.group(1));
+            }
+        }
+        return apps;
+    }
+
+    private MappedMeasurementLog getLog(String app) {
+        return logs.computeIfAbsent(app, a -> new MappedMeasurementLog(a, directory, segmentCapacity, missingValue));
+    }
+}
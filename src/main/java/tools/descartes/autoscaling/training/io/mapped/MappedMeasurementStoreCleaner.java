@@ -0,0 +1,38 @@
+package tools.descartes.autoscaling.training.io.mapped;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.descartes.autoscaling.config.TrainingProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes whole measurement log segments which only contain measurements older than the retention period. Only
+ * registered if training data is exported to measurement logs.
+ */
+@EnableScheduling
+@Component
+@ConditionalOnProperty(name = "training.exporter.format", havingValue = "MAPPED_LOG")
+public class MappedMeasurementStoreCleaner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedMeasurementStoreCleaner.class);
+
+    private final MappedMeasurementStore store;
+    private final long daysToKeep;
+
+    public MappedMeasurementStoreCleaner(MappedMeasurementStore store, TrainingProperties trainingProperties) {
+        this.store = store;
+        this.daysToKeep = trainingProperties.getTrainingDatabaseNumberDaysToKeep();
+    }
+
+    @Scheduled(cron = "0 15 1 * * SUN")
+    public void removeOutdatedSegments() {
+        long removeOlderThan = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysToKeep);
+        int deleted = store.deleteSegmentsBefore(removeOlderThan);
+        logger.info("Removed {} outdated measurement log segments older than {} days", deleted, daysToKeep);
+    }
+}
@@ -0,0 +1,221 @@
+package tools.descartes.autoscaling.training.io.mapped;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One memory-mapped file of a {@link MappedMeasurementLog}. A segment has a fixed set of columns and a fixed capacity
+ * of fixed-width records {@code (long time, int action, int reserved, double[columns])}.
+ * <pre>
+ * Header: int magic, int version, int headerSize, int columnCount, int capacity, int recordCount,
+ *         columnCount x (int length, UTF-8 bytes of the metric name), padding to 8 bytes
+ * </pre>
+ * A sparse index holds the timestamp of every {@value #INDEX_STRIDE}th record for fast lookback reads.
+ */
+class MappedSegment {
+
+    static final int MAGIC = 0x4D4C4F47;
+    static final int VERSION = 1;
+    static final int INDEX_STRIDE = 64;
+
+    private static final int RECORD_COUNT_OFFSET = 20;
+    private static final int FIXED_HEADER_SIZE = 24;
+    private static final int RECORD_PREFIX_SIZE = 16;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final List<String> columns;
+    private final int headerSize;
+    private final int recordSize;
+    private final int capacity;
+    private final boolean writable;
+    private int recordCount;
+    private long[] index;
+
+    private MappedSegment(Path file, MappedByteBuffer buffer, List<String> columns, int headerSize, int capacity,
+                          int recordCount, boolean writable) {
+        this.file = file;
+        this.buffer = buffer;
+        this.columns = Collections.unmodifiableList(columns);
+        this.headerSize = headerSize;
+        this.recordSize = RECORD_PREFIX_SIZE + 8 * columns.size();
+        this.capacity = capacity;
+        this.recordCount = recordCount;
+        this.writable = writable;
+        this.index = new long[Math.max(16, (recordCount + INDEX_STRIDE - 1) / INDEX_STRIDE)];
+        for (int i = 0; i < recordCount; i += INDEX_STRIDE) {
+            index[i / INDEX_STRIDE] = timeAt(i);
+        }
+    }
+
+    /**
+     * Creates a new segment file and maps it for writing
+     */
+    static MappedSegment create(Path file, List<String> columns, int capacity) throws IOException {
+        List<byte[]> names = new ArrayList<>(columns.size());
+        int headerSize = FIXED_HEADER_SIZE;
+        for (String column : columns) {
+            byte[] name = column.getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            headerSize += 4 + name.length;
+        }
+        headerSize = (headerSize + 7) & ~7;
+        long size = headerSize + (long) capacity * (RECORD_PREFIX_SIZE + 8L * columns.size());
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment with " + columns.size() + " columns and capacity " + capacity
+                    + " exceeds the maximum mapping size");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, headerSize);
+            buffer.putInt(12, columns.size());
+            buffer.putInt(16, capacity);
+            buffer.putInt(RECORD_COUNT_OFFSET, 0);
+            int position = FIXED_HEADER_SIZE;
+            for (byte[] name : names) {
+                buffer.putInt(position, name.length);
+                position += 4;
+                for (byte b : name) {
+                    buffer.put(position++, b);
+                }
+            }
+            return new MappedSegment(file, buffer, new ArrayList<>(columns), headerSize, capacity, 0, true);
+        }
+    }
+
+    /**
+     * Maps an existing segment file for reading
+     */
+    static MappedSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("File " + file + " is not a measurement log segment");
+            }
+            int headerSize = buffer.getInt(8);
+            int columnCount = buffer.getInt(12);
+            int capacity = buffer.getInt(16);
+            int recordCount = buffer.getInt(RECORD_COUNT_OFFSET);
+            List<String> columns = new ArrayList<>(columnCount);
+            int position = FIXED_HEADER_SIZE;
+            for (int i = 0; i < columnCount; i++) {
+                byte[] name = new byte[buffer.getInt(position)];
+                position += 4;
+                ByteBuffer slice = buffer.duplicate();
+                slice.position(position);
+                slice.get(name);
+                position += name.length;
+                columns.add(new String(name, StandardCharsets.UTF_8));
+            }
+            return new MappedSegment(file, buffer, columns, headerSize, capacity, recordCount, false);
+        }
+    }
+
+    /**
+     * Appends a record, values must be in column order of this segment
+     */
+    void append(long time, int action, double[] values) {
+        if (!writable || isFull()) {
+            throw new IllegalStateException("Cannot append to segment " + file);
+        }
+        int position = headerSize + recordCount * recordSize;
+        buffer.putLong(position, time);
+        buffer.putInt(position + 8, action);
+        buffer.putInt(position + 12, 0);
+        position += RECORD_PREFIX_SIZE;
+        for (double value : values) {
+            buffer.putDouble(position, value);
+            position += 8;
+        }
+        if (recordCount % INDEX_STRIDE == 0) {
+            int slot = recordCount / INDEX_STRIDE;
+            if (slot == index.length) {
+                long[] grown = new long[index.length * 2];
+                System.arraycopy(index, 0, grown, 0, index.length);
+                index = grown;
+            }
+            index[slot] = time;
+        }
+        recordCount++;
+        // the record count is published last, so that a reader never sees a partially written record
+        buffer.putInt(RECORD_COUNT_OFFSET, recordCount);
+    }
+
+    /**
+     * @return index of the first record with a time greater than or equal to the provided time
+     */
+    int firstRecordAtOrAfter(long time) {
+        int slots = (recordCount + INDEX_STRIDE - 1) / INDEX_STRIDE;
+        int low = 0;
+        int high = slots - 1;
+        int candidate = 0;
+        // find the last index slot starting before the requested time
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (index[mid] < time) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int record = candidate * INDEX_STRIDE;
+        while (record < recordCount && timeAt(record) < time) {
+            record++;
+        }
+        return record;
+    }
+
+    long timeAt(int record) {
+        return buffer.getLong(headerSize + record * recordSize);
+    }
+
+    int actionAt(int record) {
+        return buffer.getInt(headerSize + record * recordSize + 8);
+    }
+
+    double valueAt(int record, int column) {
+        return buffer.getDouble(headerSize + record * recordSize + RECORD_PREFIX_SIZE + column * 8);
+    }
+
+    void force() {
+        if (writable) {
+            buffer.force();
+        }
+    }
+
+    boolean isFull() {
+        return recordCount >= capacity;
+    }
+
+    boolean isEmpty() {
+        return recordCount == 0;
+    }
+
+    int size() {
+        return recordCount;
+    }
+
+    long lastTime() {
+        return recordCount == 0 ? Long.MIN_VALUE : timeAt(recordCount - 1);
+    }
+
+    List<String> getColumns() {
+        return columns;
+    }
+
+    Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,46 @@
+package tools.descartes.autoscaling.training.io.mapped;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.training.io.TrainingDataExporter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * An implementation of TrainingDataExporter which appends training data to the {@link MappedMeasurementStore}
+ */
+@Component
+public class MappedTrainingDataExporter implements TrainingDataExporter {
+
+    private final MappedMeasurementStore store;
+    private Pattern metricStorageExclusionPattern = null;
+
+    public MappedTrainingDataExporter(MappedMeasurementStore store, TrainingProperties trainingProperties) {
+        this.store = store;
+        if (StringUtils.hasText(trainingProperties.getExporter().getMetricStorageExclusionRegex())) {
+            metricStorageExclusionPattern = Pattern.compile(
+                    trainingProperties.getExporter().getMetricStorageExclusionRegex());
+        }
+    }
+
+    @Override
+    public void commitActions(long time, List<Metric> measurements, Map<String, Integer> actions) {
+        Map<String, List<Metric>> measurementsByApp = measurements.stream()
+                .filter(metric -> metricStorageExclusionPattern == null
+                        || !metricStorageExclusionPattern.matcher(metric.getName()).find())
+                .collect(Collectors.groupingBy(Metric::getApp));
+        for (Map.Entry<String, List<Metric>> entry : measurementsByApp.entrySet()) {
+            store.append(entry.getKey(), time, actions.getOrDefault(entry.getKey(), 0), entry.getValue());
+        }
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+}
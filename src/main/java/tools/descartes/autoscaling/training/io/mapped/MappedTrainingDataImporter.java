@@ -0,0 +1,45 @@
+package tools.descartes.autoscaling.training.io.mapped;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import smile.data.DataFrame;
+import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.training.io.IncrementalTrainingDataImporter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An implementation of TrainingDataImporter which reads the training lookback from the {@link MappedMeasurementStore}
+ */
+@Component
+public class MappedTrainingDataImporter implements IncrementalTrainingDataImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedTrainingDataImporter.class);
+
+    private final MappedMeasurementStore store;
+    private final TrainingProperties trainingProperties;
+
+    public MappedTrainingDataImporter(MappedMeasurementStore store, TrainingProperties trainingProperties) {
+        this.store = store;
+        this.trainingProperties = trainingProperties;
+    }
+
+    @Override
+    public DataFrame getTrainingDataForApp(String app) {
+        long since = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(trainingProperties.getTrainingLookbackDays());
+        DataFrame dataFrame = store.read(app, since);
+        if (dataFrame == null) {
+            logger.warn("No measurements found in measurement log for training app " + app + ". Returning null.");
+            return null;
+        }
+        logger.info("Importing training data for app={} with #rows={} and #colums={}",
+                app, dataFrame.nrows(), dataFrame.ncols());
+        return dataFrame;
+    }
+
+    @Override
+    public DataFrame getTrainingDataForAppAfter(String app, long watermark) {
+        return store.read(app, watermark + 1);
+    }
+}
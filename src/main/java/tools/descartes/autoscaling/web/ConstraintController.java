@@ -4,22 +4,20 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import tools.descartes.autoscaling.config.RulesProperties;
-
-import java.util.List;
-import java.util.stream.Collectors;
+import tools.descartes.autoscaling.config.RuntimeConfig;
 
 @RestController
 public class ConstraintController {
 
-    private final RulesProperties rulesProperties;
+    private final RuntimeConfig runtimeConfig;
 
-    public ConstraintController(RulesProperties rulesProperties) {
-        this.rulesProperties = rulesProperties;
+    public ConstraintController(RuntimeConfig runtimeConfig) {
+        this.runtimeConfig = runtimeConfig;
     }
 
     @GetMapping("/constraint/show")
     public String getConstraint() {
-        return rulesProperties.toString();
+        return runtimeConfig.get().showRules("\n");
     }
 
     @GetMapping("/constraint/add")
@@ -30,16 +28,13 @@ public class ConstraintController {
         se.setApp(app);
         se.setRelation(Enum.valueOf(RulesProperties.ScalingExpression.Relation.class, relation));
         se.setValue(value);
-        rulesProperties.getRules().add(se);
+        runtimeConfig.addRule(se);
         return getConstraint();
     }
 
     @GetMapping("/constraint/delete")
     public String deleteConstraint(@RequestParam(name="app") String app) {
-        List<RulesProperties.ScalingExpression> toDelete = rulesProperties.getRules().stream()
-                .filter(se -> se.getApp().equals(app))
-                .collect(Collectors.toList());
-        rulesProperties.getRules().removeAll(toDelete);
+        runtimeConfig.removeRules(app);
         return getConstraint();
     }
 }
@@ -5,46 +5,33 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.RuntimeConfig;
+import tools.descartes.autoscaling.config.ScalingConfig;
 import tools.descartes.autoscaling.config.ScalingProperties;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Controller
 public class DashboardController {
 
     private final ScalingProperties scalingProperties;
-    private final RulesProperties rulesProperties;
+    private final RuntimeConfig runtimeConfig;
 
-    public DashboardController(ScalingProperties scalingProperties, RulesProperties rulesProperties) {
+    public DashboardController(ScalingProperties scalingProperties, RuntimeConfig runtimeConfig) {
         this.scalingProperties = scalingProperties;
-        this.rulesProperties = rulesProperties;
+        this.runtimeConfig = runtimeConfig;
     }
 
     @GetMapping("/")
     public String showDashboard(Model model) {
-        model.addAttribute("config", scalingProperties.showEditableEntries("<br/>"));
-        model.addAttribute("constraint", rulesProperties.toStringWithSeparator("<br/>"));
+        ScalingConfig config = runtimeConfig.get();
+        model.addAttribute("config", config.showEditableEntries("<br/>"));
+        model.addAttribute("constraint", config.showRules("<br/>"));
         model.addAttribute("kpis", scalingProperties.showKPIs("<br/>"));
         return "dashboard";
     }
 
     @GetMapping("/dashboard/config/add")
     public String postConfig(@RequestParam(name="key") String key, @RequestParam(name="value") String value, Model model) {
-        switch (key) {
-            case "scaling.upscale.limit":
-                scalingProperties.getUpscale().setLimit(Integer.parseInt(value));
-                break;
-            case "scaling.upscale.timeout":
-                scalingProperties.getUpscale().setTimeout(Integer.parseInt(value));
-                break;
-            case "scaling.downscale.limit":
-                scalingProperties.getDownscale().setLimit(Integer.parseInt(value));
-                break;
-            case "scaling.downscale.timeout":
-                scalingProperties.getDownscale().setTimeout(Integer.parseInt(value));
-                break;
-        }
+        runtimeConfig.set(key, value);
         return showDashboard(model);
     }
 
@@ -57,16 +44,13 @@ public class DashboardController {
         se.setApp(app);
         se.setRelation(Enum.valueOf(RulesProperties.ScalingExpression.Relation.class, relation));
         se.setValue(value);
-        rulesProperties.getRules().add(se);
+        runtimeConfig.addRule(se);
         return showDashboard(model);
     }
 
     @GetMapping("/dashboard/constraint/delete")
     public String deleteConstraint(@RequestParam(name="app") String app, Model model) {
-        List<RulesProperties.ScalingExpression> toDelete = rulesProperties.getRules().stream()
-                .filter(se -> se.getApp().equals(app))
-                .collect(Collectors.toList());
-        rulesProperties.getRules().removeAll(toDelete);
+        runtimeConfig.removeRules(app);
         return showDashboard(model);
     }
 }
@@ -0,0 +1,61 @@
+package tools.descartes.autoscaling.web;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import tools.descartes.autoscaling.scaling.journal.DecisionBroadcaster;
+import tools.descartes.autoscaling.scaling.journal.DecisionJournal;
+import tools.descartes.autoscaling.scaling.journal.DecisionRecord;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@RestController
+public class DecisionController {
+
+    private final DecisionJournal decisionJournal;
+    private final DecisionBroadcaster decisionBroadcaster;
+
+    public DecisionController(DecisionJournal decisionJournal, DecisionBroadcaster decisionBroadcaster) {
+        this.decisionJournal = decisionJournal;
+        this.decisionBroadcaster = decisionBroadcaster;
+    }
+
+    /**
+     * Returns the journaled decisions in a time range, at most the newest limit records
+     * @param from start of the time range in milliseconds since epoch, inclusive
+     * @param to end of the time range in milliseconds since epoch, inclusive
+     */
+    @GetMapping("/decisions")
+    public List<DecisionRecord> getDecisions(@RequestParam(name="app", required=false) String app,
+                                             @RequestParam(name="from", defaultValue="0") long from,
+                                             @RequestParam(name="to", defaultValue="9223372036854775807") long to,
+                                             @RequestParam(name="limit", defaultValue="1000") int limit) {
+        return decisionJournal.query(app, from, to, limit);
+    }
+
+    /**
+     * Streams the decisions of the following cycles as server-sent events named "decision". Events are sent from
+     * a worker thread, a slow client misses the oldest decisions instead of delaying the cycles.
+     */
+    @GetMapping(path="/decisions/stream", produces=MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDecisions(@RequestParam(name="app", required=false) String app) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Disposable subscription = decisionBroadcaster.stream(app).subscribe(record -> {
+            try {
+                emitter.send(SseEmitter.event().name("decision").data(record, MediaType.APPLICATION_JSON));
+            } catch (IOException ioe) {
+                // the client is gone, cancels the subscription
+                throw new UncheckedIOException(ioe);
+            }
+        }, emitter::completeWithError);
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(error -> subscription.dispose());
+        return emitter;
+    }
+}
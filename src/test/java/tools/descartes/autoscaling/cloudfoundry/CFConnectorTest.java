@@ -0,0 +1,78 @@
+package tools.descartes.autoscaling.cloudfoundry;
+
+import org.junit.jupiter.api.Test;
+import tools.descartes.autoscaling.scaling.ScalingRequest;
+import tools.descartes.autoscaling.scaling.ScalingResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CFConnectorTest {
+
+    private static final int LIMIT = 4;
+
+    @Test
+    public void givenManyRequests_whenScalingApps_thenRequestsRunConcurrentlyUpToTheCap() throws Exception {
+        BlockingCFConnector sut = new BlockingCFConnector(LIMIT);
+        List<ScalingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            requests.add(new ScalingRequest("app" + i, i + 1));
+        }
+
+        CompletableFuture<List<ScalingResponse>> result = sut.scaleApps(requests, LIMIT).collectList().toFuture();
+
+        // the first requests up to the cap are in flight at the same time
+        assertTrue(sut.arrived.await(5, TimeUnit.SECONDS));
+        assertFalse(result.isDone());
+        sut.gate.countDown();
+        List<ScalingResponse> responses = result.get(5, TimeUnit.SECONDS);
+
+        assertEquals(12, responses.size());
+        assertTrue(sut.maxInFlight.get() <= LIMIT, "max in flight " + sut.maxInFlight.get());
+        for (ScalingResponse response : responses) {
+            assertTrue(response.isSuccess());
+            assertNotNull(response.getRequest());
+        }
+    }
+
+    /**
+     * Blocks every request until the gate is opened
+     */
+    private static class BlockingCFConnector implements CFConnector {
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final CountDownLatch arrived;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        BlockingCFConnector(int expectedInFlight) {
+            this.arrived = new CountDownLatch(expectedInFlight);
+        }
+
+        @Override
+        public Map<String, Integer> getAppInstances() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public ScalingResponse scaleApp(ScalingRequest sr) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            arrived.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new ScalingResponse(true, null);
+        }
+    }
+}
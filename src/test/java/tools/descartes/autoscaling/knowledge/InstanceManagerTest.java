@@ -0,0 +1,118 @@
+package tools.descartes.autoscaling.knowledge;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.descartes.autoscaling.cloudfoundry.CFConnector;
+import tools.descartes.autoscaling.cloudfoundry.CFConnectorWrapper;
+import tools.descartes.autoscaling.cloudfoundry.InstanceState;
+import tools.descartes.autoscaling.config.CloudFoundryProperties;
+import tools.descartes.autoscaling.config.MetricsProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InstanceManagerTest {
+
+    @Mock
+    CFConnectorWrapper cfConnectorWrapperMock;
+    @Mock
+    CFConnector cfConnectorMock;
+
+    private InstanceManager sut;
+
+    @BeforeEach
+    void setup() {
+        MetricsProperties metricsProperties = new MetricsProperties();
+        Map<String, String> names = new HashMap<>();
+        names.put("app1", "cf-app1");
+        metricsProperties.setEurekaToCloudfoundryNames(names);
+        when(cfConnectorWrapperMock.getCfConnector()).thenReturn(cfConnectorMock);
+        sut = new InstanceManager(cfConnectorWrapperMock, metricsProperties, new CloudFoundryProperties());
+    }
+
+    @Test
+    public void givenExternalScaling_whenRefreshing_thenCountIsUpdated() {
+        when(cfConnectorMock.getAppInstances()).thenReturn(instances(2, 1), instances(5, 1));
+        sut.init();
+
+        sut.refresh();
+
+        assertEquals(5, sut.getCountOf("app1"));
+        assertEquals(1, sut.getCountOf("app2"));
+    }
+
+    @Test
+    public void givenOwnScalingDuringRefresh_whenRefreshing_thenOwnCountIsKept() {
+        when(cfConnectorMock.getAppInstances()).thenReturn(instances(2, 1)).thenAnswer(invocation -> {
+            // scaling completes while the inventory is queried
+            sut.setCountOf("app1", 4);
+            return instances(2, 3);
+        });
+        sut.init();
+
+        sut.refresh();
+
+        assertEquals(4, sut.getCountOf("app1"));
+        assertEquals(3, sut.getCountOf("app2"));
+    }
+
+    @Test
+    public void givenStartingInstances_whenRefreshingStates_thenEffectiveCountAndWarmupFactorAreReduced() {
+        when(cfConnectorMock.getAppInstances()).thenReturn(instances(4, 1));
+        Map<String, InstanceState> states = new HashMap<>();
+        states.put("cf-app1", new InstanceState(4, 2, 2, 0));
+        when(cfConnectorMock.getInstanceStates()).thenReturn(states);
+        sut.init();
+
+        sut.refreshInstanceStates();
+
+        assertEquals(4, sut.getCountOf("app1"));
+        assertEquals(2, sut.getEffectiveCountOf("app1"));
+        assertEquals(0.5, sut.getWarmupFactor("app1"), 0.0001);
+        // no state fetched for app2, all instances are considered running
+        assertEquals(1, sut.getEffectiveCountOf("app2"));
+        assertEquals(1.0, sut.getWarmupFactor("app2"), 0.0001);
+    }
+
+    @Test
+    public void givenCrashedInstances_whenRefreshingStates_thenWarmupFactorIsNotReduced() {
+        when(cfConnectorMock.getAppInstances()).thenReturn(instances(4, 1));
+        Map<String, InstanceState> states = new HashMap<>();
+        states.put("cf-app1", new InstanceState(4, 2, 0, 2));
+        when(cfConnectorMock.getInstanceStates()).thenReturn(states);
+        sut.init();
+
+        sut.refreshInstanceStates();
+
+        assertEquals(2, sut.getEffectiveCountOf("app1"));
+        // the crashed instances will not take over load, the measured SLO violations are real
+        assertEquals(1.0, sut.getWarmupFactor("app1"), 0.0001);
+    }
+
+    @Test
+    public void givenStartingAndCrashedInstances_whenRefreshingStates_thenOnlyStartingInstancesAreDiscounted() {
+        when(cfConnectorMock.getAppInstances()).thenReturn(instances(4, 1));
+        Map<String, InstanceState> states = new HashMap<>();
+        states.put("cf-app1", new InstanceState(4, 2, 1, 1));
+        when(cfConnectorMock.getInstanceStates()).thenReturn(states);
+        sut.init();
+
+        sut.refreshInstanceStates();
+
+        assertEquals(2.0 / 3, sut.getWarmupFactor("app1"), 0.0001);
+    }
+
+    private static Map<String, Integer> instances(int app1, int app2) {
+        Map<String, Integer> instances = new HashMap<>();
+        instances.put("cf-app1", app1);
+        instances.put("app2", app2);
+        return instances;
+    }
+}
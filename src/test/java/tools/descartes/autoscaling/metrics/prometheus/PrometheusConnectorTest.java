@@ -0,0 +1,30 @@
+package tools.descartes.autoscaling.metrics.prometheus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrometheusConnectorTest {
+
+    @Test
+    public void givenPlainApps_whenBuildingRegex_thenAppsAreAlternatives() {
+        assertEquals("app1|app-2", PrometheusConnector.appRegex(Arrays.asList("app1", "app-2")));
+    }
+
+    @Test
+    public void givenRegexCharacters_whenBuildingRegex_thenTheyAreEscapedForTheStringLiteral() {
+        // the PromQL string literal "app\\.1" is the regex app\.1
+        assertEquals("app\\\\.1", PrometheusConnector.appRegex(Collections.singletonList("app.1")));
+        assertEquals("a\\\\|b", PrometheusConnector.appRegex(Collections.singletonList("a|b")));
+    }
+
+    @Test
+    public void givenQuotesAndBackslashes_whenBuildingRegex_thenLiteralIsNotTerminated() {
+        assertEquals("a\\\"b", PrometheusConnector.appRegex(Collections.singletonList("a\"b")));
+        // the PromQL string literal "a\\\\b" is the regex a\\b
+        assertEquals("a\\\\\\\\b", PrometheusConnector.appRegex(Collections.singletonList("a\\b")));
+    }
+}
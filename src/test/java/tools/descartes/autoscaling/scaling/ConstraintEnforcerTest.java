@@ -0,0 +1,106 @@
+package tools.descartes.autoscaling.scaling;
+
+import org.junit.jupiter.api.Test;
+import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.RuntimeConfig;
+import tools.descartes.autoscaling.config.ScalingConfig;
+import tools.descartes.autoscaling.config.ScalingProperties;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstraintEnforcerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(1000L), ZoneOffset.UTC);
+
+    private static RulesProperties.ScalingExpression rule(String app, RulesProperties.ScalingExpression.Relation relation,
+                                                          int value) {
+        RulesProperties.ScalingExpression se = new RulesProperties.ScalingExpression();
+        se.setApp(app);
+        se.setRelation(relation);
+        se.setValue(value);
+        return se;
+    }
+
+    private ScalingProperties createProperties() {
+        ScalingProperties scalingProperties = new ScalingProperties();
+        ScalingProperties.ScalingDirectionProperties upscale = new ScalingProperties.ScalingDirectionProperties();
+        upscale.setLimit(100);
+        scalingProperties.setUpscale(upscale);
+        ScalingProperties.ScalingDirectionProperties downscale = new ScalingProperties.ScalingDirectionProperties();
+        downscale.setLimit(100);
+        scalingProperties.setDownscale(downscale);
+        return scalingProperties;
+    }
+
+    private ConstraintEnforcer createEnforcer(RulesProperties rulesProperties) {
+        return new ConstraintEnforcer(rulesProperties, createProperties(), CLOCK);
+    }
+
+    @Test
+    public void givenSeveralRulesPerApp_whenEnforcing_thenRequestsAreClampedToTightestBounds() {
+        RulesProperties rulesProperties = new RulesProperties();
+        rulesProperties.setRules(new ArrayList<>(Arrays.asList(
+                rule("app1", RulesProperties.ScalingExpression.Relation.GREATER_EQUAL, 2),
+                rule("app1", RulesProperties.ScalingExpression.Relation.GREATER, 3),
+                rule("app1", RulesProperties.ScalingExpression.Relation.SMALLER, 10),
+                rule("app2", RulesProperties.ScalingExpression.Relation.SMALLER_EQUAL, 5))));
+        ConstraintEnforcer sut = createEnforcer(rulesProperties);
+
+        List<ScalingRequest> result = sut.enforce(Arrays.asList(new ScalingRequest("app1", 1),
+                new ScalingRequest("app2", 8), new ScalingRequest("app3", 0)), app -> 6);
+
+        assertEquals(3, result.size());
+        assertEquals(4, result.get(0).getInstances());
+        assertEquals(5, result.get(1).getInstances());
+        assertEquals(1, result.get(2).getInstances());
+    }
+
+    @Test
+    public void givenChangedConfig_whenEnforcing_thenNewSnapshotApplies() {
+        RuntimeConfig runtimeConfig = new RuntimeConfig(createProperties(), new RulesProperties());
+        ConstraintEnforcer sut = new ConstraintEnforcer(runtimeConfig::get, CLOCK);
+        ScalingConfig initial = runtimeConfig.get();
+        // each app is only scaled once, as the clock does not advance past the timeouts
+        assertEquals(20, sut.enforce(Arrays.asList(new ScalingRequest("app1", 20)), app -> 6).get(0).getInstances());
+
+        runtimeConfig.addRule(rule("app2", RulesProperties.ScalingExpression.Relation.SMALLER_EQUAL, 8));
+        runtimeConfig.addRule(rule("app3", RulesProperties.ScalingExpression.Relation.SMALLER_EQUAL, 8));
+        assertEquals(8, sut.enforce(Arrays.asList(new ScalingRequest("app2", 20)), app -> 6).get(0).getInstances());
+
+        runtimeConfig.removeRules("app3");
+        assertTrue(runtimeConfig.set(ScalingConfig.UPSCALE_LIMIT, "10"));
+        assertFalse(runtimeConfig.set("scaling.unknown", "10"));
+        assertEquals(16, sut.enforce(Arrays.asList(new ScalingRequest("app3", 20)), app -> 6).get(0).getInstances());
+
+        assertEquals(4, runtimeConfig.get().getVersion());
+        assertEquals(0, initial.getVersion());
+        assertEquals(100, initial.getUpscaleLimit());
+        assertTrue(initial.getRules().isEmpty());
+    }
+
+    @Test
+    public void givenProposalsOfAllScalers_whenCombining_thenHighestProposalPerAppWins() {
+        ScalingLogic sut = Scaler.combine(
+                (data, lastActions) -> Arrays.asList(new ScalingRequest("app1", 2), new ScalingRequest("app3", 7)),
+                (data, lastActions) -> Arrays.asList(new ScalingRequest("app1", 5), new ScalingRequest("app2", 1)),
+                (data, lastActions) -> Arrays.asList(new ScalingRequest("app1", 3), new ScalingRequest("app2", 4)));
+
+        List<ScalingRequest> result = sut.calculateScaling(new ArrayList<>(), new HashMap<>());
+
+        assertEquals(3, result.size());
+        assertEquals("app1", result.get(0).getApp());
+        assertEquals(5, result.get(0).getInstances());
+        assertEquals("app2", result.get(1).getApp());
+        assertEquals(4, result.get(1).getInstances());
+        assertEquals("app3", result.get(2).getApp());
+        assertEquals(7, result.get(2).getInstances());
+    }
+}
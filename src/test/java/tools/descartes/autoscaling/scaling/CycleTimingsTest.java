@@ -0,0 +1,56 @@
+package tools.descartes.autoscaling.scaling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleTimingsTest {
+
+    @Test
+    public void givenBoundTimings_whenTimingPhases_thenDurationsAreAddedToThePhase() {
+        CycleTimings sut = new CycleTimings(0);
+        sut.bind();
+        try {
+            CycleTimings.time(CyclePhase.AGGREGATION, () -> sleep(5));
+            CycleTimings.time(CyclePhase.AGGREGATION, () -> sleep(5));
+        } finally {
+            sut.unbind();
+        }
+        CycleTimings.time(CyclePhase.MERGE, () -> sleep(5));
+
+        assertTrue(sut.getNanos(CyclePhase.AGGREGATION) >= 10_000_000, sut.getPhaseNanos().toString());
+        assertEquals(0, sut.getNanos(CyclePhase.MERGE));
+        assertNull(CycleTimings.current());
+    }
+
+    @Test
+    public void givenAllocations_whenPipelineCompletes_thenAllocatedBytesAreCounted() {
+        CycleTimings sut = new CycleTimings(0);
+        List<Object> allocations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            allocations.add(new byte[1024]);
+        }
+
+        sut.pipelineCompleted();
+
+        if (CycleTimings.threadAllocatedBytes() >= 0) {
+            assertTrue(sut.getAllocatedBytes() >= 1000 * 1024, String.valueOf(sut.getAllocatedBytes()));
+        } else {
+            assertEquals(-1, sut.getAllocatedBytes());
+        }
+        assertEquals(1000, allocations.size());
+    }
+
+    private static List<Object> sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        return Collections.emptyList();
+    }
+}
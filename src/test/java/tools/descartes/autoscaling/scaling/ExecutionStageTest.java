@@ -0,0 +1,150 @@
+package tools.descartes.autoscaling.scaling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionStageTest {
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void givenFreeExecutor_whenExecuting_thenActionsRunOnExecutorAndAppsAreReleased() throws Exception {
+        ExecutionStage sut = new ExecutionStage(executor);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        CountDownLatch executed = new CountDownLatch(1);
+
+        ExecutionStage.Claim claim = sut.claim(Collections.singleton("app1"));
+        sut.execute(claim, Collections.singleton("app2"), () -> {
+            thread.set(Thread.currentThread());
+            executed.countDown();
+        });
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), thread.get());
+        // both the claimed and the affected app are released after the execution
+        CompletableFuture<ExecutionStage.Claim> next = CompletableFuture.supplyAsync(
+                () -> sut.claim(Arrays.asList("app1", "app2")));
+        assertNotNull(next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void givenPendingExecution_whenClaimingApps_thenOnlyTheSameAppWaits() throws Exception {
+        ExecutionStage sut = new ExecutionStage(executor);
+        CountDownLatch gate = new CountDownLatch(1);
+        ExecutionStage.Claim first = sut.claim(Collections.singleton("app1"));
+        sut.execute(first, Collections.emptySet(), () -> await(gate));
+
+        CompletableFuture<ExecutionStage.Claim> sameApp = CompletableFuture.supplyAsync(
+                () -> sut.claim(Collections.singleton("app1")));
+        // another app is claimed immediately on this thread while app1 is executed
+        ExecutionStage.Claim otherApp = sut.claim(Collections.singleton("app2"));
+        otherApp.release();
+
+        assertFalse(sameApp.isDone());
+        gate.countDown();
+        assertNotNull(sameApp.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void givenAffectedAppOfHandedOverCycle_whenExecuting_thenActionsRunAfterItsActions() throws Exception {
+        ExecutionStage sut = new ExecutionStage(executor);
+        CountDownLatch gate = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        ExecutionStage.Claim first = sut.claim(Collections.singleton("app1"));
+        sut.execute(first, Collections.emptySet(), () -> {
+            await(gate);
+            order.add("first");
+        });
+        CountDownLatch executed = new CountDownLatch(1);
+
+        ExecutionStage.Claim second = sut.claim(Collections.singleton("app2"));
+        CompletableFuture<Void> handover = CompletableFuture.runAsync(() ->
+                sut.execute(second, Collections.singleton("app1"), () -> {
+                    order.add("second");
+                    executed.countDown();
+                }));
+
+        assertFalse(handover.isDone());
+        gate.countDown();
+        handover.get(5, TimeUnit.SECONDS);
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first", "second"), order);
+        // the app was released by the cycle which took it over
+        assertNotNull(CompletableFuture.supplyAsync(() -> sut.claim(Collections.singleton("app1")))
+                .get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void givenAffectedAppOfDecidingCycle_whenExecuting_thenAppIsLeftToThatCycle() throws Exception {
+        ExecutionStage sut = new ExecutionStage(executor);
+        ExecutionStage.Claim deciding = sut.claim(Collections.singleton("app1"));
+        CountDownLatch executed = new CountDownLatch(1);
+
+        ExecutionStage.Claim claim = sut.claim(Collections.singleton("app2"));
+        sut.execute(claim, Collections.singleton("app1"), executed::countDown);
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        // the deciding cycle still owns the app after the other actions were executed
+        CompletableFuture<ExecutionStage.Claim> next = CompletableFuture.supplyAsync(
+                () -> sut.claim(Collections.singleton("app1")));
+        assertFalse(next.isDone());
+        deciding.release();
+        assertNotNull(next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void givenSaturatedExecutor_whenExecuting_thenActionsRunInline() throws Exception {
+        ExecutionStage sut = new ExecutionStage(executor);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            await(gate);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        // fills the queue
+        executor.execute(() -> { });
+        AtomicReference<Thread> thread = new AtomicReference<>();
+
+        ExecutionStage.Claim claim = sut.claim(Collections.singleton("app1"));
+        sut.execute(claim, Collections.emptySet(), () -> thread.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), thread.get());
+        gate.countDown();
+        // the inline execution released the app
+        sut.claim(Collections.singleton("app1")).release();
+    }
+
+    @Test
+    public void givenReleasedClaim_whenClaimingAgain_thenAppIsNotBlocked() {
+        ExecutionStage sut = new ExecutionStage(executor);
+
+        sut.claim(Collections.singleton("app1")).release();
+        ExecutionStage.Claim actual = sut.claim(Collections.singleton("app1"));
+
+        assertNotNull(actual);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
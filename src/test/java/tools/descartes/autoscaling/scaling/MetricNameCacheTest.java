@@ -0,0 +1,44 @@
+package tools.descartes.autoscaling.scaling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricNameCacheTest {
+
+    @Test
+    public void givenFreshNames_whenGettingAgain_thenNamesAreNotDiscoveredAgain() {
+        AtomicInteger discoveries = new AtomicInteger();
+        AtomicLong now = new AtomicLong(1000);
+        MetricNameCache sut = new MetricNameCache(() -> {
+            discoveries.incrementAndGet();
+            return Arrays.asList("cpu", "memory");
+        }, now::get, 60_000);
+
+        List<String> first = sut.get();
+        now.addAndGet(59_999);
+        List<String> second = sut.get();
+
+        assertEquals(1, discoveries.get());
+        assertEquals(Arrays.asList("cpu", "memory"), first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void givenOldNames_whenGetting_thenNamesAreDiscoveredAgain() {
+        AtomicInteger discoveries = new AtomicInteger();
+        AtomicLong now = new AtomicLong(1000);
+        MetricNameCache sut = new MetricNameCache(() -> Arrays.asList("cpu" + discoveries.incrementAndGet()),
+                now::get, 60_000);
+
+        sut.get();
+        now.addAndGet(60_000);
+
+        assertEquals(Arrays.asList("cpu2"), sut.get());
+    }
+}
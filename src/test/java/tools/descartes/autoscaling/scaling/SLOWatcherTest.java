@@ -0,0 +1,104 @@
+package tools.descartes.autoscaling.scaling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.RuntimeConfig;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.knowledge.InstanceManager;
+import tools.descartes.autoscaling.metrics.RuntimeDataImporter;
+import tools.descartes.autoscaling.metrics.RuntimeDataImporterWrapper;
+import tools.descartes.autoscaling.metrics.SimpleMetric;
+import tools.descartes.autoscaling.scaling.appscaler.ReactiveSingleAppScaler;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SLOWatcherTest {
+
+    private static final String APP = "app1";
+
+    @Mock
+    Scaler scalerMock;
+    @Mock
+    ReactiveScaler reactiveScalerMock;
+    @Mock
+    InstanceManager instanceManagerMock;
+    @Mock
+    RuntimeDataImporterWrapper runtimeDataImporterWrapperMock;
+    @Mock
+    RuntimeDataImporter runtimeDataImporterMock;
+
+    private ScalingProperties scalingProperties;
+    private SLOWatcher sut;
+
+    @BeforeEach
+    void setup() {
+        ScalingProperties.KPIProperties kpi = new ScalingProperties.KPIProperties();
+        kpi.setName("latency");
+        kpi.setSlo(0.5);
+        kpi.setQuery("avg(latency)");
+        scalingProperties = new ScalingProperties();
+        scalingProperties.setKpis(Collections.singletonMap(APP, Collections.singletonList(kpi)));
+        scalingProperties.setUpscale(new ScalingProperties.ScalingDirectionProperties());
+        scalingProperties.setDownscale(new ScalingProperties.ScalingDirectionProperties());
+        RuntimeConfig runtimeConfig = new RuntimeConfig(scalingProperties, new RulesProperties());
+        when(runtimeDataImporterWrapperMock.getRuntimeDataImporter()).thenReturn(runtimeDataImporterMock);
+        when(instanceManagerMock.getApps()).thenReturn(Collections.singleton(APP));
+        when(instanceManagerMock.getCountOf(APP)).thenReturn(2);
+        when(reactiveScalerMock.getAppScaler(APP))
+                .thenReturn(new ReactiveSingleAppScaler(APP, scalingProperties, instanceManagerMock));
+        sut = new SLOWatcher(scalerMock, reactiveScalerMock, instanceManagerMock, scalingProperties, runtimeConfig,
+                runtimeDataImporterWrapperMock);
+    }
+
+    @Test
+    public void givenViolatedSLO_whenPolling_thenReactiveCycleIsTriggered() {
+        when(runtimeDataImporterMock.getSingleMetric("avg(latency)")).thenReturn(new SimpleMetric("q", "", 0.9));
+        when(instanceManagerMock.getWarmupFactor(APP)).thenReturn(1.0);
+
+        sut.poll();
+
+        verify(scalerMock).reactiveTick(eq(APP), argThat(metrics -> metrics.size() == 1
+                && metrics.get(0).getName().equals("latency") && metrics.get(0).getApp().equals(APP)));
+    }
+
+    @Test
+    public void givenChangedProperties_whenPolling_thenKPIsOfSnapshotAreWatched() {
+        when(runtimeDataImporterMock.getSingleMetric("avg(latency)")).thenReturn(new SimpleMetric("q", "", 0.9));
+        when(instanceManagerMock.getWarmupFactor(APP)).thenReturn(1.0);
+        scalingProperties.setKpis(Collections.emptyMap());
+
+        sut.poll();
+
+        verify(scalerMock).reactiveTick(eq(APP), anyList());
+    }
+
+    @Test
+    public void givenViolatedSLOWhileWarmingUp_whenPolling_thenViolationIsDiscounted() {
+        when(runtimeDataImporterMock.getSingleMetric("avg(latency)")).thenReturn(new SimpleMetric("q", "", 0.9));
+        // one of two instances is still starting
+        when(instanceManagerMock.getWarmupFactor(APP)).thenReturn(0.5);
+
+        sut.poll();
+
+        verify(scalerMock, never()).reactiveTick(any(), anyList());
+    }
+
+    @Test
+    public void givenSatisfiedSLO_whenPolling_thenNoCycleIsTriggered() {
+        when(runtimeDataImporterMock.getSingleMetric("avg(latency)")).thenReturn(new SimpleMetric("q", "", 0.3));
+
+        sut.poll();
+
+        verify(scalerMock, never()).reactiveTick(any(), anyList());
+    }
+}
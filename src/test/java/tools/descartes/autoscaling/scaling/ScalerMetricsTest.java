@@ -0,0 +1,53 @@
+package tools.descartes.autoscaling.scaling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalerMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private ScalerMetrics sut;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        sut = new ScalerMetrics(registry, null);
+    }
+
+    @Test
+    public void givenWrappedScaler_whenCalculatingScaling_thenRequestsAreCountedPerApp() {
+        ScalingLogic logic = sut.countDecisions("safety", (data, lastActions) ->
+                Arrays.asList(new ScalingRequest("app1", 3), new ScalingRequest("app2", 1)));
+
+        logic.calculateScaling(Collections.emptyList(), Collections.emptyMap());
+        logic.calculateScaling(Collections.emptyList(), Collections.emptyMap());
+
+        assertEquals(2.0, registry.get("autoscaler.scaling.decisions")
+                .tags("app", "app1", "scaler", "safety").counter().count());
+        assertEquals(2.0, registry.get("autoscaler.scaling.decisions")
+                .tags("app", "app2", "scaler", "safety").counter().count());
+    }
+
+    @Test
+    public void givenEnforcedRequests_whenRecordingConstraints_thenOutcomeIsCountedPerApp() {
+        List<ScalingRequest> calculated = Arrays.asList(new ScalingRequest("app1", 3),
+                new ScalingRequest("app2", 5), new ScalingRequest("app3", 1));
+        List<ScalingRequest> enforced = Arrays.asList(new ScalingRequest("app1", 3), new ScalingRequest("app2", 4));
+
+        sut.recordConstraints(calculated, enforced);
+
+        assertEquals(1.0, registry.get("autoscaler.scaling.constraints")
+                .tags("app", "app1", "outcome", "accepted").counter().count());
+        assertEquals(1.0, registry.get("autoscaler.scaling.constraints")
+                .tags("app", "app2", "outcome", "constrained").counter().count());
+        assertEquals(1.0, registry.get("autoscaler.scaling.constraints")
+                .tags("app", "app3", "outcome", "dropped").counter().count());
+    }
+}
@@ -0,0 +1,156 @@
+package tools.descartes.autoscaling.scaling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.knowledge.InstanceManager;
+import tools.descartes.autoscaling.scheduling.FixedRateTask;
+import tools.descartes.autoscaling.scheduling.TickScheduler;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScalerThreadTest {
+
+    @Mock
+    Scaler scaler;
+    @Mock
+    InstanceManager instanceManager;
+    @Mock
+    SLOWatcher sloWatcher;
+    @Mock
+    SafetyScaler safetyScaler;
+
+    private TickScheduler tickScheduler;
+    private ScalerThread sut;
+
+    @BeforeEach
+    void setup() {
+        ScalingProperties scalingProperties = new ScalingProperties();
+        scalingProperties.getPipelines().setShards(0);
+        tickScheduler = new TickScheduler(new SimpleMeterRegistry());
+        sut = new ScalerThread(scaler, scalingProperties, tickScheduler, instanceManager, sloWatcher, safetyScaler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.shutdown();
+        tickScheduler.shutdown();
+    }
+
+    @Test
+    public void givenChangedApps_whenResharding_thenOnlyChangedPipelinesAreReplaced() throws InterruptedException {
+        when(scaler.getScalingPeriodSeconds()).thenReturn(3600);
+        when(instanceManager.getApps()).thenReturn(new HashSet<>(Arrays.asList("app1", "app2")));
+        sut.start();
+        Map<String, FixedRateTask> first = awaitPipelines(2);
+
+        when(instanceManager.getApps()).thenReturn(new HashSet<>(Arrays.asList("app1", "app3")));
+        sut.reshard();
+
+        Map<String, FixedRateTask> second = sut.getPipelines();
+        assertEquals(new HashSet<>(Arrays.asList("app1", "app3")), second.keySet());
+        assertSame(first.get("app1"), second.get("app1"));
+        assertTrue(second.get("app1").isRunning());
+        assertFalse(first.get("app2").isRunning());
+    }
+
+    @Test
+    public void givenRunningTickOfRemovedApp_whenResharding_thenTickIsAwaited() throws InterruptedException {
+        CountDownLatch arrived = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicBoolean tickCompleted = new AtomicBoolean();
+        when(scaler.getScalingPeriodSeconds()).thenReturn(3600);
+        doAnswer(invocation -> {
+            arrived.countDown();
+            gate.await();
+            tickCompleted.set(true);
+            return null;
+        }).when(scaler).scalingTick(Collections.singletonList("app1"));
+        when(instanceManager.getApps()).thenReturn(Collections.singleton("app1"));
+        sut.start();
+        assertTrue(arrived.await(10, TimeUnit.SECONDS));
+
+        when(instanceManager.getApps()).thenReturn(Collections.singleton("app2"));
+        Thread release = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            gate.countDown();
+        });
+        release.start();
+        sut.reshard();
+
+        assertTrue(tickCompleted.get());
+        assertEquals(Collections.singleton("app2"), sut.getPipelines().keySet());
+        release.join();
+    }
+
+    private Map<String, FixedRateTask> awaitPipelines(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Map<String, FixedRateTask> pipelines = sut.getPipelines();
+        while (pipelines.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            pipelines = sut.getPipelines();
+        }
+        return pipelines;
+    }
+
+    private static List<String> apps(int count) {
+        List<String> apps = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            apps.add("app" + i);
+        }
+        return apps;
+    }
+
+    @Test
+    public void givenNoShards_whenSharding_thenEachAppHasItsOwnPipeline() {
+        Map<String, List<String>> actual = ScalerThread.shard(Arrays.asList("app1", "app2"), 0);
+
+        assertEquals(2, actual.size());
+        assertEquals(Collections.singletonList("app1"), actual.get("app1"));
+        assertEquals(Collections.singletonList("app2"), actual.get("app2"));
+    }
+
+    @Test
+    public void givenShards_whenSharding_thenAppsAreSplitIntoAtMostThatManyPipelines() {
+        List<String> apps = apps(100);
+
+        Map<String, List<String>> actual = ScalerThread.shard(apps, 8);
+
+        assertTrue(actual.size() <= 8);
+        Set<String> sharded = new HashSet<>();
+        actual.values().forEach(sharded::addAll);
+        assertEquals(new HashSet<>(apps), sharded);
+        assertEquals(100, actual.values().stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    public void givenSameApps_whenShardingAgain_thenAppsKeepTheirShard() {
+        Map<String, List<String>> first = ScalerThread.shard(apps(20), 4);
+        List<String> reversed = apps(20);
+        Collections.reverse(reversed);
+
+        Map<String, List<String>> second = ScalerThread.shard(reversed, 4);
+
+        assertEquals(first.keySet(), second.keySet());
+        for (String key : first.keySet()) {
+            assertEquals(new HashSet<>(first.get(key)), new HashSet<>(second.get(key)));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package tools.descartes.autoscaling.scaling.appscaler;
+
+import org.junit.jupiter.api.Test;
+import tools.descartes.autoscaling.config.ScalingProperties;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SafetySingleAppScalerTest {
+
+    private SafetySingleAppScaler createScaler(int period, int lookback) {
+        ScalingProperties scalingProperties = new ScalingProperties();
+        ScalingProperties.SafetyProperties safety = new ScalingProperties.SafetyProperties();
+        safety.setPeriod(period);
+        safety.setRatio(0.5);
+        safety.setLookback(lookback);
+        scalingProperties.setSafety(safety);
+        return new SafetySingleAppScaler("app1", scalingProperties, null);
+    }
+
+    @Test
+    public void givenRandomValues_whenAdding_thenMinimumOfLastValuesIsReturned() {
+        SlidingMinimum sut = new SlidingMinimum(7);
+        Deque<Integer> window = new ArrayDeque<>();
+        Random random = new Random(42);
+        assertEquals(0, sut.min());
+        for (int i = 0; i < 1000; i++) {
+            int value = random.nextInt(20);
+            sut.add(value);
+            window.addLast(value);
+            if (window.size() > 7) window.removeFirst();
+            assertEquals((int) window.stream().min(Integer::compare).get(), sut.min());
+        }
+        assertEquals(7, sut.size());
+        assertArrayEquals(window.stream().mapToInt(Integer::intValue).toArray(), sut.toArray());
+    }
+
+    @Test
+    public void givenWrittenHistory_whenRestoring_thenNewestValuesOfSamePeriodAreKept() throws IOException {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(written);
+        // period 2, current interval 1, interval 0 with 3 values, interval 1 with 1 value
+        out.writeInt(2);
+        out.writeInt(1);
+        out.writeInt(3);
+        out.writeInt(2);
+        out.writeInt(5);
+        out.writeInt(4);
+        out.writeInt(1);
+        out.writeInt(6);
+        SafetySingleAppScaler sut = createScaler(2, 2);
+
+        assertTrue(sut.restoreHistory(new DataInputStream(new ByteArrayInputStream(written.toByteArray()))));
+        ByteArrayOutputStream rewritten = new ByteArrayOutputStream();
+        sut.writeHistory(new DataOutputStream(rewritten));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(rewritten.toByteArray()));
+
+        assertEquals(2, in.readInt());
+        assertEquals(1, in.readInt());
+        assertEquals(2, in.readInt());
+        assertEquals(5, in.readInt());
+        assertEquals(4, in.readInt());
+        assertEquals(1, in.readInt());
+        assertEquals(6, in.readInt());
+        assertFalse(createScaler(3, 2).restoreHistory(
+                new DataInputStream(new ByteArrayInputStream(written.toByteArray()))));
+    }
+}
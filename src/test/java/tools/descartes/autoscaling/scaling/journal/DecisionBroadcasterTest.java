@@ -0,0 +1,72 @@
+package tools.descartes.autoscaling.scaling.journal;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionBroadcasterTest {
+
+    private DecisionJournal createJournal(DecisionBroadcaster broadcaster) {
+        ScalingProperties scalingProperties = new ScalingProperties();
+        return new DecisionJournal(scalingProperties, broadcaster);
+    }
+
+    private DecisionBroadcaster createBroadcaster(int bufferSize) {
+        ScalingProperties scalingProperties = new ScalingProperties();
+        scalingProperties.getJournal().setStreamBufferSize(bufferSize);
+        return new DecisionBroadcaster(scalingProperties);
+    }
+
+    private void cycle(DecisionJournal journal, long time) {
+        DecisionTrace trace = journal.startTrace(time, "cycle");
+        trace.inputs(Collections.singletonList(Metric.of("cpu", 0.5, "app1")));
+        trace.commit();
+    }
+
+    @Test
+    public void givenNoSubscriber_whenStartingTrace_thenNothingIsTraced() {
+        DecisionJournal sut = createJournal(createBroadcaster(16));
+
+        assertSame(DecisionTrace.NONE, sut.startTrace(1000L, "cycle"));
+    }
+
+    @Test
+    public void givenBlockedSubscriber_whenPublishing_thenCyclesContinueAndOldestAreDropped() throws Exception {
+        DecisionBroadcaster broadcaster = createBroadcaster(16);
+        DecisionJournal sut = createJournal(broadcaster);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(1);
+        List<DecisionRecord> records = new CopyOnWriteArrayList<>();
+        Disposable subscription = broadcaster.stream("app1").subscribe(record -> {
+            records.add(record);
+            received.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        for (int time = 0; time < 1000; time++) {
+            cycle(sut, time);
+        }
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        blocked.countDown();
+        Thread.sleep(200);
+        subscription.dispose();
+
+        assertTrue(broadcaster.getDropped() > 0);
+        assertTrue(records.size() <= 18);
+        assertEquals(0L, records.get(0).getTime());
+        assertEquals(999L, records.get(records.size() - 1).getTime());
+    }
+}
@@ -0,0 +1,81 @@
+package tools.descartes.autoscaling.scaling.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.scaling.ScalingRequest;
+import tools.descartes.autoscaling.scaling.ScalingResponse;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private DecisionJournal createJournal(long maxFileBytes, int maxFiles) {
+        ScalingProperties scalingProperties = new ScalingProperties();
+        scalingProperties.getJournal().setEnabled(true);
+        scalingProperties.getJournal().setDirectory(directory.toString());
+        scalingProperties.getJournal().setMaxFileBytes(maxFileBytes);
+        scalingProperties.getJournal().setMaxFiles(maxFiles);
+        return new DecisionJournal(scalingProperties);
+    }
+
+    @Test
+    public void givenTracedCycle_whenQuerying_thenDecisionOfAppIsReturned() {
+        DecisionJournal sut = createJournal(1024 * 1024, 10);
+        DecisionTrace trace = sut.startTrace(1000L, "cycle");
+        trace.inputs(Arrays.asList(Metric.of("cpu", 0.9, "app1"), Metric.of("cpu", 0.1, "app2")));
+        trace.proposals("reactive", Collections.singletonList(new ScalingRequest("app1", 6)));
+        trace.proposals("proactive", Collections.singletonList(new ScalingRequest("app1", 3)));
+        trace.decided(Collections.singletonList(new ScalingRequest("app1", 6)),
+                Collections.singletonList(new ScalingRequest("app1", 4)), app -> 2);
+        trace.executed(new ScalingResponse(new ScalingRequest("app1", 4), true, null, 12));
+        trace.commit();
+        sut.close();
+
+        List<DecisionRecord> records = sut.query("app1", 0, 2000L, 10);
+
+        assertEquals(1, records.size());
+        DecisionRecord record = records.get(0);
+        assertEquals("cycle", record.getTrigger());
+        assertEquals(0.9, record.getInputs().get("cpu"), 0.0001);
+        assertEquals(6, (int) record.getProposals().get("reactive"));
+        assertEquals(3, (int) record.getProposals().get("proactive"));
+        assertEquals(6, (int) record.getMerged());
+        assertEquals(4, (int) record.getEnforced());
+        assertEquals("constrained", record.getConstraint());
+        assertEquals(2, (int) record.getInstances());
+        assertEquals("success", record.getExecution());
+        assertEquals(12L, (long) record.getLatencyMillis());
+        assertEquals(2, sut.query(null, 0, 2000L, 10).size());
+        assertTrue(sut.query("app1", 1001L, 2000L, 10).isEmpty());
+    }
+
+    @Test
+    public void givenSmallFiles_whenWritingManyCycles_thenFilesAreRotatedAndOldestDeleted() {
+        DecisionJournal sut = createJournal(200, 3);
+        for (int cycle = 0; cycle < 20; cycle++) {
+            DecisionTrace trace = sut.startTrace(cycle * 60_000L, "cycle");
+            trace.inputs(Collections.singletonList(Metric.of("cpu", cycle, "app1")));
+            trace.commit();
+        }
+        sut.close();
+
+        File[] files = directory.toFile().listFiles();
+        assertNotNull(files);
+        assertEquals(3, files.length);
+        List<DecisionRecord> newest = sut.query("app1", 0, Long.MAX_VALUE, 2);
+        assertEquals(2, newest.size());
+        assertEquals(18 * 60_000L, newest.get(0).getTime());
+        assertEquals(19 * 60_000L, newest.get(1).getTime());
+    }
+}
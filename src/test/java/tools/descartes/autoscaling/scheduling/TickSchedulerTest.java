@@ -0,0 +1,280 @@
+package tools.descartes.autoscaling.scheduling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickSchedulerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ManualScheduler scheduler;
+    private TickScheduler sut;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new ManualScheduler();
+        sut = new TickScheduler(meterRegistry, scheduler, scheduler::nanoTime);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.shutdown();
+    }
+
+    @Test
+    public void givenOverrunningTick_whenScheduling_thenPassedTicksAreSkippedInsteadOfBurst() {
+        AtomicInteger ticks = new AtomicInteger();
+        FixedRateTask task = sut.scheduleAtFixedRate("test", 100, TimeUnit.MILLISECONDS, () -> {
+            if (ticks.getAndIncrement() == 0) {
+                scheduler.elapse(250);
+            }
+        });
+        scheduler.runUntil(350);
+        task.stop();
+
+        TickStatistics statistics = sut.getStatistics("test");
+        assertEquals(1, statistics.getOverruns());
+        assertEquals(1, statistics.getSkippedTicks());
+        // tick 0 (overrun), tick 2 run late, tick 3 on time
+        assertEquals(3, ticks.get());
+        assertEquals(0, statistics.getLastLagMillis());
+        assertEquals(1.0, meterRegistry.get("autoscaler.scheduler.overruns").tag("task", "test")
+                .functionCounter().count(), 0.0001);
+    }
+
+    @Test
+    public void givenStoppedTask_whenStartingAgain_thenStatisticsAreKept() {
+        AtomicInteger ticks = new AtomicInteger();
+        FixedRateTask stopped = sut.scheduleAtFixedRate("test", 1, TimeUnit.HOURS, ticks::incrementAndGet);
+        scheduler.runUntil(0);
+        stopped.stop();
+        FixedRateTask task = sut.scheduleAtFixedRate("test", 1, TimeUnit.HOURS, ticks::incrementAndGet);
+        scheduler.runUntil(TimeUnit.MINUTES.toMillis(1));
+
+        assertFalse(stopped.isRunning());
+        assertTrue(task.isRunning());
+        assertEquals(2, ticks.get());
+        assertEquals(2, sut.getStatistics("test").getTicks());
+    }
+
+    @Test
+    public void givenWorker_whenScheduling_thenTicksRunOnWorkerOneAtATime() {
+        QueueWorker worker = new QueueWorker();
+        AtomicInteger ticks = new AtomicInteger();
+        FixedRateTask task = sut.scheduleAtFixedRate("test", 20, 50, TimeUnit.MILLISECONDS, () -> {
+            ticks.incrementAndGet();
+            scheduler.elapse(120);
+        }, worker);
+
+        scheduler.runUntil(400);
+
+        // the tick handed over at 20ms has not run yet, so no further tick is triggered
+        assertEquals(1, worker.pending());
+        assertEquals(0, ticks.get());
+
+        worker.runPending();
+        scheduler.runUntil(scheduler.nowMillis());
+
+        assertEquals(1, ticks.get());
+        assertEquals(1, worker.pending());
+        assertTrue(sut.getStatistics("test").getOverruns() > 0);
+        task.stop();
+    }
+
+    /**
+     * Runs the tasks of the tick scheduler on the test thread, time only passes when the test advances it
+     */
+    private static class ManualScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+        private final List<ManualFuture> scheduled = new ArrayList<>();
+        private long now;
+        private boolean shutdown;
+
+        long nanoTime() {
+            return now;
+        }
+
+        long nowMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(now);
+        }
+
+        /**
+         * Lets time pass without running due tasks, e.g. while a tick is running
+         */
+        void elapse(long millis) {
+            now += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        /**
+         * Runs all tasks which are due until the provided time, in order of their due time
+         */
+        void runUntil(long millis) {
+            long until = TimeUnit.MILLISECONDS.toNanos(millis);
+            while (true) {
+                scheduled.removeIf(ManualFuture::isDone);
+                ManualFuture first = scheduled.stream()
+                        .min(Comparator.comparingLong(future -> future.due))
+                        .orElse(null);
+                if (first == null || first.due > until) break;
+                scheduled.remove(first);
+                now = Math.max(now, first.due);
+                first.run();
+            }
+            now = Math.max(now, until);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            if (shutdown) throw new RejectedExecutionException();
+            ManualFuture future = new ManualFuture(command, now + unit.toNanos(delay));
+            scheduled.add(future);
+            return future;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            schedule(command, 0, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+                                                      TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+                                                         TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            scheduled.clear();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown();
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+
+        private class ManualFuture implements ScheduledFuture<Object> {
+            private final Runnable command;
+            private final long due;
+            private boolean cancelled;
+            private boolean done;
+
+            ManualFuture(Runnable command, long due) {
+                this.command = command;
+                this.due = due;
+            }
+
+            void run() {
+                done = true;
+                command.run();
+            }
+
+            @Override
+            public long getDelay(TimeUnit unit) {
+                return unit.convert(due - now, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public int compareTo(Delayed other) {
+                return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+            }
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                if (done) return false;
+                cancelled = true;
+                done = true;
+                return true;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled;
+            }
+
+            @Override
+            public boolean isDone() {
+                return done;
+            }
+
+            @Override
+            public Object get() {
+                return null;
+            }
+
+            @Override
+            public Object get(long timeout, TimeUnit unit) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A worker which queues the ticks until the test runs them
+     */
+    private static class QueueWorker implements Executor {
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        int pending() {
+            return queue.size();
+        }
+
+        void runPending() {
+            Runnable command;
+            while ((command = queue.poll()) != null) {
+                command.run();
+            }
+        }
+    }
+}
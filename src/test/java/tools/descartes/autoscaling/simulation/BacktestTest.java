@@ -0,0 +1,95 @@
+package tools.descartes.autoscaling.simulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import smile.data.DataFrame;
+import smile.data.vector.DoubleVector;
+import smile.data.vector.IntVector;
+import smile.data.vector.LongVector;
+import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.ScalingProperties;
+import tools.descartes.autoscaling.scaling.ReactiveScaler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktestTest {
+
+    private static final String APP = "app1";
+    private static final long MINUTE = 60_000;
+
+    private ScalingProperties scalingProperties;
+    private RulesProperties rulesProperties;
+
+    @BeforeEach
+    void setup() {
+        scalingProperties = new ScalingProperties();
+        scalingProperties.setTimeout(60);
+        scalingProperties.setInstances("instances");
+        ScalingProperties.ScalingDirectionProperties upscale = new ScalingProperties.ScalingDirectionProperties();
+        upscale.setLimit(5);
+        upscale.setTimeout(120);
+        scalingProperties.setUpscale(upscale);
+        ScalingProperties.ScalingDirectionProperties downscale = new ScalingProperties.ScalingDirectionProperties();
+        downscale.setLimit(1);
+        downscale.setTimeout(600);
+        scalingProperties.setDownscale(downscale);
+        ScalingProperties.KPIProperties kpi = new ScalingProperties.KPIProperties();
+        kpi.setName("response_time");
+        kpi.setSlo(1.0);
+        Map<String, List<ScalingProperties.KPIProperties>> kpis = new HashMap<>();
+        kpis.put(APP, Collections.singletonList(kpi));
+        scalingProperties.setKpis(kpis);
+        rulesProperties = new RulesProperties();
+        rulesProperties.setRules(new ArrayList<>());
+    }
+
+    @Test
+    public void givenNoScaling_whenReplayingOverload_thenSloIsViolatedThroughout() {
+        Backtest sut = new Backtest(scalingProperties, rulesProperties, 0, -1);
+
+        BacktestReport report = sut.run(Collections.singletonMap(APP, overloadTrace()),
+                (data, lastActions) -> new ArrayList<>());
+
+        assertEquals(61, report.getCycles());
+        assertEquals(61, report.getTotalSloViolationMinutes(), 0.001);
+        assertEquals(61 / 60.0, report.getTotalInstanceHours(), 0.001);
+        assertEquals(0, report.getTotalScalingActions());
+    }
+
+    @Test
+    public void givenReactiveScaler_whenReplayingOverload_thenInstancesAreAddedAndViolationEnds() {
+        Backtest sut = new Backtest(scalingProperties, rulesProperties, 2 * MINUTE, -1);
+        ReactiveScaler reactiveScaler = new ReactiveScaler(scalingProperties, sut.getInstanceManager());
+
+        BacktestReport report = sut.run(Collections.singletonMap(APP, overloadTrace()), reactiveScaler);
+
+        // the response time of 3s on one instance drops below the SLO once the new instances are running
+        assertEquals(1, report.getTotalScalingActions());
+        assertEquals(3, sut.getInstanceManager().getCountOf(APP));
+        assertEquals(2, report.getTotalSloViolationMinutes(), 0.001);
+        assertTrue(report.getTotalInstanceHours() > 2.9, report.toString());
+    }
+
+    /**
+     * One hour of a response time of three times the SLO, recorded on one instance
+     */
+    private static DataFrame overloadTrace() {
+        int rows = 61;
+        long[] times = new long[rows];
+        double[] responseTimes = new double[rows];
+        double[] instances = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            times[i] = 1_600_000_000_000L + i * MINUTE;
+            responseTimes[i] = 3.0;
+            instances[i] = 1;
+        }
+        return DataFrame.of(LongVector.of("time", times), IntVector.of("action", new int[rows]),
+                DoubleVector.of("response_time", responseTimes), DoubleVector.of("instances", instances));
+    }
+}
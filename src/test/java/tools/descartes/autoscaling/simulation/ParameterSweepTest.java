@@ -0,0 +1,141 @@
+package tools.descartes.autoscaling.simulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import smile.data.DataFrame;
+import smile.data.vector.DoubleVector;
+import smile.data.vector.IntVector;
+import smile.data.vector.LongVector;
+import tools.descartes.autoscaling.config.RulesProperties;
+import tools.descartes.autoscaling.config.ScalingProperties;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParameterSweepTest {
+
+    private static final String APP = "app1";
+    private static final long MINUTE = 60_000;
+
+    private ScalingProperties scalingProperties;
+    private RulesProperties rulesProperties;
+
+    @BeforeEach
+    void setup() {
+        scalingProperties = new ScalingProperties();
+        scalingProperties.setTimeout(60);
+        scalingProperties.setInstances("instances");
+        ScalingProperties.ScalingDirectionProperties upscale = new ScalingProperties.ScalingDirectionProperties();
+        upscale.setLimit(5);
+        upscale.setTimeout(120);
+        scalingProperties.setUpscale(upscale);
+        ScalingProperties.ScalingDirectionProperties downscale = new ScalingProperties.ScalingDirectionProperties();
+        downscale.setLimit(1);
+        downscale.setTimeout(600);
+        scalingProperties.setDownscale(downscale);
+        ScalingProperties.KPIProperties kpi = new ScalingProperties.KPIProperties();
+        kpi.setName("response_time");
+        kpi.setSlo(1.0);
+        Map<String, List<ScalingProperties.KPIProperties>> kpis = new HashMap<>();
+        kpis.put(APP, Collections.singletonList(kpi));
+        scalingProperties.setKpis(kpis);
+        rulesProperties = new RulesProperties();
+        rulesProperties.setRules(new ArrayList<>());
+    }
+
+    @Test
+    public void givenGrid_whenSweeping_thenAllCombinationsAreRankedByViolations() {
+        ParameterSweep sut = new ParameterSweep(scalingProperties, rulesProperties, 2 * MINUTE, -1,
+                ParameterSweep.SAFETY_AND_REACTIVE, 4);
+        Map<String, double[]> grid = new LinkedHashMap<>();
+        grid.put(ParameterSweep.UPSCALE_LIMIT, new double[]{1, 5});
+        grid.put(ParameterSweep.SLO_FACTOR, new double[]{1, 4});
+
+        List<SweepResult> results = sut.grid(Collections.singletonMap(APP, overloadTrace()), grid);
+
+        assertEquals(4, results.size());
+        // with four times the SLO nothing is scaled, but the violations are still counted against the base SLO
+        for (SweepResult result : results.subList(2, 4)) {
+            assertEquals(4, result.getParameters().get(ParameterSweep.SLO_FACTOR), 0.001);
+            assertTrue(result.getReport().getTotalSloViolationMinutes()
+                    > results.get(1).getReport().getTotalSloViolationMinutes(), results.toString());
+        }
+        // a higher upscale limit ends the violation sooner
+        assertEquals(1, results.get(0).getParameters().get(ParameterSweep.SLO_FACTOR), 0.001);
+        assertEquals(5, results.get(0).getParameters().get(ParameterSweep.UPSCALE_LIMIT), 0.001);
+        assertTrue(results.get(0).getReport().getTotalSloViolationMinutes()
+                < results.get(1).getReport().getTotalSloViolationMinutes(), results.toString());
+        // the base configuration is not modified
+        assertEquals(5, scalingProperties.getUpscale().getLimit());
+        assertEquals(1.0, scalingProperties.getKpis().get(APP).get(0).getSlo(), 0.001);
+    }
+
+    @Test
+    public void givenRanges_whenSweepingRandomly_thenSamplesAreWithinBounds() {
+        ParameterSweep sut = new ParameterSweep(scalingProperties, rulesProperties, 0, -1);
+        Map<String, double[]> bounds = new LinkedHashMap<>();
+        bounds.put(ParameterSweep.DOWNSCALE_TIMEOUT, new double[]{60, 600});
+        bounds.put(ParameterSweep.SAFETY_RATIO, new double[]{0.5, 1});
+
+        List<SweepResult> results = sut.random(Collections.singletonMap(APP, overloadTrace()), bounds, 6, 42);
+
+        assertEquals(6, results.size());
+        for (SweepResult result : results) {
+            double timeout = result.getParameters().get(ParameterSweep.DOWNSCALE_TIMEOUT);
+            double ratio = result.getParameters().get(ParameterSweep.SAFETY_RATIO);
+            assertTrue(timeout >= 60 && timeout <= 600 && timeout == Math.rint(timeout), result.toString());
+            assertTrue(ratio >= 0.5 && ratio <= 1, result.toString());
+        }
+    }
+
+    @Test
+    public void givenUnknownParameter_whenSweeping_thenExceptionIsThrown() {
+        ParameterSweep sut = new ParameterSweep(scalingProperties, rulesProperties, 0, -1);
+
+        assertThrows(IllegalArgumentException.class, () -> sut.grid(Collections.singletonMap(APP, overloadTrace()),
+                Collections.singletonMap("unknown", new double[]{1})));
+    }
+
+    @Test
+    public void givenRewardParameter_whenSweepingLogicWithoutReward_thenExceptionIsThrown() {
+        ParameterSweep sut = new ParameterSweep(scalingProperties, rulesProperties, 0, -1);
+
+        assertThrows(IllegalArgumentException.class, () -> sut.grid(Collections.singletonMap(APP, overloadTrace()),
+                Collections.singletonMap(ParameterSweep.REWARD_WEIGHT, new double[]{0.5, 1})));
+    }
+
+    @Test
+    public void givenRewardParameter_whenSweepingLogicWithReward_thenRewardIsConfigured() {
+        List<Double> weights = Collections.synchronizedList(new ArrayList<>());
+        ParameterSweep sut = new ParameterSweep(scalingProperties, rulesProperties, 0, -1,
+                (properties, rewardFunction, manager) -> {
+                    assertNotNull(rewardFunction);
+                    weights.add(properties.getReward().getWeight());
+                    return (data, lastActions) -> Collections.emptyList();
+                }, 1);
+
+        List<SweepResult> results = sut.grid(Collections.singletonMap(APP, overloadTrace()),
+                Collections.singletonMap(ParameterSweep.REWARD_WEIGHT, new double[]{0.5, 1}));
+
+        assertEquals(2, results.size());
+        assertTrue(weights.contains(0.5) && weights.contains(1.0), weights.toString());
+    }
+
+    /**
+     * One hour of a response time of three times the SLO, recorded on one instance
+     */
+    private static DataFrame overloadTrace() {
+        int rows = 61;
+        long[] times = new long[rows];
+        double[] responseTimes = new double[rows];
+        double[] instances = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            times[i] = 1_600_000_000_000L + i * MINUTE;
+            responseTimes[i] = 3.0;
+            instances[i] = 1;
+        }
+        return DataFrame.of(LongVector.of("time", times), IntVector.of("action", new int[rows]),
+                DoubleVector.of("response_time", responseTimes), DoubleVector.of("instances", instances));
+    }
+}
@@ -0,0 +1,81 @@
+package tools.descartes.autoscaling.simulation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.RewritableMetric;
+import tools.descartes.autoscaling.metrics.prometheus.PrometheusConnector;
+import tools.descartes.autoscaling.metrics.prometheus.SimpleMetricAggregator;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrometheusApiStubTest {
+
+    private SimulatedCloudFoundry cloudFoundry;
+    private PrometheusApiStub stub;
+    private PrometheusConnector sut;
+
+    @BeforeEach
+    void setup() throws Exception {
+        cloudFoundry = new SimulatedCloudFoundry(Clock.systemUTC(), 0);
+        cloudFoundry.createApps("app", 5, 2);
+        // a constant load of 40 requests per second
+        Workload workload = new Workload(Workload.Shape.STEP, 40, 40, 60_000);
+        stub = new PrometheusApiStub(cloudFoundry, workload, 3, "instances", 25, 0.05, 15_000, 0, 0);
+        stub.start();
+        sut = new PrometheusConnector(stub.getBaseUrl(), new SimpleMetricAggregator(".*", "^$"), 4);
+    }
+
+    @AfterEach
+    void teardown() {
+        stub.stop();
+    }
+
+    @Test
+    public void givenSyntheticMetrics_whenGettingMetricNames_thenAllMetricsAreListed() {
+        List<String> names = sut.getAllMetricNames();
+
+        assertEquals(7, names.size());
+        assertTrue(names.containsAll(Arrays.asList("cpu_utilization", "instances", "synthetic_metric_2")));
+    }
+
+    @Test
+    public void givenMoreInstances_whenQueryingUtilization_thenLoadIsSpreadOverThem() {
+        double before = utilizationOf("app1");
+        cloudFoundry.scale("app1", 4);
+        double after = utilizationOf("app1");
+
+        assertEquals(0.8, before, 0.05);
+        assertEquals(0.4, after, 0.05);
+    }
+
+    @Test
+    public void givenAppFilter_whenQueryingMetric_thenOnlyFilteredAppsAreReturned() {
+        List<Metric> metrics = sut.getAveragedValuesForMetric("instances", 60, Arrays.asList("app0", "app3"));
+
+        assertEquals(2, metrics.size());
+        for (Metric metric : metrics) {
+            assertTrue(metric.getApp().equals("app0") || metric.getApp().equals("app3"));
+            assertEquals(2, metric.getValue(), 0.0001);
+        }
+    }
+
+    @Test
+    public void givenKpiQuery_whenGettingSingleMetric_thenCurrentValueIsReturned() {
+        RewritableMetric responseTime = sut.getSingleMetric("avg(response_time_seconds{app=\"app2\"})");
+
+        // 0.05s service time at 80% utilization
+        assertEquals(0.25, responseTime.getValue(), 0.05);
+    }
+
+    private double utilizationOf(String app) {
+        List<Metric> metrics = sut.getAveragedValuesForMetric("cpu_utilization", 60, Arrays.asList(app));
+        assertEquals(1, metrics.size());
+        return metrics.get(0).getValue();
+    }
+}
@@ -0,0 +1,95 @@
+package tools.descartes.autoscaling.simulation;
+
+import org.junit.jupiter.api.Test;
+import tools.descartes.autoscaling.cloudfoundry.CFConnector;
+import tools.descartes.autoscaling.cloudfoundry.InstanceState;
+import tools.descartes.autoscaling.cloudfoundry.LibCFConnector;
+import tools.descartes.autoscaling.config.CloudFoundryProperties;
+import tools.descartes.autoscaling.config.SimulationProperties;
+import tools.descartes.autoscaling.scaling.ScalingRequest;
+import tools.descartes.autoscaling.scaling.ScalingResponse;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedCFConnectorTest {
+
+    @Test
+    public void givenStartupDelay_whenScalingUp_thenNewInstancesAreStarting() {
+        SimulatedCloudFoundry cloudFoundry = new SimulatedCloudFoundry(Clock.systemUTC(), 0);
+        cloudFoundry.createApps("app", 3, 2);
+        cloudFoundry.setStartupDelayMillis(60_000);
+        SimulatedCFConnector sut = new SimulatedCFConnector(cloudFoundry, Collections.emptyMap());
+
+        ScalingResponse response = sut.scaleApp(new ScalingRequest("app1", 5));
+
+        assertTrue(response.isSuccess());
+        assertEquals(5, (int) sut.getAppInstances().get("app1"));
+        InstanceState state = sut.getInstanceStates().get("app1");
+        assertEquals(2, state.getRunning());
+        assertEquals(3, state.getStarting());
+        assertTrue(state.isWarmingUp());
+    }
+
+    @Test
+    public void givenFailureRate_whenScalingApps_thenFailedRequestsDoNotScale() {
+        SimulatedCloudFoundry cloudFoundry = new SimulatedCloudFoundry(Clock.systemUTC(), 42);
+        cloudFoundry.createApps("app", 100, 1);
+        cloudFoundry.setFailureRate(0.5);
+        cloudFoundry.setLatencyMillis(20);
+        SimulatedCFConnector sut = new SimulatedCFConnector(cloudFoundry, Collections.emptyMap());
+        List<ScalingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            requests.add(new ScalingRequest("app" + i, 2));
+        }
+
+        List<ScalingResponse> responses = sut.scaleApps(requests, 100).collectList().block();
+
+        int failed = 0;
+        for (ScalingResponse response : responses) {
+            int expected = response.isSuccess() ? 2 : 1;
+            assertEquals(expected, cloudFoundry.getApp(response.getRequest().getApp()).getDesired());
+            if (!response.isSuccess()) failed++;
+        }
+        assertTrue(failed > 20 && failed < 80, failed + " failed");
+    }
+
+    @Test
+    public void givenApiStub_whenUsingLibCFConnector_thenAppsAreListedAndScaled() {
+        SimulationProperties simulationProperties = new SimulationProperties();
+        simulationProperties.getCloudfoundry().setEnabled(true);
+        simulationProperties.getCloudfoundry().setHttp(true);
+        // more apps than fit on one page
+        simulationProperties.getCloudfoundry().setApps(150);
+        CloudFoundryProperties properties = new CloudFoundryProperties();
+        properties.setOrganization("org");
+        properties.setSpace("space");
+        properties.setUser("user");
+        properties.setPassword("password");
+        properties.setIncludeappregex("app");
+        properties.setExcludeappregex("^$");
+        CloudFoundrySimulation simulation = new CloudFoundrySimulation(simulationProperties, properties);
+        try {
+            SimulatedCloudFoundry cloudFoundry = simulation.getCloudFoundry();
+            cloudFoundry.crash("app3", 1);
+            CFConnector sut = new LibCFConnector(simulation.stubProperties(properties), Collections.emptyMap());
+
+            Map<String, Integer> instances = sut.getAppInstances();
+            ScalingResponse response = sut.scaleApp(new ScalingRequest("app7", 3));
+            Map<String, InstanceState> states = sut.getInstanceStates();
+
+            assertEquals(150, instances.size());
+            assertTrue(response.isSuccess());
+            assertEquals(3, cloudFoundry.getApp("app7").getDesired());
+            assertEquals(3, states.get("app7").getRunning());
+            assertEquals(1, states.get("app3").getCrashed());
+        } finally {
+            simulation.shutdown();
+        }
+    }
+}
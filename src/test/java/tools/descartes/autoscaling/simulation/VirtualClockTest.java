@@ -0,0 +1,56 @@
+package tools.descartes.autoscaling.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualClockTest {
+
+    @Test
+    public void givenUTC_whenChangingZone_thenClockIsReturned() {
+        VirtualClock sut = new VirtualClock(0);
+
+        assertSame(sut, sut.withZone(ZoneOffset.UTC));
+    }
+
+    @Test
+    public void givenOtherZone_whenAdvancing_thenZonedViewSharesTheInstant() {
+        VirtualClock sut = new VirtualClock(0);
+        ZoneId zone = ZoneId.of("Europe/Berlin");
+
+        Clock zoned = sut.withZone(zone);
+        sut.advance(Duration.ofHours(1));
+
+        assertEquals(zone, zoned.getZone());
+        assertEquals(sut.instant(), zoned.instant());
+        assertEquals(LocalDateTime.of(1970, 1, 1, 2, 0), LocalDateTime.now(zoned));
+        assertSame(sut, zoned.withZone(ZoneOffset.UTC));
+    }
+
+    @Test
+    public void givenConcurrentAdvances_whenAdvancing_thenNoAdvanceIsLost() throws Exception {
+        VirtualClock sut = new VirtualClock(0);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    sut.advance(Duration.ofMillis(1));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, sut.millis());
+    }
+}
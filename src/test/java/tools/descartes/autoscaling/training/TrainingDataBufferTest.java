@@ -0,0 +1,126 @@
+package tools.descartes.autoscaling.training;
+
+import org.junit.jupiter.api.Test;
+import smile.data.DataFrame;
+import smile.data.vector.DoubleVector;
+import smile.data.vector.LongVector;
+import tools.descartes.autoscaling.training.io.IncrementalTrainingDataImporter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrainingDataBufferTest {
+
+    private static DataFrame rows(String metric, long... times) {
+        double[] values = new double[times.length];
+        for (int i = 0; i < times.length; i++) {
+            values[i] = times[i];
+        }
+        return DataFrame.of(LongVector.of("time", times), DoubleVector.of(metric, values));
+    }
+
+    @Test
+    public void givenAppendedRows_whenGettingData_thenRowsAreMergedInOrder() {
+        TrainingDataBuffer sut = new TrainingDataBuffer(-1);
+        sut.append(rows("cpu", 1, 2));
+        sut.append(rows("cpu", 3));
+        sut.append(rows("cpu", 4, 5));
+
+        DataFrame actual = sut.getData();
+
+        assertEquals(5, actual.nrows());
+        assertEquals(5L, sut.getWatermark());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1L, actual.column("time").getLong(i));
+        }
+        assertSame(actual, sut.getData());
+    }
+
+    @Test
+    public void givenNewMetric_whenGettingData_thenMissingValuesAreFilled() {
+        TrainingDataBuffer sut = new TrainingDataBuffer(-1);
+        sut.append(rows("cpu", 1));
+        sut.getData();
+        sut.append(rows("memory", 2));
+
+        DataFrame actual = sut.getData();
+
+        assertEquals(2, actual.nrows());
+        assertEquals(-1, actual.column("memory").getDouble(0), 0.001);
+        assertEquals(-1, actual.column("cpu").getDouble(1), 0.001);
+    }
+
+    @Test
+    public void givenOldRows_whenEvicting_thenOnlyNewerRowsAreKept() {
+        TrainingDataBuffer sut = new TrainingDataBuffer(-1);
+        sut.append(rows("cpu", 1, 2));
+        sut.getData();
+        sut.append(rows("cpu", 3, 4));
+
+        sut.evictBefore(3);
+
+        DataFrame actual = sut.getData();
+        assertEquals(2, actual.nrows());
+        assertEquals(3L, actual.column("time").getLong(0));
+
+        sut.evictBefore(5);
+
+        assertTrue(sut.isEmpty());
+        assertNull(sut.getData());
+    }
+
+    @Test
+    public void givenImportedRows_whenRefreshing_thenOnlyRowsAfterWatermarkAreImported() {
+        TrainingDataBuffer sut = new TrainingDataBuffer(-1);
+        StubImporter importer = new StubImporter(rows("cpu", 10, 20));
+
+        DataFrame first = sut.refresh(importer, "app1", 0);
+        importer.after = rows("cpu", 30);
+        DataFrame second = sut.refresh(importer, "app1", 15);
+
+        assertEquals(2, first.nrows());
+        assertEquals(1, importer.fullImports);
+        assertEquals(1, importer.watermarks.size());
+        assertEquals(20L, (long) importer.watermarks.get(0));
+        assertEquals(2, second.nrows());
+        assertEquals(20L, second.column("time").getLong(0));
+        assertEquals(30L, second.column("time").getLong(1));
+    }
+
+    @Test
+    public void givenAllRowsEvicted_whenRefreshing_thenAllRowsAreImportedAgain() {
+        TrainingDataBuffer sut = new TrainingDataBuffer(-1);
+        StubImporter importer = new StubImporter(rows("cpu", 10, 20));
+        sut.refresh(importer, "app1", 0);
+
+        assertNull(sut.refresh(importer, "app1", 100));
+        sut.refresh(importer, "app1", 0);
+
+        assertEquals(2, importer.fullImports);
+    }
+
+    private static class StubImporter implements IncrementalTrainingDataImporter {
+        private final DataFrame all;
+        private DataFrame after;
+        private int fullImports;
+        private final List<Long> watermarks = new ArrayList<>();
+
+        StubImporter(DataFrame all) {
+            this.all = all;
+        }
+
+        @Override
+        public DataFrame getTrainingDataForApp(String app) {
+            fullImports++;
+            return all;
+        }
+
+        @Override
+        public DataFrame getTrainingDataForAppAfter(String app, long watermark) {
+            watermarks.add(watermark);
+            return after;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package tools.descartes.autoscaling.training.io.arrow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import smile.data.DataFrame;
+import smile.io.Read;
+import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrowTrainingDataExporterTest {
+
+    private static final String APP = "app0";
+    private static final long SEGMENT_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @TempDir
+    Path directory;
+
+    private ArrowTrainingDataExporter createExporter() {
+        TrainingProperties.ExportProperties exportProperties = new TrainingProperties.ExportProperties();
+        exportProperties.setDirectory(directory.toString());
+        exportProperties.setSegmentDurationSeconds((int) TimeUnit.MILLISECONDS.toSeconds(SEGMENT_MILLIS));
+        exportProperties.setFlushMaxRows(1000);
+        exportProperties.setFlushIntervalSeconds(3600);
+        return new ArrowTrainingDataExporter(new MissingValueStrategyWrapper(), exportProperties);
+    }
+
+    @Test
+    public void givenRestartWithinSegment_whenImporting_thenRowsOfBothRunsAreReturned() throws Exception {
+        long now = System.currentTimeMillis();
+        long start = now - Math.floorMod(now, SEGMENT_MILLIS);
+        ArrowTrainingDataExporter first = createExporter();
+        first.commitActions(start, Arrays.asList(Metric.of("metric0", 1.0, APP), Metric.of("metric1", 2.0, APP)),
+                Collections.singletonMap(APP, 1));
+        first.commitActions(start + 1, Collections.singletonList(Metric.of("metric0", 3.0, APP)),
+                Collections.emptyMap());
+        first.close();
+        // the restarted exporter writes to the same segment
+        ArrowTrainingDataExporter second = createExporter();
+        second.commitActions(start + 2, Collections.singletonList(Metric.of("metric0", 4.0, APP)),
+                Collections.singletonMap(APP, -1));
+        second.close();
+
+        DataFrame result = new ArrowTrainingDataImporter(Collections.singletonList(directory.toString()),
+                new MissingValueStrategyWrapper().getDefaultStrategy(), 1).getTrainingDataForApp(APP);
+
+        assertNotNull(result);
+        assertEquals(3, result.nrows());
+        assertEquals(start, result.getLong(0, "time"));
+        assertEquals(1, result.getInt(0, "action"));
+        assertEquals(2.0, result.getDouble(0, "metric1"), 0.0001);
+        assertEquals(3.0, result.getDouble(1, "metric0"), 0.0001);
+        assertEquals(-1, result.getInt(2, "action"));
+        assertEquals(4.0, result.getDouble(2, "metric0"), 0.0001);
+        assertTrue(directory.resolve(ArrowTrainingDataExporter.fileName(APP, ArrowTrainingDataExporter.ACTIONS,
+                start, 0)).toFile().exists());
+        assertTrue(directory.resolve(ArrowTrainingDataExporter.fileName(APP, ArrowTrainingDataExporter.ACTIONS,
+                start, 1)).toFile().exists());
+    }
+
+    @Test
+    public void givenBufferedRows_whenFlushing_thenRowsAreWrittenWithoutNewCommits() throws Exception {
+        ArrowTrainingDataExporter sut = createExporter();
+        sut.commitMeasurements(1000L, Collections.singletonList(Metric.of("metric0", 1.0, APP)));
+        File file = directory.resolve(ArrowTrainingDataExporter.fileName(APP, ArrowTrainingDataExporter.MEASUREMENTS,
+                0, 0)).toFile();
+        assertFalse(file.exists());
+
+        sut.flush();
+
+        assertEquals(1, Read.arrow(file.toPath()).nrows());
+        sut.close();
+    }
+
+    @Test
+    public void givenMeasurements_whenClosing_thenMeasurementsAreWrittenWithoutActions() throws Exception {
+        ArrowTrainingDataExporter sut = createExporter();
+        sut.commitMeasurements(1000L, Collections.singletonList(Metric.of("metric0", 1.0, APP)));
+        sut.close();
+
+        File file = directory.resolve(ArrowTrainingDataExporter.fileName(APP, ArrowTrainingDataExporter.MEASUREMENTS,
+                0, 0)).toFile();
+        DataFrame measurements = Read.arrow(file.toPath());
+        assertEquals(1, measurements.nrows());
+        assertEquals(Arrays.asList("time", "metric0"), Arrays.asList(measurements.names()));
+    }
+}
@@ -0,0 +1,126 @@
+package tools.descartes.autoscaling.training.io.csv;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import smile.data.DataFrame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSVFrameCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final CSVFrameCache sut = new CSVFrameCache(2);
+
+    @Test
+    public void givenUnchangedFile_whenLoading_thenCachedFrameIsReturned() throws IOException {
+        File file = write("time,action,metric0\n1000,1,1.5\n2000,0,2.5\n");
+
+        DataFrame first = sut.load(file);
+        DataFrame second = sut.load(file);
+
+        assertSame(first, second);
+        assertEquals(2, first.nrows());
+    }
+
+    @Test
+    public void givenAppendedRows_whenLoading_thenTailIsAppended() throws IOException {
+        File file = write("time,action,metric0\n1000,1,1.5\n");
+        sut.load(file);
+
+        append(file, "2000,0,2.5\n3000,-1,3.5\n");
+        DataFrame frame = sut.load(file);
+
+        assertEquals(3, frame.nrows());
+        assertArrayEquals(new double[]{1.5, 2.5, 3.5}, frame.column("metric0").toDoubleArray(), 0.0001);
+        assertEquals(-1, frame.getInt(2, 1));
+    }
+
+    @Test
+    public void givenPartiallyWrittenLine_whenFileGrows_thenLineIsParsedAgain() throws IOException {
+        File file = write("time,action,metric0\n1000,1,1.5\n2000,0,2.");
+        assertEquals(2, sut.load(file).nrows());
+
+        append(file, "75\n");
+        DataFrame frame = sut.load(file);
+
+        assertEquals(2, frame.nrows());
+        assertEquals(2.75, frame.getDouble(1, 2), 0.0001);
+    }
+
+    @Test
+    public void givenLookback_whenLoading_thenOlderRowsAreDroppedAndAppendedRowsKept() throws IOException {
+        File file = write("time,action,metric0\n1000,1,1.5\n2000,0,2.5\n3000,0,3.5\n");
+        assertEquals(2, sut.load(file, 2000).nrows());
+
+        append(file, "4000,-1,4.5\n");
+        DataFrame frame = sut.load(file, 3500);
+
+        assertEquals(1, frame.nrows());
+        assertEquals(4000, frame.getLong(0, 0));
+        assertEquals(-1, frame.getInt(0, 1));
+    }
+
+    @Test
+    public void givenOnlyOutdatedRows_whenLoading_thenNullIsReturnedAndAppendedRowsAreParsed() throws IOException {
+        File file = write("time,action,metric0\n1000,1,1.5\n2000,0,2.");
+        assertNull(sut.load(file, 5000));
+
+        append(file, "75\n6000,1,6.5\n");
+        DataFrame frame = sut.load(file, 5000);
+
+        assertEquals(1, frame.nrows());
+        assertEquals(6.5, frame.getDouble(0, 2), 0.0001);
+    }
+
+    @Test
+    public void givenMoreFilesThanCapacity_whenLoading_thenLeastRecentlyLoadedFileIsEvicted() throws IOException {
+        File first = write("app0_actions.csv", "time,action,metric0\n1000,1,1.5\n");
+        File second = write("app1_actions.csv", "time,action,metric0\n1000,1,1.5\n");
+        File third = write("app2_actions.csv", "time,action,metric0\n1000,1,1.5\n");
+        DataFrame firstFrame = sut.load(first);
+        DataFrame secondFrame = sut.load(second);
+        sut.load(first);
+
+        sut.load(third);
+
+        assertEquals(2, sut.size());
+        assertSame(firstFrame, sut.load(first));
+        assertNotSame(secondFrame, sut.load(second));
+    }
+
+    @Test
+    public void givenDeletedFile_whenEvictingMissing_thenFrameIsDropped() throws IOException {
+        File file = write("time,action,metric0\n1000,1,1.5\n");
+        sut.load(file);
+
+        Files.delete(file.toPath());
+        sut.evictMissing();
+
+        assertEquals(0, sut.size());
+    }
+
+    private File write(String content) throws IOException {
+        return write("app0_actions.csv", content);
+    }
+
+    private File write(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    private void append(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        // make sure the change is visible even on file systems with coarse modification times
+        file.setLastModified(file.lastModified() + 1000);
+    }
+}
@@ -0,0 +1,94 @@
+package tools.descartes.autoscaling.training.io.csv;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import smile.data.DataFrame;
+import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSVTrainingDataExporterTest {
+
+    private static final String APP = "app0";
+
+    @TempDir
+    Path directory;
+
+    private CSVTrainingDataExporter sut;
+
+    @BeforeEach
+    void setup() {
+        TrainingProperties.ExportProperties exportProperties = new TrainingProperties.ExportProperties();
+        exportProperties.setDirectory(directory.toString());
+        exportProperties.setFlushMaxRows(1000);
+        exportProperties.setFlushIntervalSeconds(3600);
+        sut = new CSVTrainingDataExporter(new MissingValueStrategyWrapper(), exportProperties);
+    }
+
+    @Test
+    public void givenActions_whenClosing_thenBufferedLinesAreWritten() throws IOException {
+        sut.commitActions(1000L, Arrays.asList(Metric.of("metric0", 1.0, APP), Metric.of("metric1", 2.0, APP)),
+                Collections.singletonMap(APP, 1));
+        sut.commitActions(2000L, Collections.singletonList(Metric.of("metric1", 3.0, APP)),
+                Collections.emptyMap());
+        sut.close();
+
+        List<String> lines = Files.readAllLines(directory.resolve(APP + "_actions.csv"));
+        assertEquals(Arrays.asList("time,action,metric0,metric1", "1000,1,1.0,2.0", "2000,0,-1.0,3.0"), lines);
+    }
+
+    @Test
+    public void givenBufferedLines_whenFlushing_thenLinesAreWrittenWithoutNewCommits() throws IOException {
+        sut.commitMeasurements(1000L, Collections.singletonList(Metric.of("metric0", 1.0, APP)));
+        sut.commitMeasurements(2000L, Collections.singletonList(Metric.of("metric0", 2.0, APP)));
+        assertEquals(Collections.singletonList("time,metric0"), Files.readAllLines(directory.resolve(APP + ".csv")));
+
+        sut.flush();
+
+        assertEquals(Arrays.asList("time,metric0", "1000,1.0", "2000,2.0"),
+                Files.readAllLines(directory.resolve(APP + ".csv")));
+        sut.close();
+    }
+
+    @Test
+    public void givenNewMetric_whenCommitting_thenNewSegmentWithExtendedHeader() throws IOException {
+        sut.commitActions(1000L, Collections.singletonList(Metric.of("metric0", 1.0, APP)),
+                Collections.singletonMap(APP, 0));
+        sut.commitActions(2000L, Arrays.asList(Metric.of("metric0", 2.0, APP), Metric.of("metric1", 5.0, APP)),
+                Collections.singletonMap(APP, -1));
+        sut.close();
+
+        assertEquals(Arrays.asList("time,action,metric0", "1000,0,1.0"),
+                Files.readAllLines(directory.resolve(APP + "_actions.csv")));
+        assertEquals(Arrays.asList("time,action,metric0,metric1", "2000,-1,2.0,5.0"),
+                Files.readAllLines(directory.resolve(APP + "_actions.1.csv")));
+
+        DataFrame imported = new CSVTrainingDataImporter(Collections.singletonList(directory.toString()))
+                .getTrainingDataForApp(APP);
+        assertEquals(2, imported.nrows());
+        assertArrayEquals(new String[]{"time", "action", "metric0", "metric1"}, imported.names());
+        assertArrayEquals(new double[]{-1.0, 5.0}, imported.column("metric1").toDoubleArray(), 0.0001);
+    }
+
+    @Test
+    public void givenExistingFile_whenCommitting_thenFileIsNotOverwritten() throws IOException {
+        Files.write(directory.resolve(APP + ".csv"), Arrays.asList("time,metric0", "1,1.0"));
+
+        sut.commitMeasurements(1000L, Collections.singletonList(Metric.of("metric0", 2.0, APP)));
+        sut.close();
+
+        assertEquals(Arrays.asList("time,metric0", "1,1.0"), Files.readAllLines(directory.resolve(APP + ".csv")));
+        assertEquals(Arrays.asList("time,metric0", "1000,2.0"),
+                Files.readAllLines(directory.resolve(APP + ".1.csv")));
+    }
+}
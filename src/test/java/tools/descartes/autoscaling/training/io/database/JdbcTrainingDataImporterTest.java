@@ -89,6 +89,19 @@ class JdbcTrainingDataImporterTest {
                 .containsExactly(new double[]{-1.0, -1.0, 4.0, -1.0, -1.0}, Offset.offset(0.0001));
     }
 
+    @Test
+    public void givenNewMeasurements_whenGettingTrainingDataAfterWatermark_thenOnlyNewRowsAreQueried() {
+        long watermark = JdbcTrainingDataExporter.localDateTimeToSystemTimeMillis(NOW.minusMinutes(3));
+        when(measurementJdbcRepositoryMock.measurementsAfter(APP, NOW.minusMinutes(3)))
+                .thenReturn(createEntityList().subList(3, 5));
+
+        DataFrame actual = sut.getTrainingDataForAppAfter(APP, watermark);
+
+        assertThat(actual.nrows()).isEqualTo(2);
+        assertThat(actual.names()).containsExactly("time", "action", "metric0", "metric1");
+        assertThat(actual.column(1).toIntArray()).containsExactly(1, 0);
+    }
+
     private List<MeasurementJdbcEntity> createEntityList() {
         List<MeasurementJdbcEntity> entites = new ArrayList<>();
         entites.add(new MeasurementJdbcEntity(NOW.minusMinutes(5), APP,
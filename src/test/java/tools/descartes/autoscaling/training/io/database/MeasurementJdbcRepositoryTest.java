@@ -76,6 +76,22 @@ class MeasurementJdbcRepositoryTest {
         assertThat(actual.get(1)).isEqualToComparingFieldByField(givenMeasurements.get(1));
     }
 
+    @Test
+    public void givenMeasurements_whenGettingMeasurementsAfter_thenMeasurementsAtWatermarkAreExcluded() {
+        List<MeasurementJdbcEntity> givenMeasurements = Arrays.asList(
+                new MeasurementJdbcEntity(TIME_NOW.minusNanos(1000), APP, "asdf", 0),
+                new MeasurementJdbcEntity(TIME_NOW, APP, "asdf", -1),
+                new MeasurementJdbcEntity(TIME_NOW.plusNanos(1000), APP, "asdf", 0),
+                new MeasurementJdbcEntity(TIME_NOW.plusNanos(1000), "wrongApp", "asdf", 0)
+        );
+        sut.insert(givenMeasurements);
+
+        List<MeasurementJdbcEntity> actual = sut.measurementsAfter(APP, TIME_NOW);
+
+        assertEquals(1, actual.size());
+        assertThat(actual.get(0)).isEqualToComparingFieldByField(givenMeasurements.get(2));
+    }
+
     @Test
     public void givenMeasurements_whenDeletingMeasurementsBefore_thenMeasurementsBeforeAreDeleted() {
         List<MeasurementJdbcEntity> givenMeasurements = Arrays.asList(
@@ -0,0 +1,69 @@
+package tools.descartes.autoscaling.training.io.mapped;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import smile.data.DataFrame;
+import tools.descartes.autoscaling.metrics.Metric;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedMeasurementLogTest {
+
+    private static final String APP = "app0";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenNewMetric_whenReading_thenColumnsAreAligned() throws IOException {
+        MappedMeasurementLog sut = new MappedMeasurementLog(APP, directory, 10, -1);
+        sut.append(1000L, 1, Collections.singletonList(Metric.of("metric0", 1.0, APP)));
+        sut.append(2000L, 0, Arrays.asList(Metric.of("metric0", 2.0, APP), Metric.of("metric1", 5.0, APP)));
+
+        DataFrame dataFrame = sut.read(0L);
+
+        assertTrue(Files.exists(directory.resolve(MappedMeasurementLog.fileName(APP, 1))));
+        assertArrayEquals(new String[]{"time", "action", "metric0", "metric1"}, dataFrame.names());
+        assertArrayEquals(new long[]{1000L, 2000L}, dataFrame.longVector("time").array());
+        assertArrayEquals(new int[]{1, 0}, dataFrame.column("action").toIntArray());
+        assertArrayEquals(new double[]{-1.0, 5.0}, dataFrame.column("metric1").toDoubleArray(), 0.0001);
+    }
+
+    @Test
+    public void givenManyRecords_whenReadingSince_thenOnlyNewerRecordsAreReturned() throws IOException {
+        MappedMeasurementLog sut = new MappedMeasurementLog(APP, directory, 100, -1);
+        for (int i = 0; i < 250; i++) {
+            sut.append(i * 10L, 0, Collections.singletonList(Metric.of("metric0", i, APP)));
+        }
+
+        DataFrame dataFrame = sut.read(1995L);
+
+        assertEquals(50, dataFrame.nrows());
+        assertEquals(2000L, dataFrame.longVector("time").array()[0]);
+        assertNull(sut.read(5000L));
+    }
+
+    @Test
+    public void givenExistingSegments_whenReopening_thenRecordsAreReadAndOldSegmentsDeleted() throws IOException {
+        MappedMeasurementLog written = new MappedMeasurementLog(APP, directory, 2, -1);
+        for (int i = 0; i < 5; i++) {
+            written.append(i * 10L, i, Collections.singletonList(Metric.of("metric0", i, APP)));
+        }
+        written.force();
+
+        MappedMeasurementLog sut = new MappedMeasurementLog(APP, directory, 2, -1);
+        assertEquals(5, sut.read(0L).nrows());
+
+        sut.append(50L, 0, Collections.singletonList(Metric.of("metric0", 5.0, APP)));
+        assertTrue(Files.exists(directory.resolve(MappedMeasurementLog.fileName(APP, 3))));
+        assertEquals(2, sut.deleteSegmentsBefore(35L));
+        assertFalse(Files.exists(directory.resolve(MappedMeasurementLog.fileName(APP, 0))));
+        assertArrayEquals(new long[]{40L, 50L}, sut.read(0L).longVector("time").array());
+    }
+}
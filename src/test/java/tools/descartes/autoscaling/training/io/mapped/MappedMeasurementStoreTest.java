@@ -0,0 +1,44 @@
+package tools.descartes.autoscaling.training.io.mapped;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.descartes.autoscaling.config.TrainingProperties;
+import tools.descartes.autoscaling.metrics.Metric;
+import tools.descartes.autoscaling.metrics.missing.MissingValueStrategyWrapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedMeasurementStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenSegmentsOfUnopenedApps_whenDeletingSegments_thenOutdatedSegmentsOfAllAppsAreDeleted()
+            throws IOException {
+        // written before a restart, the removed app is never opened again
+        for (String app : new String[]{"app0", "removed_app"}) {
+            MappedMeasurementLog log = new MappedMeasurementLog(app, directory, 2, -1);
+            for (int i = 0; i < 4; i++) {
+                log.append(i * 10L, 0, Collections.singletonList(Metric.of("metric0", i, app)));
+            }
+            log.force();
+        }
+        TrainingProperties trainingProperties = new TrainingProperties();
+        trainingProperties.getExporter().setDirectory(directory.toString());
+        trainingProperties.getExporter().setMappedSegmentRecords(2);
+        MappedMeasurementStore sut = new MappedMeasurementStore(trainingProperties, new MissingValueStrategyWrapper());
+        assertEquals(4, sut.read("app0", 0L).nrows());
+
+        assertEquals(2, sut.deleteSegmentsBefore(25L));
+
+        assertFalse(Files.exists(directory.resolve(MappedMeasurementLog.fileName("app0", 0))));
+        assertFalse(Files.exists(directory.resolve(MappedMeasurementLog.fileName("removed_app", 0))));
+        assertTrue(Files.exists(directory.resolve(MappedMeasurementLog.fileName("removed_app", 1))));
+    }
+}